@@ -0,0 +1,84 @@
+package com.campus.facility_reservation.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of turning a bearer token into (user id, role).
+ *
+ * legacyThreeParses is what JwtAuthenticationFilter used to do: validateToken, getUserIdFromToken
+ * and getRoleFromToken, each re-deriving the key from the string secret and verifying the HS512
+ * signature again. singleParse is one verification with the shared parser, and cachedClaims is a
+ * token already in the verified-claims cache.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=JwtAuthenticationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET =
+            "MjVGRDZDODkzQzQxNkUwMzgyRkI2RjI5NTQ3OERDRTQ0RjcyQkJDQjY5QTU0NzAyODJCRjlDRTY4NTYwNkQ4Mw==";
+
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedProvider = provider(null);
+        cachedProvider = provider(new VerifiedClaimsCache(10000, 300000));
+        token = uncachedProvider.generateAccessToken(42L, "student@campus.test", "STUDENT");
+        cachedProvider.getVerifiedClaims(token);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void legacyThreeParses(Blackhole blackhole) {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        blackhole.consume(Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().get("id", Long.class));
+        blackhole.consume(Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().get("role", String.class));
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole blackhole) {
+        Claims claims = uncachedProvider.verify(token);
+        blackhole.consume(claims.get("id", Long.class));
+        blackhole.consume(claims.get("role", String.class));
+    }
+
+    @Benchmark
+    public void cachedClaims(Blackhole blackhole) {
+        Claims claims = cachedProvider.getVerifiedClaims(token);
+        blackhole.consume(claims.get("id", Long.class));
+        blackhole.consume(claims.get("role", String.class));
+    }
+
+    private static JwtTokenProvider provider(VerifiedClaimsCache cache) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3600000);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationMs", 604800000);
+        ReflectionTestUtils.setField(provider, "claimsCache", cache);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,154 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost EntityAuditListener adds to a flush, per changed entity: building the old/new JSON and
+ * handing the event to the writer (a no-op stub here, so no database time is measured).
+ *
+ * updateTwoFields is a typical admin edit of an equipment row, updateLongDescription the same edit
+ * when a long description (pasted HTML or a Base64 image) changes and has to be hashed instead of
+ * written, and insertBorrowing a new borrowing with its user and equipment associations as ids.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=EntityAuditListenerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityAuditListenerBenchmark {
+
+    private static final String[] EQUIPMENT_PROPERTIES = {"category", "createdAt", "description", "imageUrl",
+            "name", "quantityAvailable", "quantityTotal", "status", "updatedAt"};
+    private static final String[] BORROWING_PROPERTIES = {"actualReturnDate", "adminNotes", "approvedAt",
+            "approvedBy", "borrowDate", "createdAt", "equipment", "expectedReturnDate", "purpose", "quantity",
+            "status", "updatedAt", "user"};
+
+    private EntityAuditListener listener;
+    private EntityPersister equipmentPersister;
+    private EntityPersister borrowingPersister;
+    private EventSource session;
+    private Equipment equipment;
+    private Object[] equipmentOld;
+    private Object[] equipmentNew;
+    private Object[] equipmentNewDescription;
+    private Object[] borrowingState;
+
+    @Setup
+    public void setUp() {
+        // stubOnly: the mocks are called millions of times and must not record each call
+        AuditLogWriter writer = mock(AuditLogWriter.class, withSettings().stubOnly());
+        listener = new EntityAuditListener(mock(EntityManagerFactory.class), writer, new ObjectMapper(), true, 512);
+
+        Type basic = mock(Type.class, withSettings().stubOnly());
+        equipmentPersister = persister(Equipment.class, EQUIPMENT_PROPERTIES, basic);
+
+        EntityType toUser = mock(EntityType.class, withSettings().stubOnly());
+        when(toUser.getAssociatedEntityName()).thenReturn(User.class.getName());
+        EntityType toEquipment = mock(EntityType.class, withSettings().stubOnly());
+        when(toEquipment.getAssociatedEntityName()).thenReturn(Equipment.class.getName());
+        Type[] borrowingTypes = new Type[BORROWING_PROPERTIES.length];
+        for (int i = 0; i < borrowingTypes.length; i++) {
+            borrowingTypes[i] = switch (BORROWING_PROPERTIES[i]) {
+                case "approvedBy", "user" -> toUser;
+                case "equipment" -> toEquipment;
+                default -> basic;
+            };
+        }
+        borrowingPersister = persister(EquipmentBorrowing.class, BORROWING_PROPERTIES, basic);
+        when(borrowingPersister.getPropertyTypes()).thenReturn(borrowingTypes);
+
+        // Associations that are loaded entities: their id comes from the target's persister
+        EntityPersister target = mock(EntityPersister.class, withSettings().stubOnly());
+        when(target.getIdentifier(any(), any(EventSource.class))).thenReturn(42L);
+        // Some of the session's annotation types are not on the classpath, so the mock leaves them out
+        session = mock(EventSource.class, withSettings().stubOnly().withoutAnnotations());
+        when(session.getEntityPersister(anyString(), any())).thenReturn(target);
+
+        LocalDateTime now = LocalDateTime.of(2030, 1, 7, 9, 0);
+        byte[] image = new byte[48 * 1024];
+        new Random(42).nextBytes(image);
+        String oldDescription = "<img src=\"data:image/png;base64," + Base64.getEncoder().encodeToString(image) + "\">";
+        image[0]++;
+        String newDescription = "<img src=\"data:image/png;base64," + Base64.getEncoder().encodeToString(image) + "\">";
+
+        equipment = new Equipment();
+        equipmentOld = new Object[]{Equipment.EquipmentCategory.PROJECTOR, now, oldDescription,
+                "/images/projector.png", "Projector", 3, 5, Equipment.EquipmentStatus.AVAILABLE, now};
+        equipmentNew = equipmentOld.clone();
+        equipmentNew[4] = "Projector HD";
+        equipmentNew[7] = Equipment.EquipmentStatus.MAINTENANCE;
+        equipmentNew[8] = now.plusMinutes(5);
+        equipmentNewDescription = equipmentNew.clone();
+        equipmentNewDescription[2] = newDescription;
+
+        borrowingState = new Object[]{null, null, null, null, LocalDate.of(2030, 1, 7), now, new Equipment(),
+                LocalDate.of(2030, 1, 9), "Department seminar", 2, EquipmentBorrowing.BorrowingStatus.PENDING,
+                now, new User()};
+    }
+
+    @Benchmark
+    public void updateTwoFields() {
+        listener.onPostUpdate(new PostUpdateEvent(equipment, 7L, equipmentNew, equipmentOld,
+                new int[]{4, 7, 8}, equipmentPersister, session));
+    }
+
+    @Benchmark
+    public void updateLongDescription() {
+        listener.onPostUpdate(new PostUpdateEvent(equipment, 7L, equipmentNewDescription, equipmentOld,
+                new int[]{2, 4, 7, 8}, equipmentPersister, session));
+    }
+
+    @Benchmark
+    public void insertBorrowing() {
+        listener.onPostInsert(new PostInsertEvent(new EquipmentBorrowing(), 11L, borrowingState,
+                borrowingPersister, session));
+    }
+
+    private static EntityPersister persister(Class<?> type, String[] properties, Type basic) {
+        EntityPersister persister = mock(EntityPersister.class, withSettings().stubOnly());
+        when(persister.getEntityName()).thenReturn(type.getName());
+        doReturn(type).when(persister).getMappedClass();
+        when(persister.getPropertyNames()).thenReturn(properties);
+        Type[] types = new Type[properties.length];
+        Arrays.fill(types, basic);
+        when(persister.getPropertyTypes()).thenReturn(types);
+        return persister;
+    }
+}
@@ -0,0 +1,40 @@
+package com.campus.facility_reservation.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Two schedulers, so a long nightly job can never hold up the short periodic ones.
+ *
+ * taskScheduler runs every @Scheduled method that does not name a scheduler: outbox dispatch,
+ * SSE heartbeats, token revocation sync, last-login flushes and the in-memory evictions. Its
+ * size comes from spring.task.scheduling.pool.size. batchScheduler runs the jobs that can take
+ * minutes (report rollup rebuild, report snapshot loads, notification and audit archiving),
+ * which name it with scheduler = BATCH_SCHEDULER.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String BATCH_SCHEDULER = "batchScheduler";
+
+    // Declared here because defining batchScheduler switches off Spring Boot's default one
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:1}") int poolSize,
+                                                 @Value("${spring.task.scheduling.thread-name-prefix:scheduling-}") String threadNamePrefix) {
+        return scheduler(poolSize, threadNamePrefix);
+    }
+
+    @Bean(name = BATCH_SCHEDULER)
+    public ThreadPoolTaskScheduler batchScheduler(@Value("${app.scheduling.batchPoolSize:2}") int poolSize) {
+        return scheduler(poolSize, "batch-");
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
@@ -1,5 +1,8 @@
 package com.campus.facility_reservation.controller;
 
+import com.campus.facility_reservation.dto.ApiResponse;
+import com.campus.facility_reservation.dto.CursorPage;
+import com.campus.facility_reservation.dto.PageCursor;
 import com.campus.facility_reservation.dto.UserResponse;
 import com.campus.facility_reservation.model.User;
 import com.campus.facility_reservation.repository.UserRepository;
@@ -8,7 +11,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -20,13 +22,16 @@ public class AdminController {
     
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit) {
         try {
-            List<User> users = userRepository.findAll();
-            List<UserResponse> userResponses = users.stream()
-                    .map(UserResponse::new)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(userResponses);
+            int pageSize = CursorPage.clampLimit(limit);
+            PageCursor after = PageCursor.decode(cursor);
+            List<User> users = after == null
+                    ? userRepository.findFirstPage(CursorPage.fetch(pageSize))
+                    : userRepository.findPageAfter(after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+            CursorPage<UserResponse> page = CursorPage.of(users, pageSize, User::getCreatedAt, User::getId, UserResponse::new);
+            return ResponseEntity.ok(ApiResponse.page("Users retrieved", page));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching users: " + e.getMessage());
         }
@@ -1,6 +1,9 @@
 package com.campus.facility_reservation.controller;
 
+import com.campus.facility_reservation.dto.ApiResponse;
 import com.campus.facility_reservation.dto.AuditLogResponse;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.service.AuditLogService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +11,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -20,10 +25,11 @@ public class AuditLogController {
 
     @GetMapping("/my-logs")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> getMyAuditLogs(Authentication authentication) {
+    public ResponseEntity<?> getMyAuditLogs(Authentication authentication,
+                                            @RequestParam(required = false) Integer limit) {
         try {
             Long userId = (Long) authentication.getPrincipal();
-            List<AuditLogResponse> auditLogs = auditLogService.getUserAuditLogs(userId);
+            List<AuditLogResponse> auditLogs = auditLogService.getUserAuditLogs(userId, limit);
             return ResponseEntity.ok(auditLogs);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching audit logs: " + e.getMessage());
@@ -32,20 +38,43 @@ public class AuditLogController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
-    public ResponseEntity<?> getAllAuditLogs() {
+    public ResponseEntity<?> getAllAuditLogs(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
         try {
-            List<AuditLogResponse> auditLogs = auditLogService.getAllAuditLogs();
-            return ResponseEntity.ok(auditLogs);
+            CursorPage<AuditLogResponse> auditLogs = auditLogService.getAllAuditLogs(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page("Audit logs retrieved", auditLogs));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching all audit logs: " + e.getMessage());
         }
     }
 
+    // Any combination of filters; from/to are ISO date-times or dates, the range is [from, to)
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<?> searchAuditLogs(@RequestParam(required = false) Long userId,
+                                             @RequestParam(required = false) String actionType,
+                                             @RequestParam(required = false) String tableName,
+                                             @RequestParam(required = false) Long recordId,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        try {
+            AuditLogSearchDTO filter = new AuditLogSearchDTO(userId, actionType, tableName, recordId,
+                    parseTime(from), parseTime(to));
+            CursorPage<AuditLogResponse> auditLogs = auditLogService.searchAuditLogs(filter, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page("Audit logs retrieved", auditLogs));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error searching audit logs: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/action/{actionType}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
-    public ResponseEntity<?> getAuditLogsByAction(@PathVariable String actionType) {
+    public ResponseEntity<?> getAuditLogsByAction(@PathVariable String actionType,
+                                                  @RequestParam(required = false) Integer limit) {
         try {
-            List<AuditLogResponse> auditLogs = auditLogService.getAuditLogsByAction(actionType);
+            List<AuditLogResponse> auditLogs = auditLogService.getAuditLogsByAction(actionType, limit);
             return ResponseEntity.ok(auditLogs);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching audit logs by action: " + e.getMessage());
@@ -54,13 +83,20 @@ public class AuditLogController {
 
     @GetMapping("/table/{tableName}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
-    public ResponseEntity<?> getAuditLogsByTable(@PathVariable String tableName) {
+    public ResponseEntity<?> getAuditLogsByTable(@PathVariable String tableName,
+                                                 @RequestParam(required = false) Integer limit) {
         try {
-            List<AuditLogResponse> auditLogs = auditLogService.getAuditLogsByTable(tableName);
+            List<AuditLogResponse> auditLogs = auditLogService.getAuditLogsByTable(tableName, limit);
             return ResponseEntity.ok(auditLogs);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching audit logs by table: " + e.getMessage());
         }
     }
-}
 
+    private static LocalDateTime parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+    }
+}
@@ -4,11 +4,15 @@ import com.campus.facility_reservation.dto.RegisterRequest;
 import com.campus.facility_reservation.dto.AuthResponse;
 import com.campus.facility_reservation.dto.LoginRequest;
 import com.campus.facility_reservation.dto.RefreshTokenRequest;
+import com.campus.facility_reservation.exception.TooManyRequestsException;
 import com.campus.facility_reservation.service.AuthService;
 import com.campus.facility_reservation.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -34,10 +38,16 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.login(request.getEmail(), request.getPassword());
+            // The client's address: behind a trusted proxy, Tomcat resolves it from X-Forwarded-For
+            AuthResponse response = authService.login(request.getEmail(), request.getPassword(),
+                        httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                        .body(new AuthResponse(null, null, "Login failed: " + e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                         .body(new AuthResponse(null, null, "Login failed: " + e.getMessage()));
@@ -55,8 +65,13 @@ public class AuthController {
         }
     }
 
+    // Revokes the bearer access token and, when sent, the refresh token
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                    ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
         return ResponseEntity
                     .ok(new AuthResponse(null, null, "Logout successful. Please remove tokens from client storage."));
     }
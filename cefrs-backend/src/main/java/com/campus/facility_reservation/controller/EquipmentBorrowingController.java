@@ -1,6 +1,7 @@
 package com.campus.facility_reservation.controller;
 
 import com.campus.facility_reservation.dto.ApiResponse;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.dto.BorrowingApprovalDTO;
 import com.campus.facility_reservation.dto.EquipmentBorrowingDTO;
 import com.campus.facility_reservation.dto.EquipmentBorrowingRequestDTO;
@@ -21,9 +22,11 @@ public class EquipmentBorrowingController {
 
     // GET /api/equipment-borrowing
     @GetMapping
-    public ResponseEntity<ApiResponse<List<EquipmentBorrowingDTO>>> getAllBorrowings() {
-        List<EquipmentBorrowingDTO> borrowings = borrowingService.getAllBorrowings();
-        return ResponseEntity.ok(ApiResponse.success("Borrowings retrieved", borrowings));
+    public ResponseEntity<ApiResponse<List<EquipmentBorrowingDTO>>> getAllBorrowings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<EquipmentBorrowingDTO> borrowings = borrowingService.getAllBorrowings(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Borrowings retrieved", borrowings));
     }
 
     // GET /api/equipment-borrowing/me
@@ -3,6 +3,7 @@ package com.campus.facility_reservation.controller;
 import com.campus.facility_reservation.dto.EquipmentDTO;
 import com.campus.facility_reservation.dto.EquipmentRequestDTO;
 import com.campus.facility_reservation.dto.ApiResponse;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.service.EquipmentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -25,9 +26,11 @@ public class EquipmentController {
 
     // GET /api/equipment
     @GetMapping
-    public ResponseEntity<ApiResponse<List<EquipmentDTO>>> getAllEquipment() {
-        List<EquipmentDTO> equipment = equipmentService.getAllEquipment();
-        return ResponseEntity.ok(ApiResponse.success("Equipment retrieved successfully", equipment));
+    public ResponseEntity<ApiResponse<List<EquipmentDTO>>> getAllEquipment(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<EquipmentDTO> equipment = equipmentService.getAllEquipment(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Equipment retrieved successfully", equipment));
     }
 
     // GET /api/equipment/available
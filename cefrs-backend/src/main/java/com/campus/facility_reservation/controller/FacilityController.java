@@ -2,6 +2,7 @@ package com.campus.facility_reservation.controller;
 
 import com.campus.facility_reservation.dto.FacilityDTO;
 import com.campus.facility_reservation.dto.ApiResponse;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.service.FacilityService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -19,9 +20,11 @@ public class FacilityController {
     
     // GET /api/facilities
     @GetMapping
-    public ResponseEntity<ApiResponse<List<FacilityDTO>>> getAllFacilities() {
-        List<FacilityDTO> facilities = facilityService.getAllFacilities();
-        return ResponseEntity.ok(ApiResponse.success("Facilities retrieved successfully", facilities));
+    public ResponseEntity<ApiResponse<List<FacilityDTO>>> getAllFacilities(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<FacilityDTO> facilities = facilityService.getAllFacilities(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Facilities retrieved successfully", facilities));
     }
     
     // GET /api/facilities/available
@@ -1,10 +1,13 @@
 package com.campus.facility_reservation.controller;
 
 import com.campus.facility_reservation.dto.ApiResponse;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.dto.ReservationApprovalDTO;
 import com.campus.facility_reservation.dto.FacilityReservationDTO;
 import com.campus.facility_reservation.dto.FacilityReservationRequestDTO;
+import com.campus.facility_reservation.dto.FreeSlotDTO;
 import com.campus.facility_reservation.service.FacilityReservationService;
+import com.campus.facility_reservation.service.FreeSlotService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,11 +23,14 @@ import java.util.List;
 public class FacilityReservationController {
 
     private final FacilityReservationService reservationService;
+    private final FreeSlotService freeSlotService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<FacilityReservationDTO>>> getAllReservations() {
-        List<FacilityReservationDTO> reservations = reservationService.getAllReservations();
-        return ResponseEntity.ok(ApiResponse.success("Reservations retrieved", reservations));
+    public ResponseEntity<ApiResponse<List<FacilityReservationDTO>>> getAllReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<FacilityReservationDTO> reservations = reservationService.getAllReservations(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Reservations retrieved", reservations));
     }
 
     @GetMapping("/me")
@@ -117,4 +123,21 @@ public class FacilityReservationController {
         List<FacilityReservationDTO> reservations = reservationService.getFacilityReservationsByDate(facilityId, date);
         return ResponseEntity.ok(ApiResponse.success("Facility availability retrieved", reservations));
     }
-}
+
+    // GET /api/reservations/free-slots?from=2025-01-06&to=2025-01-10&duration=90&minCapacity=40&type=CLASSROOM&building=Main
+    @GetMapping("/free-slots")
+    public ResponseEntity<ApiResponse<List<FreeSlotDTO>>> findFreeSlots(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "60") int duration,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String building,
+            @RequestParam(defaultValue = "07:00") String openTime,
+            @RequestParam(defaultValue = "21:00") String closeTime,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<FreeSlotDTO> slots = freeSlotService.findFreeSlots(
+                from, to, duration, minCapacity, type, building, openTime, closeTime, limit);
+        return ResponseEntity.ok(ApiResponse.success("Free slots retrieved", slots));
+    }
+}
\ No newline at end of file
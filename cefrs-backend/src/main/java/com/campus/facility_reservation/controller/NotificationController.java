@@ -2,9 +2,15 @@ package com.campus.facility_reservation.controller;
 
 import com.campus.facility_reservation.dto.*;
 import com.campus.facility_reservation.service.NotificationService;
+import com.campus.facility_reservation.service.NotificationStreamRegistry;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,17 +21,42 @@ import java.util.List;
 public class NotificationController {
     
     private final NotificationService notificationService;
+    private final NotificationStreamRegistry streamRegistry;
+
+    // Pushes "notification" and "unread-count" events for the signed-in user. EventSource sends
+    // Last-Event-ID on reconnect by itself; a "resync" event means reload the lists instead.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = (Long) authentication.getPrincipal();
+        return streamRegistry.subscribe(userId, lastEventId);
+    }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getUserNotifications(@PathVariable Long userId) {
-        List<NotificationDTO> notifications = notificationService.getUserNotifications(userId);
-        return ResponseEntity.ok(ApiResponse.success("Notifications retrieved", notifications));
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getUserNotifications(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<NotificationDTO> notifications = notificationService.getUserNotifications(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Notifications retrieved", notifications));
     }
     
     @GetMapping("/user/{userId}/unread")
-    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getUnreadNotifications(@PathVariable Long userId) {
-        List<NotificationDTO> notifications = notificationService.getUnreadNotifications(userId);
-        return ResponseEntity.ok(ApiResponse.success("Unread notifications retrieved", notifications));
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getUnreadNotifications(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<NotificationDTO> notifications = notificationService.getUnreadNotifications(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Unread notifications retrieved", notifications));
+    }
+
+    @GetMapping("/user/{userId}/archive")
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getArchivedNotifications(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<NotificationDTO> notifications = notificationService.getArchivedNotifications(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page("Archived notifications retrieved", notifications));
     }
     
     @GetMapping("/user/{userId}/count")
@@ -45,4 +76,30 @@ public class NotificationController {
         notificationService.markAllAsRead(userId);
         return ResponseEntity.ok(ApiResponse.success("All notifications marked as read", null));
     }
+
+    // Bulk variants answer with the number of notifications changed. They act on the signed-in
+    // user's notifications only; a different userId in the path is refused.
+    @PutMapping("/user/{userId}/read")
+    public ResponseEntity<ApiResponse<Integer>> markAsRead(Authentication authentication,
+                                                          @PathVariable Long userId,
+                                                          @Valid @RequestBody NotificationIdsRequest request) {
+        int updated = notificationService.markAsRead(signedInUser(authentication, userId), request.getIds());
+        return ResponseEntity.ok(ApiResponse.success("Notifications marked as read", updated));
+    }
+
+    @DeleteMapping("/user/{userId}/read")
+    public ResponseEntity<ApiResponse<Integer>> deleteRead(Authentication authentication,
+                                                          @PathVariable Long userId,
+                                                          @RequestParam(defaultValue = "30") int olderThanDays) {
+        int deleted = notificationService.deleteReadOlderThan(signedInUser(authentication, userId), olderThanDays);
+        return ResponseEntity.ok(ApiResponse.success("Read notifications deleted", deleted));
+    }
+
+    private static Long signedInUser(Authentication authentication, Long pathUserId) {
+        Long userId = (Long) authentication.getPrincipal();
+        if (!userId.equals(pathUserId)) {
+            throw new AccessDeniedException("Not allowed to change another user's notifications");
+        }
+        return userId;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -75,13 +77,22 @@ public class ReportController {
     /**
      * Get daily reservations for chart
      * GET /api/reports/daily-reservations?days=30
+     * GET /api/reports/daily-reservations?from=2025-01-01&to=2025-12-31&bucket=week
+     * bucket is day (default), week or month; to defaults to today.
      */
     @GetMapping("/daily-reservations")
     public ResponseEntity<List<ReportDTO.DailyReservationCount>> getDailyReservations(
-            @RequestParam(defaultValue = "30") int days) {
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String bucket) {
         try {
-            List<ReportDTO.DailyReservationCount> data = reportService.getDailyReservations(days);
+            LocalDate end = to != null ? LocalDate.parse(to) : LocalDate.now();
+            LocalDate start = from != null ? LocalDate.parse(from) : end.minusDays(days);
+            List<ReportDTO.DailyReservationCount> data = reportService.getDailyReservations(start, end, bucket);
             return ResponseEntity.ok(data);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -116,15 +127,28 @@ public class ReportController {
     }
 
     /**
-     * Get user activity report
-     * GET /api/reports/users
+     * Get user activity report, optionally one page at a time
+     * GET /api/reports/users?page=0&size=50&sort=activity&direction=desc
+     * Sort keys: activity, reservations, borrowings, lastActivity, name.
+     * Paged responses carry the number of active users in X-Total-Count.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<ReportDTO.UserActivityReport>> getUserActivityReport() {
+    public ResponseEntity<List<ReportDTO.UserActivityReport>> getUserActivityReport(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
         try {
-            List<ReportDTO.UserActivityReport> report = reportService.getUserActivityReport();
-            return ResponseEntity.ok(report);
-        } catch (Exception e) {
+            List<ReportDTO.UserActivityReport> report = reportService.getUserActivityReport(page, size, sort, direction);
+            if (size == null) {
+                return ResponseEntity.ok(report);
+            }
+            return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(reportService.countUserActivityReport()))
+                .body(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
             return ResponseEntity.internalServerError().build();
         }
     }
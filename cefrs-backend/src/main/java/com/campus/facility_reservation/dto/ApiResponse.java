@@ -1,9 +1,12 @@
 package com.campus.facility_reservation.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,12 +14,20 @@ public class ApiResponse<T> {
     private boolean success;
     private String message;
     private T data;
+
+    // Only present on paged list responses
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private PageInfo page;
     
     public static <T> ApiResponse<T> success(String message, T data) {
-        return new ApiResponse<>(true, message, data);
+        return new ApiResponse<>(true, message, data, null);
+    }
+
+    public static <T> ApiResponse<List<T>> page(String message, CursorPage<T> page) {
+        return new ApiResponse<>(true, message, page.getItems(), page.getPage());
     }
 
     public static <T> ApiResponse<T> error(String message) {
-        return new ApiResponse<>(false, message, null);
+        return new ApiResponse<>(false, message, null, null);
     }
-}
\ No newline at end of file
+}
@@ -36,6 +36,24 @@ public class AuditLogResponse {
         }
     }
 
+    public AuditLogResponse(AuditLogRow row) {
+        this.logId = row.logId();
+        this.userId = row.userId();
+        this.actionType = row.actionType();
+        this.tableName = row.tableName();
+        this.recordId = row.recordId();
+        this.oldValues = row.oldValues();
+        this.newValues = row.newValues();
+        this.ipAddress = row.ipAddress();
+        this.createdAt = row.createdAt();
+
+        // Null when the row has no user or the user no longer exists
+        if (row.userEmail() != null) {
+            this.userEmail = row.userEmail();
+            this.userName = row.userFirstName() + " " + row.userLastName();
+        }
+    }
+
     // Getters and Setters
     public Long getLogId() { return logId; }
     public void setLogId(Long logId) { this.logId = logId; }
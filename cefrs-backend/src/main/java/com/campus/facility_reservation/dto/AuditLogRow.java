@@ -0,0 +1,22 @@
+package com.campus.facility_reservation.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read-only view of an audit row with the acting user's email and name joined in, filled
+ * by a JPQL constructor expression so the eager AuditLog.user association is never loaded.
+ */
+public record AuditLogRow(
+        Long logId,
+        Long userId,
+        String userEmail,
+        String userFirstName,
+        String userLastName,
+        String actionType,
+        String tableName,
+        Long recordId,
+        String oldValues,
+        String newValues,
+        String ipAddress,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,23 @@
+package com.campus.facility_reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the audit-log search; null fields are not filtered on. The time range is
+ * [from, to), on created_at.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogSearchDTO {
+    private Long userId;
+    private String actionType;
+    private String tableName;
+    private Long recordId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
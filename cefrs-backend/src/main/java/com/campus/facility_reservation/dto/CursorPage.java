@@ -0,0 +1,53 @@
+package com.campus.facility_reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paged list, newest first. Repositories are asked for limit + 1 rows;
+ * the extra row only tells us whether another page exists and is never returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private List<T> items;
+    private PageInfo page;
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    // Fetch size for a page of the given (already clamped) limit
+    public static Pageable fetch(int limit) {
+        return PageRequest.ofSize(limit + 1);
+    }
+
+    public static <E, T> CursorPage<T> of(List<E> rows, int limit, Function<E, LocalDateTime> createdAt,
+                                          Function<E, Long> id, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new PageCursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        List<T> items = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(items, new PageInfo(nextCursor, hasMore, limit));
+    }
+}
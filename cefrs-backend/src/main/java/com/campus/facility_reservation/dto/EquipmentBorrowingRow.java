@@ -0,0 +1,27 @@
+package com.campus.facility_reservation.dto;
+
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Flat read-only view of a borrowing with the user and equipment names already joined in,
+ * filled by a JPQL constructor expression so list reads never touch the lazy associations.
+ */
+public record EquipmentBorrowingRow(
+        Long id,
+        Long userId,
+        String userFirstName,
+        String userLastName,
+        Long equipmentId,
+        String equipmentName,
+        Integer quantity,
+        LocalDate borrowDate,
+        LocalDate expectedReturnDate,
+        LocalDate actualReturnDate,
+        String purpose,
+        BorrowingStatus status,
+        String adminNotes,
+        LocalDateTime createdAt) {
+}
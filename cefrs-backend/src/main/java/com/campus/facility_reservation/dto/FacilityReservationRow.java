@@ -0,0 +1,27 @@
+package com.campus.facility_reservation.dto;
+
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Flat read-only view of a reservation with the user and facility names already joined in,
+ * filled by a JPQL constructor expression so list reads never touch the lazy associations.
+ */
+public record FacilityReservationRow(
+        Long id,
+        Long userId,
+        String userFirstName,
+        String userLastName,
+        Long facilityId,
+        String facilityName,
+        LocalDate reservationDate,
+        LocalTime startTime,
+        LocalTime endTime,
+        String purpose,
+        ReservationStatus status,
+        String adminNotes,
+        LocalDateTime createdAt) {
+}
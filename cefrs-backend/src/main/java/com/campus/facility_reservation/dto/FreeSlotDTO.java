@@ -0,0 +1,20 @@
+package com.campus.facility_reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotDTO {
+    private Long facilityId;
+    private String facilityName;
+    private String facilityType;
+    private String building;
+    private Integer capacity;
+    private String date;
+    private String startTime;
+    private String endTime;
+    private Integer freeMinutes;
+}
@@ -0,0 +1,16 @@
+package com.campus.facility_reservation.dto;
+
+import lombok.Data;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Data
+public class NotificationIdsRequest {
+
+    // Bounded so one request stays one statement with a reasonable IN list
+    @NotEmpty(message = "Notification ids are required")
+    @Size(max = 1000, message = "At most 1000 notifications per request")
+    private List<Long> ids;
+}
@@ -0,0 +1,37 @@
+package com.campus.facility_reservation.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in (createdAt DESC, id DESC) order. Clients only ever
+ * see it as an opaque URL-safe token and send it back unchanged to get the next page.
+ */
+public record PageCursor(LocalDateTime createdAt, Long id) {
+
+    public String encode() {
+        Instant instant = createdAt.toInstant(ZoneOffset.UTC);
+        String raw = instant.getEpochSecond() + "." + instant.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null or blank means "first page"
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':');
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, colon)));
+            return new PageCursor(LocalDateTime.ofInstant(instant, ZoneOffset.UTC), Long.parseLong(raw.substring(colon + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.campus.facility_reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageInfo {
+    // Opaque token for the next page, null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+}
@@ -0,0 +1,16 @@
+package com.campus.facility_reservation.exception;
+
+// Thrown when a request is refused to protect a limited resource; maps to HTTP 429
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_log")
+@Table(name = "audit_log", indexes = {
+    @Index(name = "idx_audit_log_created_log_id", columnList = "created_at, log_id"),
+    // Each filter's equality columns followed by the page order, so a filtered page is one index range
+    @Index(name = "idx_audit_log_table_record_created", columnList = "table_name, record_id, created_at, log_id"),
+    @Index(name = "idx_audit_log_user_created", columnList = "user_id, created_at, log_id"),
+    @Index(name = "idx_audit_log_action_created", columnList = "action_type, created_at, log_id")
+})
 public class AuditLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -4,10 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "equipment")
+@DynamicUpdate
+@Table(name = "equipment", indexes = {
+    @Index(name = "idx_equipment_created_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,7 +31,9 @@ public class Equipment {
     @Column(name = "quantity_total", nullable = false)
     private Integer quantityTotal = 1;
     
-    @Column(name = "quantity_available", nullable = false)
+    // Only changed by the atomic updates in EquipmentRepository, so saving an entity read
+    // earlier can't write back a stale count
+    @Column(name = "quantity_available", nullable = false, updatable = false)
     private Integer quantityAvailable = 1;
     
     @Column(columnDefinition = "TEXT")
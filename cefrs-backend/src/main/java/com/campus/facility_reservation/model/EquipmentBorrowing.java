@@ -8,7 +8,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "equipment_borrowing")
+@Table(name = "equipment_borrowing", indexes = {
+    @Index(name = "idx_equipment_borrowing_created_id", columnList = "created_at, id"),
+    // ReportSnapshot reads the rows changed since its last refresh
+    @Index(name = "idx_equipment_borrowing_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
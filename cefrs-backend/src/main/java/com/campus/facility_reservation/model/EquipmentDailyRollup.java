@@ -0,0 +1,37 @@
+package com.campus.facility_reservation.model;
+
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Number of borrowings per equipment, borrow date and status
+@Entity
+@Table(name = "equipment_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_equipment_daily_rollup",
+                                             columnNames = {"equipment_id", "rollup_date", "status"}),
+       indexes = @Index(name = "idx_equipment_daily_rollup_date", columnList = "rollup_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquipmentDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "equipment_id", nullable = false)
+    private Long equipmentId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BorrowingStatus status;
+
+    @Column(nullable = false)
+    private Long borrowings = 0L;
+}
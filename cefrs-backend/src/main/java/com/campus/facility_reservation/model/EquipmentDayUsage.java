@@ -0,0 +1,30 @@
+package com.campus.facility_reservation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Units of one equipment item held by APPROVED/BORROWED/OVERDUE borrowings on a single day
+@Entity
+@Table(name = "equipment_day_usage",
+       uniqueConstraints = @UniqueConstraint(name = "uk_equipment_day_usage", columnNames = {"equipment_id", "usage_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquipmentDayUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "equipment_id", nullable = false)
+    private Long equipmentId;
+
+    @Column(name = "usage_date", nullable = false)
+    private LocalDate usageDate;
+
+    @Column(name = "units_in_use", nullable = false)
+    private Integer unitsInUse = 0;
+}
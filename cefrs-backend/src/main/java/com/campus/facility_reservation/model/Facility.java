@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "facility")
+@Table(name = "facility", indexes = {
+    @Index(name = "idx_facility_created_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,37 @@
+package com.campus.facility_reservation.model;
+
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Number of reservations per facility, reservation date and status
+@Entity
+@Table(name = "facility_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_facility_daily_rollup",
+                                             columnNames = {"facility_id", "rollup_date", "status"}),
+       indexes = @Index(name = "idx_facility_daily_rollup_date", columnList = "rollup_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "facility_id", nullable = false)
+    private Long facilityId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Long reservations = 0L;
+}
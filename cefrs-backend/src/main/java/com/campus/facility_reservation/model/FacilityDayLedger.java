@@ -0,0 +1,37 @@
+package com.campus.facility_reservation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One guard row per facility and date. Bookings lock it with SELECT ... FOR UPDATE
+// so writers for the same facility-day are serialized across application instances.
+@Entity
+@Table(name = "facility_day_ledger",
+       uniqueConstraints = @UniqueConstraint(name = "uk_facility_day_ledger", columnNames = {"facility_id", "ledger_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityDayLedger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "facility_id", nullable = false)
+    private Long facilityId;
+
+    @Column(name = "ledger_date", nullable = false)
+    private LocalDate ledgerDate;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -9,7 +9,11 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "facility_reservation")
+@Table(name = "facility_reservation", indexes = {
+    @Index(name = "idx_facility_reservation_created_id", columnList = "created_at, id"),
+    // ReportSnapshot reads the rows changed since its last refresh
+    @Index(name = "idx_facility_reservation_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
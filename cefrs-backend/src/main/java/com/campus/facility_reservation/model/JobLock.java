@@ -0,0 +1,20 @@
+package com.campus.facility_reservation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One guard row per batch job. A run holds it with SELECT ... FOR UPDATE for as long as it
+// works, so the same job never runs on two application instances at once.
+@Entity
+@Table(name = "job_lock")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLock {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+}
@@ -7,7 +7,14 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification")
+@Table(name = "notification", indexes = {
+    // Inbox pages and the bulk updates of one user
+    @Index(name = "idx_notification_user_created_id", columnList = "user_id, created_at, id"),
+    // Unread count, unread pages and mark-all-read
+    @Index(name = "idx_notification_user_read_created", columnList = "user_id, is_read, created_at"),
+    // Retention: read notifications past the cut-off, oldest first
+    @Index(name = "idx_notification_read_created", columnList = "is_read, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
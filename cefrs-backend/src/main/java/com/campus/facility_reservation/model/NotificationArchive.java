@@ -0,0 +1,50 @@
+package com.campus.facility_reservation.model;
+
+import com.campus.facility_reservation.model.Notification.NotificationType;
+import com.campus.facility_reservation.model.Notification.ReferenceType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A read notification past the retention period, moved out of the hot notification table by
+// NotificationArchiver. Keeps the original id; no is_read flag and no foreign key to users.
+@Entity
+@Table(name = "notification_archive", indexes = {
+    @Index(name = "idx_notification_archive_user_created_id", columnList = "user_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationType type;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reference_type", length = 30)
+    private ReferenceType referenceType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,61 @@
+package com.campus.facility_reservation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A notification waiting to be delivered. Written in the same transaction as the change it
+// reports, turned into a notification row by NotificationDispatcher, then deleted.
+@Entity
+@Table(name = "notification_outbox", indexes = {
+    @Index(name = "idx_notification_outbox_due", columnList = "next_attempt_at, id"),
+    @Index(name = "idx_notification_outbox_user", columnList = "user_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Event event;
+
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    // Facility or equipment name at the time of the change
+    @Column(length = 200)
+    private String subject;
+
+    // New reservation or borrowing status, for status events
+    @Column(length = 20)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    public enum Event {
+        RESERVATION_SUBMITTED,
+        RESERVATION_STATUS,
+        BORROWING_SUBMITTED,
+        BORROWING_STATUS
+    }
+}
@@ -0,0 +1,36 @@
+package com.campus.facility_reservation.model;
+
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Number of reservations per reservation date, starting hour and status, across all facilities
+@Entity
+@Table(name = "reservation_hourly_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_reservation_hourly_rollup",
+                                             columnNames = {"rollup_date", "start_hour", "status"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationHourlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "start_hour", nullable = false)
+    private Integer startHour;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Long reservations = 0L;
+}
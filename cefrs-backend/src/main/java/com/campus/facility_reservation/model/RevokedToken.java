@@ -0,0 +1,42 @@
+package com.campus.facility_reservation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A token id (jti) that must no longer be accepted. Rows are deleted once the token has expired,
+// since an expired token is rejected anyway.
+@Entity
+@Table(name = "revoked_token", indexes = {
+    @Index(name = "idx_revoked_token_expires", columnList = "expires_at"),
+    @Index(name = "idx_revoked_token_revoked", columnList = "revoked_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Reason reason;
+
+    public enum Reason {
+        LOGOUT,
+        ROTATED
+    }
+}
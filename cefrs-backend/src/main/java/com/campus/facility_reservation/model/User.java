@@ -5,7 +5,9 @@ import java.time.LocalDateTime;
 import com.campus.facility_reservation.model.Role;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created_id", columnList = "created_at, id")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,6 +47,9 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Only written by LastLoginRecorder, so saving a user read earlier can't write back an older
+    // login than the one it flushed
+    @Column(name = "last_login", updatable = false)
     private LocalDateTime lastLogin;
 
     @Column(nullable = false)
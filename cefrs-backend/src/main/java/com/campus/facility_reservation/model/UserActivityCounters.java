@@ -0,0 +1,41 @@
+package com.campus.facility_reservation.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Per-user request counters behind the dashboard stats, kept in step with every status change
+@Entity
+@Table(name = "user_activity_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityCounters {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "reservations_total", nullable = false)
+    private Long reservationsTotal = 0L;
+
+    @Column(name = "reservations_pending", nullable = false)
+    private Long reservationsPending = 0L;
+
+    @Column(name = "reservations_approved", nullable = false)
+    private Long reservationsApproved = 0L;
+
+    @Column(name = "borrowings_total", nullable = false)
+    private Long borrowingsTotal = 0L;
+
+    @Column(name = "borrowings_pending", nullable = false)
+    private Long borrowingsPending = 0L;
+
+    @Column(name = "borrowings_borrowed", nullable = false)
+    private Long borrowingsBorrowed = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
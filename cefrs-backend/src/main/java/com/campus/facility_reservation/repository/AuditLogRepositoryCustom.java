@@ -0,0 +1,13 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.dto.AuditLogRow;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.PageCursor;
+
+import java.util.List;
+
+public interface AuditLogRepositoryCustom {
+
+    // Newest first, starting after the cursor (null for the first page), at most maxResults rows
+    List<AuditLogRow> search(AuditLogSearchDTO filter, PageCursor after, int maxResults);
+}
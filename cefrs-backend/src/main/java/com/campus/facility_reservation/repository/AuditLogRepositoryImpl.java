@@ -0,0 +1,68 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.dto.AuditLogRow;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the audit search with only the predicates that were asked for, instead of
+ * "(:x IS NULL OR ...)" for every filter, so MySQL sees a plain equality prefix and can walk the
+ * matching (..., created_at, log_id) index in order and stop after one page.
+ */
+public class AuditLogRepositoryImpl implements AuditLogRepositoryCustom {
+
+    private static final String ROW_SELECT = "SELECT new com.campus.facility_reservation.dto.AuditLogRow(" +
+            "a.logId, a.userId, u.email, u.firstName, u.lastName, a.actionType, a.tableName, a.recordId, " +
+            "a.oldValues, a.newValues, a.ipAddress, a.createdAt) " +
+            "FROM AuditLog a LEFT JOIN a.user u";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditLogRow> search(AuditLogSearchDTO filter, PageCursor after, int maxResults) {
+        StringBuilder jpql = new StringBuilder(ROW_SELECT);
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.getUserId() != null) {
+            where(jpql, params, "a.userId = :userId", "userId", filter.getUserId());
+        }
+        if (filter.getActionType() != null) {
+            where(jpql, params, "a.actionType = :actionType", "actionType", filter.getActionType());
+        }
+        if (filter.getTableName() != null) {
+            where(jpql, params, "a.tableName = :tableName", "tableName", filter.getTableName());
+        }
+        if (filter.getRecordId() != null) {
+            where(jpql, params, "a.recordId = :recordId", "recordId", filter.getRecordId());
+        }
+        if (filter.getFrom() != null) {
+            where(jpql, params, "a.createdAt >= :from", "from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            where(jpql, params, "a.createdAt < :to", "to", filter.getTo());
+        }
+        if (after != null) {
+            // Same keyset condition as the other paged lists: strictly after (createdAt, logId)
+            where(jpql, params, "a.createdAt <= :afterCreatedAt AND (a.createdAt < :afterCreatedAt OR a.logId < :afterId)",
+                    "afterCreatedAt", after.createdAt());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY a.createdAt DESC, a.logId DESC");
+
+        TypedQuery<AuditLogRow> query = entityManager.createQuery(jpql.toString(), AuditLogRow.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(maxResults).getResultList();
+    }
+
+    private static void where(StringBuilder jpql, Map<String, Object> params, String condition, String name, Object value) {
+        jpql.append(params.isEmpty() ? " WHERE " : " AND ").append(condition);
+        params.put(name, value);
+    }
+}
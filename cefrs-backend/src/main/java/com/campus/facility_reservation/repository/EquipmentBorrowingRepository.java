@@ -1,20 +1,34 @@
 package com.campus.facility_reservation.repository;
 
+import com.campus.facility_reservation.dto.EquipmentBorrowingRow;
 import com.campus.facility_reservation.model.EquipmentBorrowing;
 import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
 import com.campus.facility_reservation.model.User;
 import com.campus.facility_reservation.model.Equipment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EquipmentBorrowingRepository extends JpaRepository<EquipmentBorrowing, Long> {
 
+       // Read views join the user and equipment names in the same statement instead of loading the
+       // lazy associations row by row
+       String ROW_SELECT = "SELECT new com.campus.facility_reservation.dto.EquipmentBorrowingRow(" +
+                     "eb.id, u.id, u.firstName, u.lastName, e.id, e.name, eb.quantity, eb.borrowDate, " +
+                     "eb.expectedReturnDate, eb.actualReturnDate, eb.purpose, eb.status, eb.adminNotes, eb.createdAt) " +
+                     "FROM EquipmentBorrowing eb JOIN eb.user u JOIN eb.equipment e ";
+
        List<EquipmentBorrowing> findByUserOrderByBorrowDateDesc(User user);
 
        List<EquipmentBorrowing> findByUserAndStatus(User user, BorrowingStatus status);
@@ -23,6 +37,8 @@ public interface EquipmentBorrowingRepository extends JpaRepository<EquipmentBor
 
        List<EquipmentBorrowing> findByStatusOrderByBorrowDateAsc(BorrowingStatus status);
 
+       List<EquipmentBorrowing> findByStatusIn(Collection<BorrowingStatus> statuses);
+
        @Query("SELECT eb FROM EquipmentBorrowing eb WHERE eb.status IN ('APPROVED', 'BORROWED') " +
                      "AND eb.actualReturnDate IS NULL")
        List<EquipmentBorrowing> findActiveBorrowings();
@@ -45,24 +61,6 @@ public interface EquipmentBorrowingRepository extends JpaRepository<EquipmentBor
                      "AND eb.status IN ('APPROVED', 'BORROWED')")
        Integer getTotalBorrowedQuantity(@Param("equipment") Equipment equipment);
 
-       // Sum of quantities for borrowings that overlap the provided date range
-       @Query("SELECT COALESCE(SUM(eb.quantity), 0) FROM EquipmentBorrowing eb " +
-                     "WHERE eb.equipment = :equipment " +
-                     "AND eb.status IN ('APPROVED', 'BORROWED') " +
-                     "AND NOT (eb.expectedReturnDate < :borrowDate OR eb.borrowDate > :expectedReturnDate)")
-       Integer getOverlappingBorrowedQuantity(@Param("equipment") Equipment equipment,
-                                              @Param("borrowDate") java.time.LocalDate borrowDate,
-                                              @Param("expectedReturnDate") java.time.LocalDate expectedReturnDate);
-
-       // Return borrowings that overlap the provided date range (used to show booked ranges)
-       @Query("SELECT eb FROM EquipmentBorrowing eb " +
-                     "WHERE eb.equipment = :equipment " +
-                     "AND eb.status IN ('APPROVED', 'BORROWED') " +
-                     "AND NOT (eb.expectedReturnDate < :startDate OR eb.borrowDate > :endDate)")
-       List<EquipmentBorrowing> findOverlappingBorrowings(@Param("equipment") Equipment equipment,
-                                                          @Param("startDate") java.time.LocalDate startDate,
-                                                          @Param("endDate") java.time.LocalDate endDate);
-
        // For Reports Generation
 
        // Total borrowings count
@@ -113,4 +111,37 @@ public interface EquipmentBorrowingRepository extends JpaRepository<EquipmentBor
        // Today's borrowings
        @Query("SELECT COUNT(eb) FROM EquipmentBorrowing eb WHERE eb.borrowDate = :today")
        Long countTodayBorrowings(@Param("today") LocalDate today);
+
+       // SELECT ... FOR UPDATE, so concurrent status changes of one request apply one after the other
+       @Lock(LockModeType.PESSIMISTIC_WRITE)
+       @Query("SELECT eb FROM EquipmentBorrowing eb WHERE eb.id = :id")
+       Optional<EquipmentBorrowing> lockById(@Param("id") Long id);
+
+       @Query(ROW_SELECT + "WHERE eb.id = :id")
+       Optional<EquipmentBorrowingRow> findRowById(@Param("id") Long id);
+
+       @Query(ROW_SELECT + "WHERE u.id = :userId ORDER BY eb.borrowDate DESC")
+       List<EquipmentBorrowingRow> findRowsByUserId(@Param("userId") Long userId);
+
+       @Query(ROW_SELECT + "WHERE eb.status = :status ORDER BY eb.borrowDate ASC")
+       List<EquipmentBorrowingRow> findRowsByStatus(@Param("status") BorrowingStatus status);
+
+       // Callers pass EquipmentUsageLedger.HOLDING_STATUSES, so the bookings shown are the ones the ledger counts
+       @Query(ROW_SELECT + "WHERE e.id = :equipmentId " +
+                     "AND eb.status IN :statuses " +
+                     "AND NOT (eb.expectedReturnDate < :startDate OR eb.borrowDate > :endDate)")
+       List<EquipmentBorrowingRow> findOverlappingRows(@Param("equipmentId") Long equipmentId,
+                                                       @Param("statuses") Collection<BorrowingStatus> statuses,
+                                                       @Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate);
+
+       // Keyset pages, newest first; the cursor is the (createdAt, id) of the previous page's last row
+       @Query(ROW_SELECT + "ORDER BY eb.createdAt DESC, eb.id DESC")
+       List<EquipmentBorrowingRow> findFirstPage(Pageable pageable);
+
+       @Query(ROW_SELECT + "WHERE eb.createdAt <= :createdAt " +
+                     "AND (eb.createdAt < :createdAt OR eb.id < :id) " +
+                     "ORDER BY eb.createdAt DESC, eb.id DESC")
+       List<EquipmentBorrowingRow> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                 Pageable pageable);
 }
@@ -0,0 +1,32 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.EquipmentDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EquipmentDailyRollupRepository extends JpaRepository<EquipmentDailyRollup, Long> {
+
+    // (date, count) of borrowings per borrow date in [startDate, endDate]
+    @Query("SELECT r.rollupDate, SUM(r.borrowings) FROM EquipmentDailyRollup r " +
+           "WHERE r.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.rollupDate " +
+           "ORDER BY r.rollupDate")
+    List<Object[]> getDailyBorrowingCounts(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    // Same columns as EquipmentBorrowingRepository.getEquipmentUsageReport
+    @Query("SELECT e.id, e.name, e.category, e.quantityTotal, e.quantityAvailable, SUM(r.borrowings), " +
+           "SUM(CASE WHEN r.status = 'OVERDUE' THEN r.borrowings ELSE 0 END) " +
+           "FROM EquipmentDailyRollup r, Equipment e " +
+           "WHERE e.id = r.equipmentId " +
+           "GROUP BY e.id, e.name, e.category, e.quantityTotal, e.quantityAvailable " +
+           "HAVING SUM(r.borrowings) > 0 " +
+           "ORDER BY SUM(r.borrowings) DESC")
+    List<Object[]> getEquipmentUsageReport();
+}
@@ -0,0 +1,23 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.EquipmentDayUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EquipmentDayUsageRepository extends JpaRepository<EquipmentDayUsage, Long> {
+
+    List<EquipmentDayUsage> findByEquipmentIdAndUsageDateBetween(Long equipmentId, LocalDate startDate, LocalDate endDate);
+
+    // Peak units in use on any day of the range
+    @Query("SELECT COALESCE(MAX(u.unitsInUse), 0) FROM EquipmentDayUsage u " +
+           "WHERE u.equipmentId = :equipmentId AND u.usageDate BETWEEN :startDate AND :endDate")
+    Integer findMaxUnitsInUse(@Param("equipmentId") Long equipmentId,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate);
+}
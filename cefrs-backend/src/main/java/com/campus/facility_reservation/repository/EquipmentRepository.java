@@ -3,9 +3,14 @@ package com.campus.facility_reservation.repository;
 import com.campus.facility_reservation.model.Equipment;
 import com.campus.facility_reservation.model.Equipment.EquipmentCategory;
 import com.campus.facility_reservation.model.Equipment.EquipmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -22,4 +27,31 @@ public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
     List<Equipment> findByNameContainingIgnoreCase(String name);
     
     List<Equipment> findByStatusOrderByNameAsc(EquipmentStatus status);
-}
\ No newline at end of file
+
+    // Atomic stock counters: single conditional UPDATEs instead of read-modify-write on the entity.
+    // Both return the number of rows changed, 0 means the condition did not hold.
+
+    @Modifying
+    @Query("UPDATE Equipment e SET e.quantityAvailable = e.quantityAvailable - :quantity, " +
+           "e.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE e.id = :id AND e.quantityAvailable >= :quantity")
+    int decrementAvailable(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    // Never lets the available count exceed the total, even for legacy rows that were not deducted
+    @Modifying
+    @Query("UPDATE Equipment e SET e.quantityAvailable = " +
+           "CASE WHEN e.quantityAvailable + :quantity > e.quantityTotal THEN e.quantityTotal " +
+           "ELSE e.quantityAvailable + :quantity END, " +
+           "e.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE e.id = :id")
+    int incrementAvailable(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    // Keyset pages, newest first; the cursor is the (createdAt, id) of the previous page's last row
+    @Query("SELECT e FROM Equipment e ORDER BY e.createdAt DESC, e.id DESC")
+    List<Equipment> findFirstPage(Pageable pageable);
+
+    @Query("SELECT e FROM Equipment e WHERE e.createdAt <= :createdAt " +
+           "AND (e.createdAt < :createdAt OR e.id < :id) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Equipment> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.FacilityDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface FacilityDailyRollupRepository extends JpaRepository<FacilityDailyRollup, Long> {
+
+    // (date, count) of reservations per reservation date in [startDate, endDate]
+    @Query("SELECT r.rollupDate, SUM(r.reservations) FROM FacilityDailyRollup r " +
+           "WHERE r.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.rollupDate " +
+           "ORDER BY r.rollupDate")
+    List<Object[]> getDailyReservationCounts(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    // Same columns as FacilityReservationRepository.getFacilityUsageReport
+    @Query("SELECT f.id, f.name, f.type, SUM(r.reservations), " +
+           "SUM(CASE WHEN r.status = 'APPROVED' THEN r.reservations ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = 'PENDING' THEN r.reservations ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = 'REJECTED' THEN r.reservations ELSE 0 END) " +
+           "FROM FacilityDailyRollup r, Facility f " +
+           "WHERE f.id = r.facilityId " +
+           "GROUP BY f.id, f.name, f.type " +
+           "HAVING SUM(r.reservations) > 0 " +
+           "ORDER BY SUM(r.reservations) DESC")
+    List<Object[]> getFacilityUsageReport();
+}
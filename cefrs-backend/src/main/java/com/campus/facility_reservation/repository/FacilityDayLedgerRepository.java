@@ -0,0 +1,28 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.FacilityDayLedger;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface FacilityDayLedgerRepository extends JpaRepository<FacilityDayLedger, Long> {
+
+    // Creates the guard row if it does not exist yet; a concurrent insert of the same day is ignored
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO facility_day_ledger (facility_id, ledger_date, created_at) " +
+                   "VALUES (:facilityId, :date, NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("facilityId") Long facilityId, @Param("date") LocalDate date);
+
+    // SELECT ... FOR UPDATE on the guard row, held until the booking transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM FacilityDayLedger l WHERE l.facilityId = :facilityId AND l.ledgerDate = :date")
+    Optional<FacilityDayLedger> lockDay(@Param("facilityId") Long facilityId, @Param("date") LocalDate date);
+}
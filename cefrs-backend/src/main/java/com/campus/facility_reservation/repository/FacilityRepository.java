@@ -3,9 +3,13 @@ package com.campus.facility_reservation.repository;
 import com.campus.facility_reservation.model.Facility;
 import com.campus.facility_reservation.model.Facility.FacilityStatus;
 import com.campus.facility_reservation.model.Facility.FacilityType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -22,4 +26,22 @@ public interface FacilityRepository extends JpaRepository<Facility, Long> {
     List<Facility> findByCapacityGreaterThanEqualAndStatus(Integer capacity, FacilityStatus status);
     
     List<Facility> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+
+    // Candidate rooms for the free-slot finder; type and building are optional
+    @Query("SELECT f FROM Facility f WHERE f.status = 'AVAILABLE' " +
+           "AND f.capacity >= :minCapacity " +
+           "AND (:type IS NULL OR f.type = :type) " +
+           "AND (:building IS NULL OR LOWER(f.building) LIKE LOWER(CONCAT('%', :building, '%')))")
+    List<Facility> findBookableFacilities(@Param("minCapacity") Integer minCapacity,
+                                          @Param("type") FacilityType type,
+                                          @Param("building") String building);
+
+    // Keyset pages, newest first; the cursor is the (createdAt, id) of the previous page's last row
+    @Query("SELECT f FROM Facility f ORDER BY f.createdAt DESC, f.id DESC")
+    List<Facility> findFirstPage(Pageable pageable);
+
+    @Query("SELECT f FROM Facility f WHERE f.createdAt <= :createdAt " +
+           "AND (f.createdAt < :createdAt OR f.id < :id) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Facility> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
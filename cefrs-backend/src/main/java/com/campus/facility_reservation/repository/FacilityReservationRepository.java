@@ -1,20 +1,34 @@
 package com.campus.facility_reservation.repository;
 
+import com.campus.facility_reservation.dto.FacilityReservationRow;
 import com.campus.facility_reservation.model.FacilityReservation;
 import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
 import com.campus.facility_reservation.model.User;
 import com.campus.facility_reservation.model.Facility;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FacilityReservationRepository extends JpaRepository<FacilityReservation, Long> {
+
+    // Read views join the user and facility names in the same statement instead of loading the
+    // lazy associations row by row
+    String ROW_SELECT = "SELECT new com.campus.facility_reservation.dto.FacilityReservationRow(" +
+            "fr.id, u.id, u.firstName, u.lastName, f.id, f.name, fr.reservationDate, fr.startTime, " +
+            "fr.endTime, fr.purpose, fr.status, fr.adminNotes, fr.createdAt) " +
+            "FROM FacilityReservation fr JOIN fr.user u JOIN fr.facility f ";
     
     List<FacilityReservation> findByUserOrderByReservationDateDescStartTimeDesc(User user);
     
@@ -39,6 +53,27 @@ public interface FacilityReservationRepository extends JpaRepository<FacilityRes
         @Param("endTime") LocalTime endTime
     );
     
+    // Non-rejected/non-cancelled reservations of one facility-day, used to load the conflict index
+    @Query(ROW_SELECT + "WHERE f.id = :facilityId " +
+           "AND fr.reservationDate = :date " +
+           "AND fr.status NOT IN ('REJECTED', 'CANCELLED') " +
+           "ORDER BY fr.startTime")
+    List<FacilityReservationRow> findActiveReservationsForDay(
+        @Param("facilityId") Long facilityId,
+        @Param("date") LocalDate date
+    );
+    
+    // Busy intervals (facilityId, date, startTime, endTime) of many facilities over a date range
+    @Query("SELECT fr.facility.id, fr.reservationDate, fr.startTime, fr.endTime " +
+           "FROM FacilityReservation fr WHERE fr.facility.id IN :facilityIds " +
+           "AND fr.reservationDate BETWEEN :startDate AND :endDate " +
+           "AND fr.status NOT IN ('REJECTED', 'CANCELLED')")
+    List<Object[]> findBusyIntervals(
+        @Param("facilityIds") Collection<Long> facilityIds,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+    
     List<FacilityReservation> findTop5ByUserOrderByCreatedAtDesc(User user);
     
     Long countByStatus(ReservationStatus status);
@@ -104,4 +139,27 @@ public interface FacilityReservationRepository extends JpaRepository<FacilityRes
     // Unique users count
     @Query("SELECT COUNT(DISTINCT fr.user.id) FROM FacilityReservation fr")
     Long countUniqueUsers();
+
+    // SELECT ... FOR UPDATE, so concurrent status changes of one request apply one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM FacilityReservation r WHERE r.id = :id")
+    Optional<FacilityReservation> lockById(@Param("id") Long id);
+
+    @Query(ROW_SELECT + "WHERE fr.id = :id")
+    Optional<FacilityReservationRow> findRowById(@Param("id") Long id);
+
+    @Query(ROW_SELECT + "WHERE u.id = :userId ORDER BY fr.reservationDate DESC, fr.startTime DESC")
+    List<FacilityReservationRow> findRowsByUserId(@Param("userId") Long userId);
+
+    @Query(ROW_SELECT + "WHERE fr.status = :status ORDER BY fr.reservationDate ASC, fr.startTime ASC")
+    List<FacilityReservationRow> findRowsByStatus(@Param("status") ReservationStatus status);
+
+    // Keyset pages, newest first; the cursor is the (createdAt, id) of the previous page's last row
+    @Query(ROW_SELECT + "ORDER BY fr.createdAt DESC, fr.id DESC")
+    List<FacilityReservationRow> findFirstPage(Pageable pageable);
+
+    @Query(ROW_SELECT + "WHERE fr.createdAt <= :createdAt " +
+           "AND (fr.createdAt < :createdAt OR fr.id < :id) " +
+           "ORDER BY fr.createdAt DESC, fr.id DESC")
+    List<FacilityReservationRow> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 }
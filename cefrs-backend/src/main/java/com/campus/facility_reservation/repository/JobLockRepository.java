@@ -0,0 +1,24 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // Creates the guard row if it does not exist yet; a concurrent insert of the same job is ignored
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_lock (job_name) VALUES (:jobName)", nativeQuery = true)
+    int insertIfAbsent(@Param("jobName") String jobName);
+
+    // Empty when another instance already holds the row; never waits for it
+    @Query(value = "SELECT job_name FROM job_lock WHERE job_name = :jobName FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<String> tryLock(@Param("jobName") String jobName);
+}
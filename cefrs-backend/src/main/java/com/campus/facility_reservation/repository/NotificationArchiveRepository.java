@@ -0,0 +1,25 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.NotificationArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+
+    // Keyset pages, newest first, same cursor as the inbox
+    @Query("SELECT a FROM NotificationArchive a WHERE a.userId = :userId ORDER BY a.createdAt DESC, a.id DESC")
+    List<NotificationArchive> findFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM NotificationArchive a WHERE a.userId = :userId AND a.createdAt <= :createdAt " +
+           "AND (a.createdAt < :createdAt OR a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<NotificationArchive> findPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_outbox (user_id, event, reference_id, subject, status, created_at, " +
+                   "attempts, next_attempt_at) VALUES (:userId, :event, :referenceId, :subject, :status, NOW(6), 0, NOW(6))",
+           nativeQuery = true)
+    int enqueue(@Param("userId") Long userId,
+                @Param("event") String event,
+                @Param("referenceId") Long referenceId,
+                @Param("subject") String subject,
+                @Param("status") String status);
+
+    // Rows still due for delivery (dead rows, past the retry limit, are left for inspection)
+    @Query("SELECT COUNT(o) FROM NotificationOutbox o WHERE o.attempts < :maxAttempts")
+    long countPending(@Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT MIN(o.createdAt) FROM NotificationOutbox o WHERE o.attempts < :maxAttempts")
+    LocalDateTime findOldestPending(@Param("maxAttempts") int maxAttempts);
+}
@@ -3,21 +3,63 @@ package com.campus.facility_reservation.repository;
 import com.campus.facility_reservation.model.Notification;
 import com.campus.facility_reservation.model.Notification.NotificationType;
 import com.campus.facility_reservation.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    List<Notification> findByUserOrderByCreatedAtDesc(User user);
-    
-    List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user);
-    
     List<Notification> findByUserAndType(User user, NotificationType type);
     
-    Long countByUserAndIsReadFalse(User user);
-    
     List<Notification> findTop10ByUserOrderByCreatedAtDesc(User user);
-}
\ No newline at end of file
+
+    // Served by idx_notification_user_read_created without touching the rows
+    long countByUser_IdAndIsReadFalse(Long userId);
+
+    // Inbox keyset pages, newest first; the cursor is the (createdAt, id) of the previous page's last row.
+    // Each page is a range scan of idx_notification_user_created_id, however long the history is.
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.createdAt <= :createdAt " +
+           "AND (n.createdAt < :createdAt OR n.id < :id) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id, Pageable pageable);
+
+    // Same for unread only, on idx_notification_user_read_created
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead = false " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findUnreadFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead = false " +
+           "AND n.createdAt <= :createdAt AND (n.createdAt < :createdAt OR n.id < :id) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findUnreadPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Pageable pageable);
+
+    // Set-based updates: one statement however many notifications the user has.
+    // Each returns the number of rows it changed.
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllReadByUserId(@Param("userId") Long userId);
+
+    // Ids of other users' notifications are ignored
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.user.id = :userId AND n.id IN :ids AND n.isRead = false")
+    int markReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.user.id = :userId AND n.isRead = true AND n.createdAt < :before")
+    int deleteReadBefore(@Param("userId") Long userId, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,20 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.ReservationHourlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReservationHourlyRollupRepository extends JpaRepository<ReservationHourlyRollup, Long> {
+
+    // (hour, count) of approved reservations by starting hour, busiest first
+    @Query("SELECT h.startHour, SUM(h.reservations) FROM ReservationHourlyRollup h " +
+           "WHERE h.status = 'APPROVED' " +
+           "GROUP BY h.startHour " +
+           "HAVING SUM(h.reservations) > 0 " +
+           "ORDER BY SUM(h.reservations) DESC")
+    List<Object[]> getHourlyActivity();
+}
@@ -0,0 +1,33 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Returns 0 when the jti was already revoked, which is how a reused refresh token is detected
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO revoked_token (jti, user_id, expires_at, revoked_at, reason) " +
+                   "VALUES (:jti, :userId, :expiresAt, :revokedAt, :reason)", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti,
+                       @Param("userId") Long userId,
+                       @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("revokedAt") LocalDateTime revokedAt,
+                       @Param("reason") String reason);
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime since, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
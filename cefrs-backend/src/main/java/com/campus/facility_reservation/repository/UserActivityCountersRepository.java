@@ -0,0 +1,56 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.UserActivityCounters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserActivityCountersRepository extends JpaRepository<UserActivityCounters, Long> {
+
+    // Adds the deltas to the user's row, creating it on the user's first request
+    @Modifying
+    @Query(value = "INSERT INTO user_activity_counters (user_id, reservations_total, reservations_pending, " +
+                   "reservations_approved, borrowings_total, borrowings_pending, borrowings_borrowed, updated_at) " +
+                   "VALUES (:userId, :reservationsTotal, :reservationsPending, :reservationsApproved, " +
+                   ":borrowingsTotal, :borrowingsPending, :borrowingsBorrowed, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "reservations_total = reservations_total + VALUES(reservations_total), " +
+                   "reservations_pending = reservations_pending + VALUES(reservations_pending), " +
+                   "reservations_approved = reservations_approved + VALUES(reservations_approved), " +
+                   "borrowings_total = borrowings_total + VALUES(borrowings_total), " +
+                   "borrowings_pending = borrowings_pending + VALUES(borrowings_pending), " +
+                   "borrowings_borrowed = borrowings_borrowed + VALUES(borrowings_borrowed), " +
+                   "updated_at = NOW()", nativeQuery = true)
+    int addDeltas(@Param("userId") Long userId,
+                  @Param("reservationsTotal") long reservationsTotal,
+                  @Param("reservationsPending") long reservationsPending,
+                  @Param("reservationsApproved") long reservationsApproved,
+                  @Param("borrowingsTotal") long borrowingsTotal,
+                  @Param("borrowingsPending") long borrowingsPending,
+                  @Param("borrowingsBorrowed") long borrowingsBorrowed);
+
+    // Rebuilds every user's row from the reservation and borrowing tables in one statement
+    @Modifying
+    @Query(value = "INSERT INTO user_activity_counters (user_id, reservations_total, reservations_pending, " +
+                   "reservations_approved, borrowings_total, borrowings_pending, borrowings_borrowed, updated_at) " +
+                   "SELECT user_id, SUM(rt), SUM(rp), SUM(ra), SUM(bt), SUM(bp), SUM(bb), NOW() FROM (" +
+                   "SELECT user_id, 1 AS rt, CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END AS rp, " +
+                   "CASE WHEN status = 'APPROVED' THEN 1 ELSE 0 END AS ra, 0 AS bt, 0 AS bp, 0 AS bb " +
+                   "FROM facility_reservation " +
+                   "UNION ALL " +
+                   "SELECT user_id, 0, 0, 0, 1, CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END, " +
+                   "CASE WHEN status = 'BORROWED' THEN 1 ELSE 0 END " +
+                   "FROM equipment_borrowing) activity GROUP BY user_id " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "reservations_total = VALUES(reservations_total), " +
+                   "reservations_pending = VALUES(reservations_pending), " +
+                   "reservations_approved = VALUES(reservations_approved), " +
+                   "borrowings_total = VALUES(borrowings_total), " +
+                   "borrowings_pending = VALUES(borrowings_pending), " +
+                   "borrowings_borrowed = VALUES(borrowings_borrowed), " +
+                   "updated_at = NOW()", nativeQuery = true)
+    int rebuildAll();
+}
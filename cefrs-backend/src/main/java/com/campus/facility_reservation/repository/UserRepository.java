@@ -1,8 +1,12 @@
 package com.campus.facility_reservation.repository;
 
 import com.campus.facility_reservation.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -12,4 +16,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     boolean existsByPhoneNumber(String phoneNumber);
     List<User> findByRole_Name(String roleName);
-}
\ No newline at end of file
+
+    // Keyset pages, newest first; the cursor is the (createdAt, id) of the previous page's last row
+    @Query("SELECT u FROM User u ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findFirstPage(Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.createdAt <= :createdAt " +
+           "AND (u.createdAt < :createdAt OR u.id < :id) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
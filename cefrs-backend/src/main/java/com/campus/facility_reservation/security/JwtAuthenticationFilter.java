@@ -1,5 +1,6 @@
 package com.campus.facility_reservation.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -16,18 +17,26 @@ import java.util.Collections;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // EventSource cannot set headers, so only the notification stream takes the token as a parameter
+    public static final String STREAM_PATH = "/api/notifications/stream";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private TokenRevocationList revocationList;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
-                String role = tokenProvider.getRoleFromToken(jwt);
+            // One verification per token; the principal comes from that single Claims object
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getVerifiedClaims(jwt) : null;
+            if (isUsableAccessToken(claims)) {
+                Long userId = claims.get("id", Long.class);
+                String role = claims.get("role", String.class);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -46,11 +55,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Only revocable access tokens: refresh tokens (and tokens without a type, which older refresh
+    // tokens are) work at /api/auth/refresh only, a token without a jti could never be logged out,
+    // and logged-out tokens do not work at all
+    private boolean isUsableAccessToken(Claims claims) {
+        return claims != null
+                && claims.getId() != null
+                && JwtTokenProvider.ACCESS_TOKEN_TYPE.equals(claims.get("type", String.class))
+                && !revocationList.isRevoked(claims.getId());
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+        if (STREAM_PATH.equals(request.getServletPath())) {
+            return request.getParameter("access_token");
+        }
         return null;
     }
 }
\ No newline at end of file
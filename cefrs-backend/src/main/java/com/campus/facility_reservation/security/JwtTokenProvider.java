@@ -1,82 +1,109 @@
 package com.campus.facility_reservation.security;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    // "type" claim of each kind of token; the filter accepts only access tokens
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
     @Value("${app.jwtSecret:your_jwt_secret_key_make_it_long_and_secure_at_least_32_characters_minimum}")
     private String jwtSecret;
-    
+
     @Value("${app.jwtExpirationMs:3600000}")
     private int jwtExpirationMs;
-    
+
     @Value("${app.jwtRefreshExpirationMs:604800000}")
     private int jwtRefreshExpirationMs;
-    
+
+    @Autowired(required = false)
+    private VerifiedClaimsCache claimsCache;
+
+    // Derived once; the parser is immutable and safe to share between threads
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        // Same key bytes the string-secret API used: the secret is base64-encoded
+        signingKey = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateAccessToken(Long userId, String email, String role) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("id", userId)
                 .claim("role", role)
+                .claim("type", ACCESS_TOKEN_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
-    
+
     public String generateRefreshToken(Long userId, String email) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("id", userId)
+                .claim("type", REFRESH_TOKEN_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
-    
-    public Long getUserIdFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .get("id", Long.class);
-    }
-    
-    public String getEmailFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-    
-    public String getRoleFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
-    }
-    
-    public boolean validateToken(String token) {
+
+    // Parses and verifies the token once; null when it is invalid or expired
+    public Claims verify(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (SignatureException e) {
-            System.out.println("Invalid JWT signature: " + e.getMessage());
+            logger.debug("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
-            System.out.println("Invalid JWT token: " + e.getMessage());
+            logger.debug("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            System.out.println("Expired JWT token: " + e.getMessage());
+            logger.debug("Expired JWT token: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.out.println("Unsupported JWT token: " + e.getMessage());
+            logger.debug("Unsupported JWT token: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            System.out.println("JWT claims string is empty: " + e.getMessage());
+            logger.debug("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    // Like verify, but a token seen before skips the signature check until it expires
+    public Claims getVerifiedClaims(String token) {
+        if (claimsCache == null) {
+            return verify(token);
+        }
+        Claims claims = claimsCache.get(token);
+        if (claims == null) {
+            claims = verify(token);
+            if (claims != null) {
+                claimsCache.put(token, claims);
+            }
+        }
+        return claims;
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
-}
\ No newline at end of file
+}
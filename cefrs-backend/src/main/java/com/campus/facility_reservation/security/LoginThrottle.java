@@ -0,0 +1,176 @@
+package com.campus.facility_reservation.security;
+
+import com.campus.facility_reservation.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding-window limits on failed login attempts, per account and per client IP, checked before
+ * the user is looked up or any password is hashed. Each key keeps the times of its recent
+ * attempts, oldest first, so "N attempts within the window" is one comparison against the head.
+ *
+ * An attempt holds a slot in both windows while the password is checked, so concurrent guesses
+ * cannot all slip past a nearly full window. A successful login clears the account's window and
+ * gives its IP slot back: only failures count against an address, so users behind one proxy or
+ * NAT do not share a budget of successful logins. An attempt that ends before any credential was
+ * checked (the hashing pool was full, the database failed) gives both slots back. Idle windows
+ * are dropped every few minutes.
+ *
+ * The client IP is the request's remote address; with server.forward-headers-strategy=native,
+ * Tomcat takes it from X-Forwarded-For when the connection comes from a trusted proxy.
+ */
+@Component
+public class LoginThrottle {
+
+    private final int maxPerAccount;
+    private final int maxPerIp;
+    private final long windowMillis;
+
+    private final ConcurrentHashMap<String, AttemptWindow> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AttemptWindow> addresses = new ConcurrentHashMap<>();
+
+    private final Counter accountRejections;
+    private final Counter ipRejections;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${app.login.maxAttemptsPerAccount:5}") int maxPerAccount,
+                         @Value("${app.login.maxAttemptsPerIp:30}") int maxPerIp,
+                         @Value("${app.login.windowSeconds:900}") long windowSeconds) {
+        this.maxPerAccount = maxPerAccount;
+        this.maxPerIp = maxPerIp;
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.accountRejections = Counter.builder("auth.login.rejections")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", "account")
+                .register(meterRegistry);
+        this.ipRejections = Counter.builder("auth.login.rejections")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", "ip")
+                .register(meterRegistry);
+    }
+
+    // Takes a slot in the IP window, then the account window; throws at the first full one. The
+    // attempt counts as failed unless succeeded() is called on the returned handle.
+    public Attempt acquire(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        String accountKey = accountKey(email);
+        AttemptWindow address = clientIp != null
+                ? addresses.computeIfAbsent(clientIp, key -> new AttemptWindow(maxPerIp)) : null;
+
+        if (address != null) {
+            long retryAfter = address.tryRecord(now, windowMillis);
+            if (retryAfter > 0) {
+                ipRejections.increment();
+                throw new TooManyRequestsException("Too many login attempts from this address. Please try again later.",
+                        retryAfterSeconds(retryAfter));
+            }
+        }
+        // Only after the IP check, so a blocked address spraying emails creates no account windows
+        AttemptWindow account = accounts.computeIfAbsent(accountKey, key -> new AttemptWindow(maxPerAccount));
+        long retryAfter = account.tryRecord(now, windowMillis);
+        if (retryAfter > 0) {
+            if (address != null) {
+                address.release(now);
+            }
+            accountRejections.increment();
+            throw new TooManyRequestsException("Too many login attempts for this account. Please try again later.",
+                    retryAfterSeconds(retryAfter));
+        }
+        return new Attempt(accountKey, account, address, now);
+    }
+
+    int trackedAccounts() {
+        return accounts.size();
+    }
+
+    @Scheduled(fixedDelay = 300000)
+    public void dropIdleWindows() {
+        long now = System.currentTimeMillis();
+        accounts.values().removeIf(window -> window.idleSince(now, windowMillis));
+        addresses.values().removeIf(window -> window.idleSince(now, windowMillis));
+    }
+
+    // Whole seconds, rounded up, so a client that waits that long is let in
+    private static long retryAfterSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+
+    private static String accountKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // One login attempt that passed the throttle
+    public final class Attempt {
+
+        private final String accountKey;
+        private final AttemptWindow account;
+        private final AttemptWindow address;
+        private final long startedAt;
+
+        private Attempt(String accountKey, AttemptWindow account, AttemptWindow address, long startedAt) {
+            this.accountKey = accountKey;
+            this.account = account;
+            this.address = address;
+            this.startedAt = startedAt;
+        }
+
+        // The password matched: forget the account's failures and give back the IP slot
+        public void succeeded() {
+            accounts.remove(accountKey);
+            if (address != null) {
+                address.release(startedAt);
+            }
+        }
+
+        // Nothing was checked, e.g. the server was too busy to hash: the attempt does not count
+        public void abandoned() {
+            account.release(startedAt);
+            if (address != null) {
+                address.release(startedAt);
+            }
+        }
+    }
+
+    // Times of the attempts still inside the window, oldest first, at most `limit` of them
+    static final class AttemptWindow {
+
+        private final int limit;
+        private final ArrayDeque<Long> attempts;
+        private long lastUsed;
+
+        AttemptWindow(int limit) {
+            this.limit = Math.max(limit, 1);
+            this.attempts = new ArrayDeque<>(this.limit);
+        }
+
+        // 0 when recorded, otherwise milliseconds until the oldest attempt leaves the window
+        synchronized long tryRecord(long now, long windowMillis) {
+            lastUsed = now;
+            while (!attempts.isEmpty() && now - attempts.peekFirst() >= windowMillis) {
+                attempts.pollFirst();
+            }
+            if (attempts.size() >= limit) {
+                return windowMillis - (now - attempts.peekFirst());
+            }
+            attempts.addLast(now);
+            return 0;
+        }
+
+        // Takes back an attempt recorded at the given time
+        synchronized void release(long recordedAt) {
+            attempts.removeLastOccurrence(recordedAt);
+        }
+
+        synchronized boolean idleSince(long now, long windowMillis) {
+            return now - lastUsed >= windowMillis;
+        }
+    }
+}
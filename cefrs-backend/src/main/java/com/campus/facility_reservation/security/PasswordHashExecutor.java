@@ -0,0 +1,101 @@
+package com.campus.facility_reservation.security;
+
+import com.campus.facility_reservation.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt password checks on a small fixed pool with a bounded queue, so a burst of login
+ * attempts can use at most `threads` cores for hashing instead of every request thread. When
+ * the queue is full the attempt fails immediately with 429 rather than waiting in line.
+ */
+@Component
+public class PasswordHashExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Timer hashTimer;
+    private final Counter poolRejections;
+    private final Counter timeouts;
+
+    public PasswordHashExecutor(PasswordEncoder passwordEncoder,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.login.hashThreads:2}") int threads,
+                                @Value("${app.login.hashQueue:32}") int queueCapacity,
+                                @Value("${app.login.hashTimeoutMs:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent verifying a password hash")
+                .register(meterRegistry);
+        this.poolRejections = Counter.builder("auth.login.rejections")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", "hash_pool_full")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("auth.login.rejections")
+                .description("Login attempts refused before the password was checked")
+                .tag("reason", "hash_timeout")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Password checks waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> hashTimer.recordCallable(
+                    () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+        } catch (RejectedExecutionException e) {
+            poolRejections.increment();
+            throw new TooManyRequestsException("Login service is busy. Please try again shortly.", 1);
+        }
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timeouts.increment();
+            throw new TooManyRequestsException("Login service is busy. Please try again shortly.", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Login was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Password check failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,168 @@
+package com.campus.facility_reservation.security;
+
+import com.campus.facility_reservation.model.RevokedToken;
+import com.campus.facility_reservation.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token ids (jti) that have been revoked before their expiry. The revoked_token table is the
+ * durable copy; every instance keeps the unexpired ids in memory so the per-request check in
+ * JwtAuthenticationFilter never touches the database. A Bloom filter answers "certainly not
+ * revoked" for almost every token with a few array reads, and only possible hits go on to the
+ * exact set. Revocations made by other instances are picked up by a periodic sync, and rows
+ * are pruned (and the filter rebuilt) once the tokens they name have expired.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final int HASHES = 4;
+    // Revocations committed shortly before the previous sync may not have been visible to it
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int bloomBits;
+
+    // jti -> token expiry in epoch millis
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile AtomicLongArray bloom;
+    private volatile LocalDateTime lastSync = LocalDateTime.now();
+
+    public TokenRevocationList(RevokedTokenRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.tokenRevocation.bloomBits:1048576}") int bloomBits) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Power of two so a bit index is a mask, not a modulo
+        this.bloomBits = Integer.highestOneBit(Math.max(bloomBits, 64) - 1) << 1;
+        this.bloom = new AtomicLongArray(this.bloomBits / 64);
+    }
+
+    // Hot path: no allocation, no locking and no database access
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        AtomicLongArray bits = bloom;
+        long hash = hash64(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int mask = bits.length() * 64 - 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return revoked.containsKey(jti);
+    }
+
+    // Returns false when the jti had already been revoked, so a refresh token can be spent only once
+    @Transactional
+    public boolean revoke(String jti, Long userId, Date expiresAt, RevokedToken.Reason reason) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        if (repository.insertIfAbsent(jti, userId, expiry, LocalDateTime.now(), reason.name()) == 0) {
+            return false;
+        }
+        long expiresAtMillis = expiresAt.getTime();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(jti, expiresAtMillis);
+            }
+        });
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        rememberAll(repository.findByExpiresAtAfter(now));
+        lastSync = now;
+    }
+
+    // Picks up tokens revoked through other instances
+    @Scheduled(fixedDelayString = "${app.tokenRevocation.syncMs:30000}")
+    public void syncFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        rememberAll(repository.findByRevokedAtAfterAndExpiresAtAfter(
+                lastSync.minusSeconds(SYNC_OVERLAP_SECONDS), now));
+        lastSync = now;
+    }
+
+    // An expired token fails verification on its own, so its revocation is no longer needed
+    @Scheduled(cron = "0 5 * * * *")
+    public void pruneExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> repository.deleteExpired(now));
+
+        long nowMillis = System.currentTimeMillis();
+        synchronized (this) {
+            revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+            // Bloom filters cannot forget, so build a fresh one from what is left
+            AtomicLongArray rebuilt = new AtomicLongArray(bloomBits / 64);
+            for (String jti : revoked.keySet()) {
+                setBits(rebuilt, jti);
+            }
+            bloom = rebuilt;
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void rememberAll(List<RevokedToken> tokens) {
+        for (RevokedToken token : tokens) {
+            remember(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    // Writers are rare (logout, refresh) and serialized, so they never race a rebuild
+    private synchronized void remember(String jti, long expiresAtMillis) {
+        revoked.put(jti, expiresAtMillis);
+        setBits(bloom, jti);
+    }
+
+    private static void setBits(AtomicLongArray bits, String jti) {
+        long hash = hash64(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int mask = bits.length() * 64 - 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits.set(bit >>> 6, bits.get(bit >>> 6) | (1L << bit));
+        }
+    }
+
+    // FNV-1a over the characters, then the murmur3 finalizer to spread the bits
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,89 @@
+package com.campus.facility_reservation.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims of tokens whose signature has already been verified, keyed by the SHA-256 of the
+ * token so the raw token is never held as a key. An entry lives until the token's own expiry
+ * and never longer than maxTtlMs. The map is bounded: once full, new tokens are simply not
+ * cached until expired entries have been purged.
+ */
+@Component
+public class VerifiedClaimsCache {
+
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long maxTtlMillis;
+
+    public VerifiedClaimsCache(@Value("${app.jwtClaimsCache.maxEntries:10000}") int maxEntries,
+                               @Value("${app.jwtClaimsCache.maxTtlMs:300000}") long maxTtlMillis) {
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlMillis;
+    }
+
+    public Claims get(String token) {
+        ByteBuffer key = keyOf(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    public void put(String token, Claims claims) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTtlMillis;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        if (expiresAt <= now || maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            purgeExpired();
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(keyOf(token), new Entry(claims, expiresAt));
+    }
+
+    public void evict(String token) {
+        entries.remove(keyOf(token));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private static ByteBuffer keyOf(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
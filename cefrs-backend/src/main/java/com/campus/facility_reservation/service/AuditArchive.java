@@ -0,0 +1,230 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.AuditLogRow;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.PageCursor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * The audit rows that AuditLogArchiver has moved out of audit_log, as memory-mapped segment
+ * files under one directory per month (data/audit/archive/2025-03/00000042.aseg). Searches merge
+ * them with the rows still in the table, so the audit query API does not change when rows age
+ * out; a page that the table fills with rows newer than anything archived never opens a segment.
+ *
+ * The directory is the only copy of the archived rows, so it must be persistent storage (a
+ * volume, not a container's scratch filesystem) and backed up with the database. With more than
+ * one application instance it must also be shared by all of them: only one instance archives at
+ * a time (AuditLogArchiver holds a job_lock row), and each instance rescans the directory every
+ * app.audit.archive.rescanMs for segments written elsewhere. Rows another instance has just
+ * archived can be missing from this instance's searches until then.
+ */
+@Component
+public class AuditArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchive.class);
+
+    // Same order as the table's pages: newest first, log_id breaking ties
+    private static final Comparator<AuditLogRow> NEWEST_FIRST = Comparator
+            .comparing(AuditLogRow::createdAt, Comparator.reverseOrder())
+            .thenComparing(AuditLogRow::logId, Comparator.reverseOrder());
+
+    private final Path directory;
+    private final int blockRecords;
+
+    // In sequence order; segments are only ever added
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    private final Set<Path> known = new HashSet<>();
+    private volatile long newestMicros = Long.MIN_VALUE;
+    private long nextSequence = 1;
+
+    public AuditArchive(@Value("${app.audit.archive.dir:data/audit/archive}") String directory,
+                        @Value("${app.audit.archive.blockRecords:512}") int blockRecords) {
+        this.directory = Paths.get(directory);
+        this.blockRecords = blockRecords;
+    }
+
+    @PostConstruct
+    public void load() {
+        rescan();
+        logger.info("Audit archive: {} segments under {}", segments.size(), directory);
+    }
+
+    // Picks up segments written since the last scan, by this instance or another one
+    @Scheduled(fixedDelayString = "${app.audit.archive.rescanMs:60000}")
+    public synchronized void rescan() {
+        for (Path file : files(AuditSegment.EXTENSION)) {
+            if (known.contains(file)) {
+                continue;
+            }
+            try {
+                register(AuditSegment.open(file));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open audit archive segment " + file, e);
+            }
+            nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+        }
+    }
+
+    // Archiver only, while it holds the run lock: segments whose write never finished; their
+    // rows are still in the table
+    synchronized void deleteUnfinished() throws IOException {
+        for (Path file : files(".tmp")) {
+            Files.delete(file);
+        }
+    }
+
+    // Archiver only: writes the rows (in created_at, log_id order) as the next segment of their month
+    synchronized AuditSegment append(YearMonth month, List<AuditLogRow> rows) throws IOException {
+        // Numbers taken by another instance's segments are not reused
+        rescan();
+        Path monthDirectory = directory.resolve(month.toString());
+        Files.createDirectories(monthDirectory);
+        Path file = monthDirectory.resolve(String.format("%08d%s", nextSequence, AuditSegment.EXTENSION));
+        AuditSegment.write(file, rows, blockRecords);
+        nextSequence++;
+        AuditSegment segment = AuditSegment.open(file);
+        register(segment);
+        return segment;
+    }
+
+    // The last segment written; its rows may still be in the table if deleting them was cut short
+    AuditSegment newest() {
+        return segments.stream().max(Comparator.comparingLong(segment -> sequenceOf(segment.path()))).orElse(null);
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Merges archived rows into a page read from the table. hot is the table's answer to the same
+     * filter and cursor (at most maxResults rows, newest first); the result has the same shape.
+     * A row found in both places (archived, delete not yet done) is returned once.
+     */
+    public List<AuditLogRow> merge(List<AuditLogRow> hot, AuditLogSearchDTO filter, PageCursor after, int maxResults) {
+        if (segments.isEmpty()) {
+            return hot;
+        }
+        if (hot.size() >= maxResults
+                && AuditSegment.toMicros(hot.get(maxResults - 1).createdAt()) > newestMicros) {
+            return hot;
+        }
+        long fromMicros = filter.getFrom() != null ? AuditSegment.toMicros(filter.getFrom()) : Long.MIN_VALUE;
+        // Exclusive bound from the filter; the cursor bound is inclusive (ties go on log_id)
+        long toMicros = filter.getTo() != null ? AuditSegment.toMicros(filter.getTo()) : Long.MAX_VALUE;
+        long afterMicros = after != null ? AuditSegment.toMicros(after.createdAt()) : Long.MAX_VALUE;
+
+        TreeSet<AuditLogRow> page = new TreeSet<>(NEWEST_FIRST);
+        page.addAll(hot);
+
+        // Newest segments first, so the scan can stop as soon as the page is full of newer rows
+        List<AuditSegment> candidates = new ArrayList<>(segments);
+        candidates.sort(Comparator.comparingLong(AuditSegment::maxMicros).reversed());
+        for (AuditSegment segment : candidates) {
+            if (isFullAndNewerThan(page, maxResults, segment.maxMicros())) {
+                break;
+            }
+            if (segment.maxMicros() < fromMicros || segment.minMicros() >= toMicros || segment.minMicros() > afterMicros) {
+                continue;
+            }
+            // Blocks of a segment are in time order
+            for (int block = segment.blockCount() - 1; block >= 0; block--) {
+                if (segment.blockMin(block) >= toMicros || segment.blockMin(block) > afterMicros) {
+                    continue;
+                }
+                if (segment.blockMax(block) < fromMicros || isFullAndNewerThan(page, maxResults, segment.blockMax(block))) {
+                    break;
+                }
+                for (AuditLogRow row : segment.readBlock(block)) {
+                    if (matches(row, filter, after)) {
+                        page.add(row);
+                        if (page.size() > maxResults) {
+                            page.pollLast();
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(page);
+    }
+
+    private void register(AuditSegment segment) {
+        known.add(segment.path());
+        segments.add(segment);
+        newestMicros = Math.max(newestMicros, segment.maxMicros());
+    }
+
+    private static boolean isFullAndNewerThan(TreeSet<AuditLogRow> page, int maxResults, long micros) {
+        return page.size() >= maxResults && micros < AuditSegment.toMicros(page.last().createdAt());
+    }
+
+    private static boolean matches(AuditLogRow row, AuditLogSearchDTO filter, PageCursor after) {
+        if (filter.getUserId() != null && !filter.getUserId().equals(row.userId())) {
+            return false;
+        }
+        if (filter.getActionType() != null && !filter.getActionType().equals(row.actionType())) {
+            return false;
+        }
+        if (filter.getTableName() != null && !filter.getTableName().equals(row.tableName())) {
+            return false;
+        }
+        if (filter.getRecordId() != null && !filter.getRecordId().equals(row.recordId())) {
+            return false;
+        }
+        if (filter.getFrom() != null && row.createdAt().isBefore(filter.getFrom())) {
+            return false;
+        }
+        if (filter.getTo() != null && !row.createdAt().isBefore(filter.getTo())) {
+            return false;
+        }
+        if (after != null) {
+            int time = row.createdAt().compareTo(after.createdAt());
+            return time < 0 || (time == 0 && row.logId() < after.id());
+        }
+        return true;
+    }
+
+    // Files with the extension in the month directories, in sequence order
+    private List<Path> files(String extension) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> walk = Files.walk(directory, 2)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(extension))
+                    .sorted(Comparator.comparing(AuditArchive::sequenceOf))
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not list audit archive " + directory, e);
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        try {
+            return Long.parseLong(dot < 0 ? name : name.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
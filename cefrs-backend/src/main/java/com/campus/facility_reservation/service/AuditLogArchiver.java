@@ -0,0 +1,192 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.config.SchedulingConfig;
+import com.campus.facility_reservation.dto.AuditLogRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps audit_log to a rolling window of recent months. Each run moves the rows of whole months
+ * that are past the retention period into the AuditArchive, oldest first: a segment of rows is
+ * written and forced to disk, then those rows are deleted from the table in small batches. The
+ * table (and every backup and index scan of it) only ever holds the window; the search API keeps
+ * finding the archived rows.
+ *
+ * If a run stops between writing a segment and finishing its deletes, the next run first deletes
+ * the newest segment's rows again; until then searches simply see each of them once.
+ *
+ * Runs hold the "audit-archive" job_lock row, so with several application instances only one
+ * archives at a time and the others skip that night's run. They must all share the archive
+ * directory (see AuditArchive).
+ */
+@Component
+public class AuditLogArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogArchiver.class);
+
+    static final String JOB_NAME = "audit-archive";
+
+    private static final String OLDEST_SQL = "SELECT MIN(created_at) FROM audit_log";
+
+    // The names are copied as they are now, so archived rows never need the users table again
+    private static final String EXPORT_SQL =
+            "SELECT a.log_id, a.user_id, u.email, u.first_name, u.last_name, a.action_type, a.table_name, " +
+            "a.record_id, a.old_values, a.new_values, a.ip_address, a.created_at " +
+            "FROM audit_log a LEFT JOIN users u ON u.id = a.user_id " +
+            "WHERE a.created_at < ? ORDER BY a.created_at, a.log_id LIMIT ?";
+
+    private static final String DELETE_SQL = "DELETE FROM audit_log WHERE log_id IN (:ids)";
+
+    private static final RowMapper<AuditLogRow> ROW_MAPPER = (rs, rowNum) -> new AuditLogRow(
+            rs.getLong("log_id"),
+            rs.getObject("user_id", Long.class),
+            rs.getString("email"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("action_type"),
+            rs.getString("table_name"),
+            rs.getObject("record_id", Long.class),
+            rs.getString("old_values"),
+            rs.getString("new_values"),
+            rs.getString("ip_address"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final AuditArchive auditArchive;
+    private final JobRunLock jobRunLock;
+    private final int retentionDays;
+    private final int segmentRows;
+    private final int deleteBatchSize;
+    private final int maxSegmentsPerRun;
+    private final long pauseMs;
+    private final Counter archived;
+
+    public AuditLogArchiver(JdbcTemplate jdbcTemplate,
+                            NamedParameterJdbcTemplate namedJdbcTemplate,
+                            AuditArchive auditArchive,
+                            JobRunLock jobRunLock,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.audit.archive.retentionDays:180}") int retentionDays,
+                            @Value("${app.audit.archive.segmentRows:20000}") int segmentRows,
+                            @Value("${app.audit.archive.deleteBatchSize:1000}") int deleteBatchSize,
+                            @Value("${app.audit.archive.maxSegmentsPerRun:100}") int maxSegmentsPerRun,
+                            @Value("${app.audit.archive.pauseMs:100}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.auditArchive = auditArchive;
+        this.jobRunLock = jobRunLock;
+        this.retentionDays = retentionDays;
+        this.segmentRows = segmentRows;
+        this.deleteBatchSize = deleteBatchSize;
+        this.maxSegmentsPerRun = maxSegmentsPerRun;
+        this.pauseMs = pauseMs;
+        this.archived = Counter.builder("audit.events.archived")
+                .description("Audit rows moved from audit_log to archive segments")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.audit.archive.cron:0 45 3 * * *}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public synchronized void archive() {
+        try {
+            if (!jobRunLock.runExclusively(JOB_NAME, this::runLocked)) {
+                logger.info("Audit archiving skipped, another instance is running it");
+            }
+        } catch (RuntimeException e) {
+            logger.error("Audit archiving stopped: {}", e.getMessage());
+        }
+    }
+
+    private void runLocked() {
+        try {
+            // Left by a run that died on any instance; cheap when there is nothing to do
+            auditArchive.deleteUnfinished();
+            finishNewestSegment();
+            // Whole months only: everything before the month that the retention window starts in
+            LocalDateTime cutoff = YearMonth.from(LocalDate.now().minusDays(retentionDays)).atDay(1).atStartOfDay();
+            int total = 0;
+            for (int i = 0; i < maxSegmentsPerRun; i++) {
+                int moved = archiveSegment(cutoff);
+                if (moved == 0) {
+                    break;
+                }
+                total += moved;
+                if (!pause()) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                logger.info("Archived {} audit rows older than {}", total, cutoff);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Moves up to segmentRows of the oldest month's rows into one segment; returns how many
+    int archiveSegment(LocalDateTime cutoff) throws IOException {
+        LocalDateTime oldest = jdbcTemplate.queryForObject(OLDEST_SQL, LocalDateTime.class);
+        if (oldest == null || !oldest.isBefore(cutoff)) {
+            return 0;
+        }
+        // Never let one segment span two months
+        YearMonth month = YearMonth.from(oldest);
+        LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime upper = monthEnd.isBefore(cutoff) ? monthEnd : cutoff;
+        List<AuditLogRow> rows = jdbcTemplate.query(EXPORT_SQL, ROW_MAPPER, Timestamp.valueOf(upper), segmentRows);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        auditArchive.append(month, rows);
+        delete(rows.stream().map(AuditLogRow::logId).toList());
+        archived.increment(rows.size());
+        return rows.size();
+    }
+
+    private void finishNewestSegment() {
+        AuditSegment newest = auditArchive.newest();
+        if (newest != null) {
+            int deleted = delete(newest.logIds());
+            if (deleted > 0) {
+                logger.warn("Deleted {} audit rows already archived in {}", deleted, newest.path());
+            }
+        }
+    }
+
+    // One short statement per batch, so row locks are held briefly; safe to repeat
+    private int delete(List<Long> ids) {
+        int deleted = 0;
+        for (int start = 0; start < ids.size(); start += deleteBatchSize) {
+            List<Long> batch = ids.subList(start, Math.min(start + deleteBatchSize, ids.size()));
+            deleted += namedJdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("ids", batch));
+        }
+        return deleted;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
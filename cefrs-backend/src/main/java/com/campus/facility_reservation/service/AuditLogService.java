@@ -1,14 +1,17 @@
 package com.campus.facility_reservation.service;
 
 import com.campus.facility_reservation.dto.AuditLogResponse;
-import com.campus.facility_reservation.model.AuditLog;
+import com.campus.facility_reservation.dto.AuditLogRow;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.CursorPage;
+import com.campus.facility_reservation.dto.PageCursor;
 import com.campus.facility_reservation.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -17,38 +20,52 @@ public class AuditLogService {
     @Autowired
     private AuditLogRepository auditLogRepository;
 
-    public AuditLog createAuditLog(Long userId, String actionType, String tableName, 
-                                   Long recordId, String oldValues, String newValues, String ipAddress) {
-        AuditLog auditLog = new AuditLog(userId, actionType, tableName, recordId, oldValues, newValues, ipAddress);
-        return auditLogRepository.save(auditLog);
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditArchive auditArchive;
+
+    // Queued for the asynchronous writer; the row appears shortly after the caller's transaction commits
+    public void createAuditLog(Long userId, String actionType, String tableName,
+                               Long recordId, String oldValues, String newValues, String ipAddress) {
+        auditLogWriter.submit(new AuditLogWriter.Event(userId, actionType, tableName, recordId,
+                oldValues, newValues, ipAddress, LocalDateTime.now()));
     }
 
-    public List<AuditLogResponse> getUserAuditLogs(Long userId) {
-        List<AuditLog> auditLogs = auditLogRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return auditLogs.stream()
-                .map(AuditLogResponse::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<AuditLogResponse> searchAuditLogs(AuditLogSearchDTO filter, String cursor, Integer limit) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        // Rows older than the table's window live in the archive; merged in only when the page needs them
+        List<AuditLogRow> rows = auditArchive.merge(
+                auditLogRepository.search(filter, after, pageSize + 1), filter, after, pageSize + 1);
+        return CursorPage.of(rows, pageSize, AuditLogRow::createdAt, AuditLogRow::logId, AuditLogResponse::new);
     }
 
-    public List<AuditLogResponse> getAllAuditLogs() {
-        List<AuditLog> auditLogs = auditLogRepository.findAll();
-        return auditLogs.stream()
-                .map(AuditLogResponse::new)
-                .collect(Collectors.toList());
+    public CursorPage<AuditLogResponse> getAllAuditLogs(String cursor, Integer limit) {
+        return searchAuditLogs(new AuditLogSearchDTO(), cursor, limit);
     }
 
-    public List<AuditLogResponse> getAuditLogsByAction(String actionType) {
-        List<AuditLog> auditLogs = auditLogRepository.findByActionTypeOrderByCreatedAtDesc(actionType);
-        return auditLogs.stream()
-                .map(AuditLogResponse::new)
-                .collect(Collectors.toList());
+    // The single-filter lists return the newest page only, as a bare list
+    public List<AuditLogResponse> getUserAuditLogs(Long userId, Integer limit) {
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setUserId(userId);
+        return searchAuditLogs(filter, null, limit).getItems();
     }
 
-    public List<AuditLogResponse> getAuditLogsByTable(String tableName) {
-        List<AuditLog> auditLogs = auditLogRepository.findByTableNameOrderByCreatedAtDesc(tableName);
-        return auditLogs.stream()
-                .map(AuditLogResponse::new)
-                .collect(Collectors.toList());
+    public List<AuditLogResponse> getAuditLogsByAction(String actionType, Integer limit) {
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setActionType(actionType);
+        return searchAuditLogs(filter, null, limit).getItems();
     }
-}
 
+    public List<AuditLogResponse> getAuditLogsByTable(String tableName, Integer limit) {
+        AuditLogSearchDTO filter = new AuditLogSearchDTO();
+        filter.setTableName(tableName);
+        return searchAuditLogs(filter, null, limit).getItems();
+    }
+}
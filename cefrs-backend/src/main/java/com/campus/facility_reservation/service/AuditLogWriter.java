@@ -0,0 +1,469 @@
+package com.campus.facility_reservation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit_log writer. Callers only put an event into a bounded lock-free ring (after
+ * their transaction commits, so rolled-back work is never audited); a single writer thread drains
+ * it and inserts whole batches with one multi-row INSERT, either when a batch is full or when the
+ * flush interval has passed. When the ring is full the overflow policy decides: BLOCK waits for
+ * room, DROP counts and discards, SPILL appends the event to a local JSON-lines file that the
+ * writer loads back into the table once it is idle again. Batches that still fail after retries
+ * are spilled (or counted as dropped) the same way. On shutdown everything queued is written
+ * before the connection pool closes.
+ *
+ * A spilled chunk whose multi-row INSERT fails is retried a row at a time. Rows the database
+ * rejects (and lines that no longer parse) go to audit-quarantine.jsonl for a person to look at,
+ * so one bad row cannot hold back the rows spilled after it. A row that fails for any other
+ * reason means the database is still unavailable: it and everything after it stay in the spill
+ * file for the next replay.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    public enum OverflowPolicy { BLOCK, DROP, SPILL }
+
+    // One audit row as captured by the caller; createdAt is the time of the action, not of the write
+    public record Event(Long userId, String actionType, String tableName, Long recordId,
+                        String oldValues, String newValues, String ipAddress, LocalDateTime createdAt) {
+    }
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_log (user_id, action_type, table_name, record_id, old_values, new_values, " +
+            "ip_address, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final long SPILL_REPLAY_INTERVAL_MS = 5000;
+    private static final String SPILL_FILE = "audit-spill.jsonl";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String QUARANTINE_FILE = "audit-quarantine.jsonl";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditRingBuffer<Event> ring;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillDir;
+    private final long shutdownTimeoutMs;
+    // Full-batch statement built once; shorter batches build theirs on the fly
+    private final String fullBatchSql;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter spilled;
+    private final Counter failedBatches;
+    private final Counter quarantined;
+    private final Timer batchWrite;
+
+    private final Object spillLock = new Object();
+    private BufferedWriter spillWriter;
+    private long lastSpillReplay;
+
+    private volatile boolean running;
+    private volatile boolean writerParked;
+    private Thread writerThread;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.audit.ringSize:65536}") int ringSize,
+                          @Value("${app.audit.batchSize:500}") int batchSize,
+                          @Value("${app.audit.flushIntervalMs:200}") long flushIntervalMs,
+                          @Value("${app.audit.overflow:BLOCK}") OverflowPolicy overflowPolicy,
+                          @Value("${app.audit.spillDir:data/audit/spill}") String spillDir,
+                          @Value("${app.audit.shutdownTimeoutMs:30000}") long shutdownTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ring = new AuditRingBuffer<>(ringSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.overflowPolicy = overflowPolicy;
+        this.spillDir = Paths.get(spillDir);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.fullBatchSql = insertSql(this.batchSize);
+
+        this.written = Counter.builder("audit.events.written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events lost because the ring was full or the database kept failing")
+                .register(meterRegistry);
+        this.spilled = Counter.builder("audit.events.spilled")
+                .description("Audit events written to the local spill file instead of the table")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("audit.batches.failed").register(meterRegistry);
+        this.quarantined = Counter.builder("audit.events.quarantined")
+                .description("Spilled audit events the table rejected, set aside in the quarantine file")
+                .register(meterRegistry);
+        this.batchWrite = Timer.builder("audit.batch.write").register(meterRegistry);
+        Gauge.builder("audit.queue.size", ring, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Queues the event once the caller's transaction commits, or right away outside a transaction
+    public void submit(Event event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    public int queued() {
+        return ring.size();
+    }
+
+    private void enqueue(Event event) {
+        if (!running) {
+            // Shutting down: the writer may already be gone, so write this one ourselves
+            writeOrSpill(List.of(event));
+            return;
+        }
+        if (ring.offer(event)) {
+            if (writerParked && ring.size() >= batchSize) {
+                LockSupport.unpark(writerThread);
+            }
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                LockSupport.unpark(writerThread);
+                while (!ring.offer(event)) {
+                    if (!running) {
+                        writeOrSpill(List.of(event));
+                        return;
+                    }
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+            case DROP -> dropped.increment();
+            case SPILL -> spill(List.of(event));
+        }
+    }
+
+    private void runWriter() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        while (true) {
+            ring.drainTo(batch, batchSize - batch.size());
+            boolean stopping = !running;
+            long now = System.nanoTime();
+            if (batch.size() >= batchSize
+                    || (!batch.isEmpty() && (stopping || now - lastFlush >= flushIntervalNanos))) {
+                writeOrSpill(batch);
+                batch.clear();
+                lastFlush = now;
+                continue;
+            }
+            if (batch.isEmpty()) {
+                if (stopping && ring.size() == 0) {
+                    return;
+                }
+                lastFlush = now;
+                replaySpillIfIdle();
+            }
+            writerParked = true;
+            if (ring.size() < batchSize && running) {
+                long waited = now - lastFlush;
+                LockSupport.parkNanos(Math.max(10_000, flushIntervalNanos - waited));
+            }
+            writerParked = false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warn("Audit writer did not finish within {} ms; {} events still queued",
+                    shutdownTimeoutMs, ring.size());
+            return;
+        }
+        // A producer that saw running == true just before the flag changed may have left one behind
+        List<Event> leftover = new ArrayList<>();
+        ring.drainTo(leftover, Integer.MAX_VALUE);
+        if (!leftover.isEmpty()) {
+            writeOrSpill(leftover);
+        }
+        synchronized (spillLock) {
+            closeSpillWriter();
+        }
+    }
+
+    private void writeOrSpill(List<Event> events) {
+        for (int attempt = 1; attempt <= WRITE_ATTEMPTS; attempt++) {
+            try {
+                insert(events);
+                return;
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                if (attempt == WRITE_ATTEMPTS) {
+                    logger.error("Could not write {} audit events: {}", events.size(), e.getMessage());
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L << (2 * attempt)));
+                }
+            }
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(events);
+        } else {
+            dropped.increment(events.size());
+        }
+    }
+
+    // One statement for the whole batch
+    private void insert(List<Event> events) {
+        String sql = events.size() == batchSize ? fullBatchSql : insertSql(events.size());
+        batchWrite.record(() -> jdbcTemplate.update(sql, ps -> {
+            int column = 1;
+            for (Event event : events) {
+                column = bind(ps, column, event);
+            }
+        }));
+        written.increment(events.size());
+    }
+
+    private static int bind(PreparedStatement ps, int column, Event event) throws SQLException {
+        ps.setObject(column++, event.userId(), Types.BIGINT);
+        ps.setString(column++, event.actionType());
+        ps.setString(column++, event.tableName());
+        ps.setObject(column++, event.recordId(), Types.BIGINT);
+        ps.setString(column++, event.oldValues());
+        ps.setString(column++, event.newValues());
+        ps.setString(column++, event.ipAddress());
+        ps.setTimestamp(column++, event.createdAt() != null ? Timestamp.valueOf(event.createdAt()) : null);
+        return column;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+
+    private void spill(List<Event> events) {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    Files.createDirectories(spillDir);
+                    spillWriter = Files.newBufferedWriter(spillDir.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                for (Event event : events) {
+                    spillWriter.write(objectMapper.writeValueAsString(event));
+                    spillWriter.newLine();
+                }
+                spillWriter.flush();
+                spilled.increment(events.size());
+            } catch (IOException e) {
+                dropped.increment(events.size());
+                logger.error("Could not spill {} audit events to {}: {}", events.size(), spillDir, e.getMessage());
+            }
+        }
+    }
+
+    // Writer thread only: loads spilled events back once the ring has nothing to do
+    private void replaySpillIfIdle() {
+        long now = System.currentTimeMillis();
+        if (now - lastSpillReplay < SPILL_REPLAY_INTERVAL_MS || !Files.isDirectory(spillDir)) {
+            return;
+        }
+        lastSpillReplay = now;
+        // New spills go to a fresh file while this one is replayed
+        synchronized (spillLock) {
+            Path current = spillDir.resolve(SPILL_FILE);
+            if (Files.exists(current)) {
+                closeSpillWriter();
+                try {
+                    Files.move(current, spillDir.resolve(SPILL_FILE + "." + now + REPLAY_SUFFIX));
+                } catch (IOException e) {
+                    logger.warn("Could not rotate audit spill file: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, "*" + REPLAY_SUFFIX)) {
+            for (Path file : files) {
+                if (!running || !replay(file)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not list audit spill files: {}", e.getMessage());
+        }
+    }
+
+    // Returns false when the database is still failing; the unwritten lines stay in the file
+    private boolean replay(Path file) {
+        long replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> chunk = new ArrayList<>(batchSize);
+            String line;
+            do {
+                line = reader.readLine();
+                if (line != null && !line.isBlank()) {
+                    chunk.add(line);
+                }
+                if (chunk.size() == batchSize || (line == null && !chunk.isEmpty())) {
+                    List<String> unwritten = replayChunk(file, chunk);
+                    if (!unwritten.isEmpty()) {
+                        keepRemainder(file, unwritten, reader);
+                        return false;
+                    }
+                    replayed += chunk.size();
+                    chunk.clear();
+                }
+            } while (line != null);
+        } catch (IOException e) {
+            logger.warn("Could not read audit spill file {}: {}", file, e.getMessage());
+            return false;
+        }
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete replayed audit spill file {}: {}", file, e.getMessage());
+        }
+        logger.info("Replayed {} spilled audit events from {}", replayed, file.getFileName());
+        return true;
+    }
+
+    // Writes one chunk of spilled lines; returns the lines still to write when the database is failing
+    private List<String> replayChunk(Path file, List<String> lines) {
+        List<String> readable = new ArrayList<>(lines.size());
+        List<Event> events = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                events.add(objectMapper.readValue(line, Event.class));
+                readable.add(line);
+            } catch (IOException e) {
+                logger.warn("Quarantining unreadable audit spill line in {}: {}", file, e.getMessage());
+                quarantine(line);
+            }
+        }
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        try {
+            insert(events);
+            return List.of();
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+        }
+        // One bad row fails the whole statement; find it by writing the rows one at a time
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                insert(List.of(events.get(i)));
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Quarantining audit event the table rejected: {}", e.getMostSpecificCause().getMessage());
+                quarantine(readable.get(i));
+            } catch (RuntimeException e) {
+                return readable.subList(i, readable.size());
+            }
+        }
+        return List.of();
+    }
+
+    // Writer thread only
+    private void quarantine(String line) {
+        try {
+            Files.writeString(spillDir.resolve(QUARANTINE_FILE), line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            quarantined.increment();
+        } catch (IOException e) {
+            dropped.increment();
+            logger.error("Could not quarantine audit event in {}: {}", spillDir, e.getMessage());
+        }
+    }
+
+    // Replaces the file with the lines of the chunk not yet written plus everything not read yet
+    private void keepRemainder(Path file, List<String> failedChunk, BufferedReader rest) throws IOException {
+        Path remainder = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(remainder, StandardCharsets.UTF_8)) {
+            for (String line : failedChunk) {
+                out.write(line);
+                out.newLine();
+            }
+            String line;
+            while ((line = rest.readLine()) != null) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+        Files.move(remainder, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException e) {
+                logger.warn("Could not close audit spill file: {}", e.getMessage());
+            }
+            spillWriter = null;
+        }
+    }
+}
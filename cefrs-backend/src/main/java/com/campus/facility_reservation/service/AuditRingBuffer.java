@@ -0,0 +1,82 @@
+package com.campus.facility_reservation.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring (Vyukov's bounded queue with one consumer).
+ * Producers claim a slot with one CAS on the tail and publish it by bumping the slot's sequence;
+ * the consumer reads published slots in order and hands them back by advancing the sequence a
+ * full lap. No locks, and no allocation per offer.
+ */
+final class AuditRingBuffer<T> {
+
+    private final Object[] slots;
+    // Slot i is free for position p when sequences[i] == p, and holds position p once it is p + 1
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer writes head; volatile so size() is meaningful on other threads
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // False when the ring is full
+    boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            long difference = sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = item;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Consumer only: moves up to max published items into the list, oldest first
+    @SuppressWarnings("unchecked")
+    int drainTo(List<T> target, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.getAcquire(index) != position + 1) {
+                break;
+            }
+            target.add((T) slots[index]);
+            slots[index] = null;
+            sequences.setRelease(index, position + slots.length);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
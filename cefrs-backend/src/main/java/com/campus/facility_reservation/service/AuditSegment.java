@@ -0,0 +1,314 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.AuditLogRow;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file of audit rows, written once and then only read through a
+ * read-only memory mapping.
+ *
+ * Layout: a header (magic, version), then the rows in (created_at, log_id) order cut into
+ * Deflate-compressed blocks, then the sparse time index with one entry per block (first and last
+ * created_at, offset, sizes), then a fixed-size footer pointing at the index. A reader only
+ * decompresses the blocks whose time span can hold what it is looking for.
+ */
+final class AuditSegment {
+
+    static final String EXTENSION = ".aseg";
+
+    private static final int MAGIC = 0x41554447;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    // indexOffset, blockCount, recordCount, minMicros, maxMicros, magic
+    private static final int FOOTER_BYTES = 8 + 4 + 8 + 8 + 8 + 4;
+    // minMicros, maxMicros, offset, compressedLength, rawLength, records
+    private static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 4 + 4 + 4;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private final long[] blockOffset;
+    private final int[] compressedLength;
+    private final int[] rawLength;
+    private final long recordCount;
+    private final long minMicros;
+    private final long maxMicros;
+
+    private AuditSegment(Path path, MappedByteBuffer buffer, long[] blockMin, long[] blockMax, long[] blockOffset,
+                         int[] compressedLength, int[] rawLength, long recordCount, long minMicros, long maxMicros) {
+        this.path = path;
+        this.buffer = buffer;
+        this.blockMin = blockMin;
+        this.blockMax = blockMax;
+        this.blockOffset = blockOffset;
+        this.compressedLength = compressedLength;
+        this.rawLength = rawLength;
+        this.recordCount = recordCount;
+        this.minMicros = minMicros;
+        this.maxMicros = maxMicros;
+    }
+
+    // Rows must already be in (created_at, log_id) order. Written to a temporary file, forced to
+    // disk and renamed, so a segment is either complete or absent.
+    static void write(Path target, List<AuditLogRow> rows, int blockRecords) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        int blocks = (rows.size() + blockRecords - 1) / blockRecords;
+        ByteArrayOutputStream index = new ByteArrayOutputStream(blocks * INDEX_ENTRY_BYTES);
+        DataOutputStream indexOut = new DataOutputStream(index);
+        Deflater deflater = new Deflater();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = HEADER_BYTES;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(1 << 16);
+            byte[] compressed = new byte[1 << 16];
+            for (int start = 0; start < rows.size(); start += blockRecords) {
+                List<AuditLogRow> block = rows.subList(start, Math.min(start + blockRecords, rows.size()));
+                raw.reset();
+                DataOutputStream rawOut = new DataOutputStream(raw);
+                long blockMin = Long.MAX_VALUE;
+                long blockMax = Long.MIN_VALUE;
+                for (AuditLogRow row : block) {
+                    long micros = toMicros(row.createdAt());
+                    blockMin = Math.min(blockMin, micros);
+                    blockMax = Math.max(blockMax, micros);
+                    encode(rawOut, row, micros);
+                }
+                byte[] input = raw.toByteArray();
+                deflater.reset();
+                deflater.setInput(input);
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                out.write(compressed, 0, length);
+
+                indexOut.writeLong(blockMin);
+                indexOut.writeLong(blockMax);
+                indexOut.writeLong(offset);
+                indexOut.writeInt(length);
+                indexOut.writeInt(input.length);
+                indexOut.writeInt(block.size());
+                offset += length;
+                min = Math.min(min, blockMin);
+                max = Math.max(max, blockMax);
+            }
+            out.write(index.toByteArray());
+            out.writeLong(offset);
+            out.writeInt(blocks);
+            out.writeLong(rows.size());
+            out.writeLong(min);
+            out.writeLong(max);
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static AuditSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) {
+                throw new IOException("Truncated audit segment " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int footer = (int) (size - FOOTER_BYTES);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(footer + FOOTER_BYTES - 4) != MAGIC) {
+                throw new IOException("Not an audit segment: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported audit segment version in " + path);
+            }
+            int indexOffset = (int) buffer.getLong(footer);
+            int blocks = buffer.getInt(footer + 8);
+            long records = buffer.getLong(footer + 12);
+            long min = buffer.getLong(footer + 20);
+            long max = buffer.getLong(footer + 28);
+
+            long[] blockMin = new long[blocks];
+            long[] blockMax = new long[blocks];
+            long[] blockOffset = new long[blocks];
+            int[] compressedLength = new int[blocks];
+            int[] rawLength = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                int entry = indexOffset + i * INDEX_ENTRY_BYTES;
+                blockMin[i] = buffer.getLong(entry);
+                blockMax[i] = buffer.getLong(entry + 8);
+                blockOffset[i] = buffer.getLong(entry + 16);
+                compressedLength[i] = buffer.getInt(entry + 24);
+                rawLength[i] = buffer.getInt(entry + 28);
+            }
+            return new AuditSegment(path, buffer, blockMin, blockMax, blockOffset, compressedLength, rawLength,
+                    records, min, max);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long recordCount() {
+        return recordCount;
+    }
+
+    long minMicros() {
+        return minMicros;
+    }
+
+    long maxMicros() {
+        return maxMicros;
+    }
+
+    int blockCount() {
+        return blockMin.length;
+    }
+
+    long blockMin(int block) {
+        return blockMin[block];
+    }
+
+    long blockMax(int block) {
+        return blockMax[block];
+    }
+
+    // Rows of one block in file order; safe to call from several threads at once
+    List<AuditLogRow> readBlock(int block) {
+        ByteBuffer compressed = buffer.slice((int) blockOffset[block], compressedLength[block]);
+        byte[] raw = new byte[rawLength[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                length += inflater.inflate(raw, length, raw.length - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        List<AuditLogRow> rows = new ArrayList<>();
+        while (in.hasRemaining()) {
+            rows.add(decode(in));
+        }
+        return rows;
+    }
+
+    List<Long> logIds() {
+        List<Long> ids = new ArrayList<>((int) recordCount);
+        for (int block = 0; block < blockCount(); block++) {
+            for (AuditLogRow row : readBlock(block)) {
+                ids.add(row.logId());
+            }
+        }
+        return ids;
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static void encode(DataOutputStream out, AuditLogRow row, long micros) throws IOException {
+        out.writeLong(row.logId());
+        out.writeLong(micros);
+        writeLong(out, row.userId());
+        writeString(out, row.userEmail());
+        writeString(out, row.userFirstName());
+        writeString(out, row.userLastName());
+        writeString(out, row.actionType());
+        writeString(out, row.tableName());
+        writeLong(out, row.recordId());
+        writeString(out, row.oldValues());
+        writeString(out, row.newValues());
+        writeString(out, row.ipAddress());
+    }
+
+    private static AuditLogRow decode(ByteBuffer in) {
+        long logId = in.getLong();
+        LocalDateTime createdAt = fromMicros(in.getLong());
+        Long userId = readLong(in);
+        String email = readString(in);
+        String firstName = readString(in);
+        String lastName = readString(in);
+        String actionType = readString(in);
+        String tableName = readString(in);
+        Long recordId = readLong(in);
+        String oldValues = readString(in);
+        String newValues = readString(in);
+        String ipAddress = readString(in);
+        return new AuditLogRow(logId, userId, email, firstName, lastName, actionType, tableName, recordId,
+                oldValues, newValues, ipAddress, createdAt);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    // Length-prefixed UTF-8, -1 for null (writeUTF stops at 64 KB, TEXT columns do not)
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
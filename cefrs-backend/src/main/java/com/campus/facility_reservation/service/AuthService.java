@@ -1,15 +1,20 @@
 package com.campus.facility_reservation.service;
 
+import com.campus.facility_reservation.model.RevokedToken;
 import com.campus.facility_reservation.model.Role;
 import com.campus.facility_reservation.model.RoleType;
 import com.campus.facility_reservation.model.User;
 import com.campus.facility_reservation.repository.RoleRepository;
 import com.campus.facility_reservation.repository.UserRepository;
 import com.campus.facility_reservation.security.JwtTokenProvider;
+import com.campus.facility_reservation.security.LoginThrottle;
+import com.campus.facility_reservation.security.PasswordHashExecutor;
+import com.campus.facility_reservation.security.TokenRevocationList;
 import com.campus.facility_reservation.dto.RegisterRequest;
 import com.campus.facility_reservation.dto.UpdateProfileRequest;
 import com.campus.facility_reservation.dto.AuthResponse;
 import com.campus.facility_reservation.dto.UserResponse;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -31,6 +36,18 @@ public class AuthService {
         @Autowired
         private JwtTokenProvider jwtTokenProvider;
 
+        @Autowired
+        private TokenRevocationList tokenRevocationList;
+
+        @Autowired
+        private LoginThrottle loginThrottle;
+
+        @Autowired
+        private PasswordHashExecutor passwordHashExecutor;
+
+        @Autowired
+        private LastLoginRecorder lastLoginRecorder;
+
         // Register new user
         public AuthResponse register(RegisterRequest request) {
                 if (userRepository.existsByEmail(request.getEmail())) {
@@ -110,30 +127,47 @@ public class AuthService {
         }
 
         // Login user (assuming AuthRequest or separate DTO is used here)
-        public AuthResponse login(String email, String password) {
-                // Find user by email
-                Optional<User> userOptional = userRepository.findByEmail(email);
-                
-                // Check if email is registered
-                if (userOptional.isEmpty()) {
-                        throw new RuntimeException("Email not registered. Please sign up first.");
-                }
-                
-                User user = userOptional.get();
+        public AuthResponse login(String email, String password, String clientIp) {
+                // Refuse excess attempts before touching the database or hashing anything
+                LoginThrottle.Attempt attempt = loginThrottle.acquire(email, clientIp);
+
+                // Only an unknown email, an inactive account or a checked password counts as an
+                // attempt; the server's own failures (hashing pool full or too slow) give it back
+                boolean checked = false;
+                User user;
+                try {
+                        // Find user by email
+                        Optional<User> userOptional = userRepository.findByEmail(email);
+
+                        // Check if email is registered
+                        if (userOptional.isEmpty()) {
+                                checked = true;
+                                throw new RuntimeException("Email not registered. Please sign up first.");
+                        }
 
-                // Check if user is active
-                if (!user.getIsActive()) {
-                        throw new RuntimeException("User account has been deactivated");
-                }
+                        user = userOptional.get();
+
+                        // Check if user is active
+                        if (!user.getIsActive()) {
+                                checked = true;
+                                throw new RuntimeException("User account has been deactivated");
+                        }
 
-                // Verify password
-                if (!passwordEncoder.matches(password, user.getPassword())) {
-                        throw new RuntimeException("Incorrect password. Please try again.");
+                        // Verify password on the bounded hashing pool
+                        boolean matches = passwordHashExecutor.matches(password, user.getPassword());
+                        checked = true;
+                        if (!matches) {
+                                throw new RuntimeException("Incorrect password. Please try again.");
+                        }
+                } finally {
+                        if (!checked) {
+                                attempt.abandoned();
+                        }
                 }
+                attempt.succeeded();
 
-                // Update last login
-                user.setLastLogin(LocalDateTime.now());
-                userRepository.save(user);
+                // Last login is written behind in batches; the login itself does no writes
+                lastLoginRecorder.record(user.getId(), LocalDateTime.now());
 
                 // Generate tokens
                 String accessToken = jwtTokenProvider.generateAccessToken(user.getId(),
@@ -145,25 +179,47 @@ public class AuthService {
                                 user.getId(), user.getRole().getName().toString());
         }
 
-        // Refresh access token
+        // Refresh access token. Refresh tokens rotate: each one is exchanged once for a new pair.
         public AuthResponse refreshToken(String refreshToken) {
-                if (!jwtTokenProvider.validateToken(refreshToken)) {
+                Claims claims = jwtTokenProvider.verify(refreshToken);
+                if (claims == null || claims.getId() == null
+                                || !JwtTokenProvider.REFRESH_TOKEN_TYPE.equals(claims.get("type", String.class))) {
                         throw new RuntimeException("Invalid or expired refresh token");
                 }
 
-                Long userId = jwtTokenProvider.getUserIdFromToken(refreshToken);
-                String email = jwtTokenProvider.getEmailFromToken(refreshToken);
+                String email = claims.getSubject();
 
                 User user = userRepository.findByEmail(email)
                                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+                if (!tokenRevocationList.revoke(claims.getId(), user.getId(), claims.getExpiration(),
+                                RevokedToken.Reason.ROTATED)) {
+                        throw new RuntimeException("Refresh token has already been used or revoked");
+                }
+
                 String newAccessToken = jwtTokenProvider.generateAccessToken(user.getId(),
                                 user.getEmail(), user.getRole().getName().toString());
+                String newRefreshToken = jwtTokenProvider.generateRefreshToken(user.getId(),
+                                user.getEmail());
 
-                return new AuthResponse(newAccessToken, refreshToken, "Token refreshed successfully",
+                return new AuthResponse(newAccessToken, newRefreshToken, "Token refreshed successfully",
                                 user.getId(), user.getRole().getName().toString());
         }
 
+        // Logout: revokes whichever of the two tokens are still valid
+        public void logout(String accessToken, String refreshToken) {
+                for (String token : new String[] { accessToken, refreshToken }) {
+                        if (token == null || token.isBlank()) {
+                                continue;
+                        }
+                        Claims claims = jwtTokenProvider.verify(token);
+                        if (claims != null && claims.getId() != null) {
+                                tokenRevocationList.revoke(claims.getId(), claims.get("id", Long.class),
+                                                claims.getExpiration(), RevokedToken.Reason.LOGOUT);
+                        }
+                }
+        }
+
         // Get user profile
         public UserResponse getUserProfile(Long userId) {
                 User user = userRepository.findById(userId)
@@ -0,0 +1,95 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.repository.FacilityDayLedgerRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes reservation writers per facility-day. Inside one JVM a striped lock keeps
+ * writers for the same facility and date in line, and the booking transaction also takes a
+ * SELECT ... FOR UPDATE on the facility_day_ledger guard row so other instances queue up too.
+ * Writers for different facilities or dates land on different stripes and rows and run in parallel.
+ * The stripe is held until the transaction has committed, so the next writer always sees the
+ * previous booking in both the database and the conflict index.
+ */
+@Component
+public class BookingEngine {
+
+    private static final int STRIPES = 256;
+    private static final long LOCK_TIMEOUT_SECONDS = 10;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Set<ReservationConflictIndex.DayKey> ledgerDays = ConcurrentHashMap.newKeySet();
+    private final FacilityDayLedgerRepository ledgerRepository;
+    private final TransactionTemplate bookingTransaction;
+    private final TransactionTemplate ledgerTransaction;
+
+    public BookingEngine(FacilityDayLedgerRepository ledgerRepository, PlatformTransactionManager transactionManager) {
+        this.ledgerRepository = ledgerRepository;
+        this.bookingTransaction = new TransactionTemplate(transactionManager);
+        this.ledgerTransaction = new TransactionTemplate(transactionManager);
+        this.ledgerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Runs the check-then-write in its own transaction while holding the facility-day stripe and guard row.
+    // The guard row is the transaction's first read, so under REPEATABLE READ the work's snapshot
+    // already includes every booking committed before the lock was granted.
+    public <T> T book(Long facilityId, LocalDate date, Supplier<T> work) {
+        ReentrantLock lock = stripeFor(facilityId, date);
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new RuntimeException("Facility is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Booking was interrupted");
+        }
+        try {
+            ensureLedgerRow(facilityId, date);
+            return bookingTransaction.execute(status -> {
+                ledgerRepository.lockDay(facilityId, date)
+                        .orElseThrow(() -> new IllegalStateException("Missing facility day ledger row"));
+                return work.get();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Nothing locks past days any more, forget them so the set stays small
+    @Scheduled(cron = "0 10 0 * * *")
+    public void forgetPastDays() {
+        LocalDate today = LocalDate.now();
+        ledgerDays.removeIf(key -> key.date().isBefore(today));
+    }
+
+    // The guard row is created in its own short transaction before the booking transaction
+    // opens, so the insert never waits on a gap lock taken by our own FOR UPDATE
+    private void ensureLedgerRow(Long facilityId, LocalDate date) {
+        ReservationConflictIndex.DayKey key = new ReservationConflictIndex.DayKey(facilityId, date);
+        if (ledgerDays.contains(key)) {
+            return;
+        }
+        ledgerTransaction.executeWithoutResult(status -> ledgerRepository.insertIfAbsent(facilityId, date));
+        ledgerDays.add(key);
+    }
+
+    private ReentrantLock stripeFor(Long facilityId, LocalDate date) {
+        int hash = 31 * facilityId.hashCode() + date.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[hash & (STRIPES - 1)];
+    }
+}
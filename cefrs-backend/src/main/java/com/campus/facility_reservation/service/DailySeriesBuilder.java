@@ -0,0 +1,98 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.ReportDTO;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns sparse (date, count) rows into a gap-free series over [from, to] in one pass. Counts
+ * land in a long[] indexed by day offset from the start date, and the array is then folded
+ * into day, week (ISO, Monday start) or month buckets, so the cost is linear in rows plus days.
+ */
+final class DailySeriesBuilder {
+
+    // About ten years of days; keeps the arrays small whatever range a caller asks for
+    static final int MAX_DAYS = 3700;
+
+    enum Bucket {
+        DAY, WEEK, MONTH;
+
+        static Bucket parse(String value) {
+            return value == null || value.isBlank() ? DAY : valueOf(value.trim().toUpperCase());
+        }
+
+        LocalDate startOf(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+    }
+
+    private DailySeriesBuilder() {
+    }
+
+    // Each bucket is labelled with its first day inside [from, to]
+    static List<ReportDTO.DailyReservationCount> build(LocalDate from, LocalDate to, Bucket bucket,
+                                                       List<Object[]> facilityData, List<Object[]> equipmentData) {
+        int days = days(from, to);
+        long[] facilityCounts = new long[days];
+        long[] equipmentCounts = new long[days];
+        fill(facilityCounts, from, facilityData);
+        fill(equipmentCounts, from, equipmentData);
+        return build(from, bucket, facilityCounts, equipmentCounts);
+    }
+
+    // Same, from counts already indexed by day offset from the start date (see days)
+    static List<ReportDTO.DailyReservationCount> build(LocalDate from, Bucket bucket,
+                                                       long[] facilityCounts, long[] equipmentCounts) {
+        int days = facilityCounts.length;
+        List<ReportDTO.DailyReservationCount> series = new ArrayList<>();
+        LocalDate bucketStart = from;
+        LocalDate bucketKey = bucket.startOf(from);
+        long facilityTotal = 0;
+        long equipmentTotal = 0;
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            LocalDate key = bucket.startOf(date);
+            if (!key.equals(bucketKey)) {
+                series.add(new ReportDTO.DailyReservationCount(bucketStart, facilityTotal, equipmentTotal));
+                bucketStart = date;
+                bucketKey = key;
+                facilityTotal = 0;
+                equipmentTotal = 0;
+            }
+            facilityTotal += facilityCounts[i];
+            equipmentTotal += equipmentCounts[i];
+        }
+        series.add(new ReportDTO.DailyReservationCount(bucketStart, facilityTotal, equipmentTotal));
+        return series;
+    }
+
+    // Number of days in [from, to], within MAX_DAYS
+    static int days(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (days > MAX_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_DAYS + " days");
+        }
+        return (int) days;
+    }
+
+    private static void fill(long[] counts, LocalDate from, List<Object[]> rows) {
+        long base = from.toEpochDay();
+        for (Object[] row : rows) {
+            long offset = ((LocalDate) row[0]).toEpochDay() - base;
+            if (offset >= 0 && offset < counts.length) {
+                counts[(int) offset] += ((Number) row[1]).longValue();
+            }
+        }
+    }
+}
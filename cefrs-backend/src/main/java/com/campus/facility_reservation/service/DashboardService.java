@@ -6,8 +6,6 @@ import com.campus.facility_reservation.dto.RecentRequestDTO;
 import com.campus.facility_reservation.model.User;
 import com.campus.facility_reservation.model.FacilityReservation;
 import com.campus.facility_reservation.model.EquipmentBorrowing;
-import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
-import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
 import com.campus.facility_reservation.repository.EquipmentBorrowingRepository;
 import com.campus.facility_reservation.repository.FacilityReservationRepository;
 import com.campus.facility_reservation.repository.UserRepository;
@@ -25,38 +23,27 @@ public class DashboardService {
     private final FacilityReservationRepository reservationRepository;
     private final EquipmentBorrowingRepository borrowingRepository;
     private final UserRepository userRepository;
+    private final UserActivityCounterService activityCounters;
     
     public DashboardDTO getUserDashboard(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        DashboardStatsDTO stats = getUserStats(userId);
+        DashboardStatsDTO stats = activityCounters.getStats(userId);
         List<RecentRequestDTO> recentRequests = getRecentRequests(user);
         
         return new DashboardDTO(stats, recentRequests);
     }
     
+    // Served from the user_activity_counters read model, a single primary-key lookup. Only a
+    // user without a counters row is looked up, to tell "no requests yet" from "no such user".
     public DashboardStatsDTO getUserStats(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // Active Reservations (Approved reservations)
-        Long activeReservations = (long) reservationRepository.findByUserAndStatus(user, ReservationStatus.APPROVED).size();
-        
-        // Borrowed Equipment (Currently borrowed)
-        Long borrowedEquipment = (long) borrowingRepository.findByUserAndStatus(user, BorrowingStatus.BORROWED).size();
-        
-        // Pending Requests (Pending reservations + Pending borrowings)
-        Long pendingReservations = (long) reservationRepository.findByUserAndStatus(user, ReservationStatus.PENDING).size();
-        Long pendingBorrowings = (long) borrowingRepository.findByUserAndStatus(user, BorrowingStatus.PENDING).size();
-        Long pendingRequests = pendingReservations + pendingBorrowings;
-        
-        // Total Requests (All reservations + All borrowings)
-        Long totalReservations = (long) reservationRepository.findByUserOrderByReservationDateDescStartTimeDesc(user).size();
-        Long totalBorrowings = (long) borrowingRepository.findByUserOrderByBorrowDateDesc(user).size();
-        Long totalRequests = totalReservations + totalBorrowings;
-        
-        return new DashboardStatsDTO(activeReservations, borrowedEquipment, pendingRequests, totalRequests);
+        return activityCounters.findStats(userId).orElseGet(() -> {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            return new DashboardStatsDTO(0L, 0L, 0L, 0L);
+        });
     }
     
     private List<RecentRequestDTO> getRecentRequests(User user) {
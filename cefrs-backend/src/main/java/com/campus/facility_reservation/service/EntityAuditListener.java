@@ -0,0 +1,279 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.FacilityReservation;
+import com.campus.facility_reservation.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records inserts, updates and deletes of the core entities in audit_log through Hibernate's
+ * post-insert/update/delete events. An update stores only the properties that changed, as two
+ * small JSON objects (old and new values); an insert or delete stores the non-null values.
+ * Associations are written as the referenced id, long strings (Base64 images, long texts) as
+ * their SHA-256 and length, and passwords never leave the entity. Rows go through the
+ * asynchronous AuditLogWriter, so the request only pays for building the JSON.
+ *
+ * Changes made with bulk JPQL or plain JDBC (counters, last_login, the outbox) do not raise
+ * entity events and are not captured here.
+ */
+@Component
+public class EntityAuditListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityAuditListener.class);
+
+    private static final Set<Class<?>> AUDITED = Set.of(
+            FacilityReservation.class, EquipmentBorrowing.class, Equipment.class, Facility.class, User.class);
+
+    // The audit row has its own timestamp, and these change on every update anyway
+    private static final Set<String> IGNORED = Set.of("createdAt", "updatedAt");
+    private static final Set<String> REDACTED = Set.of("password");
+    private static final String REDACTED_VALUE = "[redacted]";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditLogWriter auditLogWriter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxInlineLength;
+
+    // Per entity name, worked out on the entity's first event
+    private final Map<String, CachedMetadata> metadata = new ConcurrentHashMap<>();
+
+    public EntityAuditListener(EntityManagerFactory entityManagerFactory,
+                               AuditLogWriter auditLogWriter,
+                               ObjectMapper objectMapper,
+                               @Value("${app.audit.entityChanges:true}") boolean enabled,
+                               @Value("${app.audit.maxInlineLength:512}") int maxInlineLength) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditLogWriter = auditLogWriter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxInlineLength = maxInlineLength;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityMetadata meta = metadataFor(event.getPersister());
+        if (meta != null) {
+            submit(meta, "INSERT", event.getId(), null,
+                    snapshot(meta, event.getState(), event.getSession()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityMetadata meta = metadataFor(event.getPersister());
+        if (meta == null) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        Object[] newState = event.getState();
+        SharedSessionContractImplementor session = event.getSession();
+        Map<String, Object> before = new LinkedHashMap<>();
+        Map<String, Object> after = new LinkedHashMap<>();
+        int[] dirty = event.getDirtyProperties();
+        if (dirty != null) {
+            for (int index : dirty) {
+                diff(meta, index, oldState, newState, before, after, session);
+            }
+        } else {
+            // No dirty-check result (e.g. a detached entity was merged): compare every property
+            for (int index = 0; index < meta.names.length; index++) {
+                if (oldState == null || !Objects.equals(oldState[index], newState[index])) {
+                    diff(meta, index, oldState, newState, before, after, session);
+                }
+            }
+        }
+        if (!after.isEmpty()) {
+            submit(meta, "UPDATE", event.getId(), oldState != null ? before : null, after);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        EntityMetadata meta = metadataFor(event.getPersister());
+        if (meta != null) {
+            submit(meta, "DELETE", event.getId(),
+                    snapshot(meta, event.getDeletedState(), event.getSession()), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void diff(EntityMetadata meta, int index, Object[] oldState, Object[] newState,
+                      Map<String, Object> before, Map<String, Object> after,
+                      SharedSessionContractImplementor session) {
+        if (meta.skipped[index]) {
+            return;
+        }
+        String name = meta.names[index];
+        if (oldState != null) {
+            before.put(name, render(meta, index, oldState[index], session));
+        }
+        after.put(name, render(meta, index, newState[index], session));
+    }
+
+    private Map<String, Object> snapshot(EntityMetadata meta, Object[] state, SharedSessionContractImplementor session) {
+        if (state == null) {
+            return null;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int index = 0; index < meta.names.length; index++) {
+            if (!meta.skipped[index] && state[index] != null) {
+                values.put(meta.names[index], render(meta, index, state[index], session));
+            }
+        }
+        return values;
+    }
+
+    private Object render(EntityMetadata meta, int index, Object value, SharedSessionContractImplementor session) {
+        if (value == null) {
+            return null;
+        }
+        if (meta.redacted[index]) {
+            return REDACTED_VALUE;
+        }
+        if (meta.types[index] instanceof EntityType entityType) {
+            return identifierOf(entityType, value, session);
+        }
+        if (value instanceof String text) {
+            return text.length() > maxInlineLength ? digest(text) : text;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        // Dates, times and anything else keep their ISO / toString form
+        return value.toString();
+    }
+
+    private static Object identifierOf(EntityType type, Object value, SharedSessionContractImplementor session) {
+        LazyInitializer proxy = HibernateProxy.extractLazyInitializer(value);
+        if (proxy != null) {
+            return proxy.getInternalIdentifier();
+        }
+        return session.getEntityPersister(type.getAssociatedEntityName(), value).getIdentifier(value, session);
+    }
+
+    private static Map<String, Object> digest(String text) {
+        Map<String, Object> digest = new LinkedHashMap<>();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            digest.put("sha256", HexFormat.of().formatHex(hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.put("length", text.length());
+        return digest;
+    }
+
+    private void submit(EntityMetadata meta, String action, Object id, Map<String, Object> oldValues,
+                        Map<String, Object> newValues) {
+        try {
+            auditLogWriter.submit(new AuditLogWriter.Event(currentUserId(), action, meta.table,
+                    id instanceof Number number ? number.longValue() : null,
+                    oldValues != null ? objectMapper.writeValueAsString(oldValues) : null,
+                    newValues != null ? objectMapper.writeValueAsString(newValues) : null,
+                    currentIp(), LocalDateTime.now()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Auditing must never break the change it describes
+            logger.warn("Could not audit {} of {} {}: {}", action, meta.table, id, e.getMessage());
+        }
+    }
+
+    private EntityMetadata metadataFor(EntityPersister persister) {
+        return metadata.computeIfAbsent(persister.getEntityName(), name -> new CachedMetadata(describe(persister))).value;
+    }
+
+    private static EntityMetadata describe(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        if (!AUDITED.contains(type)) {
+            return null;
+        }
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        boolean[] skipped = new boolean[names.length];
+        boolean[] redacted = new boolean[names.length];
+        for (int i = 0; i < names.length; i++) {
+            skipped[i] = IGNORED.contains(names[i]) || types[i].isCollectionType();
+            redacted[i] = REDACTED.contains(names[i]);
+        }
+        Table table = type.getAnnotation(Table.class);
+        String tableName = table != null && !table.name().isEmpty() ? table.name() : type.getSimpleName();
+        return new EntityMetadata(tableName, names, types, skipped, redacted);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof Long userId ? userId : null;
+    }
+
+    private static String currentIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+
+    private record EntityMetadata(String table, String[] names, Type[] types, boolean[] skipped, boolean[] redacted) {
+    }
+
+    // ConcurrentHashMap cannot hold null, so "not audited" is cached as a holder of null
+    private record CachedMetadata(EntityMetadata value) {
+    }
+}
@@ -26,39 +26,45 @@ public class EquipmentBorrowingService {
     private final EquipmentRepository equipmentRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final EquipmentUsageLedger usageLedger;
+    private final UserActivityCounterService activityCounters;
+    private final ReportRollupService reportRollups;
     
-    public List<EquipmentBorrowingDTO> getAllBorrowings() {
-        return borrowingRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<EquipmentBorrowingDTO> getAllBorrowings(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<EquipmentBorrowingRow> rows = after == null
+                ? borrowingRepository.findFirstPage(CursorPage.fetch(pageSize))
+                : borrowingRepository.findPageAfter(after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, EquipmentBorrowingRow::createdAt, EquipmentBorrowingRow::id, this::convertToDTO);
     }
 
     // Return overlapping bookings for an equipment within a date range
     public List<EquipmentBorrowingDTO> getBookingsForEquipment(Long equipmentId, String startDateStr, String endDateStr) {
         java.time.LocalDate startDate = java.time.LocalDate.parse(startDateStr);
         java.time.LocalDate endDate = java.time.LocalDate.parse(endDateStr);
-        com.campus.facility_reservation.model.Equipment equipment = equipmentRepository.findById(equipmentId)
-                .orElseThrow(() -> new RuntimeException("Equipment not found"));
-        List<com.campus.facility_reservation.model.EquipmentBorrowing> bookings = borrowingRepository.findOverlappingBorrowings(equipment, startDate, endDate);
+        List<EquipmentBorrowingRow> bookings = borrowingRepository.findOverlappingRows(equipmentId,
+                EquipmentUsageLedger.HOLDING_STATUSES, startDate, endDate);
+        if (bookings.isEmpty() && !equipmentRepository.existsById(equipmentId)) {
+            throw new RuntimeException("Equipment not found");
+        }
         return bookings.stream().map(this::convertToDTO).collect(java.util.stream.Collectors.toList());
     }
     
     public List<EquipmentBorrowingDTO> getUserBorrowings(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return borrowingRepository.findByUserOrderByBorrowDateDesc(user).stream()
+        return borrowingRepository.findRowsByUserId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<EquipmentBorrowingDTO> getPendingBorrowings() {
-        return borrowingRepository.findByStatusOrderByBorrowDateAsc(BorrowingStatus.PENDING).stream()
+        return borrowingRepository.findRowsByStatus(BorrowingStatus.PENDING).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public EquipmentBorrowingDTO getBorrowingById(Long id) {
-        EquipmentBorrowing borrowing = borrowingRepository.findById(id)
+        EquipmentBorrowingRow borrowing = borrowingRepository.findRowById(id)
                 .orElseThrow(() -> new RuntimeException("Borrowing not found"));
         return convertToDTO(borrowing);
     }
@@ -73,10 +79,13 @@ public class EquipmentBorrowingService {
         LocalDate borrowDate = LocalDate.parse(request.getBorrowDate());
         LocalDate returnDate = LocalDate.parse(request.getExpectedReturnDate());
 
-        // Check availability for the requested date range by summing overlapping approved/borrowed quantities
-        Integer overlapping = borrowingRepository.getOverlappingBorrowedQuantity(equipment, borrowDate, returnDate);
-        int availableForRange = equipment.getQuantityTotal() - (overlapping != null ? overlapping : 0);
-        if (availableForRange < request.getQuantity()) {
+        if (returnDate.isBefore(borrowDate)) {
+            throw new RuntimeException("Expected return date must not be before the borrow date");
+        }
+
+        // Check availability for the requested date range against the peak day in the usage ledger
+        int peakInUse = usageLedger.maxUnitsInUse(equipment.getId(), borrowDate, returnDate);
+        if (equipment.getQuantityTotal() - peakInUse < request.getQuantity()) {
             throw new RuntimeException("Not enough equipment available for the requested date range");
         }
         
@@ -90,6 +99,8 @@ public class EquipmentBorrowingService {
         borrowing.setStatus(BorrowingStatus.PENDING);
         
         EquipmentBorrowing saved = borrowingRepository.save(borrowing);
+        activityCounters.recordBorrowing(userId, null, BorrowingStatus.PENDING);
+        reportRollups.recordBorrowing(saved, null, BorrowingStatus.PENDING);
         
         // Send notification
         notificationService.createBorrowingNotification(user, saved);
@@ -99,7 +110,7 @@ public class EquipmentBorrowingService {
     
     @Transactional
     public EquipmentBorrowingDTO updateBorrowingStatus(Long id, Long adminId, BorrowingApprovalDTO approval) {
-        EquipmentBorrowing borrowing = borrowingRepository.findById(id)
+        EquipmentBorrowing borrowing = borrowingRepository.lockById(id)
                 .orElseThrow(() -> new RuntimeException("Borrowing not found"));
         User admin = userRepository.findById(adminId)
                 .orElseThrow(() -> new RuntimeException("Admin not found"));
@@ -107,53 +118,44 @@ public class EquipmentBorrowingService {
         BorrowingStatus status = BorrowingStatus.valueOf(approval.getStatus().toUpperCase());
         BorrowingStatus oldStatus = borrowing.getStatus();
 
-        // If approving now, ensure approved+borrowed overlapping quantities + this request <= total
-        if (status == BorrowingStatus.APPROVED && oldStatus != BorrowingStatus.APPROVED) {
-            Equipment equipment = borrowing.getEquipment();
-            Integer overlapping = borrowingRepository.getOverlappingBorrowedQuantity(equipment, borrowing.getBorrowDate(), borrowing.getExpectedReturnDate());
-            int alreadyReserved = overlapping != null ? overlapping : 0;
-            // overlapping does NOT include this borrowing (it hasn't been approved yet), so check capacity
-            if (alreadyReserved + borrowing.getQuantity() > equipment.getQuantityTotal()) {
-                throw new RuntimeException("Not enough equipment available to approve this request for the selected dates");
-            }
+        Equipment equipment = borrowing.getEquipment();
+
+        // Moving into APPROVED/BORROWED/OVERDUE takes units for every day of the range, checked
+        // against the peak day; moving out of those statuses gives them back
+        if (EquipmentUsageLedger.isHolding(status) && !EquipmentUsageLedger.isHolding(oldStatus)) {
+            String message = status == BorrowingStatus.APPROVED
+                    ? "Not enough equipment available to approve this request for the selected dates"
+                    : "Not enough equipment available to mark as borrowed";
+            usageLedger.reserve(equipment.getId(), equipment.getQuantityTotal(), borrowing.getBorrowDate(),
+                    borrowing.getExpectedReturnDate(), borrowing.getQuantity(), message);
+        } else if (!EquipmentUsageLedger.isHolding(status) && EquipmentUsageLedger.isHolding(oldStatus)) {
+            usageLedger.release(equipment.getId(), borrowing.getBorrowDate(),
+                    borrowing.getExpectedReturnDate(), borrowing.getQuantity());
         }
 
+        activityCounters.recordBorrowing(borrowing.getUser().getId(), oldStatus, status);
+        reportRollups.recordBorrowing(borrowing, oldStatus, status);
         borrowing.setStatus(status);
         borrowing.setAdminNotes(approval.getAdminNotes());
         borrowing.setApprovedBy(admin);
         borrowing.setApprovedAt(LocalDateTime.now());
 
-        Equipment equipment = borrowing.getEquipment();
+        boolean wasOut = oldStatus == BorrowingStatus.BORROWED || oldStatus == BorrowingStatus.OVERDUE;
 
         // Update equipment quantity only when the item is actually BORROWED or RETURNED
-        if (status == BorrowingStatus.BORROWED && oldStatus != BorrowingStatus.BORROWED) {
-            // Before marking as BORROWED ensure availability still holds for the borrow period
-            Integer overlapping = borrowingRepository.getOverlappingBorrowedQuantity(equipment, borrowing.getBorrowDate(), borrowing.getExpectedReturnDate());
-            int alreadyBorrowed = overlapping != null ? overlapping : 0;
-            // If the previous state was APPROVED and already counted in overlapping, subtract it
-            if (oldStatus == BorrowingStatus.APPROVED) {
-                alreadyBorrowed -= borrowing.getQuantity();
-            }
-            if (alreadyBorrowed + borrowing.getQuantity() > equipment.getQuantityTotal()) {
+        if (status == BorrowingStatus.BORROWED && !wasOut) {
+            if (equipmentRepository.decrementAvailable(equipment.getId(), borrowing.getQuantity()) == 0) {
                 throw new RuntimeException("Not enough equipment available to mark as borrowed");
             }
-            equipment.setQuantityAvailable(equipment.getQuantityAvailable() - borrowing.getQuantity());
-            equipmentRepository.save(equipment);
-        } else if (status == BorrowingStatus.RETURNED && oldStatus == BorrowingStatus.BORROWED) {
+        } else if (status == BorrowingStatus.RETURNED && wasOut) {
             // Return to available quantity
-            equipment.setQuantityAvailable(equipment.getQuantityAvailable() + borrowing.getQuantity());
-            equipmentRepository.save(equipment);
+            equipmentRepository.incrementAvailable(equipment.getId(), borrowing.getQuantity());
 
             if (approval.getActualReturnDate() != null) {
                 borrowing.setActualReturnDate(LocalDate.parse(approval.getActualReturnDate()));
             } else {
                 borrowing.setActualReturnDate(LocalDate.now());
             }
-        } else if (status == BorrowingStatus.REJECTED && oldStatus == BorrowingStatus.APPROVED) {
-            // Return quantity if previously approved AND it was deducted earlier (legacy paths)
-            // In current flow we don't deduct on APPROVED, so this mainly protects older data.
-            equipment.setQuantityAvailable(equipment.getQuantityAvailable() + borrowing.getQuantity());
-            equipmentRepository.save(equipment);
         }
         
         EquipmentBorrowing updated = borrowingRepository.save(borrowing);
@@ -166,7 +168,7 @@ public class EquipmentBorrowingService {
 
     @Transactional
     public EquipmentBorrowingDTO markAsReturnedByUser(Long id, Long userId) {
-        EquipmentBorrowing borrowing = borrowingRepository.findById(id)
+        EquipmentBorrowing borrowing = borrowingRepository.lockById(id)
                 .orElseThrow(() -> new RuntimeException("Borrowing not found"));
 
         if (!borrowing.getUser().getId().equals(userId)) {
@@ -179,11 +181,15 @@ public class EquipmentBorrowingService {
             throw new RuntimeException("Borrowing cannot be marked as returned in its current status");
         }
 
-        // Update equipment quantity
-        Equipment equipment = borrowing.getEquipment();
-        equipment.setQuantityAvailable(equipment.getQuantityAvailable() + borrowing.getQuantity());
-        equipmentRepository.save(equipment);
+        // Update equipment quantity; only BORROWED/OVERDUE items were deducted from stock
+        if (status == BorrowingStatus.BORROWED || status == BorrowingStatus.OVERDUE) {
+            equipmentRepository.incrementAvailable(borrowing.getEquipment().getId(), borrowing.getQuantity());
+        }
+        usageLedger.release(borrowing.getEquipment().getId(), borrowing.getBorrowDate(),
+                borrowing.getExpectedReturnDate(), borrowing.getQuantity());
 
+        activityCounters.recordBorrowing(userId, status, BorrowingStatus.RETURNED);
+        reportRollups.recordBorrowing(borrowing, status, BorrowingStatus.RETURNED);
         borrowing.setStatus(BorrowingStatus.RETURNED);
         borrowing.setActualReturnDate(LocalDate.now());
 
@@ -212,4 +218,22 @@ public class EquipmentBorrowingService {
             borrowing.getCreatedAt().format(DateTimeFormatter.ISO_DATE_TIME)
         );
     }
+
+    private EquipmentBorrowingDTO convertToDTO(EquipmentBorrowingRow row) {
+        return new EquipmentBorrowingDTO(
+            row.id(),
+            row.userId(),
+            row.userFirstName() + " " + row.userLastName(),
+            row.equipmentId(),
+            row.equipmentName(),
+            row.quantity(),
+            row.borrowDate().toString(),
+            row.expectedReturnDate().toString(),
+            row.actualReturnDate() != null ? row.actualReturnDate().toString() : null,
+            row.purpose(),
+            row.status().name(),
+            row.adminNotes(),
+            row.createdAt().format(DateTimeFormatter.ISO_DATE_TIME)
+        );
+    }
 }
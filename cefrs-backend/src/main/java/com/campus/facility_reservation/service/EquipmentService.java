@@ -3,8 +3,10 @@ package com.campus.facility_reservation.service;
 import com.campus.facility_reservation.model.Equipment;
 import com.campus.facility_reservation.model.Equipment.EquipmentCategory;
 import com.campus.facility_reservation.model.Equipment.EquipmentStatus;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.dto.EquipmentDTO;
 import com.campus.facility_reservation.dto.EquipmentRequestDTO;
+import com.campus.facility_reservation.dto.PageCursor;
 import com.campus.facility_reservation.repository.EquipmentRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,10 +21,13 @@ public class EquipmentService {
     
     private final EquipmentRepository equipmentRepository;
     
-    public List<EquipmentDTO> getAllEquipment() {
-        return equipmentRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<EquipmentDTO> getAllEquipment(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Equipment> rows = after == null
+                ? equipmentRepository.findFirstPage(CursorPage.fetch(pageSize))
+                : equipmentRepository.findPageAfter(after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, Equipment::getCreatedAt, Equipment::getId, this::convertToDTO);
     }
     
     public List<EquipmentDTO> getAvailableEquipment() {
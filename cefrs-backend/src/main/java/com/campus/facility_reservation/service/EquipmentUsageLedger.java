@@ -0,0 +1,313 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.EquipmentDayUsage;
+import com.campus.facility_reservation.repository.EquipmentBorrowingRepository;
+import com.campus.facility_reservation.repository.EquipmentDayUsageRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Day-level ledger of equipment units held by APPROVED, BORROWED and OVERDUE borrowings.
+ * The equipment_day_usage table is the durable copy, one row per equipment and day. Each
+ * equipment also gets a segment tree over a window of days (range add, range max), so
+ * "maximum units in use on any day in [start, end]" is answered in O(log n) without a query.
+ * Ranges outside the window fall back to a MAX() over the table.
+ */
+@Component
+public class EquipmentUsageLedger {
+
+    // Statuses whose units are taken out of the pool for their date range
+    public static final Set<BorrowingStatus> HOLDING_STATUSES =
+            EnumSet.of(BorrowingStatus.APPROVED, BorrowingStatus.BORROWED, BorrowingStatus.OVERDUE);
+
+    private static final int WINDOW_DAYS = 1024;
+    private static final int PAST_DAYS = 30;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO equipment_day_usage (equipment_id, usage_date, units_in_use) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units_in_use = units_in_use + VALUES(units_in_use)";
+
+    private final EquipmentDayUsageRepository usageRepository;
+    private final EquipmentBorrowingRepository borrowingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Trees are read in a fresh transaction, never in the caller's snapshot
+    private final TransactionTemplate loadTemplate;
+
+    private final ConcurrentHashMap<Long, DayUsageTree> trees = new ConcurrentHashMap<>();
+    // Ledger writes that have hit the table but not yet completed their transaction, per equipment
+    private final ConcurrentHashMap<Long, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    // Bumped before every committed write reaches the trees, so a load that raced with one can tell
+    private final AtomicLong commits = new AtomicLong();
+
+    public EquipmentUsageLedger(EquipmentDayUsageRepository usageRepository,
+                                EquipmentBorrowingRepository borrowingRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.usageRepository = usageRepository;
+        this.borrowingRepository = borrowingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.loadTemplate.setReadOnly(true);
+    }
+
+    public static boolean isHolding(BorrowingStatus status) {
+        return HOLDING_STATUSES.contains(status);
+    }
+
+    // Peak units in use on any single day of [startDate, endDate]
+    public int maxUnitsInUse(Long equipmentId, LocalDate startDate, LocalDate endDate) {
+        DayUsageTree tree = tree(equipmentId);
+        if (tree.covers(startDate, endDate)) {
+            return tree.max(startDate, endDate);
+        }
+        return usageRepository.findMaxUnitsInUse(equipmentId, startDate, endDate);
+    }
+
+    // Takes quantity units for every day of the range, failing if any day would exceed capacity.
+    // Must run inside the caller's transaction so a failed check rolls the ledger back.
+    public void reserve(Long equipmentId, int capacity, LocalDate startDate, LocalDate endDate,
+                        int quantity, String errorMessage) {
+        // Fast rejection from memory, then the table rows (locked by the upsert) confirm
+        if (maxUnitsInUse(equipmentId, startDate, endDate) + quantity > capacity) {
+            throw new RuntimeException(errorMessage);
+        }
+        apply(equipmentId, startDate, endDate, quantity);
+        if (usageRepository.findMaxUnitsInUse(equipmentId, startDate, endDate) > capacity) {
+            throw new RuntimeException(errorMessage);
+        }
+    }
+
+    public void release(Long equipmentId, LocalDate startDate, LocalDate endDate, int quantity) {
+        apply(equipmentId, startDate, endDate, -quantity);
+    }
+
+    // Fills the table from existing borrowings the first time the ledger runs against a database
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (usageRepository.count() > 0) {
+            return;
+        }
+        List<EquipmentBorrowing> holding = borrowingRepository.findByStatusIn(HOLDING_STATUSES);
+        if (holding.isEmpty()) {
+            return;
+        }
+        // Difference arrays per equipment, then one batch of rows
+        Map<Long, TreeMap<LocalDate, Integer>> deltas = new TreeMap<>();
+        for (EquipmentBorrowing borrowing : holding) {
+            TreeMap<LocalDate, Integer> delta = deltas.computeIfAbsent(borrowing.getEquipment().getId(), id -> new TreeMap<>());
+            delta.merge(borrowing.getBorrowDate(), borrowing.getQuantity(), Integer::sum);
+            delta.merge(borrowing.getExpectedReturnDate().plusDays(1), -borrowing.getQuantity(), Integer::sum);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((equipmentId, delta) -> {
+            int running = 0;
+            LocalDate day = delta.firstKey();
+            for (Map.Entry<LocalDate, Integer> change : delta.entrySet()) {
+                for (; running > 0 && day.isBefore(change.getKey()); day = day.plusDays(1)) {
+                    rows.add(new Object[]{equipmentId, Date.valueOf(day), running});
+                }
+                running += change.getValue();
+                day = change.getKey();
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        commits.incrementAndGet();
+        trees.clear();
+    }
+
+    // Windows slide forward; drop trees whose window starts too far back and reload on demand
+    @Scheduled(cron = "0 15 0 * * *")
+    public void evictStaleTrees() {
+        long oldestBase = LocalDate.now().minusDays(2L * PAST_DAYS).toEpochDay();
+        trees.values().removeIf(tree -> tree.baseDay < oldestBase);
+    }
+
+    private void apply(Long equipmentId, LocalDate startDate, LocalDate endDate, int delta) {
+        if (endDate.isBefore(startDate) || delta == 0) {
+            return;
+        }
+        AtomicInteger pending = inFlight.computeIfAbsent(equipmentId, id -> new AtomicInteger());
+        pending.incrementAndGet();
+
+        // Rows in ascending date order so overlapping writers lock them in the same order
+        List<Object[]> rows = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            rows.add(new Object[]{equipmentId, Date.valueOf(day), delta});
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commits.incrementAndGet();
+            trees.computeIfPresent(equipmentId, (id, tree) -> tree.add(startDate, endDate, delta));
+            pending.decrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                commits.incrementAndGet();
+                trees.computeIfPresent(equipmentId, (id, tree) -> tree.add(startDate, endDate, delta));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    // Loads outside the map in its own short transaction, so the cached tree is never the caller's
+    // REPEATABLE READ snapshot and a slow query never blocks afterCommit for other equipment
+    private DayUsageTree tree(Long equipmentId) {
+        DayUsageTree cached = trees.get(equipmentId);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = commits.get();
+        DayUsageTree loaded = loadTemplate.execute(status -> load(equipmentId));
+        if (!settled(equipmentId)) {
+            return loaded;
+        }
+        DayUsageTree existing = trees.putIfAbsent(equipmentId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        // A write that committed while this load ran may or may not be in it, and one still in
+        // flight would be counted twice once its afterCommit adds it; either way this tree only
+        // answers this call and the next read loads the equipment again
+        if (commits.get() != seen || !settled(equipmentId)) {
+            trees.remove(equipmentId, loaded);
+        }
+        return loaded;
+    }
+
+    private boolean settled(Long equipmentId) {
+        AtomicInteger pending = inFlight.get(equipmentId);
+        return pending == null || pending.get() == 0;
+    }
+
+    private DayUsageTree load(Long equipmentId) {
+        long baseDay = LocalDate.now().minusDays(PAST_DAYS).toEpochDay();
+        DayUsageTree tree = new DayUsageTree(baseDay, WINDOW_DAYS);
+        List<EquipmentDayUsage> rows = usageRepository.findByEquipmentIdAndUsageDateBetween(
+                equipmentId, LocalDate.ofEpochDay(baseDay), LocalDate.ofEpochDay(baseDay + WINDOW_DAYS - 1));
+        for (EquipmentDayUsage row : rows) {
+            tree.set((int) (row.getUsageDate().toEpochDay() - baseDay), row.getUnitsInUse());
+        }
+        return tree.build();
+    }
+
+    // Segment tree with non-propagating lazy adds: max[n] already includes add[n]
+    static final class DayUsageTree {
+
+        final long baseDay;
+        private final int size;
+        private final int[] max;
+        private final int[] add;
+
+        DayUsageTree(long baseDay, int size) {
+            this.baseDay = baseDay;
+            this.size = size;
+            this.max = new int[2 * size];
+            this.add = new int[2 * size];
+        }
+
+        boolean covers(LocalDate startDate, LocalDate endDate) {
+            return startDate.toEpochDay() >= baseDay && endDate.toEpochDay() < baseDay + size;
+        }
+
+        void set(int day, int units) {
+            max[size + day] = units;
+        }
+
+        DayUsageTree build() {
+            for (int node = size - 1; node > 0; node--) {
+                max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+            }
+            return this;
+        }
+
+        synchronized int max(LocalDate startDate, LocalDate endDate) {
+            if (endDate.isBefore(startDate)) {
+                return 0;
+            }
+            return query(1, 0, size - 1, offset(startDate), offset(endDate));
+        }
+
+        // Applies the part of the range that falls inside the window
+        synchronized DayUsageTree add(LocalDate startDate, LocalDate endDate, int delta) {
+            int from = Math.max(0, offset(startDate));
+            int to = Math.min(size - 1, offset(endDate));
+            if (from <= to) {
+                update(1, 0, size - 1, from, to, delta);
+            }
+            return this;
+        }
+
+        private int offset(LocalDate date) {
+            return (int) (date.toEpochDay() - baseDay);
+        }
+
+        private void update(int node, int lo, int hi, int from, int to, int delta) {
+            if (from <= lo && hi <= to) {
+                max[node] += delta;
+                add[node] += delta;
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (from <= mid) {
+                update(2 * node, lo, mid, from, to, delta);
+            }
+            if (to > mid) {
+                update(2 * node + 1, mid + 1, hi, from, to, delta);
+            }
+            max[node] = Math.max(max[2 * node], max[2 * node + 1]) + add[node];
+        }
+
+        private int query(int node, int lo, int hi, int from, int to) {
+            if (from <= lo && hi <= to) {
+                return max[node];
+            }
+            int mid = (lo + hi) >>> 1;
+            int best = Integer.MIN_VALUE;
+            if (from <= mid) {
+                best = Math.max(best, query(2 * node, lo, mid, from, to));
+            }
+            if (to > mid) {
+                best = Math.max(best, query(2 * node + 1, mid + 1, hi, from, to));
+            }
+            return best + add[node];
+        }
+    }
+}
@@ -2,13 +2,18 @@ package com.campus.facility_reservation.service;
 
 import com.campus.facility_reservation.model.*;
 import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.dto.FacilityReservationDTO;
 import com.campus.facility_reservation.dto.FacilityReservationRequestDTO;
+import com.campus.facility_reservation.dto.FacilityReservationRow;
+import com.campus.facility_reservation.dto.PageCursor;
 import com.campus.facility_reservation.dto.ReservationApprovalDTO;
 import com.campus.facility_reservation.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -24,40 +29,40 @@ public class FacilityReservationService {
     private final FacilityReservationRepository reservationRepository;
     private final FacilityRepository facilityRepository;
     private final UserRepository userRepository;
+    private final ReservationConflictIndex conflictIndex;
+    private final BookingEngine bookingEngine;
+    private final UserActivityCounterService activityCounters;
+    private final ReportRollupService reportRollups;
     
-    public List<FacilityReservationDTO> getAllReservations() {
-        return reservationRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<FacilityReservationDTO> getAllReservations(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<FacilityReservationRow> rows = after == null
+                ? reservationRepository.findFirstPage(CursorPage.fetch(pageSize))
+                : reservationRepository.findPageAfter(after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, FacilityReservationRow::createdAt, FacilityReservationRow::id, this::convertToDTO);
     }
     
     public List<FacilityReservationDTO> getUserReservations(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return reservationRepository.findByUserOrderByReservationDateDescStartTimeDesc(user).stream()
+        return reservationRepository.findRowsByUserId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<FacilityReservationDTO> getPendingReservations() {
-        return reservationRepository.findByStatusOrderByReservationDateAscStartTimeAsc(ReservationStatus.PENDING).stream()
+        return reservationRepository.findRowsByStatus(ReservationStatus.PENDING).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public FacilityReservationDTO getReservationById(Long id) {
-        FacilityReservation reservation = reservationRepository.findById(id)
+        FacilityReservationRow reservation = reservationRepository.findRowById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
         return convertToDTO(reservation);
     }
     
-    @Transactional
+    // Serialized per facility-day by the booking engine, which also owns the transaction
     public FacilityReservationDTO createReservation(Long userId, FacilityReservationRequestDTO request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Facility facility = facilityRepository.findById(request.getFacilityId())
-                .orElseThrow(() -> new RuntimeException("Facility not found"));
-        
         // Parse the datetime strings
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         LocalDateTime startDateTime = LocalDateTime.parse(request.getStartTime(), formatter);
@@ -66,49 +71,86 @@ public class FacilityReservationService {
         LocalDate date = startDateTime.toLocalDate();
         LocalTime startTime = startDateTime.toLocalTime();
         LocalTime endTime = endDateTime.toLocalTime();
+        Long facilityId = request.getFacilityId();
 
-        // Check for conflicts
-        List<FacilityReservation> conflicts = reservationRepository.findConflictingReservations(
-            facility.getId(), date, startTime, endTime
-        );
-        
-        if (!conflicts.isEmpty()) {
+        // Cheap rejection before queuing for the facility-day lock
+        if (conflictIndex.hasConflict(facilityId, date, startTime, endTime,
+                () -> loadActiveReservations(facilityId, date))) {
             throw new RuntimeException("Time slot is already reserved");
         }
-        
-        FacilityReservation reservation = new FacilityReservation();
-        reservation.setUser(user);
-        reservation.setFacility(facility);
-        reservation.setReservationDate(date);
-        reservation.setStartTime(startTime);
-        reservation.setEndTime(endTime);
-        reservation.setPurpose(request.getPurpose());
-        reservation.setStatus(ReservationStatus.PENDING);
-        
-        FacilityReservation saved = reservationRepository.save(reservation);
-        return convertToDTO(saved);
+
+        return bookingEngine.book(facilityId, date, () -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Facility facility = facilityRepository.findById(facilityId)
+                    .orElseThrow(() -> new RuntimeException("Facility not found"));
+
+            // Check for conflicts against the in-memory index first; the database only confirms a free slot
+            if (conflictIndex.hasConflict(facilityId, date, startTime, endTime,
+                    () -> loadActiveReservations(facilityId, date))) {
+                throw new RuntimeException("Time slot is already reserved");
+            }
+            List<FacilityReservation> conflicts = reservationRepository.findConflictingReservations(
+                facilityId, date, startTime, endTime
+            );
+            
+            if (!conflicts.isEmpty()) {
+                throw new RuntimeException("Time slot is already reserved");
+            }
+            
+            FacilityReservation reservation = new FacilityReservation();
+            reservation.setUser(user);
+            reservation.setFacility(facility);
+            reservation.setReservationDate(date);
+            reservation.setStartTime(startTime);
+            reservation.setEndTime(endTime);
+            reservation.setPurpose(request.getPurpose());
+            reservation.setStatus(ReservationStatus.PENDING);
+            
+            FacilityReservation saved = reservationRepository.save(reservation);
+            activityCounters.recordReservation(userId, null, ReservationStatus.PENDING);
+            reportRollups.recordReservation(saved, null, ReservationStatus.PENDING);
+            return reindexAfterCommit(convertToDTO(saved));
+        });
     }
     
-    @Transactional
+    // Serialized per facility-day like createReservation: the stripe and the guard row are taken
+    // before the transaction reads anything else, so a re-activation's conflict check sees every
+    // booking committed before it (the first plain read fixes a REPEATABLE READ snapshot)
     public FacilityReservationDTO updateReservationStatus(Long id, Long adminId, ReservationApprovalDTO approval) {
-        FacilityReservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Reservation not found"));
-        User admin = userRepository.findById(adminId)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
-        
         ReservationStatus status = ReservationStatus.valueOf(approval.getStatus().toUpperCase());
-        reservation.setStatus(status);
-        reservation.setAdminNotes(approval.getAdminNotes());
-        reservation.setApprovedBy(admin);
-        reservation.setApprovedAt(LocalDateTime.now());
-        
-        FacilityReservation updated = reservationRepository.save(reservation);
-        return convertToDTO(updated);
+        // A reservation's facility and date never change, so they can be read before locking
+        FacilityReservationRow target = reservationRepository.findRowById(id)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+
+        return bookingEngine.book(target.facilityId(), target.reservationDate(), () -> {
+            FacilityReservation reservation = reservationRepository.lockById(id)
+                    .orElseThrow(() -> new RuntimeException("Reservation not found"));
+            User admin = userRepository.findById(adminId)
+                    .orElseThrow(() -> new RuntimeException("Admin not found"));
+
+            // Re-activating a rejected/cancelled reservation takes its slot back, so it must not overlap
+            if (isActive(status) && !isActive(reservation.getStatus())
+                    && !reservationRepository.findConflictingReservations(target.facilityId(),
+                            target.reservationDate(), reservation.getStartTime(), reservation.getEndTime()).isEmpty()) {
+                throw new RuntimeException("Time slot is already reserved");
+            }
+
+            activityCounters.recordReservation(reservation.getUser().getId(), reservation.getStatus(), status);
+            reportRollups.recordReservation(reservation, reservation.getStatus(), status);
+            reservation.setStatus(status);
+            reservation.setAdminNotes(approval.getAdminNotes());
+            reservation.setApprovedBy(admin);
+            reservation.setApprovedAt(LocalDateTime.now());
+
+            FacilityReservation updated = reservationRepository.save(reservation);
+            return reindexAfterCommit(convertToDTO(updated));
+        });
     }
 
     @Transactional
     public FacilityReservationDTO markAsCompletedByUser(Long id, Long userId) {
-        FacilityReservation reservation = reservationRepository.findById(id)
+        FacilityReservation reservation = reservationRepository.lockById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
         if (!reservation.getUser().getId().equals(userId)) {
@@ -120,33 +162,63 @@ public class FacilityReservationService {
             throw new RuntimeException("Reservation cannot be marked as completed in its current status");
         }
 
+        activityCounters.recordReservation(userId, reservation.getStatus(), ReservationStatus.COMPLETED);
+        reportRollups.recordReservation(reservation, reservation.getStatus(), ReservationStatus.COMPLETED);
         reservation.setStatus(ReservationStatus.COMPLETED);
         FacilityReservation updated = reservationRepository.save(reservation);
-        return convertToDTO(updated);
+        return reindexAfterCommit(convertToDTO(updated));
     }
     
     @Transactional
     public void cancelReservation(Long id, Long userId) {
-        FacilityReservation reservation = reservationRepository.findById(id)
+        FacilityReservation reservation = reservationRepository.lockById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
         
         if (!reservation.getUser().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized to cancel this reservation");
         }
         
+        activityCounters.recordReservation(userId, reservation.getStatus(), ReservationStatus.CANCELLED);
+        reportRollups.recordReservation(reservation, reservation.getStatus(), ReservationStatus.CANCELLED);
         reservation.setStatus(ReservationStatus.CANCELLED);
-        reservationRepository.save(reservation);
+        reindexAfterCommit(convertToDTO(reservationRepository.save(reservation)));
     }
 
+    // Active (non-rejected/non-cancelled) reservations of a facility on a date, served from the conflict index
     public List<FacilityReservationDTO> getFacilityReservationsByDate(Long facilityId, String dateStr) {
-        Facility facility = facilityRepository.findById(facilityId)
-                .orElseThrow(() -> new RuntimeException("Facility not found"));
         LocalDate date = LocalDate.parse(dateStr);
-        return reservationRepository.findByFacilityAndReservationDate(facility, date)
-                .stream()
+        return conflictIndex.getReservations(facilityId, date, () -> {
+            if (!facilityRepository.existsById(facilityId)) {
+                throw new RuntimeException("Facility not found");
+            }
+            return loadActiveReservations(facilityId, date);
+        });
+    }
+
+    private boolean isActive(ReservationStatus status) {
+        return status != ReservationStatus.REJECTED && status != ReservationStatus.CANCELLED;
+    }
+
+    private List<FacilityReservationDTO> loadActiveReservations(Long facilityId, LocalDate date) {
+        return reservationRepository.findActiveReservationsForDay(facilityId, date).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
+
+    // The index only ever sees committed state, a rolled back write leaves it untouched
+    private FacilityReservationDTO reindexAfterCommit(FacilityReservationDTO dto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    conflictIndex.update(dto);
+                }
+            });
+        } else {
+            conflictIndex.update(dto);
+        }
+        return dto;
+    }
     
     private FacilityReservationDTO convertToDTO(FacilityReservation reservation) {
         return new FacilityReservationDTO(
@@ -164,4 +236,21 @@ public class FacilityReservationService {
             reservation.getCreatedAt().format(DateTimeFormatter.ISO_DATE_TIME)
         );
     }
+
+    private FacilityReservationDTO convertToDTO(FacilityReservationRow row) {
+        return new FacilityReservationDTO(
+            row.id(),
+            row.userId(),
+            row.userFirstName() + " " + row.userLastName(),
+            row.facilityId(),
+            row.facilityName(),
+            row.reservationDate().toString(),
+            row.startTime().toString(),
+            row.endTime().toString(),
+            row.purpose(),
+            row.status().name(),
+            row.adminNotes(),
+            row.createdAt().format(DateTimeFormatter.ISO_DATE_TIME)
+        );
+    }
 }
\ No newline at end of file
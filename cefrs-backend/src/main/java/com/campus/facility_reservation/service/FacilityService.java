@@ -3,7 +3,9 @@ package com.campus.facility_reservation.service;
 import com.campus.facility_reservation.model.Facility;
 import com.campus.facility_reservation.model.Facility.FacilityStatus;
 import com.campus.facility_reservation.model.Facility.FacilityType;
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.dto.FacilityDTO;
+import com.campus.facility_reservation.dto.PageCursor;
 import com.campus.facility_reservation.repository.FacilityRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -18,10 +20,13 @@ public class FacilityService {
     
     private final FacilityRepository facilityRepository;
     
-    public List<FacilityDTO> getAllFacilities() {
-        return facilityRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<FacilityDTO> getAllFacilities(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Facility> rows = after == null
+                ? facilityRepository.findFirstPage(CursorPage.fetch(pageSize))
+                : facilityRepository.findPageAfter(after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, Facility::getCreatedAt, Facility::getId, this::convertToDTO);
     }
     
     public List<FacilityDTO> getAvailableFacilities() {
@@ -0,0 +1,143 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.FreeSlotDTO;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.Facility.FacilityType;
+import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.FacilityReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds free time windows across all matching facilities in one pass. Every facility-day is a
+ * row of 15-minute slots in a single BitSet; busy reservations set bits, and free windows are
+ * the runs of clear bits inside opening hours that are at least the requested duration long.
+ */
+@Service
+@RequiredArgsConstructor
+public class FreeSlotService {
+
+    private static final int SLOT_MINUTES = 15;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int MAX_RANGE_DAYS = 31;
+    private static final int MAX_RESULTS = 500;
+
+    private final FacilityRepository facilityRepository;
+    private final FacilityReservationRepository reservationRepository;
+
+    @Transactional(readOnly = true)
+    public List<FreeSlotDTO> findFreeSlots(String fromDate, String toDate, int durationMinutes, Integer minCapacity,
+                                           String type, String building, String openTime, String closeTime, int limit) {
+        LocalDate from = LocalDate.parse(fromDate);
+        LocalDate to = LocalDate.parse(toDate);
+        LocalTime open = LocalTime.parse(openTime);
+        LocalTime close = LocalTime.parse(closeTime);
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new RuntimeException("Date range must cover between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        if (!close.isAfter(open)) {
+            throw new RuntimeException("Closing time must be after opening time");
+        }
+        if (durationMinutes <= 0 || durationMinutes > ChronoUnit.MINUTES.between(open, close)) {
+            throw new RuntimeException("Duration must fit within opening hours");
+        }
+
+        FacilityType facilityType = type != null && !type.isBlank() ? FacilityType.valueOf(type.toUpperCase()) : null;
+        String buildingFilter = building != null && !building.isBlank() ? building.trim() : null;
+        List<Facility> facilities = facilityRepository.findBookableFacilities(
+                minCapacity != null ? minCapacity : 0, facilityType, buildingFilter);
+        if (facilities.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> rowOf = new HashMap<>();
+        for (int i = 0; i < facilities.size(); i++) {
+            rowOf.put(facilities.get(i).getId(), i);
+        }
+
+        // One bit per facility, day and slot; a set bit means the slot is taken
+        BitSet busy = new BitSet(facilities.size() * days * SLOTS_PER_DAY);
+        for (Object[] row : reservationRepository.findBusyIntervals(rowOf.keySet(), from, to)) {
+            int base = slotBase(rowOf.get((Long) row[0]), (int) ChronoUnit.DAYS.between(from, (LocalDate) row[1]), days);
+            int startSlot = ((LocalTime) row[2]).toSecondOfDay() / 60 / SLOT_MINUTES;
+            int endSlot = ceilSlot(((LocalTime) row[3]).toSecondOfDay() / 60);
+            busy.set(base + startSlot, base + Math.max(endSlot, startSlot + 1));
+        }
+
+        // Time that has already passed today is not bookable
+        LocalDateTime now = LocalDateTime.now();
+        int openSlot = ceilSlot(open.toSecondOfDay() / 60);
+        int closeSlot = close.toSecondOfDay() / 60 / SLOT_MINUTES;
+        int neededSlots = ceilSlot(durationMinutes);
+        List<FreeSlotDTO> slots = new ArrayList<>();
+
+        for (int f = 0; f < facilities.size(); f++) {
+            Facility facility = facilities.get(f);
+            for (int d = 0; d < days; d++) {
+                LocalDate date = from.plusDays(d);
+                if (date.isBefore(now.toLocalDate())) {
+                    continue;
+                }
+                int firstSlot = openSlot;
+                if (date.equals(now.toLocalDate())) {
+                    firstSlot = Math.max(firstSlot, ceilSlot(now.getHour() * 60 + now.getMinute()));
+                }
+                int base = slotBase(f, d, days);
+                int start = busy.nextClearBit(base + firstSlot);
+                while (start < base + closeSlot) {
+                    int nextBusy = busy.nextSetBit(start);
+                    int end = nextBusy < 0 ? base + closeSlot : Math.min(nextBusy, base + closeSlot);
+                    if (end - start >= neededSlots) {
+                        slots.add(toDTO(facility, date, start - base, end - base));
+                    }
+                    start = busy.nextClearBit(end);
+                }
+            }
+        }
+
+        // Soonest first, then the room whose capacity fits the group best
+        int requested = minCapacity != null ? minCapacity : 0;
+        slots.sort(Comparator.comparing(FreeSlotDTO::getDate)
+                .thenComparing(FreeSlotDTO::getStartTime)
+                .thenComparingInt(slot -> slot.getCapacity() - requested)
+                .thenComparing(FreeSlotDTO::getFacilityName));
+        int max = Math.min(Math.max(limit, 1), MAX_RESULTS);
+        return slots.size() > max ? new ArrayList<>(slots.subList(0, max)) : slots;
+    }
+
+    private int slotBase(int facilityRow, int dayIndex, int days) {
+        return (facilityRow * days + dayIndex) * SLOTS_PER_DAY;
+    }
+
+    private int ceilSlot(int minutes) {
+        return (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    private FreeSlotDTO toDTO(Facility facility, LocalDate date, int startSlot, int endSlot) {
+        return new FreeSlotDTO(
+            facility.getId(),
+            facility.getName(),
+            facility.getType().name(),
+            facility.getBuilding(),
+            facility.getCapacity(),
+            date.toString(),
+            LocalTime.MIN.plusMinutes((long) startSlot * SLOT_MINUTES).toString(),
+            LocalTime.MIN.plusMinutes((long) endSlot * SLOT_MINUTES).toString(),
+            (endSlot - startSlot) * SLOT_MINUTES
+        );
+    }
+}
@@ -0,0 +1,52 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.repository.JobLockRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs a batch job on one application instance at a time, using a job_lock guard row.
+ *
+ * The row is locked FOR UPDATE SKIP LOCKED in a transaction that stays open for the whole run.
+ * The job itself runs with that transaction suspended, so its statements commit on their own
+ * connections as they would without the lock. If the instance dies mid-run, its connection
+ * closes and the lock goes with it.
+ */
+@Component
+public class JobRunLock {
+
+    private final JobLockRepository repository;
+    private final TransactionTemplate lockTransaction;
+    private final TransactionTemplate outsideTransaction;
+    // Jobs whose guard row is known to exist
+    private final Set<String> created = ConcurrentHashMap.newKeySet();
+
+    public JobRunLock(JobLockRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.lockTransaction = new TransactionTemplate(transactionManager);
+        this.lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.outsideTransaction = new TransactionTemplate(transactionManager);
+        this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    }
+
+    // Runs job unless another instance is running it; returns whether it ran
+    public boolean runExclusively(String jobName, Runnable job) {
+        if (!created.contains(jobName)) {
+            lockTransaction.executeWithoutResult(status -> repository.insertIfAbsent(jobName));
+            created.add(jobName);
+        }
+        Boolean ran = lockTransaction.execute(status -> {
+            if (repository.tryLock(jobName).isEmpty()) {
+                return false;
+            }
+            outsideTransaction.executeWithoutResult(suspended -> job.run());
+            return true;
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+}
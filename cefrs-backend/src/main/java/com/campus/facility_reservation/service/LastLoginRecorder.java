@@ -0,0 +1,111 @@
+package com.campus.facility_reservation.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for users.last_login. A login only records its timestamp in memory; a scheduled
+ * flush writes everything collected since the last run as batched UPDATEs. The map holds one
+ * entry per user (the latest login wins), so it stays bounded by the number of users who logged
+ * in between flushes. Failed batches are put back, and on shutdown the recorder keeps flushing
+ * until the map is empty or the shutdown timeout runs out.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    // Never moves last_login backwards, e.g. when a failed batch is retried after a newer login
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private static final long SHUTDOWN_RETRY_PAUSE_MS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long shutdownTimeoutMs;
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+                             @Value("${app.lastLogin.shutdownTimeoutMs:5000}") long shutdownTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.lastLogin.flushMs:10000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(Math.min(pending.size(), BATCH_SIZE));
+        for (Long userId : pending.keySet()) {
+            // A login that arrives after this remove lands in the map again for the next flush
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt == null) {
+                continue;
+            }
+            Timestamp timestamp = Timestamp.valueOf(loginAt);
+            batch.add(new Object[]{timestamp, userId, timestamp});
+            if (batch.size() == BATCH_SIZE) {
+                write(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        flush();
+        while (!pending.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                logger.warn("Shutting down with {} last-login updates not written", pending.size());
+                return;
+            }
+            try {
+                Thread.sleep(Math.min(SHUTDOWN_RETRY_PAUSE_MS, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Shutting down with {} last-login updates not written", pending.size());
+                return;
+            }
+            flush();
+        }
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (RuntimeException e) {
+            // Keep the timestamps for the next run
+            for (Object[] row : batch) {
+                record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+            logger.warn("Could not flush {} last-login updates: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.config.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Retention for the notification table. Read notifications older than the retention period are
+ * copied into notification_archive and deleted, a small batch per transaction, so the inbox
+ * indexes only cover recent and unread rows. Unread notifications are never archived. Batches
+ * are short and spaced out, so row locks and replication lag stay small while it catches up.
+ */
+@Component
+public class NotificationArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationArchiver.class);
+
+    // Oldest first on idx_notification_read_created
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id FROM notification WHERE is_read = TRUE AND created_at < ? ORDER BY created_at, id LIMIT ?";
+
+    // INSERT IGNORE: a batch that copied its rows but failed to delete them is simply redone
+    private static final String COPY_SQL =
+            "INSERT IGNORE INTO notification_archive (id, user_id, type, title, message, reference_id, " +
+            "reference_type, created_at, archived_at) " +
+            "SELECT id, user_id, type, title, message, reference_id, reference_type, created_at, :archivedAt " +
+            "FROM notification WHERE id IN (:ids) AND is_read = TRUE";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM notification WHERE id IN (:ids) AND is_read = TRUE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMs;
+    private final Counter archived;
+
+    public NotificationArchiver(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedJdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.notifications.retentionDays:90}") int retentionDays,
+                                @Value("${app.notifications.archiveBatchSize:1000}") int batchSize,
+                                @Value("${app.notifications.archiveMaxBatchesPerRun:500}") int maxBatchesPerRun,
+                                @Value("${app.notifications.archivePauseMs:100}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMs = pauseMs;
+        this.archived = Counter.builder("notifications.archived")
+                .description("Read notifications moved to notification_archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.notifications.archiveCron:0 15 3 * * *}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void archive() {
+        // One cut-off per run, so a run always finishes even while new rows keep ageing in
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int moved = archiveBatch(cutoff);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Archived {} read notifications older than {}", total, cutoff);
+        }
+    }
+
+    // Returns how many rows were looked at, so the caller knows whether more are waiting
+    int archiveBatch(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH_SQL, Long.class, Timestamp.valueOf(cutoff), batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", ids)
+                    .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+            namedJdbcTemplate.update(COPY_SQL, params);
+            int deleted = namedJdbcTemplate.update(DELETE_SQL, params);
+            archived.increment(deleted);
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.NotificationDTO;
+import com.campus.facility_reservation.model.Notification.NotificationType;
+import com.campus.facility_reservation.model.Notification.ReferenceType;
+import com.campus.facility_reservation.model.NotificationOutbox.Event;
+import com.campus.facility_reservation.repository.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains notification_outbox into notification. Each run takes due rows in id order under
+ * FOR UPDATE SKIP LOCKED, so instances split the due rows instead of queueing behind each other,
+ * writes them with one JDBC batch insert and deletes them in the same transaction. The dispatcher
+ * runs at READ COMMITTED: at MySQL's default REPEATABLE READ the scan would also gap-lock the
+ * end of the index and hold back every enqueue until the batch commits. The notification keeps the outbox row's created_at, so the inbox
+ * order matches the order of the original changes. A failed batch is retried row by row, each
+ * row locked again first since the batch's locks went with its rollback; a failing row backs off
+ * exponentially, and while it waits no later row of the same user is
+ * delivered, so each user still sees their notifications in order. (Two instances can still take
+ * one user's consecutive rows at the same time and push them out of order; the inbox is unaffected,
+ * as it orders by created_at.) Once a batch has committed, its notifications are pushed to the
+ * users' open streams.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    private static final String SELECT_DUE_SQL =
+            "SELECT o.id, o.user_id, o.event, o.reference_id, o.subject, o.status, o.created_at, o.attempts " +
+            "FROM notification_outbox o " +
+            "WHERE o.next_attempt_at <= NOW(6) AND o.attempts < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM notification_outbox w WHERE w.user_id = o.user_id AND w.id < o.id " +
+            "AND w.attempts < ? AND w.next_attempt_at > NOW(6)) " +
+            "ORDER BY o.id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    // One row of a failed batch, if it is still waiting and no other instance holds it
+    private static final String LOCK_ROW_SQL =
+            "SELECT o.id, o.user_id, o.event, o.reference_id, o.subject, o.status, o.created_at, o.attempts " +
+            "FROM notification_outbox o " +
+            "WHERE o.id = ? AND o.next_attempt_at <= NOW(6) AND o.attempts < ? FOR UPDATE SKIP LOCKED";
+
+    private static final String INSERT_NOTIFICATION_SQL =
+            "INSERT INTO notification (user_id, type, title, message, is_read, reference_id, reference_type, created_at) " +
+            "VALUES (?, ?, ?, ?, FALSE, ?, ?, ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM notification_outbox WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE notification_outbox SET attempts = attempts + 1, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationStreamRegistry streamRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+
+    private final Timer deliveryLag;
+    private final Counter delivered;
+    private final Counter failures;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+                                  NotificationOutboxRepository outboxRepository,
+                                  NotificationStreamRegistry streamRegistry,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.notifications.batchSize:200}") int batchSize,
+                                  @Value("${app.notifications.maxBatchesPerRun:10}") int maxBatchesPerRun,
+                                  @Value("${app.notifications.maxAttempts:10}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxRepository = outboxRepository;
+        this.streamRegistry = streamRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+
+        this.deliveryLag = Timer.builder("notifications.outbox.delivery.lag")
+                .description("Time from the change being committed to its notification being written")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("notifications.outbox.delivered").register(meterRegistry);
+        this.failures = Counter.builder("notifications.outbox.failures").register(meterRegistry);
+        Gauge.builder("notifications.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("notifications.outbox.oldest.seconds", oldestPendingSeconds, AtomicLong::get)
+                .description("Age of the oldest undelivered outbox row")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatchMs:1000}")
+    public void dispatch() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (dispatchBatch() < batchSize) {
+                break;
+            }
+        }
+        refreshLagGauges();
+    }
+
+    // Returns how many rows were taken, so the caller knows whether more are waiting
+    int dispatchBatch() {
+        List<OutboxRow> failed = new ArrayList<>();
+        List<Written> written = new ArrayList<>();
+        Integer taken = transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(SELECT_DUE_SQL, OUTBOX_ROW_MAPPER, maxAttempts, maxAttempts, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            try {
+                written.addAll(deliver(rows));
+            } catch (RuntimeException e) {
+                status.setRollbackOnly();
+                failed.addAll(rows);
+            }
+            return rows.size();
+        });
+        publish(written);
+        if (!failed.isEmpty()) {
+            // Find the row that broke the batch; everything else still goes out, in order.
+            // Once a user's row fails, their later rows wait behind it.
+            Set<Long> blockedUsers = new HashSet<>();
+            for (OutboxRow row : failed) {
+                if (!blockedUsers.contains(row.userId()) && !deliverOne(row)) {
+                    blockedUsers.add(row.userId());
+                }
+            }
+        }
+        return taken != null ? taken : 0;
+    }
+
+    // Between the batch's rollback and this retry another instance may have delivered the row or
+    // taken it, so it is only written if it can be locked again. Returns false when the row failed
+    // or is held elsewhere; either way the user's later rows wait for the next run.
+    private boolean deliverOne(OutboxRow row) {
+        OutboxRow[] locked = new OutboxRow[1];
+        try {
+            publish(transactionTemplate.execute(status -> {
+                List<OutboxRow> rows = jdbcTemplate.query(LOCK_ROW_SQL, OUTBOX_ROW_MAPPER, row.id(), maxAttempts);
+                if (rows.isEmpty()) {
+                    return List.<Written>of();
+                }
+                locked[0] = rows.get(0);
+                return deliver(rows);
+            }));
+            return locked[0] != null;
+        } catch (RuntimeException e) {
+            failures.increment();
+            int attempts = locked[0] != null ? locked[0].attempts() : row.attempts();
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+            String error = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(RETRY_SQL,
+                    Timestamp.valueOf(LocalDateTime.now().plusSeconds(backoff)), error, row.id()));
+            logger.warn("Notification outbox row {} failed (attempt {}): {}", row.id(), attempts + 1, error);
+            return false;
+        }
+    }
+
+    // Returns the written notifications with their generated ids
+    private List<Written> deliver(List<OutboxRow> rows) {
+        List<NotificationDTO> notifications = new ArrayList<>(rows.size());
+        List<Object[]> deletes = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            notifications.add(render(row));
+            deletes.add(new Object[]{row.id()});
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_NOTIFICATION_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OutboxRow row = rows.get(i);
+                        NotificationDTO notification = notifications.get(i);
+                        ps.setLong(1, row.userId());
+                        ps.setString(2, notification.getType());
+                        ps.setString(3, notification.getTitle());
+                        ps.setString(4, notification.getMessage());
+                        ps.setObject(5, row.referenceId(), Types.BIGINT);
+                        ps.setString(6, notification.getReferenceType());
+                        ps.setTimestamp(7, Timestamp.valueOf(row.createdAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < notifications.size() && i < keyList.size(); i++) {
+            notifications.get(i).setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxRow row : rows) {
+            deliveryLag.record(Duration.between(row.createdAt(), now));
+        }
+        delivered.increment(rows.size());
+
+        List<Written> written = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            written.add(new Written(rows.get(i).userId(), notifications.get(i)));
+        }
+        return written;
+    }
+
+    // Only called once the transaction has committed, so clients never see a rolled-back row
+    private void publish(List<Written> written) {
+        Map<Long, List<NotificationDTO>> byUser = new LinkedHashMap<>();
+        for (Written w : written) {
+            byUser.computeIfAbsent(w.userId(), id -> new ArrayList<>()).add(w.notification());
+        }
+        byUser.forEach(streamRegistry::publishNotifications);
+    }
+
+    // Builds the notification; this used to run inside the business transaction
+    private NotificationDTO render(OutboxRow row) {
+        String status = row.status() != null ? row.status() : "";
+        return switch (row.event()) {
+            case RESERVATION_SUBMITTED -> notification(row, NotificationType.RESERVATION, ReferenceType.FACILITY_RESERVATION,
+                    "Reservation Request Submitted",
+                    "Your reservation for " + row.subject() + " has been submitted and is pending approval.");
+            case RESERVATION_STATUS -> notification(row, NotificationType.RESERVATION, ReferenceType.FACILITY_RESERVATION,
+                    "Reservation " + status,
+                    "Your reservation for " + row.subject() + " has been " + status.toLowerCase() + ".");
+            case BORROWING_SUBMITTED -> notification(row, NotificationType.BORROWING, ReferenceType.EQUIPMENT_BORROWING,
+                    "Borrowing Request Submitted",
+                    "Your borrowing request for " + row.subject() + " has been submitted and is pending approval.");
+            case BORROWING_STATUS -> notification(row, NotificationType.BORROWING, ReferenceType.EQUIPMENT_BORROWING,
+                    "Borrowing " + status,
+                    "Your borrowing request for " + row.subject() + " has been " + status.toLowerCase() + ".");
+        };
+    }
+
+    private NotificationDTO notification(OutboxRow row, NotificationType type, ReferenceType referenceType,
+                                         String title, String message) {
+        return new NotificationDTO(null, type.name(), title, message, false, row.referenceId(), referenceType.name(),
+                row.createdAt().format(DateTimeFormatter.ISO_DATE_TIME));
+    }
+
+    private void refreshLagGauges() {
+        pending.set(outboxRepository.countPending(maxAttempts));
+        LocalDateTime oldest = outboxRepository.findOldestPending(maxAttempts);
+        oldestPendingSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()) : 0);
+    }
+
+    private static final RowMapper<OutboxRow> OUTBOX_ROW_MAPPER = (rs, rowNum) -> new OutboxRow(
+            rs.getLong(1),
+            rs.getLong(2),
+            Event.valueOf(rs.getString(3)),
+            (Long) rs.getObject(4),
+            rs.getString(5),
+            rs.getString(6),
+            rs.getTimestamp(7).toLocalDateTime(),
+            rs.getInt(8)
+    );
+
+    private record OutboxRow(long id, long userId, Event event, Long referenceId, String subject,
+                             String status, LocalDateTime createdAt, int attempts) {
+    }
+
+    private record Written(long userId, NotificationDTO notification) {
+    }
+}
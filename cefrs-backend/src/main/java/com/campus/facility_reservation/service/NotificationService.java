@@ -1,49 +1,69 @@
 package com.campus.facility_reservation.service;
 
+import com.campus.facility_reservation.dto.CursorPage;
 import com.campus.facility_reservation.dto.NotificationDTO;
+import com.campus.facility_reservation.dto.PageCursor;
 import com.campus.facility_reservation.model.User;
 import com.campus.facility_reservation.model.FacilityReservation;
 import com.campus.facility_reservation.model.EquipmentBorrowing;
 import com.campus.facility_reservation.model.Notification;
-import com.campus.facility_reservation.model.Notification.NotificationType;
-import com.campus.facility_reservation.model.Notification.ReferenceType;
+import com.campus.facility_reservation.model.NotificationArchive;
+import com.campus.facility_reservation.model.NotificationOutbox.Event;
+import com.campus.facility_reservation.repository.NotificationArchiveRepository;
+import com.campus.facility_reservation.repository.NotificationOutboxRepository;
 import com.campus.facility_reservation.repository.NotificationRepository;
-import com.campus.facility_reservation.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
     
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationStreamRegistry streamRegistry;
+    private final NotificationArchiveRepository archiveRepository;
     
-    public List<NotificationDTO> getUserNotifications(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Inbox pages, newest first; a null cursor is the first page
+    public CursorPage<NotificationDTO> getUserNotifications(Long userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Notification> rows = after == null
+                ? notificationRepository.findInboxFirstPage(userId, CursorPage.fetch(pageSize))
+                : notificationRepository.findInboxPageAfter(userId, after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, Notification::getCreatedAt, Notification::getId, this::convertToDTO);
     }
     
-    public List<NotificationDTO> getUnreadNotifications(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<NotificationDTO> getUnreadNotifications(Long userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<Notification> rows = after == null
+                ? notificationRepository.findUnreadFirstPage(userId, CursorPage.fetch(pageSize))
+                : notificationRepository.findUnreadPageAfter(userId, after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, Notification::getCreatedAt, Notification::getId, this::convertToDTO);
+    }
+
+    // Read notifications that NotificationArchiver has moved out of the inbox
+    public CursorPage<NotificationDTO> getArchivedNotifications(Long userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        List<NotificationArchive> rows = after == null
+                ? archiveRepository.findFirstPage(userId, CursorPage.fetch(pageSize))
+                : archiveRepository.findPageAfter(userId, after.createdAt(), after.id(), CursorPage.fetch(pageSize));
+        return CursorPage.of(rows, pageSize, NotificationArchive::getCreatedAt, NotificationArchive::getId,
+                this::convertToDTO);
     }
     
     public Long getUnreadCount(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return notificationRepository.countByUserAndIsReadFalse(user);
+        return notificationRepository.countByUser_IdAndIsReadFalse(userId);
     }
     
     @Transactional
@@ -52,65 +72,87 @@ public class NotificationService {
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
         notification.setIsRead(true);
         notificationRepository.save(notification);
+        pushUnreadCountAfterCommit(notification.getUser().getId());
     }
     
+    // One UPDATE for all of the user's unread notifications; returns how many changed
+    @Transactional
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllReadByUserId(userId);
+        if (updated > 0) {
+            pushUnreadCountAfterCommit(userId);
+        }
+        return updated;
+    }
+
     @Transactional
-    public void markAllAsRead(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        List<Notification> unread = notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
-        unread.forEach(n -> n.setIsRead(true));
-        notificationRepository.saveAll(unread);
+    public int markAsRead(Long userId, List<Long> notificationIds) {
+        int updated = notificationRepository.markReadByIds(userId, new HashSet<>(notificationIds));
+        if (updated > 0) {
+            pushUnreadCountAfterCommit(userId);
+        }
+        return updated;
+    }
+
+    // Unread notifications are kept whatever their age
+    @Transactional
+    public int deleteReadOlderThan(Long userId, int days) {
+        if (days < 0) {
+            throw new RuntimeException("Days must not be negative");
+        }
+        return notificationRepository.deleteReadBefore(userId, LocalDateTime.now().minusDays(days));
     }
     
+    // The create* methods only queue an outbox row in the caller's transaction;
+    // NotificationDispatcher builds and writes the notification afterwards.
+
     @Transactional
     public void createReservationNotification(User user, FacilityReservation reservation) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(NotificationType.RESERVATION);
-        notification.setTitle("Reservation Request Submitted");
-        notification.setMessage("Your reservation for " + reservation.getFacility().getName() + " has been submitted and is pending approval.");
-        notification.setReferenceId(reservation.getId());
-        notification.setReferenceType(ReferenceType.FACILITY_RESERVATION);
-        notificationRepository.save(notification);
+        outboxRepository.enqueue(user.getId(), Event.RESERVATION_SUBMITTED.name(), reservation.getId(),
+                reservation.getFacility().getName(), null);
     }
     
     @Transactional
     public void createReservationStatusNotification(User user, FacilityReservation reservation) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(NotificationType.RESERVATION);
-        notification.setTitle("Reservation " + reservation.getStatus().name());
-        notification.setMessage("Your reservation for " + reservation.getFacility().getName() + " has been " + reservation.getStatus().name().toLowerCase() + ".");
-        notification.setReferenceId(reservation.getId());
-        notification.setReferenceType(ReferenceType.FACILITY_RESERVATION);
-        notificationRepository.save(notification);
+        outboxRepository.enqueue(user.getId(), Event.RESERVATION_STATUS.name(), reservation.getId(),
+                reservation.getFacility().getName(), reservation.getStatus().name());
     }
     
     @Transactional
     public void createBorrowingNotification(User user, EquipmentBorrowing borrowing) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(NotificationType.BORROWING);
-        notification.setTitle("Borrowing Request Submitted");
-        notification.setMessage("Your borrowing request for " + borrowing.getEquipment().getName() + " has been submitted and is pending approval.");
-        notification.setReferenceId(borrowing.getId());
-        notification.setReferenceType(ReferenceType.EQUIPMENT_BORROWING);
-        notificationRepository.save(notification);
+        outboxRepository.enqueue(user.getId(), Event.BORROWING_SUBMITTED.name(), borrowing.getId(),
+                borrowing.getEquipment().getName(), null);
     }
     
     @Transactional
     public void createBorrowingStatusNotification(User user, EquipmentBorrowing borrowing) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(NotificationType.BORROWING);
-        notification.setTitle("Borrowing " + borrowing.getStatus().name());
-        notification.setMessage("Your borrowing request for " + borrowing.getEquipment().getName() + " has been " + borrowing.getStatus().name().toLowerCase() + ".");
-        notification.setReferenceId(borrowing.getId());
-        notification.setReferenceType(ReferenceType.EQUIPMENT_BORROWING);
-        notificationRepository.save(notification);
+        outboxRepository.enqueue(user.getId(), Event.BORROWING_STATUS.name(), borrowing.getId(),
+                borrowing.getEquipment().getName(), borrowing.getStatus().name());
     }
     
+    // Open streams get the new count once the change is visible to the count query
+    private void pushUnreadCountAfterCommit(Long userId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                streamRegistry.unreadCountChanged(userId);
+            }
+        });
+    }
+
+    private NotificationDTO convertToDTO(NotificationArchive archived) {
+        return new NotificationDTO(
+            archived.getId(),
+            archived.getType().name(),
+            archived.getTitle(),
+            archived.getMessage(),
+            true,
+            archived.getReferenceId(),
+            archived.getReferenceType() != null ? archived.getReferenceType().name() : null,
+            archived.getCreatedAt().format(DateTimeFormatter.ISO_DATE_TIME)
+        );
+    }
+
     private NotificationDTO convertToDTO(Notification notification) {
         return new NotificationDTO(
             notification.getId(),
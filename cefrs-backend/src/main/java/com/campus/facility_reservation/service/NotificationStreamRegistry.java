@@ -0,0 +1,359 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.NotificationDTO;
+import com.campus.facility_reservation.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open notification streams (Server-Sent Events), one entry per user with any number of
+ * connections (tabs). Every event a user is sent also goes into a small per-user ring, so a
+ * client that reconnects with Last-Event-ID gets what it missed; if the ring no longer reaches
+ * back that far, or the id is from before a restart, it is told to resync instead, and so is a
+ * connection too slow to keep up with the ring. Sends run on
+ * virtual threads, one drain per user at a time so each connection sees events in id order, and
+ * a slow or dead connection only ever holds up its own user. Unread counts are the only database
+ * work, and only a few run at once, so a wave of reconnects after a restart queues here instead
+ * of exhausting the connection pool; a count that fails anyway sends a resync instead.
+ */
+@Component
+public class NotificationStreamRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamRegistry.class);
+
+    public static final String EVENT_NOTIFICATION = "notification";
+    public static final String EVENT_UNREAD_COUNT = "unread-count";
+    public static final String EVENT_RESYNC = "resync";
+
+    // A user's ring is dropped once nobody has been connected for this long
+    private static final long IDLE_STREAM_MS = 5 * 60 * 1000;
+
+    // Event ids are "<epoch>-<sequence>"; a new epoch per start makes old ids recognisable
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final NotificationRepository notificationRepository;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+    // Kept below the connection pool size so streams never take every connection
+    private final Semaphore countPermits;
+
+    private final ConcurrentHashMap<Long, UserStream> streams = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NotificationStreamRegistry(NotificationRepository notificationRepository,
+                                      @Value("${app.notifications.stream.bufferSize:50}") int bufferSize,
+                                      @Value("${app.notifications.stream.timeoutMs:1800000}") long emitterTimeoutMs,
+                                      @Value("${app.notifications.stream.countQueries:4}") int countQueries) {
+        this.notificationRepository = notificationRepository;
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.countPermits = new Semaphore(Math.max(1, countQueries), true);
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        // compute() so the heartbeat cannot drop the stream while the subscriber is being added
+        UserStream stream = streams.compute(userId, (id, existing) -> {
+            UserStream s = existing != null ? existing : new UserStream(id);
+            s.bufferLock.lock();
+            try {
+                long lastSeen = parseSequence(lastEventId);
+                long oldest = s.buffer.isEmpty() ? s.sequence + 1 : s.buffer.peekFirst().sequence();
+                if (lastEventId == null) {
+                    // Fresh connection: nothing to replay, only the current count below
+                    subscriber.lastSent = s.sequence;
+                } else if (lastSeen < 0 || lastSeen > s.sequence || lastSeen < oldest - 1) {
+                    // Unknown id, an id from before a restart, or events have already left the ring
+                    subscriber.lastSent = s.sequence;
+                    subscriber.needsResync = true;
+                } else {
+                    subscriber.lastSent = lastSeen;
+                }
+            } finally {
+                s.bufferLock.unlock();
+            }
+            s.subscribers.add(subscriber);
+            s.idleSince = 0;
+            return s;
+        });
+
+        emitter.onCompletion(() -> remove(stream, subscriber));
+        emitter.onTimeout(() -> remove(stream, subscriber));
+        emitter.onError(e -> remove(stream, subscriber));
+
+        sender.execute(() -> {
+            long count;
+            try {
+                count = countUnread(stream);
+            } catch (RuntimeException e) {
+                logger.warn("Could not count unread notifications of user {}: {}", stream.userId, e.getMessage());
+                resync(stream, List.of(subscriber));
+                return;
+            }
+            drain(stream);
+            // The count goes to this connection only; the others already have it
+            stream.sendLock.lock();
+            try {
+                send(stream, subscriber, SseEmitter.event().name(EVENT_UNREAD_COUNT).data(count));
+            } finally {
+                stream.sendLock.unlock();
+            }
+        });
+        return emitter;
+    }
+
+    // Called after the notifications are committed; users without an open stream cost nothing
+    public void publishNotifications(Long userId, List<NotificationDTO> notifications) {
+        UserStream stream = streams.get(userId);
+        if (stream == null || notifications.isEmpty()) {
+            return;
+        }
+        for (NotificationDTO notification : notifications) {
+            append(stream, EVENT_NOTIFICATION, notification);
+        }
+        refreshUnreadCount(stream);
+    }
+
+    // Called after a change to the user's read flags has been committed
+    public void unreadCountChanged(Long userId) {
+        UserStream stream = streams.get(userId);
+        if (stream != null) {
+            refreshUnreadCount(stream);
+        }
+    }
+
+    public int connectionCount() {
+        int count = 0;
+        for (UserStream stream : streams.values()) {
+            count += stream.subscribers.size();
+        }
+        return count;
+    }
+
+    // Keeps proxies from closing idle connections and finds the ones that went away silently
+    @Scheduled(fixedDelayString = "${app.notifications.stream.heartbeatMs:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (UserStream stream : streams.values()) {
+            if (stream.subscribers.isEmpty()) {
+                if (stream.idleSince == 0) {
+                    stream.idleSince = now;
+                } else if (now - stream.idleSince > IDLE_STREAM_MS) {
+                    streams.computeIfPresent(stream.userId, (id, s) -> s.subscribers.isEmpty() ? null : s);
+                }
+                continue;
+            }
+            sender.execute(() -> {
+                stream.sendLock.lock();
+                try {
+                    for (Subscriber subscriber : stream.subscribers) {
+                        send(stream, subscriber, SseEmitter.event().comment("heartbeat"));
+                    }
+                } finally {
+                    stream.sendLock.unlock();
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        for (UserStream stream : streams.values()) {
+            for (Subscriber subscriber : stream.subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        sender.shutdown();
+    }
+
+    // Counts run one at a time per user, so events go out in the order the commits happened
+    private void refreshUnreadCount(UserStream stream) {
+        sender.execute(() -> {
+            stream.countLock.lock();
+            try {
+                Long previous = stream.unreadCount;
+                long count = countUnread(stream);
+                // Only a change is worth an event
+                if (previous == null || previous != count) {
+                    append(stream, EVENT_UNREAD_COUNT, count);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not count unread notifications of user {}: {}", stream.userId, e.getMessage());
+                // The count the clients hold may be stale now
+                stream.unreadCount = null;
+                resync(stream, stream.subscribers);
+            } finally {
+                stream.countLock.unlock();
+            }
+        });
+    }
+
+    private long countUnread(UserStream stream) {
+        stream.countLock.lock();
+        try {
+            countPermits.acquire();
+            try {
+                long count = notificationRepository.countByUser_IdAndIsReadFalse(stream.userId);
+                stream.unreadCount = count;
+                return count;
+            } finally {
+                countPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to count unread notifications", e);
+        } finally {
+            stream.countLock.unlock();
+        }
+    }
+
+    // Tells these connections to reload, along with anything buffered they have not had yet
+    private void resync(UserStream stream, List<Subscriber> subscribers) {
+        stream.sendLock.lock();
+        try {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.needsResync = true;
+            }
+            drain(stream);
+        } finally {
+            stream.sendLock.unlock();
+        }
+    }
+
+    private void append(UserStream stream, String name, Object data) {
+        stream.bufferLock.lock();
+        try {
+            stream.sequence++;
+            stream.buffer.addLast(new StreamEvent(stream.sequence, name, data));
+            if (stream.buffer.size() > bufferSize) {
+                stream.buffer.removeFirst();
+            }
+        } finally {
+            stream.bufferLock.unlock();
+        }
+        sender.execute(() -> drain(stream));
+    }
+
+    // Sends every buffered event a connection has not had yet, oldest first
+    private void drain(UserStream stream) {
+        stream.sendLock.lock();
+        try {
+            List<StreamEvent> events;
+            stream.bufferLock.lock();
+            try {
+                events = new ArrayList<>(stream.buffer);
+            } finally {
+                stream.bufferLock.unlock();
+            }
+            for (Subscriber subscriber : stream.subscribers) {
+                if (!events.isEmpty() && subscriber.lastSent < events.get(0).sequence() - 1) {
+                    // A slow connection fell further behind than the ring reaches; the gap must
+                    // not pass silently, so it reloads like a reconnect that came too late
+                    subscriber.lastSent = events.get(events.size() - 1).sequence();
+                    subscriber.needsResync = true;
+                }
+                if (subscriber.needsResync) {
+                    subscriber.needsResync = false;
+                    if (!send(stream, subscriber, SseEmitter.event().name(EVENT_RESYNC).data(""))) {
+                        continue;
+                    }
+                }
+                for (StreamEvent event : events) {
+                    if (event.sequence() <= subscriber.lastSent) {
+                        continue;
+                    }
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                            .id(epoch + "-" + event.sequence())
+                            .name(event.name())
+                            .data(event.data());
+                    if (!send(stream, subscriber, builder)) {
+                        break;
+                    }
+                    subscriber.lastSent = event.sequence();
+                }
+            }
+        } finally {
+            stream.sendLock.unlock();
+        }
+    }
+
+    private boolean send(UserStream stream, Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the servlet container tells the emitter on its own thread too
+            remove(stream, subscriber);
+            subscriber.emitter.completeWithError(e);
+            logger.debug("Dropped notification stream of user {}: {}", stream.userId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void remove(UserStream stream, Subscriber subscriber) {
+        stream.subscribers.remove(subscriber);
+    }
+
+    // -1 when the id is missing, malformed or from another epoch
+    private long parseSequence(String lastEventId) {
+        if (lastEventId == null) {
+            return -1;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class UserStream {
+        private final Long userId;
+        private final ReentrantLock bufferLock = new ReentrantLock();
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private final ReentrantLock countLock = new ReentrantLock();
+        private final ArrayDeque<StreamEvent> buffer = new ArrayDeque<>();
+        private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private long sequence;
+        private volatile Long unreadCount;
+        private volatile long idleSince;
+
+        private UserStream(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Only touched under the stream's sendLock once subscribed
+        private long lastSent;
+        private boolean needsResync;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private record StreamEvent(long sequence, String name, Object data) {
+    }
+}
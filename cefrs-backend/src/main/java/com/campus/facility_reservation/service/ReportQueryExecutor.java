@@ -0,0 +1,105 @@
+package com.campus.facility_reservation.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent report queries in parallel on virtual threads. Each query gets its own
+ * read-only transaction (and so its own connection), a semaphore caps how many connections
+ * reports may hold at once so they cannot starve request traffic, and every query is bound by
+ * the same timeout both in the database (transaction timeout) and on the waiting side.
+ */
+@Component
+public class ReportQueryExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore connections;
+    private final long timeoutMillis;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReportQueryExecutor(PlatformTransactionManager transactionManager,
+                               @Value("${app.reports.maxConnections:5}") int maxConnections,
+                               @Value("${app.reports.queryTimeoutMs:10000}") long timeoutMillis) {
+        this.connections = new Semaphore(maxConnections, true);
+        this.timeoutMillis = timeoutMillis;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+    }
+
+    // Queries submitted to one batch share a deadline; closing the batch cancels whatever is left
+    public Batch batch() {
+        return new Batch(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Batch implements AutoCloseable {
+
+        private final long deadline;
+        private final List<Future<?>> submitted = new ArrayList<>();
+
+        private Batch(long deadline) {
+            this.deadline = deadline;
+        }
+
+        public <T> Future<T> submit(Supplier<T> query) {
+            Future<T> future = executor.submit(() -> {
+                if (!connections.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException();
+                }
+                try {
+                    return readOnlyTransaction.execute(status -> query.get());
+                } finally {
+                    connections.release();
+                }
+            });
+            submitted.add(future);
+            return future;
+        }
+
+        public <T> T get(Future<T> future) {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | CancellationException e) {
+                throw new RuntimeException("Report query timed out");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Report was interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    throw new RuntimeException("Report query timed out");
+                }
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new RuntimeException("Report query failed", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            for (Future<?> future : submitted) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.config.SchedulingConfig;
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.FacilityReservation;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the report rollup tables (facility_daily_rollup, reservation_hourly_rollup and
+ * equipment_daily_rollup) in step with the reservation and borrowing tables. Every status
+ * change moves one count from the old status row to the new one inside the writing
+ * transaction; a nightly job rebuilds all three tables from the source rows to repair drift.
+ *
+ * The rebuild deletes and recounts a window of days at a time, each window in its own
+ * transaction, and holds the "report-rollups" job_lock row so only one instance runs it.
+ */
+@Service
+public class ReportRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportRollupService.class);
+
+    private static final String FACILITY_DAILY_UPSERT =
+            "INSERT INTO facility_daily_rollup (facility_id, rollup_date, status, reservations) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE reservations = reservations + VALUES(reservations)";
+
+    private static final String RESERVATION_HOURLY_UPSERT =
+            "INSERT INTO reservation_hourly_rollup (rollup_date, start_hour, status, reservations) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE reservations = reservations + VALUES(reservations)";
+
+    private static final String EQUIPMENT_DAILY_UPSERT =
+            "INSERT INTO equipment_daily_rollup (equipment_id, rollup_date, status, borrowings) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE borrowings = borrowings + VALUES(borrowings)";
+
+    static final String JOB_NAME = "report-rollups";
+
+    private static final List<Rollup> ROLLUPS = List.of(
+        new Rollup("facility_daily_rollup", "facility_reservation", "reservation_date",
+            "INSERT INTO facility_daily_rollup (facility_id, rollup_date, status, reservations) " +
+            "SELECT facility_id, reservation_date, status, COUNT(*) FROM facility_reservation " +
+            "WHERE reservation_date BETWEEN ? AND ? GROUP BY facility_id, reservation_date, status"),
+        new Rollup("reservation_hourly_rollup", "facility_reservation", "reservation_date",
+            "INSERT INTO reservation_hourly_rollup (rollup_date, start_hour, status, reservations) " +
+            "SELECT reservation_date, HOUR(start_time), status, COUNT(*) FROM facility_reservation " +
+            "WHERE reservation_date BETWEEN ? AND ? GROUP BY reservation_date, HOUR(start_time), status"),
+        new Rollup("equipment_daily_rollup", "equipment_borrowing", "borrow_date",
+            "INSERT INTO equipment_daily_rollup (equipment_id, rollup_date, status, borrowings) " +
+            "SELECT equipment_id, borrow_date, status, COUNT(*) FROM equipment_borrowing " +
+            "WHERE borrow_date BETWEEN ? AND ? GROUP BY equipment_id, borrow_date, status"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRunLock jobRunLock;
+    private final TransactionTemplate batchTransaction;
+    private final int batchDays;
+
+    public ReportRollupService(JdbcTemplate jdbcTemplate,
+                               JobRunLock jobRunLock,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.reports.rollupRebuildDays:31}") int batchDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRunLock = jobRunLock;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchDays = batchDays;
+    }
+
+    // from is null for a newly created reservation
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReservation(FacilityReservation reservation, ReservationStatus from, ReservationStatus to) {
+        if (from == to) {
+            return;
+        }
+        Date date = Date.valueOf(reservation.getReservationDate());
+        Long facilityId = reservation.getFacility().getId();
+        int hour = reservation.getStartTime().getHour();
+
+        // Rows in status order so concurrent writers on the same day lock them in the same order
+        List<Object[]> daily = new ArrayList<>();
+        List<Object[]> hourly = new ArrayList<>();
+        for (ReservationStatus status : ReservationStatus.values()) {
+            int delta = (status == to ? 1 : 0) - (status == from ? 1 : 0);
+            if (delta != 0) {
+                daily.add(new Object[]{facilityId, date, status.name(), delta});
+                hourly.add(new Object[]{date, hour, status.name(), delta});
+            }
+        }
+        jdbcTemplate.batchUpdate(FACILITY_DAILY_UPSERT, daily);
+        jdbcTemplate.batchUpdate(RESERVATION_HOURLY_UPSERT, hourly);
+    }
+
+    // from is null for a newly created borrowing
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBorrowing(EquipmentBorrowing borrowing, BorrowingStatus from, BorrowingStatus to) {
+        if (from == to) {
+            return;
+        }
+        Date date = Date.valueOf(borrowing.getBorrowDate());
+        Long equipmentId = borrowing.getEquipment().getId();
+
+        List<Object[]> daily = new ArrayList<>();
+        for (BorrowingStatus status : BorrowingStatus.values()) {
+            int delta = (status == to ? 1 : 0) - (status == from ? 1 : 0);
+            if (delta != 0) {
+                daily.add(new Object[]{equipmentId, date, status.name(), delta});
+            }
+        }
+        jdbcTemplate.batchUpdate(EQUIPMENT_DAILY_UPSERT, daily);
+    }
+
+    // Nightly reconciliation: recount every table from its source rows, a few days at a time
+    @Scheduled(cron = "0 30 2 * * *", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public void rebuild() {
+        runLocked(ROLLUPS);
+    }
+
+    // Fills the rollups the first time they run against a database that already has data
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        List<Rollup> empty = ROLLUPS.stream()
+                .filter(rollup -> jdbcTemplate.queryForList("SELECT 1 FROM " + rollup.table() + " LIMIT 1").isEmpty())
+                .toList();
+        if (!empty.isEmpty()) {
+            runLocked(empty);
+        }
+    }
+
+    private void runLocked(List<Rollup> rollups) {
+        try {
+            if (!jobRunLock.runExclusively(JOB_NAME, () -> rollups.forEach(this::rebuildTable))) {
+                logger.info("Report rollup rebuild skipped, another instance is running it");
+            }
+        } catch (RuntimeException e) {
+            // Batches already committed are correct; tomorrow's run repairs the rest
+            logger.error("Report rollup rebuild stopped: {}", e.getMessage());
+        }
+    }
+
+    // Each batch swaps a few days of rollup rows in its own short transaction, so the writers'
+    // upserts only ever wait for one batch, never for the whole table
+    private void rebuildTable(Rollup rollup) {
+        long started = System.currentTimeMillis();
+        // Rollup days with no source rows left are covered too, so their rows get deleted
+        LocalDate[] source = dayRange(rollup.sourceTable(), rollup.sourceDateColumn());
+        LocalDate[] existing = dayRange(rollup.table(), "rollup_date");
+        LocalDate first = earlier(source[0], existing[0]);
+        LocalDate last = later(source[1], existing[1]);
+        if (first == null) {
+            return;
+        }
+        int batches = 0;
+        for (LocalDate from = first; !from.isAfter(last); from = from.plusDays(batchDays)) {
+            Date start = Date.valueOf(from);
+            Date end = Date.valueOf(from.plusDays(batchDays - 1L));
+            batchTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM " + rollup.table() + " WHERE rollup_date BETWEEN ? AND ?", start, end);
+                jdbcTemplate.update(rollup.insertSql(), start, end);
+            });
+            batches++;
+        }
+        logger.info("Report rollup {} rebuilt in {} batches, {} ms", rollup.table(), batches,
+                System.currentTimeMillis() - started);
+    }
+
+    // First and last day in the column, both null when the table is empty
+    private LocalDate[] dayRange(String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT MIN(" + column + "), MAX(" + column + ") FROM " + table,
+                (rs, rowNum) -> new LocalDate[]{rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class)});
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+
+    private record Rollup(String table, String sourceTable, String sourceDateColumn, String insertSql) {
+    }
+}
@@ -2,19 +2,80 @@ package com.campus.facility_reservation.service;
 
 import com.campus.facility_reservation.dto.ReportDTO;
 import com.campus.facility_reservation.repository.EquipmentBorrowingRepository;
+import com.campus.facility_reservation.repository.EquipmentDailyRollupRepository;
+import com.campus.facility_reservation.repository.FacilityDailyRollupRepository;
 import com.campus.facility_reservation.repository.FacilityReservationRepository;
 import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.ReservationHourlyRollupRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    private static final int MAX_USER_ACTIVITY_PAGE_SIZE = 500;
+
+    // Per-user reservation and borrowing counts from one UNION ALL, grouped once more by user
+    private static final String USER_ACTIVITY_SQL =
+        "SELECT u.id, u.first_name, u.last_name, u.email, r.role_name, " +
+        "a.reservations, a.borrowings, a.last_activity " +
+        "FROM (SELECT user_id, SUM(reservations) AS reservations, SUM(borrowings) AS borrowings, " +
+        "MAX(last_activity) AS last_activity " +
+        "FROM (SELECT user_id, COUNT(*) AS reservations, 0 AS borrowings, MAX(created_at) AS last_activity " +
+        "FROM facility_reservation GROUP BY user_id " +
+        "UNION ALL " +
+        "SELECT user_id, 0, COUNT(*), MAX(created_at) FROM equipment_borrowing GROUP BY user_id) activity " +
+        "GROUP BY user_id) a " +
+        "JOIN users u ON u.id = a.user_id " +
+        "JOIN user_role r ON r.role_id = u.role_id";
+
+    private static final String USER_ACTIVITY_COUNT_SQL =
+        "SELECT COUNT(*) FROM (SELECT user_id FROM facility_reservation " +
+        "UNION SELECT user_id FROM equipment_borrowing) active_users";
+
+    // Names and other columns of the ids a snapshot report found, LOOKUP_CHUNK ids per query
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final String FACILITY_LOOKUP_SQL = "SELECT id, name, type FROM facility WHERE id IN (:ids)";
+    private static final String EQUIPMENT_LOOKUP_SQL =
+        "SELECT id, name, category, quantity_total, quantity_available FROM equipment WHERE id IN (:ids)";
+    private static final String USER_LOOKUP_SQL =
+        "SELECT u.id, u.first_name, u.last_name, u.email, r.role_name " +
+        "FROM users u JOIN user_role r ON r.role_id = u.role_id WHERE u.id IN (:ids)";
+
+    // Whitelisted sort keys; the SQL columns and the in-memory comparators must agree
+    private static final Map<String, List<String>> USER_ACTIVITY_SORT_SQL = Map.of(
+        "activity", List.of("a.reservations + a.borrowings"),
+        "reservations", List.of("a.reservations"),
+        "borrowings", List.of("a.borrowings"),
+        "lastActivity", List.of("DATE(a.last_activity)"),
+        "name", List.of("u.first_name", "u.last_name")
+    );
+
+    private static final Map<String, Comparator<ReportDTO.UserActivityReport>> USER_ACTIVITY_SORT = Map.of(
+        "activity", Comparator.comparingLong(r -> r.getTotalReservations() + r.getTotalBorrowings()),
+        "reservations", Comparator.comparing(ReportDTO.UserActivityReport::getTotalReservations),
+        "borrowings", Comparator.comparing(ReportDTO.UserActivityReport::getTotalBorrowings),
+        "lastActivity", Comparator.comparing(ReportDTO.UserActivityReport::getLastActivity),
+        "name", Comparator.comparing(ReportDTO.UserActivityReport::getUserName)
+    );
+
     @Autowired
     private FacilityReservationRepository facilityReservationRepository;
 
@@ -24,29 +85,108 @@ public class ReportService {
     @Autowired
     private FacilityRepository facilityRepository;
 
-    // Get complete dashboard statistics
+    @Autowired
+    private FacilityDailyRollupRepository facilityRollupRepository;
+
+    @Autowired
+    private ReservationHourlyRollupRepository hourlyRollupRepository;
+
+    @Autowired
+    private EquipmentDailyRollupRepository equipmentRollupRepository;
+
+    @Autowired
+    private ReportQueryExecutor queryExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // While it is loaded, the reports are counted from it instead of by SQL
+    @Autowired
+    private ReportSnapshot reportSnapshot;
+
+    // false switches the user activity report to the two-query hash merge
+    @Value("${app.reports.userActivitySingleQuery:true}")
+    private boolean userActivitySingleQuery;
+
+    // Get complete dashboard statistics. The 14 aggregate queries are independent, so they run
+    // in parallel and the response takes about as long as the slowest one.
     public ReportDTO.DashboardStats getDashboardStats() {
-        ReportDTO.FacilityUsageStats facilityStats = getFacilityUsageStats();
-        ReportDTO.EquipmentUsageStats equipmentStats = getEquipmentUsageStats();
-        ReportDTO.UserActivityStats userActivityStats = getUserActivityStats();
-        List<ReportDTO.DailyReservationCount> dailyReservations = getDailyReservations(30);
-
-        return new ReportDTO.DashboardStats(
-            facilityStats,
-            equipmentStats,
-            userActivityStats,
-            dailyReservations
-        );
+        LocalDate today = LocalDate.now();
+        LocalDate dailyStart = today.minusDays(30);
+
+        ReportDTO.DashboardStats fromSnapshot = fromSnapshot(() -> {
+            ReportSnapshot.Totals totals = reportSnapshot.totals(today);
+            int days = DailySeriesBuilder.days(dailyStart, today);
+            return new ReportDTO.DashboardStats(
+                facilityUsageStats(totals, facilityRepository.count()),
+                equipmentUsageStats(totals),
+                userActivityStats(totals),
+                DailySeriesBuilder.build(dailyStart, DailySeriesBuilder.Bucket.DAY,
+                    reportSnapshot.reservationsPerDay(dailyStart, days), reportSnapshot.borrowingsPerDay(dailyStart, days))
+            );
+        });
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+
+        try (ReportQueryExecutor.Batch batch = queryExecutor.batch()) {
+            Future<Long> totalReservations = batch.submit(facilityReservationRepository::countTotalReservations);
+            Future<Long> activeReservations = batch.submit(facilityReservationRepository::countActiveReservations);
+            Future<Long> completedReservations = batch.submit(facilityReservationRepository::countCompletedReservations);
+            Future<Long> totalFacilities = batch.submit(facilityRepository::count);
+
+            Future<Long> totalBorrowings = batch.submit(equipmentBorrowingRepository::countTotalBorrowings);
+            Future<Long> activeBorrowings = batch.submit(equipmentBorrowingRepository::countActiveBorrowings);
+            Future<Long> overdueItems = batch.submit(() -> equipmentBorrowingRepository.countOverdueItems(today));
+            Future<Double> avgDurationDays = batch.submit(equipmentBorrowingRepository::getAverageDurationInDays);
+
+            Future<List<Object[]>> hourlyActivity = batch.submit(hourlyRollupRepository::getHourlyActivity);
+            Future<Long> activeUsers = batch.submit(facilityReservationRepository::countUniqueUsers);
+            Future<Long> todayReservations = batch.submit(() -> facilityReservationRepository.countTodayReservations(today));
+            Future<Long> todayBorrowings = batch.submit(() -> equipmentBorrowingRepository.countTodayBorrowings(today));
+
+            Future<List<Object[]>> facilityDaily = batch.submit(() -> facilityRollupRepository.getDailyReservationCounts(dailyStart, today));
+            Future<List<Object[]>> equipmentDaily = batch.submit(() -> equipmentRollupRepository.getDailyBorrowingCounts(dailyStart, today));
+
+            return new ReportDTO.DashboardStats(
+                facilityUsageStats(batch.get(totalReservations), batch.get(activeReservations),
+                    batch.get(completedReservations), batch.get(totalFacilities)),
+                equipmentUsageStats(batch.get(totalBorrowings), batch.get(activeBorrowings),
+                    batch.get(overdueItems), batch.get(avgDurationDays)),
+                new ReportDTO.UserActivityStats(peakHours(batch.get(hourlyActivity)), batch.get(activeUsers),
+                    batch.get(todayReservations), batch.get(todayBorrowings)),
+                DailySeriesBuilder.build(dailyStart, today, DailySeriesBuilder.Bucket.DAY,
+                    batch.get(facilityDaily), batch.get(equipmentDaily))
+            );
+        }
     }
 
     // Facility Usage Statistics
     public ReportDTO.FacilityUsageStats getFacilityUsageStats() {
-        Long totalReservations = facilityReservationRepository.countTotalReservations();
-        Long activeReservations = facilityReservationRepository.countActiveReservations();
-        Long completedReservations = facilityReservationRepository.countCompletedReservations();
-        
+        ReportDTO.FacilityUsageStats fromSnapshot =
+            fromSnapshot(() -> facilityUsageStats(reportSnapshot.totals(LocalDate.now()), facilityRepository.count()));
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        return facilityUsageStats(
+            facilityReservationRepository.countTotalReservations(),
+            facilityReservationRepository.countActiveReservations(),
+            facilityReservationRepository.countCompletedReservations(),
+            facilityRepository.count()
+        );
+    }
+
+    private ReportDTO.FacilityUsageStats facilityUsageStats(ReportSnapshot.Totals totals, Long totalFacilities) {
+        return facilityUsageStats(totals.reservations(), totals.activeReservations(),
+            totals.completedReservations(), totalFacilities);
+    }
+
+    private ReportDTO.FacilityUsageStats facilityUsageStats(Long totalReservations, Long activeReservations,
+                                                            Long completedReservations, Long totalFacilities) {
         // Calculate average occupancy (percentage of time facilities are reserved)
-        Long totalFacilities = facilityRepository.count();
         Double averageOccupancy = totalFacilities > 0 
             ? (activeReservations.doubleValue() / totalFacilities.doubleValue()) * 100 
             : 0.0;
@@ -61,12 +201,31 @@ public class ReportService {
 
     // Equipment Usage Statistics
     public ReportDTO.EquipmentUsageStats getEquipmentUsageStats() {
-        Long totalBorrowings = equipmentBorrowingRepository.countTotalBorrowings();
-        Long activeBorrowings = equipmentBorrowingRepository.countActiveBorrowings();
-        Long overdueItems = equipmentBorrowingRepository.countOverdueItems(LocalDate.now());
-        
-        // Get average duration in days and convert to hours
-        Double avgDurationDays = equipmentBorrowingRepository.getAverageDurationInDays();
+        ReportDTO.EquipmentUsageStats fromSnapshot =
+            fromSnapshot(() -> equipmentUsageStats(reportSnapshot.totals(LocalDate.now())));
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        return equipmentUsageStats(
+            equipmentBorrowingRepository.countTotalBorrowings(),
+            equipmentBorrowingRepository.countActiveBorrowings(),
+            equipmentBorrowingRepository.countOverdueItems(LocalDate.now()),
+            equipmentBorrowingRepository.getAverageDurationInDays()
+        );
+    }
+
+    private ReportDTO.EquipmentUsageStats equipmentUsageStats(ReportSnapshot.Totals totals) {
+        // AVG(DATEDIFF(actual_return_date, borrow_date)) over the returned borrowings
+        Double avgDurationDays = totals.returnedBorrowings() > 0
+            ? (double) totals.returnedDays() / totals.returnedBorrowings()
+            : null;
+        return equipmentUsageStats(totals.borrowings(), totals.activeBorrowings(),
+            totals.overdueBorrowings(), avgDurationDays);
+    }
+
+    private ReportDTO.EquipmentUsageStats equipmentUsageStats(Long totalBorrowings, Long activeBorrowings,
+                                                              Long overdueItems, Double avgDurationDays) {
+        // Average duration comes back in days, the report shows hours
         Double avgDurationHours = avgDurationDays != null ? avgDurationDays * 24 : 0.0;
 
         return new ReportDTO.EquipmentUsageStats(
@@ -79,7 +238,12 @@ public class ReportService {
 
     // User Activity Statistics
     public ReportDTO.UserActivityStats getUserActivityStats() {
-        String peakHours = getPeakHours();
+        ReportDTO.UserActivityStats fromSnapshot =
+            fromSnapshot(() -> userActivityStats(reportSnapshot.totals(LocalDate.now())));
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        String peakHours = peakHours(hourlyRollupRepository.getHourlyActivity());
         Long totalActiveUsers = facilityReservationRepository.countUniqueUsers();
         Long todayReservations = facilityReservationRepository.countTodayReservations(LocalDate.now());
         Long todayBorrowings = equipmentBorrowingRepository.countTodayBorrowings(LocalDate.now());
@@ -92,10 +256,42 @@ public class ReportService {
         );
     }
 
-    // Get peak hours
-    private String getPeakHours() {
-        List<Object[]> hourlyActivity = facilityReservationRepository.getHourlyActivity();
-        
+    private ReportDTO.UserActivityStats userActivityStats(ReportSnapshot.Totals totals) {
+        return new ReportDTO.UserActivityStats(
+            peakHours(hourlyActivity(reportSnapshot.approvedByHour())),
+            totals.reservationUsers(),
+            totals.todayReservations(),
+            totals.todayBorrowings()
+        );
+    }
+
+    // The report counted from the snapshot, or null when it is not loaded or was dropped partway
+    // through, in which case the caller answers from SQL
+    private <T> T fromSnapshot(Supplier<T> report) {
+        if (!reportSnapshot.isReady()) {
+            return null;
+        }
+        try {
+            return report.get();
+        } catch (ReportSnapshot.NotLoadedException e) {
+            return null;
+        }
+    }
+
+    // The snapshot's per-hour counts as ReservationHourlyRollupRepository.getHourlyActivity rows
+    private List<Object[]> hourlyActivity(long[] byHour) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int hour = 0; hour < byHour.length; hour++) {
+            if (byHour[hour] > 0) {
+                rows.add(new Object[]{hour, byHour[hour]});
+            }
+        }
+        rows.sort(Comparator.comparingLong((Object[] row) -> (Long) row[1]).reversed());
+        return rows;
+    }
+
+    // Peak hours from the hourly activity rows, busiest first
+    private String peakHours(List<Object[]> hourlyActivity) {
         if (hourlyActivity.isEmpty()) {
             return "N/A";
         }
@@ -124,37 +320,28 @@ public class ReportService {
         return (hour - 12) + ":00 PM";
     }
 
-    // Get daily reservations for chart (last N days)
-    public List<ReportDTO.DailyReservationCount> getDailyReservations(int days) {
-        LocalDate startDate = LocalDate.now().minusDays(days);
-        
-        List<Object[]> facilityData = facilityReservationRepository.getDailyReservationCounts(startDate);
-        List<Object[]> equipmentData = equipmentBorrowingRepository.getDailyBorrowingCounts(startDate);
-        
-        // Combine data by date
-        List<ReportDTO.DailyReservationCount> result = new ArrayList<>();
-        
-        for (int i = 0; i <= days; i++) {
-            LocalDate date = startDate.plusDays(i);
-            Long facilityCount = getCountForDate(facilityData, date);
-            Long equipmentCount = getCountForDate(equipmentData, date);
-            result.add(new ReportDTO.DailyReservationCount(date, facilityCount, equipmentCount));
+    // Reservation and borrowing counts per day, week or month bucket over [from, to]
+    public List<ReportDTO.DailyReservationCount> getDailyReservations(LocalDate from, LocalDate to, String bucket) {
+        DailySeriesBuilder.Bucket size = DailySeriesBuilder.Bucket.parse(bucket);
+        List<ReportDTO.DailyReservationCount> fromSnapshot = fromSnapshot(() -> {
+            int days = DailySeriesBuilder.days(from, to);
+            return DailySeriesBuilder.build(from, size,
+                reportSnapshot.reservationsPerDay(from, days), reportSnapshot.borrowingsPerDay(from, days));
+        });
+        if (fromSnapshot != null) {
+            return fromSnapshot;
         }
-        
-        return result;
-    }
-
-    private Long getCountForDate(List<Object[]> data, LocalDate date) {
-        return data.stream()
-            .filter(row -> row[0].equals(date))
-            .findFirst()
-            .map(row -> ((Number) row[1]).longValue())
-            .orElse(0L);
+        List<Object[]> facilityData = facilityRollupRepository.getDailyReservationCounts(from, to);
+        List<Object[]> equipmentData = equipmentRollupRepository.getDailyBorrowingCounts(from, to);
+        return DailySeriesBuilder.build(from, to, size, facilityData, equipmentData);
     }
 
    // Detailed Facility Report
     public List<ReportDTO.FacilityReport> getFacilityReport() {
-        List<Object[]> data = facilityReservationRepository.getFacilityUsageReport();
+        List<Object[]> data = fromSnapshot(this::snapshotFacilityUsageReport);
+        if (data == null) {
+            data = facilityRollupRepository.getFacilityUsageReport();
+        }
         
         return data.stream()
             .map(row -> {
@@ -179,7 +366,10 @@ public class ReportService {
 
     // Detailed Equipment Report
     public List<ReportDTO.EquipmentReport> getEquipmentReport() {
-        List<Object[]> data = equipmentBorrowingRepository.getEquipmentUsageReport();
+        List<Object[]> data = fromSnapshot(this::snapshotEquipmentUsageReport);
+        if (data == null) {
+            data = equipmentRollupRepository.getEquipmentUsageReport();
+        }
         List<ReportDTO.EquipmentReport> result = new ArrayList<>();
         
         for (Object[] row : data) {
@@ -210,51 +400,219 @@ public class ReportService {
         return result;
     }
 
-    // User Activity Report (combined facility and equipment)
-    public List<ReportDTO.UserActivityReport> getUserActivityReport() {
+    // One page of the user activity report; size == null returns every active user.
+    // Sort keys: activity (default), reservations, borrowings, lastActivity, name.
+    public List<ReportDTO.UserActivityReport> getUserActivityReport(Integer page, Integer size,
+                                                                    String sort, String direction) {
+        String sortKey = sort != null && !sort.isBlank() ? sort : "activity";
+        if (!USER_ACTIVITY_SORT_SQL.containsKey(sortKey)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortKey);
+        }
+        boolean ascending = "asc".equalsIgnoreCase(direction);
+        int offset = 0;
+        int limit = Integer.MAX_VALUE;
+        if (size != null) {
+            limit = Math.min(Math.max(size, 1), MAX_USER_ACTIVITY_PAGE_SIZE);
+            offset = Math.max(page != null ? page : 0, 0) * limit;
+        }
+
+        int pageOffset = offset;
+        int pageLimit = limit;
+        List<ReportDTO.UserActivityReport> fromSnapshot =
+            fromSnapshot(() -> snapshotUserActivityReport(sortKey, ascending, pageOffset, pageLimit));
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        if (userActivitySingleQuery) {
+            return queryUserActivityReport(sortKey, ascending, offset, limit);
+        }
+        return mergeUserActivityReport(sortKey, ascending, offset, limit);
+    }
+
+    // Users with at least one reservation or borrowing
+    public long countUserActivityReport() {
+        Integer fromSnapshot = fromSnapshot(() -> reportSnapshot.activityByUser().keys().length);
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        Long total = jdbcTemplate.queryForObject(USER_ACTIVITY_COUNT_SQL, Long.class);
+        return total != null ? total : 0L;
+    }
+
+    // Both activity sources are counted and combined by the database, sorted and paged there too
+    private List<ReportDTO.UserActivityReport> queryUserActivityReport(String sortKey, boolean ascending,
+                                                                       int offset, int limit) {
+        String dir = ascending ? " ASC" : " DESC";
+        String orderBy = USER_ACTIVITY_SORT_SQL.get(sortKey).stream()
+            .map(column -> column + dir)
+            .collect(Collectors.joining(", "));
+        String sql = USER_ACTIVITY_SQL + " ORDER BY " + orderBy + ", u.id";
+        Object[] args = {};
+        if (limit != Integer.MAX_VALUE) {
+            sql += " LIMIT ? OFFSET ?";
+            args = new Object[]{limit, offset};
+        }
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ReportDTO.UserActivityReport(
+            rs.getLong(1),
+            rs.getString(2) + " " + rs.getString(3),
+            rs.getString(4),
+            rs.getString(5),
+            rs.getLong(6),
+            rs.getLong(7),
+            rs.getTimestamp(8).toLocalDateTime().toLocalDate()
+        ), args);
+    }
+
+    // Fallback: the two per-source reports merged in one pass over a map keyed by user id
+    private List<ReportDTO.UserActivityReport> mergeUserActivityReport(String sortKey, boolean ascending,
+                                                                       int offset, int limit) {
         List<Object[]> facilityData = facilityReservationRepository.getUserActivityReport();
         List<Object[]> equipmentData = equipmentBorrowingRepository.getUserBorrowingReport();
-        
-        List<ReportDTO.UserActivityReport> result = new ArrayList<>();
-        
-        // Add facility reservation data
+
+        Map<Long, ReportDTO.UserActivityReport> byUser = new HashMap<>(facilityData.size() + equipmentData.size());
         for (Object[] row : facilityData) {
-            Long userId = ((Number) row[0]).longValue();
-            String userName = row[1] + " " + row[2];
-            String email = (String) row[3];
-            String role = row[4].toString();
-            Long reservations = ((Number) row[5]).longValue();
-            LocalDate lastActivity = ((java.sql.Timestamp) row[6]).toLocalDateTime().toLocalDate();
-            
-            result.add(new ReportDTO.UserActivityReport(
-                userId, userName, email, role, reservations, 0L, lastActivity
-            ));
+            ReportDTO.UserActivityReport report = userActivityRow(row);
+            report.setTotalReservations(((Number) row[5]).longValue());
+            byUser.put(report.getUserId(), report);
         }
-        
-        // Merge equipment borrowing data
         for (Object[] row : equipmentData) {
             Long userId = ((Number) row[0]).longValue();
             Long borrowings = ((Number) row[5]).longValue();
-            
-            ReportDTO.UserActivityReport existing = result.stream()
-                .filter(r -> r.getUserId().equals(userId))
-                .findFirst()
-                .orElse(null);
-            
-            if (existing != null) {
-                existing.setTotalBorrowings(borrowings);
-            } else {
-                String userName = row[1] + " " + row[2];
-                String email = (String) row[3];
-                String role = row[4].toString();
-                LocalDate lastActivity = ((java.sql.Timestamp) row[6]).toLocalDateTime().toLocalDate();
-                
-                result.add(new ReportDTO.UserActivityReport(
-                    userId, userName, email, role, 0L, borrowings, lastActivity
-                ));
+            ReportDTO.UserActivityReport existing = byUser.get(userId);
+            if (existing == null) {
+                ReportDTO.UserActivityReport report = userActivityRow(row);
+                report.setTotalBorrowings(borrowings);
+                byUser.put(userId, report);
+                continue;
+            }
+            existing.setTotalBorrowings(borrowings);
+            LocalDate lastActivity = lastActivityOf(row);
+            if (lastActivity.isAfter(existing.getLastActivity())) {
+                existing.setLastActivity(lastActivity);
             }
         }
-        
-        return result;
+
+        return sortAndPage(new ArrayList<>(byUser.values()), sortKey, ascending, offset, limit);
+    }
+
+    private List<ReportDTO.UserActivityReport> sortAndPage(List<ReportDTO.UserActivityReport> result, String sortKey,
+                                                           boolean ascending, int offset, int limit) {
+        Comparator<ReportDTO.UserActivityReport> order = USER_ACTIVITY_SORT.get(sortKey);
+        result.sort((ascending ? order : order.reversed())
+            .thenComparing(ReportDTO.UserActivityReport::getUserId));
+        if (offset >= result.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(result.subList(offset, (int) Math.min((long) offset + limit, result.size())));
+    }
+
+    // Same rows as queryUserActivityReport, counted by the snapshot. Only the name sort needs every
+    // user's name; for the other sorts just the users on the page are looked up.
+    private List<ReportDTO.UserActivityReport> snapshotUserActivityReport(String sortKey, boolean ascending,
+                                                                          int offset, int limit) {
+        ReportSnapshot.Groups groups = reportSnapshot.activityByUser();
+        int[] ids = groups.keys();
+        long[][] columns = groups.columns();
+        List<ReportDTO.UserActivityReport> result = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            result.add(new ReportDTO.UserActivityReport((long) ids[i], null, null, null,
+                columns[0][i], columns[1][i], LocalDate.ofEpochDay(columns[2][i])));
+        }
+        boolean byName = "name".equals(sortKey);
+        if (byName) {
+            fillUsers(result);
+        }
+        List<ReportDTO.UserActivityReport> page = sortAndPage(result, sortKey, ascending, offset, limit);
+        if (!byName) {
+            fillUsers(page);
+        }
+        return page;
+    }
+
+    // Sets name, email and role; users that no longer exist are dropped, as the SQL join drops them
+    private void fillUsers(List<ReportDTO.UserActivityReport> reports) {
+        int[] ids = reports.stream().mapToInt(report -> report.getUserId().intValue()).toArray();
+        Map<Long, Object[]> users = lookup(USER_LOOKUP_SQL, ids);
+        reports.removeIf(report -> {
+            Object[] user = users.get(report.getUserId());
+            if (user == null) {
+                return true;
+            }
+            report.setUserName(user[1] + " " + user[2]);
+            report.setEmail((String) user[3]);
+            report.setRole(user[4].toString());
+            return false;
+        });
+    }
+
+    // Same columns as FacilityDailyRollupRepository.getFacilityUsageReport
+    private List<Object[]> snapshotFacilityUsageReport() {
+        ReportSnapshot.Groups groups = reportSnapshot.reservationsByFacility();
+        long[][] columns = groups.columns();
+        Map<Long, Object[]> facilities = lookup(FACILITY_LOOKUP_SQL, groups.keys());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < groups.keys().length; i++) {
+            Object[] facility = facilities.get((long) groups.keys()[i]);
+            if (facility != null) {
+                rows.add(new Object[]{facility[0], facility[1], facility[2],
+                    columns[0][i], columns[1][i], columns[2][i], columns[3][i]});
+            }
+        }
+        rows.sort(Comparator.comparingLong((Object[] row) -> (Long) row[3]).reversed());
+        return rows;
+    }
+
+    // Same columns as EquipmentDailyRollupRepository.getEquipmentUsageReport
+    private List<Object[]> snapshotEquipmentUsageReport() {
+        ReportSnapshot.Groups groups = reportSnapshot.borrowingsByEquipment();
+        long[][] columns = groups.columns();
+        Map<Long, Object[]> equipment = lookup(EQUIPMENT_LOOKUP_SQL, groups.keys());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < groups.keys().length; i++) {
+            Object[] item = equipment.get((long) groups.keys()[i]);
+            if (item != null) {
+                rows.add(new Object[]{item[0], item[1], item[2], item[3], item[4], columns[0][i], columns[1][i]});
+            }
+        }
+        rows.sort(Comparator.comparingLong((Object[] row) -> (Long) row[5]).reversed());
+        return rows;
+    }
+
+    // Rows of sql (id in the first column) for the given ids, keyed by id
+    private Map<Long, Object[]> lookup(String sql, int[] ids) {
+        Map<Long, Object[]> rows = new HashMap<>(ids.length * 2);
+        for (int start = 0; start < ids.length; start += LOOKUP_CHUNK) {
+            List<Long> chunk = Arrays.stream(ids, start, Math.min(start + LOOKUP_CHUNK, ids.length))
+                .mapToObj(id -> (long) id)
+                .toList();
+            namedJdbcTemplate.query(sql, new MapSqlParameterSource("ids", chunk), (RowCallbackHandler) rs -> {
+                Object[] row = new Object[rs.getMetaData().getColumnCount()];
+                for (int column = 0; column < row.length; column++) {
+                    row[column] = rs.getObject(column + 1);
+                }
+                rows.put(rs.getLong(1), row);
+            });
+        }
+        return rows;
+    }
+
+    private ReportDTO.UserActivityReport userActivityRow(Object[] row) {
+        return new ReportDTO.UserActivityReport(
+            ((Number) row[0]).longValue(),
+            row[1] + " " + row[2],
+            (String) row[3],
+            row[4].toString(),
+            0L,
+            0L,
+            lastActivityOf(row)
+        );
+    }
+
+    private LocalDate lastActivityOf(Object[] row) {
+        Object value = row[6];
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        return ((java.sql.Timestamp) value).toLocalDateTime().toLocalDate();
     }
-}
\ No newline at end of file
+}
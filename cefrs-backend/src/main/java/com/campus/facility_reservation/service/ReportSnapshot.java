@@ -0,0 +1,723 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.config.SchedulingConfig;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Columnar in-memory copy of facility_reservation and equipment_borrowing, so the reports are
+ * scans over primitive arrays instead of GROUP BY queries competing with bookings.
+ *
+ * Each table is held as parallel arrays, one per column the reports need: ids as ints, dates as
+ * epoch-day ints, times as minute-of-day shorts and statuses as enum-ordinal bytes. The first
+ * refresh loads both tables in id order, a chunk per query; later refreshes only read the rows
+ * whose updated_at moved since the previous one (re-reading a short overlap, so a transaction
+ * that committed late is not missed) and patch them in place. A nightly reload starts over.
+ * Scans split the rows into ranges and aggregate each range on its own core.
+ *
+ * Memory per million rows: reservations take 25 bytes a row (ids 3 x 4, day 4, start and end
+ * 2 x 2, status 1, created day 4), about 25 MB; borrowings 29 bytes (ids 3 x 4, three dates
+ * 3 x 4, status 1, created day 4), about 29 MB. Arrays grow by half when full, so a table can
+ * use up to 1.5 times that between reloads. app.reports.snapshot.maxRows caps each table; past
+ * it (or with an id beyond int range) the snapshot is dropped and the reports go back to SQL
+ * until the nightly reload tries again. Any other refresh failure drops it only until the next
+ * refresh.
+ * A scan also allocates one counter array per range, sized by the largest facility, equipment
+ * or user id.
+ */
+@Component
+public class ReportSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSnapshot.class);
+
+    // Epoch day of a borrowing that has not been returned
+    static final int NO_DAY = Integer.MIN_VALUE;
+
+    // Smaller scans are not worth splitting
+    private static final int MIN_RANGE_ROWS = 65_536;
+
+    private static final byte APPROVED = (byte) ReservationStatus.APPROVED.ordinal();
+    private static final byte PENDING = (byte) ReservationStatus.PENDING.ordinal();
+    private static final byte REJECTED = (byte) ReservationStatus.REJECTED.ordinal();
+    private static final byte COMPLETED = (byte) ReservationStatus.COMPLETED.ordinal();
+    private static final byte BORROWING_APPROVED = (byte) BorrowingStatus.APPROVED.ordinal();
+    private static final byte BORROWED = (byte) BorrowingStatus.BORROWED.ordinal();
+    private static final byte OVERDUE = (byte) BorrowingStatus.OVERDUE.ordinal();
+
+    private static final String RESERVATION_SELECT =
+            "SELECT id, facility_id, user_id, reservation_date, start_time, end_time, status, created_at " +
+            "FROM facility_reservation ";
+    private static final String BORROWING_SELECT =
+            "SELECT id, equipment_id, user_id, borrow_date, expected_return_date, actual_return_date, status, created_at " +
+            "FROM equipment_borrowing ";
+    private static final String CHUNK_WHERE = "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String CHANGED_WHERE = "WHERE updated_at >= ? ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxRows;
+    private final int loadChunkRows;
+    private final long overlapMs;
+    private final ForkJoinPool pool;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; null until loaded, replaced whole by a reload
+    private ReservationColumns reservations;
+    private BorrowingColumns borrowings;
+    // Refresh thread only
+    private LocalDateTime changedSince;
+    // Set when a table outgrew the snapshot; only the nightly reload retries
+    private boolean tooLarge;
+
+    public ReportSnapshot(JdbcTemplate jdbcTemplate,
+                          @Value("${app.reports.snapshot.enabled:true}") boolean enabled,
+                          @Value("${app.reports.snapshot.maxRows:2000000}") int maxRows,
+                          @Value("${app.reports.snapshot.loadChunkRows:50000}") int loadChunkRows,
+                          @Value("${app.reports.snapshot.overlapMs:60000}") long overlapMs,
+                          @Value("${app.reports.snapshot.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxRows = maxRows;
+        this.loadChunkRows = loadChunkRows;
+        this.overlapMs = overlapMs;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return reservations != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.snapshot.refreshMs:30000}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public synchronized void refresh() {
+        if (!enabled || tooLarge) {
+            return;
+        }
+        try {
+            if (changedSince == null) {
+                reload();
+            } else {
+                applyChanges();
+            }
+        } catch (TooLargeException e) {
+            logger.warn("Report snapshot dropped until the nightly reload, reports fall back to SQL: {}", e.getMessage());
+            drop();
+            tooLarge = true;
+        } catch (RuntimeException e) {
+            logger.error("Report snapshot dropped, reports fall back to SQL: {}", e.getMessage());
+            drop();
+        }
+    }
+
+    @Scheduled(cron = "${app.reports.snapshot.reloadCron:0 40 2 * * *}", scheduler = SchedulingConfig.BATCH_SCHEDULER)
+    public synchronized void scheduledReload() {
+        if (enabled) {
+            tooLarge = false;
+            changedSince = null;
+            refresh();
+        }
+    }
+
+    private void reload() {
+        long started = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusNanos(overlapMs * 1_000_000);
+        ReservationColumns newReservations = new ReservationColumns(maxRows);
+        BorrowingColumns newBorrowings = new BorrowingColumns(maxRows);
+        loadInChunks(RESERVATION_SELECT + CHUNK_WHERE, newReservations);
+        loadInChunks(BORROWING_SELECT + CHUNK_WHERE, newBorrowings);
+        lock.writeLock().lock();
+        try {
+            reservations = newReservations;
+            borrowings = newBorrowings;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changedSince = since;
+        logger.info("Report snapshot loaded: {} reservations, {} borrowings in {} ms",
+                newReservations.size, newBorrowings.size, System.currentTimeMillis() - started);
+    }
+
+    private void applyChanges() {
+        LocalDateTime since = LocalDateTime.now().minusNanos(overlapMs * 1_000_000);
+        ReservationColumns changedReservations = new ReservationColumns(maxRows);
+        BorrowingColumns changedBorrowings = new BorrowingColumns(maxRows);
+        Timestamp from = Timestamp.valueOf(changedSince);
+        jdbcTemplate.query(RESERVATION_SELECT + CHANGED_WHERE, (RowCallbackHandler) changedReservations::append, from);
+        jdbcTemplate.query(BORROWING_SELECT + CHANGED_WHERE, (RowCallbackHandler) changedBorrowings::append, from);
+        lock.writeLock().lock();
+        try {
+            reservations.upsertAll(changedReservations);
+            borrowings.upsertAll(changedBorrowings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changedSince = since;
+    }
+
+    private void loadInChunks(String sql, Columns columns) {
+        int lastId = 0;
+        while (true) {
+            int before = columns.size;
+            jdbcTemplate.query(sql, (RowCallbackHandler) columns::append, lastId, loadChunkRows);
+            int read = columns.size - before;
+            if (read == 0) {
+                break;
+            }
+            lastId = columns.id[columns.size - 1];
+            if (read < loadChunkRows) {
+                break;
+            }
+        }
+        columns.trim();
+    }
+
+    private void drop() {
+        lock.writeLock().lock();
+        try {
+            reservations = null;
+            borrowings = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changedSince = null;
+    }
+
+    // ---- Scans ----
+
+    public record Totals(long reservations, long activeReservations, long completedReservations,
+                         long todayReservations, long reservationUsers,
+                         long borrowings, long activeBorrowings, long overdueBorrowings, long todayBorrowings,
+                         long returnedBorrowings, long returnedDays) {
+    }
+
+    // One row per key (facility, equipment or user id, ascending); columns[c][i] belongs to keys[i]
+    public record Groups(int[] keys, long[][] columns) {
+    }
+
+    public Totals totals(LocalDate today) {
+        int day = (int) today.toEpochDay();
+        return read(() -> {
+            ReservationColumns r = reservations;
+            BorrowingColumns b = borrowings;
+            // active, completed, today
+            long[] reservationCounts = scan(r.size, () -> new long[3], (acc, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    byte status = r.status[i];
+                    if (status == APPROVED || status == PENDING) {
+                        acc[0]++;
+                    } else if (status == COMPLETED) {
+                        acc[1]++;
+                    }
+                    if (r.day[i] == day) {
+                        acc[2]++;
+                    }
+                }
+            }, ReportSnapshot::add);
+            BitSet users = scan(r.size, BitSet::new, (acc, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    acc.set(r.userId[i]);
+                }
+            }, (left, right) -> {
+                left.or(right);
+                return left;
+            });
+            // active, overdue, today, returned, returned days
+            long[] borrowingCounts = scan(b.size, () -> new long[5], (acc, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    byte status = b.status[i];
+                    if (status == BORROWING_APPROVED || status == BORROWED) {
+                        acc[0]++;
+                    }
+                    if (status == BORROWED && b.expectedReturnDay[i] < day) {
+                        acc[1]++;
+                    }
+                    if (b.borrowDay[i] == day) {
+                        acc[2]++;
+                    }
+                    if (b.returnDay[i] != NO_DAY) {
+                        acc[3]++;
+                        acc[4] += b.returnDay[i] - b.borrowDay[i];
+                    }
+                }
+            }, ReportSnapshot::add);
+            return new Totals(r.size, reservationCounts[0], reservationCounts[1], reservationCounts[2], users.cardinality(),
+                    b.size, borrowingCounts[0], borrowingCounts[1], borrowingCounts[2], borrowingCounts[3], borrowingCounts[4]);
+        });
+    }
+
+    // Approved reservations by starting hour
+    public long[] approvedByHour() {
+        return read(() -> {
+            ReservationColumns r = reservations;
+            return scan(r.size, () -> new long[24], (acc, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (r.status[i] == APPROVED) {
+                        acc[r.startMinute[i] / 60]++;
+                    }
+                }
+            }, ReportSnapshot::add);
+        });
+    }
+
+    // Reservations per reservation date over [from, from + days)
+    public long[] reservationsPerDay(LocalDate from, int days) {
+        int first = (int) from.toEpochDay();
+        return read(() -> {
+            ReservationColumns r = reservations;
+            return scan(r.size, () -> new long[days], (acc, start, end) -> countDays(r.day, start, end, first, acc),
+                    ReportSnapshot::add);
+        });
+    }
+
+    // Borrowings per borrow date over [from, from + days)
+    public long[] borrowingsPerDay(LocalDate from, int days) {
+        int first = (int) from.toEpochDay();
+        return read(() -> {
+            BorrowingColumns b = borrowings;
+            return scan(b.size, () -> new long[days], (acc, start, end) -> countDays(b.borrowDay, start, end, first, acc),
+                    ReportSnapshot::add);
+        });
+    }
+
+    // Per facility: total, approved, pending, rejected
+    public Groups reservationsByFacility() {
+        return read(() -> {
+            ReservationColumns r = reservations;
+            int keys = r.maxFacilityId + 1;
+            long[] counts = scan(r.size, () -> new long[keys * 4], (acc, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int slot = r.facilityId[i] * 4;
+                    byte status = r.status[i];
+                    acc[slot]++;
+                    if (status == APPROVED) {
+                        acc[slot + 1]++;
+                    } else if (status == PENDING) {
+                        acc[slot + 2]++;
+                    } else if (status == REJECTED) {
+                        acc[slot + 3]++;
+                    }
+                }
+            }, ReportSnapshot::add);
+            return groups(counts, 4);
+        });
+    }
+
+    // Per equipment: total, overdue
+    public Groups borrowingsByEquipment() {
+        return read(() -> {
+            BorrowingColumns b = borrowings;
+            int keys = b.maxEquipmentId + 1;
+            long[] counts = scan(b.size, () -> new long[keys * 2], (acc, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int slot = b.equipmentId[i] * 2;
+                    acc[slot]++;
+                    if (b.status[i] == OVERDUE) {
+                        acc[slot + 1]++;
+                    }
+                }
+            }, ReportSnapshot::add);
+            return groups(counts, 2);
+        });
+    }
+
+    // Per user: reservations, borrowings, epoch day of the latest created_at of either
+    public Groups activityByUser() {
+        return read(() -> {
+            ReservationColumns r = reservations;
+            BorrowingColumns b = borrowings;
+            int keys = Math.max(r.maxUserId, b.maxUserId) + 1;
+            long[] reserved = scan(r.size, () -> new long[keys * 2], (acc, from, to) ->
+                    countUsers(r.userId, r.createdDay, from, to, acc), ReportSnapshot::addCountsMaxDays);
+            long[] borrowed = scan(b.size, () -> new long[keys * 2], (acc, from, to) ->
+                    countUsers(b.userId, b.createdDay, from, to, acc), ReportSnapshot::addCountsMaxDays);
+
+            int active = 0;
+            for (int user = 0; user < keys; user++) {
+                if (reserved[user * 2] + borrowed[user * 2] > 0) {
+                    active++;
+                }
+            }
+            int[] ids = new int[active];
+            long[][] columns = new long[3][active];
+            int row = 0;
+            for (int user = 0; user < keys; user++) {
+                if (reserved[user * 2] + borrowed[user * 2] > 0) {
+                    ids[row] = user;
+                    columns[0][row] = reserved[user * 2];
+                    columns[1][row] = borrowed[user * 2];
+                    columns[2][row] = Math.max(reserved[user * 2 + 1], borrowed[user * 2 + 1]);
+                    row++;
+                }
+            }
+            return new Groups(ids, columns);
+        });
+    }
+
+    private static void countDays(int[] dayColumn, int start, int end, int first, long[] acc) {
+        for (int i = start; i < end; i++) {
+            int offset = dayColumn[i] - first;
+            if (offset >= 0 && offset < acc.length) {
+                acc[offset]++;
+            }
+        }
+    }
+
+    // acc holds (count, latest day) pairs per user; days start at 0 since created_at is never before 1970
+    private static void countUsers(int[] userColumn, int[] dayColumn, int from, int to, long[] acc) {
+        for (int i = from; i < to; i++) {
+            int slot = userColumn[i] * 2;
+            acc[slot]++;
+            acc[slot + 1] = Math.max(acc[slot + 1], dayColumn[i]);
+        }
+    }
+
+    // Keys with a non-zero first column, as a Groups of width columns
+    private static Groups groups(long[] counts, int width) {
+        int keys = counts.length / width;
+        int present = 0;
+        for (int key = 0; key < keys; key++) {
+            if (counts[key * width] > 0) {
+                present++;
+            }
+        }
+        int[] ids = new int[present];
+        long[][] columns = new long[width][present];
+        int row = 0;
+        for (int key = 0; key < keys; key++) {
+            if (counts[key * width] > 0) {
+                ids[row] = key;
+                for (int c = 0; c < width; c++) {
+                    columns[c][row] = counts[key * width + c];
+                }
+                row++;
+            }
+        }
+        return new Groups(ids, columns);
+    }
+
+    private static long[] add(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    private static long[] addCountsMaxDays(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i += 2) {
+            left[i] += right[i];
+            left[i + 1] = Math.max(left[i + 1], right[i + 1]);
+        }
+        return left;
+    }
+
+    private <T> T read(Supplier<T> scan) {
+        lock.readLock().lock();
+        try {
+            if (reservations == null) {
+                throw new NotLoadedException();
+            }
+            return scan.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeScan<A> {
+        void scan(A accumulator, int from, int to);
+    }
+
+    // Caller holds the read lock until every range is done, so no refresh runs underneath
+    private <A> A scan(int rows, Supplier<A> accumulator, RangeScan<A> rangeScan, BinaryOperator<A> combine) {
+        int ranges = Math.max(1, Math.min(pool.getParallelism(), rows / MIN_RANGE_ROWS));
+        if (ranges == 1) {
+            A result = accumulator.get();
+            rangeScan.scan(result, 0, rows);
+            return result;
+        }
+        List<ForkJoinTask<A>> tasks = new ArrayList<>(ranges);
+        for (int range = 0; range < ranges; range++) {
+            int from = (int) ((long) rows * range / ranges);
+            int to = (int) ((long) rows * (range + 1) / ranges);
+            tasks.add(pool.submit(() -> {
+                A partial = accumulator.get();
+                rangeScan.scan(partial, from, to);
+                return partial;
+            }));
+        }
+        A result = tasks.get(0).join();
+        for (int range = 1; range < ranges; range++) {
+            result = combine.apply(result, tasks.get(range).join());
+        }
+        return result;
+    }
+
+    // ---- Column storage ----
+
+    // Thrown by a scan when the snapshot was dropped after the caller checked isReady
+    public static final class NotLoadedException extends IllegalStateException {
+
+        NotLoadedException() {
+            super("Report snapshot is not loaded");
+        }
+    }
+
+    // The tables no longer fit; retrying before the nightly reload would only fail again
+    private static final class TooLargeException extends IllegalStateException {
+
+        TooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    // Rows sorted by id; subclasses add their own columns
+    private abstract static class Columns {
+
+        private final int maxRows;
+        int[] id = new int[0];
+        int size;
+
+        Columns(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        abstract void read(ResultSet rs, int row) throws SQLException;
+
+        abstract void resize(int capacity);
+
+        // Moves rows [from, size) up by one, leaving row from free
+        abstract void shiftUp(int from);
+
+        abstract void copyRow(Columns source, int sourceRow, int row);
+
+        void append(ResultSet rs) throws SQLException {
+            ensureCapacity(size + 1);
+            read(rs, size);
+            size++;
+        }
+
+        // Changed rows replace their old version; new ids go in id order
+        void upsertAll(Columns changes) {
+            for (int i = 0; i < changes.size; i++) {
+                int row = Arrays.binarySearch(id, 0, size, changes.id[i]);
+                if (row < 0) {
+                    row = -row - 1;
+                    ensureCapacity(size + 1);
+                    if (row < size) {
+                        // A lower id committed after a higher one; rare, so the shift is fine
+                        shiftUp(row);
+                    }
+                    size++;
+                }
+                copyRow(changes, i, row);
+            }
+        }
+
+        void ensureCapacity(int needed) {
+            if (needed > maxRows) {
+                throw new TooLargeException("More than app.reports.snapshot.maxRows (" + maxRows + ") rows");
+            }
+            if (needed > id.length) {
+                resize((int) Math.min(maxRows, Math.max(needed, Math.max(1024L, id.length + (id.length >> 1)))));
+            }
+        }
+
+        // After a full load: keep an eighth for growth instead of up to a half
+        void trim() {
+            int capacity = (int) Math.min(maxRows, size + (size >> 3) + 1);
+            if (capacity < id.length) {
+                resize(capacity);
+            }
+        }
+
+        static int toId(long value) {
+            if (value > Integer.MAX_VALUE) {
+                throw new TooLargeException("Id " + value + " is beyond int range");
+            }
+            return (int) value;
+        }
+
+        static int epochDay(java.sql.Date date) {
+            return date != null ? (int) date.toLocalDate().toEpochDay() : NO_DAY;
+        }
+
+        static int epochDay(Timestamp timestamp) {
+            return (int) timestamp.toLocalDateTime().toLocalDate().toEpochDay();
+        }
+    }
+
+    private static final class ReservationColumns extends Columns {
+
+        int[] facilityId = new int[0];
+        int[] userId = new int[0];
+        int[] day = new int[0];
+        short[] startMinute = new short[0];
+        short[] endMinute = new short[0];
+        byte[] status = new byte[0];
+        int[] createdDay = new int[0];
+        int maxFacilityId;
+        int maxUserId;
+
+        ReservationColumns(int maxRows) {
+            super(maxRows);
+        }
+
+        @Override
+        void read(ResultSet rs, int row) throws SQLException {
+            id[row] = toId(rs.getLong(1));
+            facilityId[row] = toId(rs.getLong(2));
+            userId[row] = toId(rs.getLong(3));
+            day[row] = epochDay(rs.getDate(4));
+            startMinute[row] = (short) (rs.getTime(5).toLocalTime().toSecondOfDay() / 60);
+            endMinute[row] = (short) (rs.getTime(6).toLocalTime().toSecondOfDay() / 60);
+            status[row] = (byte) ReservationStatus.valueOf(rs.getString(7)).ordinal();
+            createdDay[row] = epochDay(rs.getTimestamp(8));
+            maxFacilityId = Math.max(maxFacilityId, facilityId[row]);
+            maxUserId = Math.max(maxUserId, userId[row]);
+        }
+
+        @Override
+        void resize(int capacity) {
+            id = Arrays.copyOf(id, capacity);
+            facilityId = Arrays.copyOf(facilityId, capacity);
+            userId = Arrays.copyOf(userId, capacity);
+            day = Arrays.copyOf(day, capacity);
+            startMinute = Arrays.copyOf(startMinute, capacity);
+            endMinute = Arrays.copyOf(endMinute, capacity);
+            status = Arrays.copyOf(status, capacity);
+            createdDay = Arrays.copyOf(createdDay, capacity);
+        }
+
+        @Override
+        void shiftUp(int from) {
+            int length = size - from;
+            System.arraycopy(id, from, id, from + 1, length);
+            System.arraycopy(facilityId, from, facilityId, from + 1, length);
+            System.arraycopy(userId, from, userId, from + 1, length);
+            System.arraycopy(day, from, day, from + 1, length);
+            System.arraycopy(startMinute, from, startMinute, from + 1, length);
+            System.arraycopy(endMinute, from, endMinute, from + 1, length);
+            System.arraycopy(status, from, status, from + 1, length);
+            System.arraycopy(createdDay, from, createdDay, from + 1, length);
+        }
+
+        @Override
+        void copyRow(Columns source, int sourceRow, int row) {
+            ReservationColumns from = (ReservationColumns) source;
+            id[row] = from.id[sourceRow];
+            facilityId[row] = from.facilityId[sourceRow];
+            userId[row] = from.userId[sourceRow];
+            day[row] = from.day[sourceRow];
+            startMinute[row] = from.startMinute[sourceRow];
+            endMinute[row] = from.endMinute[sourceRow];
+            status[row] = from.status[sourceRow];
+            createdDay[row] = from.createdDay[sourceRow];
+            maxFacilityId = Math.max(maxFacilityId, facilityId[row]);
+            maxUserId = Math.max(maxUserId, userId[row]);
+        }
+    }
+
+    private static final class BorrowingColumns extends Columns {
+
+        int[] equipmentId = new int[0];
+        int[] userId = new int[0];
+        int[] borrowDay = new int[0];
+        int[] expectedReturnDay = new int[0];
+        int[] returnDay = new int[0];
+        byte[] status = new byte[0];
+        int[] createdDay = new int[0];
+        int maxEquipmentId;
+        int maxUserId;
+
+        BorrowingColumns(int maxRows) {
+            super(maxRows);
+        }
+
+        @Override
+        void read(ResultSet rs, int row) throws SQLException {
+            id[row] = toId(rs.getLong(1));
+            equipmentId[row] = toId(rs.getLong(2));
+            userId[row] = toId(rs.getLong(3));
+            borrowDay[row] = epochDay(rs.getDate(4));
+            expectedReturnDay[row] = epochDay(rs.getDate(5));
+            returnDay[row] = epochDay(rs.getDate(6));
+            status[row] = (byte) BorrowingStatus.valueOf(rs.getString(7)).ordinal();
+            createdDay[row] = epochDay(rs.getTimestamp(8));
+            maxEquipmentId = Math.max(maxEquipmentId, equipmentId[row]);
+            maxUserId = Math.max(maxUserId, userId[row]);
+        }
+
+        @Override
+        void resize(int capacity) {
+            id = Arrays.copyOf(id, capacity);
+            equipmentId = Arrays.copyOf(equipmentId, capacity);
+            userId = Arrays.copyOf(userId, capacity);
+            borrowDay = Arrays.copyOf(borrowDay, capacity);
+            expectedReturnDay = Arrays.copyOf(expectedReturnDay, capacity);
+            returnDay = Arrays.copyOf(returnDay, capacity);
+            status = Arrays.copyOf(status, capacity);
+            createdDay = Arrays.copyOf(createdDay, capacity);
+        }
+
+        @Override
+        void shiftUp(int from) {
+            int length = size - from;
+            System.arraycopy(id, from, id, from + 1, length);
+            System.arraycopy(equipmentId, from, equipmentId, from + 1, length);
+            System.arraycopy(userId, from, userId, from + 1, length);
+            System.arraycopy(borrowDay, from, borrowDay, from + 1, length);
+            System.arraycopy(expectedReturnDay, from, expectedReturnDay, from + 1, length);
+            System.arraycopy(returnDay, from, returnDay, from + 1, length);
+            System.arraycopy(status, from, status, from + 1, length);
+            System.arraycopy(createdDay, from, createdDay, from + 1, length);
+        }
+
+        @Override
+        void copyRow(Columns source, int sourceRow, int row) {
+            BorrowingColumns from = (BorrowingColumns) source;
+            id[row] = from.id[sourceRow];
+            equipmentId[row] = from.equipmentId[sourceRow];
+            userId[row] = from.userId[sourceRow];
+            borrowDay[row] = from.borrowDay[sourceRow];
+            expectedReturnDay[row] = from.expectedReturnDay[sourceRow];
+            returnDay[row] = from.returnDay[sourceRow];
+            status[row] = from.status[sourceRow];
+            createdDay[row] = from.createdDay[sourceRow];
+            maxEquipmentId = Math.max(maxEquipmentId, equipmentId[row]);
+            maxUserId = Math.max(maxUserId, userId[row]);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.FacilityReservationDTO;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of the active (not rejected / not cancelled) reservations of each
+ * facility-day. Each day is an immutable snapshot sorted by start time with a running
+ * maximum of end times, so an overlap check is a single binary search and reads never lock.
+ * Days are loaded lazily from the database and updated by the service after commit.
+ * Only days from today to the end of the booking horizon are kept, and at most maxDays of
+ * them; any other day is loaded for the request and not cached.
+ */
+@Component
+public class ReservationConflictIndex {
+
+    private final ConcurrentHashMap<DayKey, DaySchedule> days = new ConcurrentHashMap<>();
+    // Bumped before every update, so a load that raced with one can tell its rows may be stale
+    private final AtomicLong updates = new AtomicLong();
+    private final int horizonDays;
+    private final int maxDays;
+
+    public ReservationConflictIndex(@Value("${app.reservations.index.horizonDays:180}") int horizonDays,
+                                    @Value("${app.reservations.index.maxDays:50000}") int maxDays) {
+        this.horizonDays = horizonDays;
+        this.maxDays = maxDays;
+    }
+
+    public record DayKey(Long facilityId, LocalDate date) {}
+
+    // True if [startTime, endTime) overlaps any active reservation on that facility-day
+    public boolean hasConflict(Long facilityId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                               Supplier<List<FacilityReservationDTO>> loader) {
+        return schedule(facilityId, date, loader).overlaps(startTime.toSecondOfDay(), endTime.toSecondOfDay());
+    }
+
+    // Active reservations of a facility-day ordered by start time
+    public List<FacilityReservationDTO> getReservations(Long facilityId, LocalDate date,
+                                                        Supplier<List<FacilityReservationDTO>> loader) {
+        return schedule(facilityId, date, loader).reservations();
+    }
+
+    // Apply a committed reservation state. Days that are not cached yet are left alone,
+    // the next read will load them from the database including this row.
+    public void update(FacilityReservationDTO reservation) {
+        updates.incrementAndGet();
+        DayKey key = new DayKey(reservation.getFacilityId(), LocalDate.parse(reservation.getReservationDate()));
+        days.computeIfPresent(key, (k, schedule) -> schedule.with(reservation));
+    }
+
+    // Past days are never checked for conflicts again
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(key -> key.date().isBefore(today));
+    }
+
+    public int cachedDays() {
+        return days.size();
+    }
+
+    // Loads outside the map, so a slow query never blocks other days sharing its hash bin
+    private DaySchedule schedule(Long facilityId, LocalDate date, Supplier<List<FacilityReservationDTO>> loader) {
+        DayKey key = new DayKey(facilityId, date);
+        DaySchedule cached = days.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = updates.get();
+        DaySchedule loaded = DaySchedule.of(loader.get());
+        if (!isCacheable(date) || days.size() >= maxDays) {
+            return loaded;
+        }
+        DaySchedule existing = days.putIfAbsent(key, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        // An update that committed while this load ran may be missing from it; it either already
+        // replaced the entry (and the remove is a no-op) or the next read loads the day again
+        if (updates.get() != seen) {
+            days.remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    private boolean isCacheable(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(horizonDays));
+    }
+
+    static boolean isActive(String status) {
+        return !ReservationStatus.REJECTED.name().equals(status)
+                && !ReservationStatus.CANCELLED.name().equals(status);
+    }
+
+    // Immutable, copy-on-write view of one facility-day
+    static final class DaySchedule {
+
+        private static final DaySchedule EMPTY = new DaySchedule(new FacilityReservationDTO[0], new int[0], new int[0]);
+
+        private final FacilityReservationDTO[] entries;
+        private final int[] starts;
+        // maxEnds[i] = max(ends[0..i]), lets one binary search answer "any overlap?"
+        private final int[] maxEnds;
+
+        private DaySchedule(FacilityReservationDTO[] entries, int[] starts, int[] maxEnds) {
+            this.entries = entries;
+            this.starts = starts;
+            this.maxEnds = maxEnds;
+        }
+
+        static DaySchedule of(List<FacilityReservationDTO> reservations) {
+            List<FacilityReservationDTO> active = new ArrayList<>(reservations.size());
+            for (FacilityReservationDTO reservation : reservations) {
+                if (isActive(reservation.getStatus())) {
+                    active.add(reservation);
+                }
+            }
+            if (active.isEmpty()) {
+                return EMPTY;
+            }
+            active.sort(Comparator.comparing((FacilityReservationDTO r) -> LocalTime.parse(r.getStartTime()))
+                    .thenComparing(FacilityReservationDTO::getId));
+
+            int n = active.size();
+            FacilityReservationDTO[] entries = active.toArray(new FacilityReservationDTO[0]);
+            int[] starts = new int[n];
+            int[] maxEnds = new int[n];
+            for (int i = 0; i < n; i++) {
+                starts[i] = LocalTime.parse(entries[i].getStartTime()).toSecondOfDay();
+                int end = LocalTime.parse(entries[i].getEndTime()).toSecondOfDay();
+                maxEnds[i] = i == 0 ? end : Math.max(maxEnds[i - 1], end);
+            }
+            return new DaySchedule(entries, starts, maxEnds);
+        }
+
+        boolean overlaps(int start, int end) {
+            // Every entry before the first start >= end begins before the requested end,
+            // so it overlaps exactly when its end is after the requested start
+            int candidates = firstStartAtOrAfter(end);
+            return candidates > 0 && maxEnds[candidates - 1] > start;
+        }
+
+        List<FacilityReservationDTO> reservations() {
+            return List.of(entries);
+        }
+
+        DaySchedule with(FacilityReservationDTO reservation) {
+            List<FacilityReservationDTO> next = new ArrayList<>(entries.length + 1);
+            for (FacilityReservationDTO entry : entries) {
+                if (!entry.getId().equals(reservation.getId())) {
+                    next.add(entry);
+                }
+            }
+            next.add(reservation);
+            return of(next);
+        }
+
+        private int firstStartAtOrAfter(int time) {
+            int index = Arrays.binarySearch(starts, time);
+            if (index < 0) {
+                return -index - 1;
+            }
+            // Walk back over equal starts so the result is the first of them
+            while (index > 0 && starts[index - 1] == time) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.DashboardStatsDTO;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import com.campus.facility_reservation.model.UserActivityCounters;
+import com.campus.facility_reservation.repository.JobLockRepository;
+import com.campus.facility_reservation.repository.UserActivityCountersRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Maintains the user_activity_counters read model. Every reservation and borrowing status
+ * change adds its deltas in the same transaction as the change itself, so the dashboard stats
+ * are a single primary-key read instead of loading the user's whole history.
+ *
+ * The start-up backfill runs under the "user-activity-backfill" job_lock row and, in the same
+ * transaction as the rebuild, creates the "user-activity-backfill-done" row. Only that row says
+ * the backfill happened: the table stops being empty as soon as any user makes a request.
+ */
+@Service
+public class UserActivityCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityCounterService.class);
+
+    static final String JOB_NAME = "user-activity-backfill";
+    static final String DONE_MARKER = "user-activity-backfill-done";
+
+    private final UserActivityCountersRepository countersRepository;
+    private final JobLockRepository jobLockRepository;
+    private final JobRunLock jobRunLock;
+    private final TransactionTemplate backfillTransaction;
+
+    public UserActivityCounterService(UserActivityCountersRepository countersRepository,
+                                      JobLockRepository jobLockRepository,
+                                      JobRunLock jobRunLock,
+                                      PlatformTransactionManager transactionManager) {
+        this.countersRepository = countersRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.jobRunLock = jobRunLock;
+        this.backfillTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // from is null for a newly created reservation
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReservation(Long userId, ReservationStatus from, ReservationStatus to) {
+        long total = from == null ? 1 : 0;
+        long pending = delta(from, to, ReservationStatus.PENDING);
+        long approved = delta(from, to, ReservationStatus.APPROVED);
+        if (total != 0 || pending != 0 || approved != 0) {
+            countersRepository.addDeltas(userId, total, pending, approved, 0, 0, 0);
+        }
+    }
+
+    // from is null for a newly created borrowing
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBorrowing(Long userId, BorrowingStatus from, BorrowingStatus to) {
+        long total = from == null ? 1 : 0;
+        long pending = delta(from, to, BorrowingStatus.PENDING);
+        long borrowed = delta(from, to, BorrowingStatus.BORROWED);
+        if (total != 0 || pending != 0 || borrowed != 0) {
+            countersRepository.addDeltas(userId, 0, 0, 0, total, pending, borrowed);
+        }
+    }
+
+    // Zeros for a user without a counters row, i.e. one who has made no requests yet
+    public DashboardStatsDTO getStats(Long userId) {
+        return findStats(userId).orElseGet(() -> new DashboardStatsDTO(0L, 0L, 0L, 0L));
+    }
+
+    // Empty when the user has no counters row
+    public Optional<DashboardStatsDTO> findStats(Long userId) {
+        return countersRepository.findById(userId).map(this::toStats);
+    }
+
+    // Seeds the counters from existing data on every start until one backfill has committed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnce() {
+        if (jobLockRepository.existsById(DONE_MARKER)) {
+            return;
+        }
+        if (!jobRunLock.runExclusively(JOB_NAME, this::rebuildUnlessDone)) {
+            logger.info("User activity backfill skipped, another instance is running it");
+        }
+    }
+
+    private void rebuildUnlessDone() {
+        backfillTransaction.executeWithoutResult(status -> {
+            // Another instance may have finished between the first check and taking the lock
+            if (jobLockRepository.existsById(DONE_MARKER)) {
+                return;
+            }
+            countersRepository.rebuildAll();
+            jobLockRepository.insertIfAbsent(DONE_MARKER);
+        });
+    }
+
+    private DashboardStatsDTO toStats(UserActivityCounters counters) {
+        return new DashboardStatsDTO(
+            counters.getReservationsApproved(),
+            counters.getBorrowingsBorrowed(),
+            counters.getReservationsPending() + counters.getBorrowingsPending(),
+            counters.getReservationsTotal() + counters.getBorrowingsTotal()
+        );
+    }
+
+    private static <S extends Enum<S>> long delta(S from, S to, S counted) {
+        return (to == counted ? 1 : 0) - (from == counted ? 1 : 0);
+    }
+}
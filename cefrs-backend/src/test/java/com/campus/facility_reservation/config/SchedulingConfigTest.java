@@ -0,0 +1,53 @@
+package com.campus.facility_reservation.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A batch job that never finishes must not stop the jobs on the default scheduler.
+ */
+class SchedulingConfigTest {
+
+    @Test
+    void stuckBatchJobDoesNotStallPeriodicJobs() throws InterruptedException {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Jobs.class)) {
+            Jobs jobs = context.getBean(Jobs.class);
+            assertTrue(jobs.batchStarted.await(5, TimeUnit.SECONDS));
+            assertTrue(jobs.periodicRuns.await(5, TimeUnit.SECONDS));
+            jobs.release.countDown();
+        }
+    }
+
+    @Configuration
+    @EnableScheduling
+    @Import(SchedulingConfig.class)
+    static class Jobs {
+
+        final CountDownLatch batchStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch periodicRuns = new CountDownLatch(5);
+
+        @Scheduled(fixedDelay = 60000, scheduler = SchedulingConfig.BATCH_SCHEDULER)
+        public void archive() throws InterruptedException {
+            assertTrue(Thread.currentThread().getName().startsWith("batch-"));
+            batchStarted.countDown();
+            release.await();
+        }
+
+        @Scheduled(fixedDelay = 10)
+        public void dispatch() {
+            if (Thread.currentThread().getName().startsWith("scheduling-")) {
+                periodicRuns.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.campus.facility_reservation.config;
+
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Only the async dispatch of the notification stream skips authorization, not async dispatches
+ * of other endpoints or ordinary requests to the stream.
+ */
+class SecurityConfigTest {
+
+    @Test
+    void onlyTheStreamsAsyncDispatchIsPermitted() {
+        assertTrue(SecurityConfig.STREAM_ASYNC_DISPATCH.matches(request(DispatcherType.ASYNC, "/api/notifications/stream")));
+        assertFalse(SecurityConfig.STREAM_ASYNC_DISPATCH.matches(request(DispatcherType.REQUEST, "/api/notifications/stream")));
+        assertFalse(SecurityConfig.STREAM_ASYNC_DISPATCH.matches(request(DispatcherType.ASYNC, "/api/admin/users")));
+        assertFalse(SecurityConfig.STREAM_ASYNC_DISPATCH.matches(request(DispatcherType.ASYNC, "/api/notifications/user/1")));
+    }
+
+    private static MockHttpServletRequest request(DispatcherType dispatcherType, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setDispatcherType(dispatcherType);
+        return request;
+    }
+}
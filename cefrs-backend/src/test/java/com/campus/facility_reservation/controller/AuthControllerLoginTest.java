@@ -0,0 +1,134 @@
+package com.campus.facility_reservation.controller;
+
+import com.campus.facility_reservation.exception.TooManyRequestsException;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.UserRepository;
+import com.campus.facility_reservation.security.JwtTokenProvider;
+import com.campus.facility_reservation.security.LoginThrottle;
+import com.campus.facility_reservation.security.PasswordHashExecutor;
+import com.campus.facility_reservation.service.AuthService;
+import com.campus.facility_reservation.service.LastLoginRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/auth/login through the real AuthService and LoginThrottle: wrong passwords get 400
+ * until a window is full, then 429 with a Retry-After header, without the password being checked.
+ * A 429 from a busy hashing pool is not counted against the account or the address.
+ */
+class AuthControllerLoginTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordHashExecutor passwordHashExecutor = mock(PasswordHashExecutor.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenProvider tokens = mock(JwtTokenProvider.class);
+        when(tokens.generateAccessToken(anyLong(), anyString(), anyString())).thenReturn("access");
+        when(tokens.generateRefreshToken(anyLong(), anyString())).thenReturn("refresh");
+        when(userRepository.findByEmail(anyString())).thenAnswer(call -> Optional.of(user(call.getArgument(0))));
+        when(passwordHashExecutor.matches(anyString(), anyString()))
+                .thenAnswer(call -> "right".equals(call.getArgument(0)));
+
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "jwtTokenProvider", tokens);
+        ReflectionTestUtils.setField(authService, "passwordHashExecutor", passwordHashExecutor);
+        ReflectionTestUtils.setField(authService, "lastLoginRecorder", mock(LastLoginRecorder.class));
+        ReflectionTestUtils.setField(authService, "loginThrottle",
+                new LoginThrottle(new SimpleMeterRegistry(), 5, 8, 900));
+
+        AuthController controller = new AuthController();
+        ReflectionTestUtils.setField(controller, "authService", authService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void accountIsRefusedWith429AfterFiveFailures() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            login("student@campus.test", "wrong", "10.0.0.1").andExpect(status().isBadRequest());
+        }
+        login("student@campus.test", "right", "10.0.0.1")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "900"))
+                .andExpect(jsonPath("$.message", containsString("this account")));
+        verify(passwordHashExecutor, never()).matches("right", "hash");
+    }
+
+    @Test
+    void addressIsRefusedOnlyForFailures() throws Exception {
+        // Successful logins from one NAT address do not count
+        for (int i = 0; i < 50; i++) {
+            login("user" + i + "@campus.test", "right", "203.0.113.7").andExpect(status().isOk());
+        }
+        for (int i = 0; i < 8; i++) {
+            login("guess" + i + "@campus.test", "wrong", "203.0.113.7").andExpect(status().isBadRequest());
+        }
+        login("user0@campus.test", "right", "203.0.113.7")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.message", containsString("this address")));
+        login("user0@campus.test", "right", "203.0.113.8").andExpect(status().isOk());
+    }
+
+    @Test
+    void busyHashingPoolDoesNotCountAsFailure() throws Exception {
+        when(passwordHashExecutor.matches("right", "hash"))
+                .thenThrow(new TooManyRequestsException("Login service is busy. Please try again shortly.", 1));
+        for (int i = 0; i < 20; i++) {
+            login("student@campus.test", "right", "10.0.0.2")
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(jsonPath("$.message", containsString("busy")));
+        }
+
+        // Once the pool has room again the right password is let in
+        doReturn(true).when(passwordHashExecutor).matches("right", "hash");
+        login("student@campus.test", "right", "10.0.0.2").andExpect(status().isOk());
+    }
+
+    private ResultActions login(String email, String password, String remoteAddr) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"));
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setId((long) Math.abs(email.hashCode()));
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setIsActive(true);
+        user.setRole(new Role(RoleType.STUDENT, "Student"));
+        return user;
+    }
+}
@@ -0,0 +1,75 @@
+package com.campus.facility_reservation.controller;
+
+import com.campus.facility_reservation.exception.GlobalExceptionHandler;
+import com.campus.facility_reservation.service.NotificationService;
+import com.campus.facility_reservation.service.NotificationStreamRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The bulk read/delete endpoints act for the signed-in user only, whatever userId the path names.
+ */
+class NotificationControllerTest {
+
+    private static final UsernamePasswordAuthenticationToken USER_7 =
+            new UsernamePasswordAuthenticationToken(7L, null, List.of());
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        NotificationController controller =
+                new NotificationController(notificationService, mock(NotificationStreamRegistry.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void ownNotificationsAreChanged() throws Exception {
+        when(notificationService.markAsRead(anyLong(), anyList())).thenReturn(2);
+        when(notificationService.deleteReadOlderThan(anyLong(), anyInt())).thenReturn(3);
+
+        mockMvc.perform(put("/api/notifications/user/7/read").principal(USER_7)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(2));
+        mockMvc.perform(delete("/api/notifications/user/7/read").principal(USER_7))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(3));
+
+        verify(notificationService).markAsRead(7L, List.of(1L, 2L));
+        verify(notificationService).deleteReadOlderThan(7L, 30);
+    }
+
+    @Test
+    void anotherUsersNotificationsAreRefused() throws Exception {
+        mockMvc.perform(put("/api/notifications/user/8/read").principal(USER_7)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[1,2]}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/notifications/user/8/read").principal(USER_7)
+                        .param("olderThanDays", "0"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(notificationService);
+    }
+}
@@ -0,0 +1,45 @@
+package com.campus.facility_reservation.controller;
+
+import com.campus.facility_reservation.service.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * An unsupported sort key on the user activity report is the caller's mistake and answers 400;
+ * any other failure of the report is still a 500.
+ */
+class ReportControllerTest {
+
+    @Test
+    void unsupportedSortIsBadRequest() throws Exception {
+        // The sort key is checked before anything is queried
+        MockMvc mockMvc = mockMvc(new ReportService());
+
+        mockMvc.perform(get("/api/reports/users").param("sort", "password").param("size", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void otherFailuresAreServerErrors() throws Exception {
+        ReportService reportService = mock(ReportService.class);
+        when(reportService.getUserActivityReport(any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("Unsupported sort order in the snapshot"));
+
+        mockMvc(reportService).perform(get("/api/reports/users").param("sort", "name"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    private static MockMvc mockMvc(ReportService reportService) {
+        ReportController controller = new ReportController();
+        ReflectionTestUtils.setField(controller, "reportService", reportService);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.campus.facility_reservation.repository;
+
+import com.campus.facility_reservation.model.Notification;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The bulk updates only ever touch the given user's notifications, even when handed another
+ * user's ids.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+class NotificationRepositoryTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        Role role = entityManager.persist(new Role(RoleType.STUDENT, "Student"));
+        alice = user(role, "alice");
+        bob = user(role, "bob");
+    }
+
+    @Test
+    void markReadByIdsIgnoresOtherUsersIds() {
+        Notification own = notification(alice, false);
+        Notification alreadyRead = notification(alice, true);
+        Notification others = notification(bob, false);
+
+        int updated = notificationRepository.markReadByIds(alice.getId(),
+                List.of(own.getId(), alreadyRead.getId(), others.getId()));
+        entityManager.clear();
+
+        assertEquals(1, updated);
+        assertTrue(reload(own).getIsRead());
+        assertFalse(reload(others).getIsRead());
+    }
+
+    @Test
+    void deleteReadBeforeKeepsUnreadAndOtherUsers() {
+        Notification ownRead = notification(alice, true);
+        Notification ownUnread = notification(alice, false);
+        Notification othersRead = notification(bob, true);
+
+        int deleted = notificationRepository.deleteReadBefore(alice.getId(), LocalDateTime.now().plusMinutes(1));
+        entityManager.clear();
+
+        assertEquals(1, deleted);
+        assertFalse(notificationRepository.existsById(ownRead.getId()));
+        assertTrue(notificationRepository.existsById(ownUnread.getId()));
+        assertTrue(notificationRepository.existsById(othersRead.getId()));
+    }
+
+    private Notification reload(Notification notification) {
+        return notificationRepository.findById(notification.getId()).orElseThrow();
+    }
+
+    private User user(Role role, String name) {
+        User user = new User();
+        user.setEmail(name + "@campus.test");
+        user.setPassword("secret");
+        user.setFirstName(name);
+        user.setLastName("Tester");
+        user.setAddress("Campus");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+
+    private Notification notification(User user, boolean read) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(Notification.NotificationType.SYSTEM);
+        notification.setTitle("Title");
+        notification.setMessage("Message");
+        notification.setIsRead(read);
+        return entityManager.persistAndFlush(notification);
+    }
+}
@@ -0,0 +1,99 @@
+package com.campus.facility_reservation.security;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Only an unrevoked access token with a jti signs the request in; refresh tokens, including old
+ * ones issued before tokens carried a type, and tokens that could never be revoked do not.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET =
+            "MjVGRDZDODkzQzQxNkUwMzgyRkI2RjI5NTQ3OERDRTQ0RjcyQkJDQjY5QTU0NzAyODJCRjlDRTY4NTYwNkQ4Mw==";
+
+    private final TokenRevocationList revocationList = mock(TokenRevocationList.class);
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(tokenProvider, "jwtRefreshExpirationMs", 604_800_000);
+        tokenProvider.init();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "revocationList", revocationList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessTokenSignsIn() throws Exception {
+        Authentication authentication = filter(tokenProvider.generateAccessToken(7L, "a@campus.test", "ADMIN"));
+        assertEquals(7L, authentication.getPrincipal());
+        assertEquals("ROLE_ADMIN", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void revokedAccessTokenIsIgnored() throws Exception {
+        String token = tokenProvider.generateAccessToken(7L, "a@campus.test", "ADMIN");
+        String jti = tokenProvider.verify(token).getId();
+        when(revocationList.isRevoked(jti)).thenReturn(true);
+        assertNull(filter(token));
+    }
+
+    @Test
+    void refreshTokensAreIgnored() throws Exception {
+        assertNull(filter(tokenProvider.generateRefreshToken(7L, "a@campus.test")));
+        // Refresh tokens from before access tokens had a type carry neither a type nor a role
+        assertNull(filter(signed(Jwts.builder().setId(UUID.randomUUID().toString()).claim("id", 7L))));
+    }
+
+    @Test
+    void tokenWithoutJtiOrTypeIsIgnored() throws Exception {
+        assertNull(filter(signed(Jwts.builder().claim("id", 7L).claim("role", "ADMIN").claim("type", "access"))));
+        assertNull(filter(signed(Jwts.builder().setId(UUID.randomUUID().toString())
+                .claim("id", 7L).claim("role", "ADMIN"))));
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/equipment");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static String signed(JwtBuilder builder) {
+        SecretKeySpec key = new SecretKeySpec(Decoders.BASE64.decode(SECRET), SignatureAlgorithm.HS512.getJcaName());
+        return builder.setSubject("a@campus.test")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key, SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
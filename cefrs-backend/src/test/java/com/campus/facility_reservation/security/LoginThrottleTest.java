@@ -0,0 +1,122 @@
+package com.campus.facility_reservation.security;
+
+import com.campus.facility_reservation.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The account and IP windows of LoginThrottle: only failed attempts count, a success clears the
+ * account's failures and gives back its IP slot, and a refusal says when to retry.
+ */
+class LoginThrottleTest {
+
+    private static final long WINDOW = 900_000;
+
+    private final LoginThrottle throttle = new LoginThrottle(new SimpleMeterRegistry(), 3, 5, 900);
+
+    @Test
+    void accountWindowRefusesAfterTheLimitOfFailures() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("Student@Campus.test", "10.0.0." + i);
+        }
+        TooManyRequestsException refused = assertThrows(TooManyRequestsException.class,
+                () -> throttle.acquire("student@campus.test ", "10.0.0.9"));
+        assertTrue(refused.getMessage().contains("account"));
+        assertTrue(refused.getRetryAfterSeconds() > 0 && refused.getRetryAfterSeconds() <= 900);
+    }
+
+    @Test
+    void successClearsTheAccountWindow() {
+        throttle.acquire("a@campus.test", "10.0.0.1");
+        throttle.acquire("a@campus.test", "10.0.0.1");
+        throttle.acquire("a@campus.test", "10.0.0.1").succeeded();
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("a@campus.test", "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("a@campus.test", "10.0.0.1"));
+    }
+
+    @Test
+    void ipWindowCountsFailuresAcrossAccounts() {
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("user" + i + "@campus.test", "192.168.1.1");
+        }
+        TooManyRequestsException refused = assertThrows(TooManyRequestsException.class,
+                () -> throttle.acquire("other@campus.test", "192.168.1.1"));
+        assertTrue(refused.getMessage().contains("address"));
+        // Another address is unaffected
+        throttle.acquire("other@campus.test", "192.168.1.2");
+    }
+
+    @Test
+    void successfulLoginsDoNotUseUpTheIpWindow() {
+        // Many users behind one NAT address
+        for (int i = 0; i < 100; i++) {
+            throttle.acquire("user" + i + "@campus.test", "172.16.0.1").succeeded();
+        }
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("typo" + i + "@campus.test", "172.16.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("late@campus.test", "172.16.0.1"));
+    }
+
+    @Test
+    void refusalByTheAccountDoesNotCostAnIpSlot() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("locked@campus.test", "10.1.1.1");
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThrows(TooManyRequestsException.class, () -> throttle.acquire("locked@campus.test", "10.1.1.1"));
+        }
+        // 3 of the 5 IP slots are used; two more failures still fit
+        throttle.acquire("b@campus.test", "10.1.1.1");
+        throttle.acquire("c@campus.test", "10.1.1.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("d@campus.test", "10.1.1.1"));
+    }
+
+    @Test
+    void abandonedAttemptsCountAgainstNeither() {
+        for (int i = 0; i < 20; i++) {
+            throttle.acquire("busy@campus.test", "10.3.3.3").abandoned();
+        }
+        // Both windows are still empty
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("busy@campus.test", "10.3.3.3");
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("busy@campus.test", "10.3.3.4"));
+        throttle.acquire("other@campus.test", "10.3.3.3");
+        throttle.acquire("another@campus.test", "10.3.3.3");
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("third@campus.test", "10.3.3.3"));
+    }
+
+    @Test
+    void refusalByTheAddressTracksNoAccount() {
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("user" + i + "@campus.test", "10.2.2.2");
+        }
+        for (int i = 0; i < 100; i++) {
+            String email = "spray" + i + "@campus.test";
+            assertThrows(TooManyRequestsException.class, () -> throttle.acquire(email, "10.2.2.2"));
+        }
+        assertEquals(5, throttle.trackedAccounts());
+    }
+
+    @Test
+    void windowSlidesAndReportsTimeUntilTheOldestAttemptExpires() {
+        LoginThrottle.AttemptWindow window = new LoginThrottle.AttemptWindow(2);
+        assertEquals(0, window.tryRecord(1_000, WINDOW));
+        assertEquals(0, window.tryRecord(61_000, WINDOW));
+        assertEquals(WINDOW - 9_000, window.tryRecord(10_000, WINDOW));
+        // The first attempt has left the window
+        assertEquals(0, window.tryRecord(1_000 + WINDOW, WINDOW));
+        assertEquals(60_000, window.tryRecord(1_000 + WINDOW, WINDOW));
+
+        window.release(61_000);
+        assertEquals(0, window.tryRecord(2_000 + WINDOW, WINDOW));
+        assertTrue(window.idleSince(2_000 + 2 * WINDOW, WINDOW));
+    }
+}
@@ -0,0 +1,156 @@
+package com.campus.facility_reservation.security;
+
+import com.campus.facility_reservation.model.RevokedToken;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.RevokedTokenRepository;
+import com.campus.facility_reservation.repository.RoleRepository;
+import com.campus.facility_reservation.repository.UserRepository;
+import com.campus.facility_reservation.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Revocations are remembered once committed, reach other instances through the sync, are
+ * forgotten once the token has expired, and a refresh token can be exchanged only once. The Bloom
+ * filter is kept tiny so nearly every lookup is a false positive the exact set has to settle.
+ */
+@DataJpaTest(properties = {
+        "app.tokenRevocation.bloomBits=64",
+        "app.tokenRevocation.syncMs=3600000"
+})
+@ActiveProfiles("h2")
+@Import({TokenRevocationList.class, JwtTokenProvider.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationListTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private RevokedTokenRepository repository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void bloomFilterFalsePositivesAreSettledByTheExactSet() {
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String jti = UUID.randomUUID().toString();
+            assertTrue(revocationList.revoke(jti, 1L, inMillis(HOUR), RevokedToken.Reason.LOGOUT));
+            revoked.add(jti);
+        }
+        for (String jti : revoked) {
+            assertTrue(revocationList.isRevoked(jti));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(revocationList.isRevoked(UUID.randomUUID().toString()));
+        }
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void rolledBackRevocationIsNotRemembered() {
+        String jti = UUID.randomUUID().toString();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            revocationList.revoke(jti, 1L, inMillis(HOUR), RevokedToken.Reason.LOGOUT);
+            status.setRollbackOnly();
+        });
+        assertFalse(revocationList.isRevoked(jti));
+        assertFalse(repository.existsById(jti));
+    }
+
+    @Test
+    void syncPicksUpOtherInstancesRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        String other = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+        repository.save(new RevokedToken(other, 2L, now.plusHours(1), now, RevokedToken.Reason.LOGOUT));
+        repository.save(new RevokedToken(expired, 2L, now.minusMinutes(1), now, RevokedToken.Reason.LOGOUT));
+        assertFalse(revocationList.isRevoked(other));
+
+        revocationList.syncFromDatabase();
+
+        assertTrue(revocationList.isRevoked(other));
+        assertFalse(revocationList.isRevoked(expired));
+    }
+
+    @Test
+    void pruneForgetsExpiredTokensOnly() {
+        String expiring = UUID.randomUUID().toString();
+        String live = UUID.randomUUID().toString();
+        assertTrue(revocationList.revoke(expiring, 3L, inMillis(-1000), RevokedToken.Reason.LOGOUT));
+        assertTrue(revocationList.revoke(live, 3L, inMillis(HOUR), RevokedToken.Reason.LOGOUT));
+        assertTrue(revocationList.isRevoked(expiring));
+
+        revocationList.pruneExpired();
+
+        assertFalse(revocationList.isRevoked(expiring));
+        assertFalse(repository.existsById(expiring));
+        // The rebuilt filter still covers what is left
+        assertTrue(revocationList.isRevoked(live));
+        assertTrue(repository.existsById(live));
+    }
+
+    @Test
+    void refreshTokenRotatesOnce() {
+        Role role = roleRepository.save(new Role(RoleType.STUDENT, "Student"));
+        User user = new User();
+        user.setEmail("rotate@campus.test");
+        user.setPassword("secret");
+        user.setFirstName("Rota");
+        user.setLastName("Tion");
+        user.setAddress("Campus");
+        user.setRole(role);
+        userRepository.save(user);
+
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "jwtTokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(authService, "tokenRevocationList", revocationList);
+
+        String refreshToken = tokenProvider.generateRefreshToken(user.getId(), user.getEmail());
+        assertNotNull(authService.refreshToken(refreshToken).getRefreshToken());
+        assertTrue(revocationList.isRevoked(tokenProvider.verify(refreshToken).getId()));
+
+        RuntimeException reused = assertThrows(RuntimeException.class, () -> authService.refreshToken(refreshToken));
+        assertEquals("Refresh token has already been used or revoked", reused.getMessage());
+    }
+
+    private static Date inMillis(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+}
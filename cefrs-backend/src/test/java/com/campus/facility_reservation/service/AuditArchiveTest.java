@@ -0,0 +1,174 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.AuditLogRow;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.PageCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Segments must give back exactly the rows written to them, and paging a search across rows still
+ * in the table and rows in the archive must visit every matching row once, newest first.
+ */
+class AuditArchiveTest {
+
+    private static final Comparator<AuditLogRow> NEWEST_FIRST = Comparator
+            .comparing(AuditLogRow::createdAt, Comparator.reverseOrder())
+            .thenComparing(AuditLogRow::logId, Comparator.reverseOrder());
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void segmentRoundTripsEveryColumn() throws IOException {
+        List<AuditLogRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(row(i + 1, START.plusSeconds(i * 37L).plusNanos(i * 1000L)));
+        }
+        // Nulls, an empty string, multi-byte text and a value longer than a block
+        rows.set(3, new AuditLogRow(4L, null, null, null, null, "DELETE", "users", null, null, "",
+                null, rows.get(3).createdAt()));
+        rows.set(4, new AuditLogRow(5L, 9L, "zoë@campus.test", "Zoë", "Ünal", "UPDATE", "facility", 7L,
+                "{\"name\":\"Salle 🏫\"}", "x".repeat(200_000), "::1", rows.get(4).createdAt()));
+
+        Path file = directory.resolve("00000001" + AuditSegment.EXTENSION);
+        AuditSegment.write(file, rows, 64);
+        AuditSegment segment = AuditSegment.open(file);
+
+        assertEquals(rows.size(), segment.recordCount());
+        assertEquals((rows.size() + 63) / 64, segment.blockCount());
+        assertEquals(AuditSegment.toMicros(rows.get(0).createdAt()), segment.minMicros());
+        assertEquals(AuditSegment.toMicros(rows.get(rows.size() - 1).createdAt()), segment.maxMicros());
+
+        List<AuditLogRow> read = new ArrayList<>();
+        for (int block = 0; block < segment.blockCount(); block++) {
+            List<AuditLogRow> blockRows = segment.readBlock(block);
+            assertEquals(AuditSegment.toMicros(blockRows.get(0).createdAt()), segment.blockMin(block));
+            assertEquals(AuditSegment.toMicros(blockRows.get(blockRows.size() - 1).createdAt()), segment.blockMax(block));
+            read.addAll(blockRows);
+        }
+        assertEquals(rows, read);
+        assertEquals(rows.stream().map(AuditLogRow::logId).toList(), segment.logIds());
+        assertFalse(Files.exists(directory.resolve("00000001" + AuditSegment.EXTENSION + ".tmp")));
+    }
+
+    @Test
+    void pagingMergesTableAndArchiveAcrossTheBoundary() throws IOException {
+        // Six months of rows, some sharing a timestamp so ties fall back to log_id
+        List<AuditLogRow> all = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            all.add(row(i + 1, START.plusMinutes((i / 3) * 257L)));
+        }
+        int boundary = 1800;
+        AuditArchive archive = new AuditArchive(directory.toString(), 32);
+        archive.load();
+        // The oldest rows go to the archive a month per segment, several segments a month
+        List<AuditLogRow> archived = all.subList(0, boundary);
+        for (int start = 0; start < archived.size(); ) {
+            YearMonth month = YearMonth.from(archived.get(start).createdAt());
+            int end = start;
+            while (end < archived.size() && end - start < 250 && YearMonth.from(archived.get(end).createdAt()).equals(month)) {
+                end++;
+            }
+            archive.append(month, archived.subList(start, end));
+            start = end;
+        }
+        // The last archived segment's deletes were cut short, so its rows are in both places
+        List<AuditLogRow> table = new ArrayList<>(all.subList(boundary - 40, all.size()));
+
+        assertPagesMatch(archive, table, all, new AuditLogSearchDTO(), 50);
+        assertPagesMatch(archive, table, all, new AuditLogSearchDTO(), 7);
+
+        AuditLogSearchDTO updates = new AuditLogSearchDTO(null, "UPDATE", null, null, null, null);
+        assertPagesMatch(archive, table, all, updates, 25);
+
+        AuditLogSearchDTO window = new AuditLogSearchDTO(3L, null, null, null,
+                all.get(900).createdAt(), all.get(2400).createdAt());
+        assertPagesMatch(archive, table, all, window, 10);
+    }
+
+    @Test
+    void otherInstancesSegmentsAreFoundAndNeverOverwritten() throws IOException {
+        AuditArchive first = new AuditArchive(directory.toString(), 32);
+        AuditArchive second = new AuditArchive(directory.toString(), 32);
+        first.load();
+        second.load();
+        assertNull(second.newest());
+
+        AuditSegment written = first.append(YearMonth.of(2025, 1), List.of(row(1, START), row(2, START.plusHours(1))));
+        second.rescan();
+        assertEquals(1, second.segmentCount());
+        assertEquals(written.path(), second.newest().path());
+
+        // The second instance takes the next number instead of replacing the first one's file
+        AuditSegment next = second.append(YearMonth.of(2025, 1), List.of(row(3, START.plusHours(2))));
+        assertNotEquals(written.path(), next.path());
+        first.rescan();
+        assertEquals(2, first.segmentCount());
+        assertEquals(next.path(), first.newest().path());
+
+        // A write that died part-way is cleaned up only by the archiver
+        Path unfinished = directory.resolve("2025-01").resolve("00000009" + AuditSegment.EXTENSION + ".tmp");
+        Files.write(unfinished, new byte[]{1, 2, 3});
+        first.rescan();
+        assertTrue(Files.exists(unfinished));
+        first.deleteUnfinished();
+        assertFalse(Files.exists(unfinished));
+    }
+
+    // Pages through table + archive the way AuditLogService does and compares with a plain filter
+    private static void assertPagesMatch(AuditArchive archive, List<AuditLogRow> table, List<AuditLogRow> all,
+                                         AuditLogSearchDTO filter, int limit) {
+        List<AuditLogRow> expected = all.stream().filter(matcher(filter, null)).sorted(NEWEST_FIRST).toList();
+        List<AuditLogRow> paged = new ArrayList<>();
+        PageCursor after = null;
+        while (true) {
+            PageCursor cursor = after;
+            List<AuditLogRow> hot = table.stream().filter(matcher(filter, cursor)).sorted(NEWEST_FIRST)
+                    .limit(limit + 1).toList();
+            List<AuditLogRow> page = archive.merge(hot, filter, after, limit + 1);
+            boolean hasMore = page.size() > limit;
+            page = page.subList(0, Math.min(limit, page.size()));
+            paged.addAll(page);
+            if (!hasMore) {
+                break;
+            }
+            AuditLogRow last = page.get(page.size() - 1);
+            after = new PageCursor(last.createdAt(), last.logId());
+        }
+        assertEquals(expected, paged);
+    }
+
+    private static Predicate<AuditLogRow> matcher(AuditLogSearchDTO filter, PageCursor after) {
+        return row -> (filter.getUserId() == null || filter.getUserId().equals(row.userId()))
+                && (filter.getActionType() == null || filter.getActionType().equals(row.actionType()))
+                && (filter.getFrom() == null || !row.createdAt().isBefore(filter.getFrom()))
+                && (filter.getTo() == null || row.createdAt().isBefore(filter.getTo()))
+                && (after == null || row.createdAt().isBefore(after.createdAt())
+                    || (row.createdAt().equals(after.createdAt()) && row.logId() < after.id()));
+    }
+
+    private static AuditLogRow row(long id, LocalDateTime createdAt) {
+        return new AuditLogRow(id, id % 5, "user" + id % 5 + "@campus.test", "First", "Last",
+                id % 3 == 0 ? "UPDATE" : "CREATE", "facility_reservation", id * 10, "{\"old\":" + id + "}",
+                "{\"new\":" + id + "}", "10.0.0." + id % 250, createdAt);
+    }
+}
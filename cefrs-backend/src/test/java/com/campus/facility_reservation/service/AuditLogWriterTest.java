@@ -0,0 +1,167 @@
+package com.campus.facility_reservation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replaying the spill file: a row the table rejects is quarantined instead of blocking the rows
+ * after it, lines that no longer parse never turn into an empty INSERT, and while the database is
+ * down every unwritten line stays in the spill file.
+ */
+class AuditLogWriterTest {
+
+    private static final String BAD_ACTION = "REJECTED_BY_TABLE";
+
+    @TempDir
+    Path spillDir;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // Action types of the rows the mocked table accepted, in insert order
+    private final List<String> inserted = new CopyOnWriteArrayList<>();
+    private final List<Integer> statementRows = new CopyOnWriteArrayList<>();
+    private volatile boolean databaseDown;
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void rejectedRowsAreQuarantinedAndTheRestWritten() throws Exception {
+        mockTable();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(line(i == 3 || i == 7 ? BAD_ACTION : "CREATE_" + i));
+        }
+        lines.add(5, "{not json");
+        Path replay = writeReplayFile(lines);
+
+        startWriter(4);
+        awaitTrue(() -> !Files.exists(replay));
+
+        assertEquals(List.of("CREATE_0", "CREATE_1", "CREATE_2", "CREATE_4", "CREATE_5", "CREATE_6",
+                "CREATE_8", "CREATE_9"), inserted);
+        List<String> quarantined = Files.readAllLines(spillDir.resolve("audit-quarantine.jsonl"));
+        assertEquals(List.of(lines.get(3), "{not json", lines.get(8)), quarantined);
+        assertTrue(statementRows.stream().allMatch(rows -> rows > 0));
+    }
+
+    @Test
+    void chunkOfUnreadableLinesIsSkipped() throws Exception {
+        mockTable();
+        Path replay = writeReplayFile(List.of("{not json", "[]", "also not json", "{\\"));
+
+        startWriter(4);
+        awaitTrue(() -> !Files.exists(replay));
+
+        assertTrue(statementRows.isEmpty(), "no INSERT for a chunk with nothing to write: " + statementRows);
+        assertEquals(4, Files.readAllLines(spillDir.resolve("audit-quarantine.jsonl")).size());
+    }
+
+    @Test
+    void unwrittenLinesStayWhileTheDatabaseIsDown() throws Exception {
+        mockTable();
+        databaseDown = true;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(line("CREATE_" + i));
+        }
+        Path replay = writeReplayFile(lines);
+
+        startWriter(4);
+        awaitTrue(() -> statementRows.size() >= 2);
+        writer.stop();
+
+        assertTrue(inserted.isEmpty());
+        assertEquals(lines, Files.readAllLines(replay));
+        assertFalse(Files.exists(spillDir.resolve("audit-quarantine.jsonl")));
+    }
+
+    // Rows with BAD_ACTION violate a constraint and fail their whole statement
+    private void mockTable() {
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            int rows = sql.split("\\(\\?", -1).length - 1;
+            statementRows.add(rows);
+            if (databaseDown) {
+                throw new CannotGetJdbcConnectionException("Connection refused");
+            }
+            Map<Integer, String> strings = new HashMap<>();
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(call -> strings.put(call.getArgument(0), call.getArgument(1)))
+                    .when(ps).setString(anyInt(), any());
+            PreparedStatementSetter setter = invocation.getArgument(1);
+            setter.setValues(ps);
+            List<String> actions = new ArrayList<>();
+            for (int row = 0; row < rows; row++) {
+                // action_type is the second of eight columns per row
+                actions.add(strings.get(row * 8 + 2));
+            }
+            if (actions.contains(BAD_ACTION)) {
+                throw new DataIntegrityViolationException("Data too long for column 'action_type'");
+            }
+            inserted.addAll(actions);
+            return rows;
+        });
+    }
+
+    private void startWriter(int batchSize) {
+        writer = new AuditLogWriter(jdbcTemplate, objectMapper, new SimpleMeterRegistry(), 64, batchSize, 10,
+                AuditLogWriter.OverflowPolicy.SPILL, spillDir.toString(), 5000);
+        writer.start();
+    }
+
+    private String line(String actionType) throws IOException {
+        return objectMapper.writeValueAsString(new AuditLogWriter.Event(1L, actionType, "facility", 2L,
+                null, "{}", "127.0.0.1", LocalDateTime.of(2025, 5, 1, 12, 0)));
+    }
+
+    private Path writeReplayFile(List<String> lines) throws IOException {
+        Path file = spillDir.resolve("audit-spill.jsonl.1.replay");
+        Files.write(file, lines);
+        return file;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.campus.facility_reservation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The ring must hand every offered item to the consumer exactly once, each producer's items in
+ * the order it offered them, however many producers race for the tail and however often it fills.
+ */
+class AuditRingBufferTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int ITEMS_PER_PRODUCER = 100_000;
+
+    @Test
+    void capacityRoundsUpAndFullRingRefuses() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(5);
+        assertEquals(8, ring.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(8));
+        assertEquals(8, ring.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, ring.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        // Freed slots are reused on the next lap
+        assertTrue(ring.offer(8));
+        assertEquals(6, ring.drainTo(drained, Integer.MAX_VALUE));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), drained);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws Exception {
+        // Small ring, so producers keep finding it full and wrap around many times
+        AuditRingBuffer<Long> ring = new AuditRingBuffer<>(1024);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> done = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            done.add(producers.submit(() -> {
+                start.await();
+                for (long i = 0; i < ITEMS_PER_PRODUCER; i++) {
+                    // Producer in the high bits, sequence number in the low bits
+                    long item = (producer << 32) | i;
+                    while (!ring.offer(item)) {
+                        refused.incrementAndGet();
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long[] next = new long[PRODUCERS];
+        List<Long> batch = new ArrayList<>();
+        long received = 0;
+        long total = (long) PRODUCERS * ITEMS_PER_PRODUCER;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        start.countDown();
+        while (received < total) {
+            if (System.nanoTime() > deadline) {
+                fail("consumer stalled at " + received + " of " + total);
+            }
+            batch.clear();
+            if (ring.drainTo(batch, 500) == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            for (long item : batch) {
+                int producer = (int) (item >>> 32);
+                long sequence = item & 0xFFFF_FFFFL;
+                if (sequence != next[producer]) {
+                    fail("producer " + producer + " sent " + next[producer] + " but " + sequence + " arrived");
+                }
+                next[producer]++;
+            }
+            received += batch.size();
+        }
+        for (Future<?> future : done) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        producers.shutdown();
+
+        for (long count : next) {
+            assertEquals(ITEMS_PER_PRODUCER, count);
+        }
+        assertEquals(0, ring.size());
+        assertEquals(0, ring.drainTo(batch, Integer.MAX_VALUE));
+        assertTrue(refused.get() > 0, "the ring never filled, so wrap-around was not exercised");
+    }
+}
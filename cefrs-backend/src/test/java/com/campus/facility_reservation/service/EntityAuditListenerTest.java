@@ -0,0 +1,212 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * What the audit rows say about a change: an update lists only the properties that changed (never
+ * the timestamps), passwords are written as "[redacted]", strings over the inline limit as their
+ * SHA-256 and length, and associations as the referenced id.
+ */
+@DataJpaTest(properties = {
+        "app.audit.maxInlineLength=32"
+})
+@ActiveProfiles("h2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(EntityAuditListener.class)
+class EntityAuditListenerTest {
+
+    private static final String LONG_DESCRIPTION = "Full HD projector with HDMI and VGA inputs, ceiling mount";
+
+    @MockitoBean
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Role role;
+
+    @BeforeEach
+    void setUp() {
+        role = entityManager.persist(new Role(RoleType.STUDENT, "Student"));
+    }
+
+    @Test
+    void updateRecordsOnlyTheChangedProperties() throws Exception {
+        Equipment equipment = equipment("Projector", "Short");
+        clearInvocations(auditLogWriter);
+
+        equipment.setName("Projector HD");
+        equipment.setDescription(LONG_DESCRIPTION);
+        equipment.setStatus(Equipment.EquipmentStatus.MAINTENANCE);
+        entityManager.flush();
+
+        AuditLogWriter.Event event = onlyEvent();
+        assertEquals("UPDATE", event.actionType());
+        assertEquals("equipment", event.tableName());
+        assertEquals(equipment.getId(), event.recordId());
+        JsonNode before = objectMapper.readTree(event.oldValues());
+        JsonNode after = objectMapper.readTree(event.newValues());
+        // updatedAt changed too, but is never written; properties come in Hibernate's order
+        assertEquals(List.of("description", "name", "status"), fieldNames(after));
+        assertEquals(fieldNames(after), fieldNames(before));
+        assertEquals("Projector", before.get("name").asText());
+        assertEquals("Projector HD", after.get("name").asText());
+        assertEquals("Short", before.get("description").asText());
+        assertEquals("AVAILABLE", before.get("status").asText());
+        assertEquals("MAINTENANCE", after.get("status").asText());
+
+        // Over the limit: only the hash and length of the text are kept
+        JsonNode digest = after.get("description");
+        assertEquals(List.of("sha256", "length"), fieldNames(digest));
+        assertEquals(sha256(LONG_DESCRIPTION), digest.get("sha256").asText());
+        assertEquals(LONG_DESCRIPTION.length(), digest.get("length").asInt());
+        assertFalse(event.newValues().contains("HDMI"));
+
+        // Flushing again with nothing changed writes nothing
+        clearInvocations(auditLogWriter);
+        entityManager.flush();
+        verifyNoInteractions(auditLogWriter);
+    }
+
+    @Test
+    void passwordsAreRedacted() throws Exception {
+        User user = user("redact@campus.test", "first-secret");
+        AuditLogWriter.Event insert = onlyEvent();
+        assertEquals("INSERT", insert.actionType());
+        assertEquals("users", insert.tableName());
+        assertNull(insert.oldValues());
+        JsonNode inserted = objectMapper.readTree(insert.newValues());
+        assertEquals("[redacted]", inserted.get("password").asText());
+        assertEquals("redact@campus.test", inserted.get("email").asText());
+        assertEquals(role.getId().longValue(), inserted.get("role").asLong());
+        assertFalse(inserted.has("createdAt"));
+        assertFalse(insert.newValues().contains("first-secret"));
+
+        clearInvocations(auditLogWriter);
+        user.setPassword("second-secret");
+        entityManager.flush();
+        AuditLogWriter.Event update = onlyEvent();
+        assertEquals("{\"password\":\"[redacted]\"}", update.oldValues());
+        assertEquals("{\"password\":\"[redacted]\"}", update.newValues());
+
+        clearInvocations(auditLogWriter);
+        entityManager.remove(user);
+        entityManager.flush();
+        AuditLogWriter.Event delete = onlyEvent();
+        assertEquals("DELETE", delete.actionType());
+        assertNull(delete.newValues());
+        assertEquals("[redacted]", objectMapper.readTree(delete.oldValues()).get("password").asText());
+        assertFalse(delete.oldValues().contains("second-secret"));
+    }
+
+    @Test
+    void associationsAreWrittenAsTheirId() throws Exception {
+        User user = user("borrower@campus.test", "secret");
+        User admin = user("admin@campus.test", "secret");
+        Equipment equipment = equipment("Speaker", null);
+        EquipmentBorrowing borrowing = new EquipmentBorrowing();
+        borrowing.setUser(user);
+        borrowing.setEquipment(equipment);
+        borrowing.setBorrowDate(LocalDate.of(2030, 1, 7));
+        borrowing.setExpectedReturnDate(LocalDate.of(2030, 1, 9));
+        borrowing.setPurpose("Event");
+        entityManager.persist(borrowing);
+        entityManager.flush();
+        clearInvocations(auditLogWriter);
+
+        // A reference that was never loaded is written without loading it
+        entityManager.clear();
+        EquipmentBorrowing loaded = entityManager.find(EquipmentBorrowing.class, borrowing.getId());
+        loaded.setApprovedBy(entityManager.getEntityManager().getReference(User.class, admin.getId()));
+        loaded.setStatus(EquipmentBorrowing.BorrowingStatus.APPROVED);
+        entityManager.flush();
+
+        AuditLogWriter.Event event = onlyEvent();
+        assertEquals("equipment_borrowing", event.tableName());
+        JsonNode after = objectMapper.readTree(event.newValues());
+        assertEquals(admin.getId().longValue(), after.get("approvedBy").asLong());
+        assertEquals("APPROVED", after.get("status").asText());
+        JsonNode before = objectMapper.readTree(event.oldValues());
+        assertEquals("PENDING", before.get("status").asText());
+        assertTrue(before.get("approvedBy").isNull());
+        assertFalse(after.has("user"));
+    }
+
+    private AuditLogWriter.Event onlyEvent() {
+        ArgumentCaptor<AuditLogWriter.Event> captor = ArgumentCaptor.forClass(AuditLogWriter.Event.class);
+        verify(auditLogWriter, atLeast(0)).submit(captor.capture());
+        assertEquals(1, captor.getAllValues().size(), "events: " + captor.getAllValues());
+        return captor.getValue();
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static String sha256(String text) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Equipment equipment(String name, String description) {
+        Equipment equipment = new Equipment();
+        equipment.setName(name);
+        equipment.setCategory(Equipment.EquipmentCategory.PROJECTOR);
+        equipment.setQuantityTotal(5);
+        equipment.setQuantityAvailable(5);
+        equipment.setDescription(description);
+        Equipment saved = entityManager.persist(equipment);
+        entityManager.flush();
+        return saved;
+    }
+
+    private User user(String email, String password) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(password);
+        user.setFirstName("Audit");
+        user.setLastName("Trail");
+        user.setAddress("Campus");
+        user.setRole(role);
+        User saved = entityManager.persist(user);
+        entityManager.flush();
+        return saved;
+    }
+}
@@ -0,0 +1,69 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.EquipmentRequestDTO;
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.repository.EquipmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Editing an item must never write back the available count it read: a unit taken by an atomic
+ * decrement in between has to stay taken.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(EquipmentService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EquipmentStockTest {
+
+    @Autowired
+    private EquipmentService equipmentService;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void updateKeepsConcurrentDecrement() throws Exception {
+        Equipment equipment = new Equipment();
+        equipment.setName("Projector");
+        equipment.setCategory(Equipment.EquipmentCategory.PROJECTOR);
+        equipment.setQuantityTotal(5);
+        equipment.setQuantityAvailable(5);
+        Long id = equipmentRepository.save(equipment).getId();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            // Loaded while 5 are available, then someone borrows 2 before the edit is saved
+            assertEquals(5, equipmentRepository.findById(id).orElseThrow().getQuantityAvailable());
+            CompletableFuture.runAsync(() -> transaction.executeWithoutResult(
+                            other -> assertEquals(1, equipmentRepository.decrementAvailable(id, 2))))
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            equipmentService.updateEquipment(id, new EquipmentRequestDTO("Projector HD", "PROJECTOR", 5,
+                    "Full HD", null, "AVAILABLE"));
+        });
+
+        Equipment saved = equipmentRepository.findById(id).orElseThrow();
+        assertEquals("Projector HD", saved.getName());
+        assertEquals(3, saved.getQuantityAvailable());
+
+        // The atomic counters themselves still write the column
+        transaction.executeWithoutResult(status -> equipmentRepository.incrementAvailable(id, 1));
+        assertEquals(4, equipmentRepository.findById(id).orElseThrow().getQuantityAvailable());
+    }
+}
@@ -0,0 +1,235 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.EquipmentBorrowingRow;
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.EquipmentDayUsage;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.EquipmentBorrowingRepository;
+import com.campus.facility_reservation.repository.EquipmentDayUsageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The segment tree must agree with a plain per-day array, and the backfill must write exactly the
+ * per-day sums of the holding borrowings: the same bookings the overlap query lists. A tree read
+ * while a write committed is not cached.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(EquipmentUsageLedger.class)
+class EquipmentUsageLedgerTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private EquipmentUsageLedger ledger;
+
+    @Autowired
+    private EquipmentDayUsageRepository usageRepository;
+
+    @Autowired
+    private EquipmentBorrowingRepository borrowingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void segmentTreeMatchesPlainArray() {
+        int size = 64;
+        long baseDay = TODAY.toEpochDay();
+        Random random = new Random(42);
+        int[] days = new int[size];
+        EquipmentUsageLedger.DayUsageTree tree = new EquipmentUsageLedger.DayUsageTree(baseDay, size);
+        for (int day = 0; day < size; day++) {
+            days[day] = random.nextInt(5);
+            tree.set(day, days[day]);
+        }
+        tree.build();
+
+        for (int step = 0; step < 2000; step++) {
+            // Ranges may stick out of the window on either side; only the inside part counts
+            int from = random.nextInt(size + 20) - 10;
+            int to = from + random.nextInt(20);
+            if (step % 2 == 0) {
+                int delta = random.nextInt(7) - 3;
+                tree.add(day(baseDay, from), day(baseDay, to), delta);
+                for (int day = Math.max(0, from); day <= Math.min(size - 1, to); day++) {
+                    days[day] += delta;
+                }
+            } else {
+                int start = Math.floorMod(from, size);
+                int end = Math.min(size - 1, start + random.nextInt(size));
+                int expected = Integer.MIN_VALUE;
+                for (int day = start; day <= end; day++) {
+                    expected = Math.max(expected, days[day]);
+                }
+                assertEquals(expected, tree.max(day(baseDay, start), day(baseDay, end)));
+            }
+        }
+        assertTrue(tree.covers(day(baseDay, 0), day(baseDay, size - 1)));
+        assertFalse(tree.covers(day(baseDay, -1), day(baseDay, 3)));
+        assertFalse(tree.covers(day(baseDay, 3), day(baseDay, size)));
+        assertEquals(0, tree.max(day(baseDay, 5), day(baseDay, 4)));
+    }
+
+    @Test
+    void backfillWritesTheHoldingBorrowingsPerDay() {
+        User user = user();
+        Equipment projector = equipment("Projector");
+        Equipment speaker = equipment("Speaker");
+        List<EquipmentBorrowing> borrowings = new ArrayList<>(List.of(
+                borrowing(user, projector, -5, -1, 3, BorrowingStatus.OVERDUE),
+                borrowing(user, projector, 0, 3, 2, BorrowingStatus.APPROVED),
+                borrowing(user, projector, 2, 5, 1, BorrowingStatus.BORROWED),
+                // Starts the day after the previous one ends
+                borrowing(user, projector, 6, 6, 1, BorrowingStatus.APPROVED),
+                // After a gap of days with nothing held
+                borrowing(user, projector, 10, 11, 2, BorrowingStatus.APPROVED),
+                borrowing(user, projector, 0, 9, 4, BorrowingStatus.PENDING),
+                borrowing(user, projector, 1, 2, 4, BorrowingStatus.RETURNED),
+                borrowing(user, projector, 1, 2, 4, BorrowingStatus.REJECTED),
+                borrowing(user, speaker, 3, 3, 1, BorrowingStatus.OVERDUE)));
+        entityManager.flush();
+
+        ledger.backfillIfEmpty();
+
+        Map<String, Integer> expected = new HashMap<>();
+        for (EquipmentBorrowing borrowing : borrowings) {
+            if (!EquipmentUsageLedger.isHolding(borrowing.getStatus())) {
+                continue;
+            }
+            for (LocalDate day = borrowing.getBorrowDate(); !day.isAfter(borrowing.getExpectedReturnDate()); day = day.plusDays(1)) {
+                expected.merge(key(borrowing.getEquipment().getId(), day), borrowing.getQuantity(), Integer::sum);
+            }
+        }
+        Map<String, Integer> written = new HashMap<>();
+        for (EquipmentDayUsage row : usageRepository.findAll()) {
+            assertTrue(row.getUnitsInUse() > 0, "no rows for days with nothing held");
+            written.put(key(row.getEquipmentId(), row.getUsageDate()), row.getUnitsInUse());
+        }
+        assertEquals(expected, written);
+
+        // The bookings listed for a day add up to what the ledger holds for it
+        for (int offset = -7; offset <= 13; offset++) {
+            LocalDate day = TODAY.plusDays(offset);
+            int listed = borrowingRepository.findOverlappingRows(projector.getId(),
+                            EquipmentUsageLedger.HOLDING_STATUSES, day, day).stream()
+                    .mapToInt(EquipmentBorrowingRow::quantity)
+                    .sum();
+            assertEquals(expected.getOrDefault(key(projector.getId(), day), 0), listed, "day " + offset);
+        }
+        // Trees load in a transaction of their own and cannot see this test's rows, so check the table
+        assertEquals(3, usageRepository.findMaxUnitsInUse(projector.getId(), TODAY.minusDays(5), TODAY.plusDays(11)));
+        assertEquals(2, usageRepository.findMaxUnitsInUse(projector.getId(), TODAY.plusDays(7), TODAY.plusDays(11)));
+
+        // Only ever fills an empty table
+        ledger.backfillIfEmpty();
+        assertEquals(written.size(), usageRepository.count());
+    }
+
+    @Test
+    // Outside the test transaction, so the racing write commits at once like an autocommit one
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void treeLoadedWhileAWriteCommittedIsNotCached() {
+        EquipmentDayUsageRepository usage = mock(EquipmentDayUsageRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        EquipmentUsageLedger unitLedger = new EquipmentUsageLedger(usage, mock(EquipmentBorrowingRepository.class),
+                mock(JdbcTemplate.class), transactionManager);
+        AtomicInteger loads = new AtomicInteger();
+        when(usage.findByEquipmentIdAndUsageDateBetween(anyLong(), any(), any())).thenAnswer(invocation -> {
+            // The first load runs while another borrowing commits, after the query saw the table
+            if (loads.incrementAndGet() == 1) {
+                unitLedger.release(1L, TODAY, TODAY, 1);
+            }
+            EquipmentDayUsage row = new EquipmentDayUsage();
+            row.setEquipmentId(1L);
+            row.setUsageDate(TODAY);
+            row.setUnitsInUse(4);
+            return List.of(row);
+        });
+
+        assertEquals(4, unitLedger.maxUnitsInUse(1L, TODAY, TODAY));
+        assertEquals(4, unitLedger.maxUnitsInUse(1L, TODAY, TODAY));
+        assertEquals(4, unitLedger.maxUnitsInUse(1L, TODAY, TODAY));
+
+        // Loaded again after the race, then served from the cached tree
+        assertEquals(2, loads.get());
+        verify(transactionManager, times(2)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                        && definition.isReadOnly()));
+    }
+
+    private static LocalDate day(long baseDay, int offset) {
+        return LocalDate.ofEpochDay(baseDay + offset);
+    }
+
+    private static String key(Long equipmentId, LocalDate day) {
+        return equipmentId + "@" + day;
+    }
+
+    private User user() {
+        Role role = entityManager.persist(new Role(RoleType.STUDENT, "Student"));
+        User user = new User();
+        user.setEmail("ledger@campus.test");
+        user.setPassword("secret");
+        user.setFirstName("Led");
+        user.setLastName("Ger");
+        user.setAddress("Campus");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+
+    private Equipment equipment(String name) {
+        Equipment equipment = new Equipment();
+        equipment.setName(name);
+        equipment.setCategory(Equipment.EquipmentCategory.OTHER);
+        equipment.setQuantityTotal(10);
+        equipment.setQuantityAvailable(10);
+        return entityManager.persist(equipment);
+    }
+
+    private EquipmentBorrowing borrowing(User user, Equipment equipment, int from, int to, int quantity,
+                                         BorrowingStatus status) {
+        EquipmentBorrowing borrowing = new EquipmentBorrowing();
+        borrowing.setUser(user);
+        borrowing.setEquipment(equipment);
+        borrowing.setBorrowDate(TODAY.plusDays(from));
+        borrowing.setExpectedReturnDate(TODAY.plusDays(to));
+        borrowing.setQuantity(quantity);
+        borrowing.setPurpose("Event");
+        borrowing.setStatus(status);
+        return entityManager.persist(borrowing);
+    }
+}
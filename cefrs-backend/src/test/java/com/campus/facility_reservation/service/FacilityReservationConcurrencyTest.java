@@ -0,0 +1,282 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.FacilityReservationDTO;
+import com.campus.facility_reservation.dto.FacilityReservationRequestDTO;
+import com.campus.facility_reservation.dto.FacilityReservationRow;
+import com.campus.facility_reservation.dto.ReservationApprovalDTO;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.FacilityDayLedger;
+import com.campus.facility_reservation.model.FacilityReservation;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.FacilityDayLedgerRepository;
+import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.FacilityReservationRepository;
+import com.campus.facility_reservation.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers createReservation and re-activation of rejected reservations from many threads on a
+ * handful of facility-days and checks that no two active reservations overlap. The repositories are backed by an in-memory table so
+ * the test exercises the real service, booking engine and conflict index without a database.
+ */
+class FacilityReservationConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int REQUESTS = 20_000;
+    private static final long[] FACILITIES = {1L, 2L, 3L};
+    private static final long QUERY_NANOS = 20_000;
+    private static final int DAYS = 2;
+    // Inside the index horizon, so the days are cached and the test runs against the snapshots
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(7);
+    private static final DateTimeFormatter REQUEST_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Queue<FacilityReservation> table = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+    private ReservationConflictIndex conflictIndex;
+    private FacilityReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        FacilityReservationRepository reservationRepository = mock(FacilityReservationRepository.class);
+        FacilityRepository facilityRepository = mock(FacilityRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        FacilityDayLedgerRepository ledgerRepository = mock(FacilityDayLedgerRepository.class);
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user()));
+        when(facilityRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Facility facility = new Facility();
+            facility.setId(invocation.getArgument(0));
+            facility.setName("Hall " + facility.getId());
+            return Optional.of(facility);
+        });
+        when(facilityRepository.existsById(anyLong())).thenReturn(true);
+        when(ledgerRepository.lockDay(anyLong(), any())).thenReturn(Optional.of(new FacilityDayLedger()));
+
+        when(reservationRepository.save(any(FacilityReservation.class))).thenAnswer(invocation -> {
+            FacilityReservation reservation = invocation.getArgument(0);
+            if (reservation.getId() == null) {
+                reservation.setId(ids.incrementAndGet());
+                reservation.setCreatedAt(LocalDateTime.now());
+                table.add(reservation);
+            }
+            return reservation;
+        });
+        when(reservationRepository.findRowById(anyLong())).thenAnswer(invocation ->
+                byId(invocation.getArgument(0)).map(FacilityReservationConcurrencyTest::toRow));
+        when(reservationRepository.lockById(anyLong())).thenAnswer(invocation -> byId(invocation.getArgument(0)));
+        when(reservationRepository.findActiveReservationsForDay(anyLong(), any())).thenAnswer(invocation ->
+                activeOn(invocation.getArgument(0), invocation.getArgument(1)).stream()
+                        .map(FacilityReservationConcurrencyTest::toRow)
+                        .collect(Collectors.toList()));
+        when(reservationRepository.findConflictingReservations(anyLong(), any(), any(), any())).thenAnswer(invocation -> {
+            // A database round trip, so an unguarded check-then-write has a real window to race in
+            LockSupport.parkNanos(QUERY_NANOS);
+            LocalTime start = invocation.getArgument(2);
+            LocalTime end = invocation.getArgument(3);
+            return activeOn(invocation.getArgument(0), invocation.getArgument(1)).stream()
+                    .filter(r -> r.getStartTime().isBefore(end) && r.getEndTime().isAfter(start))
+                    .collect(Collectors.toList());
+        });
+
+        conflictIndex = new ReservationConflictIndex(180, 50_000);
+        BookingEngine bookingEngine = new BookingEngine(ledgerRepository, new InMemoryTransactionManager());
+        service = new FacilityReservationService(reservationRepository, facilityRepository, userRepository,
+                conflictIndex, bookingEngine, mock(UserActivityCounterService.class),
+                mock(ReportRollupService.class));
+    }
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            pool.submit(() -> {
+                start.await();
+                try {
+                    service.createReservation(42L, randomRequest());
+                    accepted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertEquals(REQUESTS, accepted.get() + rejected.get());
+        assertEquals(accepted.get(), table.size());
+        assertTrue(accepted.get() > 0);
+        assertNoOverlaps();
+    }
+
+    @Test
+    void reactivationsAndNewBookingsNeverOverlap() throws Exception {
+        // Rejected requests all over the same slots, re-approved while new bookings arrive
+        List<Long> rejectedIds = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            FacilityReservation reservation = new FacilityReservation();
+            reservation.setId(ids.incrementAndGet());
+            reservation.setUser(user());
+            Facility facility = new Facility();
+            facility.setId(FACILITIES[i % FACILITIES.length]);
+            reservation.setFacility(facility);
+            FacilityReservationRequestDTO request = randomRequest();
+            LocalDateTime start = LocalDateTime.parse(request.getStartTime(), REQUEST_FORMAT);
+            reservation.setReservationDate(start.toLocalDate());
+            reservation.setStartTime(start.toLocalTime());
+            reservation.setEndTime(LocalDateTime.parse(request.getEndTime(), REQUEST_FORMAT).toLocalTime());
+            reservation.setStatus(ReservationStatus.REJECTED);
+            reservation.setCreatedAt(LocalDateTime.now());
+            table.add(reservation);
+            rejectedIds.add(reservation.getId());
+        }
+        ReservationApprovalDTO approve = new ReservationApprovalDTO();
+        approve.setStatus("APPROVED");
+
+        AtomicInteger reactivated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < REQUESTS / 2; i++) {
+            boolean reactivate = i % 2 == 0;
+            Long rejectedId = rejectedIds.get(i % rejectedIds.size());
+            pool.submit(() -> {
+                start.await();
+                try {
+                    if (reactivate) {
+                        service.updateReservationStatus(rejectedId, 7L, approve);
+                        reactivated.incrementAndGet();
+                    } else {
+                        service.createReservation(42L, randomRequest());
+                    }
+                } catch (RuntimeException e) {
+                    // Slot taken
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertTrue(reactivated.get() > 0);
+        assertNoOverlaps();
+    }
+
+    private void assertNoOverlaps() {
+        for (long facilityId : FACILITIES) {
+            for (int day = 0; day < DAYS; day++) {
+                LocalDate date = FIRST_DAY.plusDays(day);
+                List<FacilityReservation> booked = new ArrayList<>(activeOn(facilityId, date));
+                booked.sort(Comparator.comparing(FacilityReservation::getStartTime));
+                for (int i = 1; i < booked.size(); i++) {
+                    assertTrue(!booked.get(i).getStartTime().isBefore(booked.get(i - 1).getEndTime()),
+                            "Double booking on facility " + facilityId + " " + date);
+                }
+
+                // The index must hold exactly the committed bookings
+                List<FacilityReservationDTO> indexed = service.getFacilityReservationsByDate(facilityId, date.toString());
+                assertEquals(booked.size(), indexed.size());
+            }
+        }
+        assertEquals(FACILITIES.length * DAYS, conflictIndex.cachedDays());
+    }
+
+    private Optional<FacilityReservation> byId(long id) {
+        return table.stream().filter(r -> r.getId() == id).findFirst();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setFirstName("Stress");
+        user.setLastName("Tester");
+        return user;
+    }
+
+    private List<FacilityReservation> activeOn(long facilityId, LocalDate date) {
+        return table.stream()
+                .filter(r -> r.getFacility().getId() == facilityId && r.getReservationDate().equals(date))
+                .filter(r -> r.getStatus() != ReservationStatus.REJECTED && r.getStatus() != ReservationStatus.CANCELLED)
+                .collect(Collectors.toList());
+    }
+
+    private static FacilityReservationRow toRow(FacilityReservation r) {
+        return new FacilityReservationRow(r.getId(), r.getUser().getId(), r.getUser().getFirstName(),
+                r.getUser().getLastName(), r.getFacility().getId(), r.getFacility().getName(), r.getReservationDate(),
+                r.getStartTime(), r.getEndTime(), r.getPurpose(), r.getStatus(), r.getAdminNotes(), r.getCreatedAt());
+    }
+
+    private FacilityReservationRequestDTO randomRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        int startMinutes = 8 * 60 + random.nextInt(20) * 30;
+        int duration = 30 * (1 + random.nextInt(4));
+        LocalDateTime start = date.atTime(LocalTime.ofSecondOfDay(startMinutes * 60L));
+        LocalDateTime end = start.plusMinutes(duration);
+
+        FacilityReservationRequestDTO request = new FacilityReservationRequestDTO();
+        request.setFacilityId(FACILITIES[random.nextInt(FACILITIES.length)]);
+        request.setStartTime(start.format(REQUEST_FORMAT));
+        request.setEndTime(end.format(REQUEST_FORMAT));
+        request.setPurpose("stress");
+        return request;
+    }
+
+    // Runs synchronization callbacks like a real transaction manager, without any resources
+    private static class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.FreeSlotDTO;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.FacilityReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Free windows come out of the slot bits exactly: a booking ending where another starts leaves no
+ * gap, off-grid times block the whole slots they touch, and days and rooms never bleed into each
+ * other. The date range and the number of results are capped.
+ */
+class FreeSlotServiceTest {
+
+    // A week ahead, so no part of the day has already passed
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    private final FacilityRepository facilityRepository = mock(FacilityRepository.class);
+    private final FacilityReservationRepository reservationRepository = mock(FacilityReservationRepository.class);
+    private final FreeSlotService service = new FreeSlotService(facilityRepository, reservationRepository);
+
+    private final List<Facility> facilities = new ArrayList<>();
+    private final List<Object[]> busy = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(facilityRepository.findBookableFacilities(anyInt(), any(), any())).thenReturn(facilities);
+        when(reservationRepository.findBusyIntervals(any(), any(), any())).thenReturn(busy);
+    }
+
+    @Test
+    void backToBackBookingsLeaveNoGap() {
+        facilities.add(facility(1L, "Room A", 30));
+        // One ends exactly when the next starts, and one ends at opening time
+        book(1L, DAY, "09:00", "10:00");
+        book(1L, DAY, "10:00", "10:30");
+        book(1L, DAY, "07:00", "08:00");
+
+        assertEquals(List.of("08:00-09:00", "10:30-12:00"), windows(find(DAY, DAY, 60, 10)));
+        assertEquals(List.of("10:30-12:00"), windows(find(DAY, DAY, 90, 10)));
+        assertEquals(90, find(DAY, DAY, 90, 10).get(0).getFreeMinutes());
+    }
+
+    @Test
+    void offGridTimesBlockEveryTouchedSlot() {
+        facilities.add(facility(1L, "Room A", 30));
+        book(1L, DAY, "09:10", "09:50");
+        // Shorter than a slot still takes one
+        book(1L, DAY, "11:00", "11:05");
+
+        assertEquals(List.of("08:00-09:00", "10:00-11:00", "11:15-12:00"), windows(find(DAY, DAY, 15, 10)));
+    }
+
+    @Test
+    void rangeSpanningDaysKeepsDaysAndRoomsApart() {
+        facilities.add(facility(1L, "Room A", 40));
+        facilities.add(facility(2L, "Room B", 25));
+        // Up to closing on the first day and from opening on the next, in the neighbouring room too
+        book(1L, DAY, "11:00", "12:00");
+        book(2L, DAY.plusDays(1), "08:00", "09:00");
+        book(1L, DAY.plusDays(2), "08:00", "12:00");
+
+        List<FreeSlotDTO> slots = service.findFreeSlots(DAY.toString(), DAY.plusDays(2).toString(), 60, 20,
+                null, null, "08:00", "12:00", 10);
+
+        assertEquals(List.of(
+                "2@" + DAY + " 08:00-12:00",
+                "1@" + DAY + " 08:00-11:00",
+                "1@" + DAY.plusDays(1) + " 08:00-12:00",
+                "2@" + DAY.plusDays(1) + " 09:00-12:00",
+                "2@" + DAY.plusDays(2) + " 08:00-12:00"),
+                slots.stream().map(slot -> slot.getFacilityId() + "@" + slot.getDate() + " " + window(slot)).toList());
+    }
+
+    @Test
+    void resultsAreCappedAtMaxResults() {
+        for (long id = 1; id <= 20; id++) {
+            facilities.add(facility(id, "Room " + id, 30));
+        }
+        LocalDate last = DAY.plusDays(30);
+
+        // 20 rooms for 31 days, one free window each
+        assertEquals(500, find(DAY, last, 60, 1000).size());
+        assertEquals(7, find(DAY, last, 60, 7).size());
+        assertEquals(1, find(DAY, last, 60, 0).size());
+    }
+
+    @Test
+    void rangeAndHoursAreChecked() {
+        facilities.add(facility(1L, "Room A", 30));
+
+        // 31 days is the longest range
+        assertEquals(31, find(DAY, DAY.plusDays(30), 60, 100).size());
+        assertThrows(RuntimeException.class, () -> find(DAY, DAY.plusDays(31), 60, 10));
+        assertThrows(RuntimeException.class, () -> find(DAY, DAY.minusDays(1), 60, 10));
+        assertThrows(RuntimeException.class, () -> find(DAY, DAY, 241, 10));
+        assertThrows(RuntimeException.class, () -> service.findFreeSlots(DAY.toString(), DAY.toString(), 60, null,
+                null, null, "12:00", "08:00", 10));
+    }
+
+    private List<FreeSlotDTO> find(LocalDate from, LocalDate to, int durationMinutes, int limit) {
+        return service.findFreeSlots(from.toString(), to.toString(), durationMinutes, null, null, null,
+                "08:00", "12:00", limit);
+    }
+
+    private void book(Long facilityId, LocalDate date, String start, String end) {
+        busy.add(new Object[]{facilityId, date, LocalTime.parse(start), LocalTime.parse(end)});
+    }
+
+    private static List<String> windows(List<FreeSlotDTO> slots) {
+        return slots.stream().map(FreeSlotServiceTest::window).toList();
+    }
+
+    private static String window(FreeSlotDTO slot) {
+        return slot.getStartTime() + "-" + slot.getEndTime();
+    }
+
+    private static Facility facility(Long id, String name, int capacity) {
+        Facility facility = new Facility();
+        facility.setId(id);
+        facility.setName(name);
+        facility.setType(Facility.FacilityType.values()[0]);
+        facility.setCapacity(capacity);
+        return facility;
+    }
+}
@@ -0,0 +1,86 @@
+package com.campus.facility_reservation.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A job holding its guard row makes every other run of it skip, while its own statements still
+ * commit as they go.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(JobRunLock.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobRunLockTest {
+
+    @Autowired
+    private JobRunLock jobRunLock;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void secondRunSkipsWhileTheFirstHoldsTheLock() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS job_progress (step INT)");
+        CountDownLatch working = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> jobRunLock.runExclusively("archive", () -> {
+            runs.incrementAndGet();
+            jdbcTemplate.update("INSERT INTO job_progress (step) VALUES (1)");
+            working.countDown();
+            await(finish);
+        }));
+        assertTrue(working.await(10, TimeUnit.SECONDS));
+
+        // Committed already, not held back until the lock is released
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_progress", Integer.class));
+
+        boolean second = CompletableFuture.supplyAsync(() -> jobRunLock.runExclusively("archive", runs::incrementAndGet))
+                .get(10, TimeUnit.SECONDS);
+        assertFalse(second);
+        // Another job's row is not affected
+        assertTrue(jobRunLock.runExclusively("rollups", () -> { }));
+
+        finish.countDown();
+        assertTrue(first.get(10, TimeUnit.SECONDS));
+        assertTrue(jobRunLock.runExclusively("archive", runs::incrementAndGet));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void failedRunReleasesTheLock() {
+        try {
+            jobRunLock.runExclusively("failing", () -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (IllegalStateException expected) {
+            // The job's own failure reaches the caller
+        }
+        assertTrue(jobRunLock.runExclusively("failing", () -> { }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
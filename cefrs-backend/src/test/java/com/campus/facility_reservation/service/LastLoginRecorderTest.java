@@ -0,0 +1,102 @@
+package com.campus.facility_reservation.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Flushes of LastLoginRecorder: batches of at most 500 rows, failed batches kept for the next
+ * run, and a shutdown that retries until everything is written or its timeout runs out.
+ */
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime LOGIN = LocalDateTime.of(2026, 10, 1, 8, 30);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushSplitsPendingLoginsIntoBatches() {
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 1000);
+        for (long userId = 1; userId <= 1201; userId++) {
+            recorder.record(userId, LOGIN);
+        }
+
+        recorder.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), batches.capture());
+        assertEquals(List.of(500, 500, 201), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsPutBackForTheNextFlush() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1, 1});
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 1000);
+        recorder.record(1L, LOGIN);
+        recorder.record(2L, LOGIN);
+
+        recorder.flush();
+        assertEquals(2, recorder.pendingCount());
+
+        // An older login recorded meanwhile does not replace the one put back
+        recorder.record(1L, LOGIN.minusHours(1));
+        recorder.flush();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        List<Object[]> retried = batches.getAllValues().get(1);
+        assertEquals(2, retried.size());
+        retried.forEach(row -> assertEquals(Timestamp.valueOf(LOGIN), row[0]));
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void shutdownRetriesUntilEverythingIsWritten() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1});
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 10_000);
+        recorder.record(1L, LOGIN);
+
+        recorder.flushOnShutdown();
+
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void shutdownGivesUpAfterItsTimeout() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        LastLoginRecorder recorder = new LastLoginRecorder(jdbcTemplate, 500);
+        recorder.record(1L, LOGIN);
+
+        long started = System.currentTimeMillis();
+        recorder.flushOnShutdown();
+
+        assertEquals(1, recorder.pendingCount());
+        verify(jdbcTemplate, atLeast(2)).batchUpdate(anyString(), anyList());
+        assertTrue(System.currentTimeMillis() - started < 5_000);
+    }
+}
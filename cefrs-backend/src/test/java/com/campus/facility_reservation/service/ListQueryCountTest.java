@@ -0,0 +1,226 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.AuditLogResponse;
+import com.campus.facility_reservation.dto.AuditLogSearchDTO;
+import com.campus.facility_reservation.dto.CursorPage;
+import com.campus.facility_reservation.dto.EquipmentBorrowingDTO;
+import com.campus.facility_reservation.dto.FacilityReservationDTO;
+import com.campus.facility_reservation.model.AuditLog;
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.FacilityReservation;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every reservation, borrowing and audit-log list read must be a single SQL statement, however
+ * many rows and distinct users, facilities and equipment it returns.
+ */
+// H2 in MySQL mode so the repositories' MySQL-dialect queries still validate
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("h2")
+@Import({FacilityReservationService.class, ReservationConflictIndex.class, BookingEngine.class,
+        EquipmentBorrowingService.class, AuditLogService.class, AuditArchive.class})
+class ListQueryCountTest {
+
+    private static final int ROWS = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FacilityReservationService reservationService;
+
+    @Autowired
+    private EquipmentBorrowingService borrowingService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private EquipmentUsageLedger usageLedger;
+
+    @MockitoBean
+    private UserActivityCounterService activityCounters;
+
+    @MockitoBean
+    private ReportRollupService reportRollups;
+
+    @MockitoBean
+    private AuditLogWriter auditLogWriter;
+
+    private Statistics statistics;
+    private User firstUser;
+    private Long firstReservationId;
+    private Long firstBorrowingId;
+    private Long firstEquipmentId;
+
+    @BeforeEach
+    void setUp() {
+        Role role = entityManager.persist(new Role(RoleType.STUDENT, "Student"));
+        LocalDate today = LocalDate.now();
+
+        // Distinct user, facility and equipment per row, so lazy loading would cost 2 selects a row
+        for (int i = 0; i < ROWS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@campus.test");
+            user.setPassword("secret");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setAddress("Campus");
+            user.setRole(role);
+            entityManager.persist(user);
+
+            Facility facility = new Facility();
+            facility.setName("Room " + i);
+            facility.setType(Facility.FacilityType.CLASSROOM);
+            facility.setCapacity(30);
+            entityManager.persist(facility);
+
+            Equipment equipment = new Equipment();
+            equipment.setName("Projector " + i);
+            equipment.setCategory(Equipment.EquipmentCategory.PROJECTOR);
+            entityManager.persist(equipment);
+
+            FacilityReservation reservation = new FacilityReservation();
+            reservation.setUser(user);
+            reservation.setFacility(facility);
+            reservation.setReservationDate(today.plusDays(1));
+            reservation.setStartTime(LocalTime.of(9, 0));
+            reservation.setEndTime(LocalTime.of(10, 0));
+            reservation.setPurpose("Class");
+            reservation.setStatus(ReservationStatus.PENDING);
+            entityManager.persist(reservation);
+
+            EquipmentBorrowing borrowing = new EquipmentBorrowing();
+            borrowing.setUser(user);
+            borrowing.setEquipment(equipment);
+            borrowing.setBorrowDate(today);
+            borrowing.setExpectedReturnDate(today.plusDays(2));
+            borrowing.setPurpose("Talk");
+            borrowing.setStatus(i % 2 == 0 ? BorrowingStatus.PENDING : BorrowingStatus.APPROVED);
+            entityManager.persist(borrowing);
+
+            // The eager AuditLog.user would cost a select per distinct user
+            entityManager.persist(new AuditLog(user.getId(), "CREATE", "facility_reservation",
+                    reservation.getId(), null, "{}", "127.0.0.1"));
+            entityManager.persist(new AuditLog(user.getId(), "UPDATE", "facility_reservation",
+                    reservation.getId(), "{}", "{}", "127.0.0.1"));
+
+            if (i == 0) {
+                firstUser = user;
+                firstReservationId = reservation.getId();
+                firstBorrowingId = borrowing.getId();
+                firstEquipmentId = equipment.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void reservationReadsRunOneStatement() {
+        CursorPage<FacilityReservationDTO> page = reservationService.getAllReservations(null, 5);
+        assertStatements(1);
+        assertEquals(5, page.getItems().size());
+
+        reservationService.getAllReservations(page.getPage().getNextCursor(), 5);
+        assertStatements(1);
+
+        assertEquals(ROWS, reservationService.getPendingReservations().size());
+        assertStatements(1);
+
+        List<FacilityReservationDTO> mine = reservationService.getUserReservations(firstUser.getId());
+        assertStatements(1);
+        assertEquals("First0 Last0", mine.get(0).getUserName());
+
+        assertEquals("Room 0", reservationService.getReservationById(firstReservationId).getFacilityName());
+        assertStatements(1);
+    }
+
+    @Test
+    void borrowingReadsRunOneStatement() {
+        assertEquals(ROWS, borrowingService.getAllBorrowings(null, 50).getItems().size());
+        assertStatements(1);
+
+        assertEquals(ROWS / 2, borrowingService.getPendingBorrowings().size());
+        assertStatements(1);
+
+        assertEquals(1, borrowingService.getUserBorrowings(firstUser.getId()).size());
+        assertStatements(1);
+
+        EquipmentBorrowingDTO borrowing = borrowingService.getBorrowingById(firstBorrowingId);
+        assertStatements(1);
+        assertEquals("Projector 0", borrowing.getEquipmentName());
+
+        // Only rows holding units (APPROVED, BORROWED, OVERDUE) overlap; the first equipment's booking is PENDING
+        borrowingService.getBookingsForEquipment(firstEquipmentId + 1, LocalDate.now().toString(),
+                LocalDate.now().plusDays(1).toString());
+        assertStatements(1);
+    }
+
+    @Test
+    void auditReadsRunOneStatement() {
+        CursorPage<AuditLogResponse> page = auditLogService.getAllAuditLogs(null, 5);
+        assertStatements(1);
+        assertEquals(5, page.getItems().size());
+
+        CursorPage<AuditLogResponse> next = auditLogService.getAllAuditLogs(page.getPage().getNextCursor(), 5);
+        assertStatements(1);
+        assertEquals(5, next.getItems().size());
+
+        AuditLogSearchDTO timeline = new AuditLogSearchDTO(null, null, "facility_reservation",
+                firstReservationId, null, null);
+        List<AuditLogResponse> history = auditLogService.searchAuditLogs(timeline, null, 50).getItems();
+        assertStatements(1);
+        assertEquals(2, history.size());
+        assertEquals("First0 Last0", history.get(0).getUserName());
+        assertEquals("user0@campus.test", history.get(0).getUserEmail());
+
+        AuditLogSearchDTO updates = new AuditLogSearchDTO(firstUser.getId(), "UPDATE", null, null,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        assertEquals(1, auditLogService.searchAuditLogs(updates, null, 50).getItems().size());
+        assertStatements(1);
+
+        assertEquals(ROWS, auditLogService.getAuditLogsByAction("CREATE", 50).size());
+        assertStatements(1);
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        statistics.clear();
+    }
+}
@@ -0,0 +1,276 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.NotificationOutboxRepository;
+import com.campus.facility_reservation.repository.RoleRepository;
+import com.campus.facility_reservation.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A failed batch is retried row by row: the rows that can be written are, the failing row backs
+ * off exponentially while its user's later rows wait behind it, and a row another instance dealt
+ * with in the meantime is not written a second time. A row another instance holds is skipped
+ * rather than waited for. Rows for a user id with no user row violate the notification foreign
+ * key, which is how a row is made to fail here.
+ */
+@DataJpaTest(properties = {
+        "app.notifications.dispatchMs=3600000"
+})
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    // No users row yet, so its notifications fail until it is created
+    private static final long MISSING_USER = 999;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Role role;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM notification");
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM user_role");
+        role = roleRepository.save(new Role(RoleType.STUDENT, "Student"));
+        userId = user("present@campus.test").getId();
+    }
+
+    @Test
+    void failingRowBacksOffAndHoldsBackItsUsersLaterRows() {
+        NotificationDispatcher dispatcher = dispatcher(transactionManager);
+        long first = enqueue(userId, "Hall A");
+        long failing = enqueue(MISSING_USER, "Hall B");
+        long waiting = enqueue(MISSING_USER, "Hall C");
+        long other = enqueue(userId, "Hall D");
+
+        assertEquals(4, dispatcher.dispatchBatch());
+
+        assertEquals(List.of("Hall A", "Hall D"), deliveredSubjects());
+        assertEquals(List.of(failing, waiting), outboxIds());
+        assertEquals(1, attempts(failing));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT last_error FROM notification_outbox WHERE id = ?",
+                String.class, failing));
+        // The later row was never tried
+        assertEquals(0, attempts(waiting));
+        assertBackoff(failing, 1);
+        assertTrue(first < other);
+
+        // Not due yet, and the row behind it waits for it
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        makeDue(failing);
+        dispatcher.dispatchBatch();
+        assertEquals(2, attempts(failing));
+        assertBackoff(failing, 2);
+        assertEquals(0, attempts(waiting));
+
+        // Once the user exists both rows go out, in their original order
+        insertUser(MISSING_USER);
+        makeDue(failing);
+        assertEquals(2, dispatcher.dispatchBatch());
+        assertEquals(List.of("Hall A", "Hall D", "Hall B", "Hall C"), deliveredSubjects());
+        assertTrue(outboxIds().isEmpty());
+    }
+
+    @Test
+    void deadRowStopsHoldingBackItsUser() {
+        NotificationDispatcher dispatcher = dispatcher(transactionManager);
+        long failing = enqueue(MISSING_USER, "Hall B");
+        long waiting = enqueue(MISSING_USER, "Hall C");
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            makeDue(failing);
+            dispatcher.dispatchBatch();
+            assertEquals(attempt, attempts(failing));
+        }
+        assertBackoff(failing, 4);
+
+        // Past the retry limit the row is left for inspection, and the next one is tried
+        insertUser(MISSING_USER);
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of("Hall C"), deliveredSubjects());
+        assertEquals(List.of(failing), outboxIds());
+        assertEquals(0, outboxRepository.countPending(MAX_ATTEMPTS));
+        assertTrue(waiting > failing);
+    }
+
+    @Test
+    void rowDeliveredElsewhereDuringTheRetryIsNotWrittenTwice() {
+        long first = enqueue(userId, "Hall A");
+        enqueue(MISSING_USER, "Hall B");
+        long later = enqueue(userId, "Hall C");
+
+        // Another instance delivers the first row between the batch's rollback and the retry
+        TransactionTemplate otherInstance = new TransactionTemplate(transactionManager);
+        PlatformTransactionManager racing = new PlatformTransactionManager() {
+            private boolean raced;
+
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            // The failed batch ends here: it is marked rollback-only, so committing rolls it back
+            @Override
+            public void commit(TransactionStatus status) {
+                boolean rolledBack = status.isRollbackOnly();
+                transactionManager.commit(status);
+                if (rolledBack && !raced) {
+                    raced = true;
+                    otherInstance.executeWithoutResult(other -> {
+                        jdbcTemplate.update("INSERT INTO notification (user_id, type, title, message, is_read, " +
+                                "created_at) VALUES (?, 'RESERVATION', 'Reservation Request Submitted', " +
+                                "'Your reservation for Hall A has been submitted', FALSE, NOW())", userId);
+                        jdbcTemplate.update("DELETE FROM notification_outbox WHERE id = ?", first);
+                    });
+                }
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+
+        dispatcher(racing).dispatchBatch();
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification WHERE message LIKE '%Hall A%'", Integer.class));
+        // The user's rows after the one taken elsewhere wait for the next run
+        assertTrue(outboxIds().contains(later));
+
+        dispatcher(transactionManager).dispatchBatch();
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification WHERE message LIKE '%Hall C%'", Integer.class));
+    }
+
+    @Test
+    void rowLockedByAnotherInstanceIsSkippedNotWaitedFor() throws Exception {
+        long locked = enqueue(MISSING_USER, "Hall A");
+        enqueue(userId, "Hall B");
+
+        // Another instance holds the first row in its open batch
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherInstance = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.queryForList("SELECT id FROM notification_outbox WHERE id = ? FOR UPDATE", locked);
+                    holding.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(holding.await(10, TimeUnit.SECONDS));
+
+        int taken = CompletableFuture.supplyAsync(() -> dispatcher(transactionManager).dispatchBatch())
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, taken);
+        assertEquals(List.of("Hall B"), deliveredSubjects());
+        assertEquals(List.of(locked), outboxIds());
+        release.countDown();
+        otherInstance.get(10, TimeUnit.SECONDS);
+    }
+
+    private NotificationDispatcher dispatcher(PlatformTransactionManager transactions) {
+        return new NotificationDispatcher(jdbcTemplate, outboxRepository, mock(NotificationStreamRegistry.class),
+                transactions, new SimpleMeterRegistry(), 50, 10, MAX_ATTEMPTS);
+    }
+
+    private long enqueue(long user, String subject) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxRepository.enqueue(user, "RESERVATION_SUBMITTED", 1L, subject, null));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM notification_outbox", Long.class);
+    }
+
+    private List<String> deliveredSubjects() {
+        return jdbcTemplate.queryForList("SELECT message FROM notification ORDER BY id", String.class).stream()
+                .map(message -> message.replaceAll("^Your reservation for (.*) has been submitted.*$", "$1"))
+                .toList();
+    }
+
+    private List<Long> outboxIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM notification_outbox ORDER BY id", Long.class);
+    }
+
+    private int attempts(long id) {
+        return jdbcTemplate.queryForObject("SELECT attempts FROM notification_outbox WHERE id = ?", Integer.class, id);
+    }
+
+    private void makeDue(long id) {
+        jdbcTemplate.update("UPDATE notification_outbox SET next_attempt_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), id);
+    }
+
+    // After n failures the row waits 2^(n-1) seconds
+    private void assertBackoff(long id, long expectedSeconds) {
+        LocalDateTime next = jdbcTemplate.queryForObject("SELECT next_attempt_at FROM notification_outbox WHERE id = ?",
+                LocalDateTime.class, id);
+        long millis = Duration.between(LocalDateTime.now(), next).toMillis();
+        assertTrue(millis > expectedSeconds * 1000 - 1500 && millis <= expectedSeconds * 1000,
+                "next attempt in " + millis + " ms, expected about " + expectedSeconds + " s");
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setFirstName("Note");
+        user.setLastName("Reader");
+        user.setAddress("Campus");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private void insertUser(long id) {
+        jdbcTemplate.update("INSERT INTO users (id, email, password, first_name, last_name, address, role_id, " +
+                "created_at, updated_at, is_active) VALUES (?, ?, 'secret', 'Late', 'Comer', 'Campus', ?, NOW(), NOW(), TRUE)",
+                id, "user" + id + "@campus.test", role.getId());
+    }
+}
@@ -0,0 +1,242 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.NotificationDTO;
+import com.campus.facility_reservation.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Opens many idle notification streams against a real Tomcat, one virtual thread per client,
+ * then checks that a notification pushed to every user and a heartbeat reach all of them, and
+ * that a reconnect with Last-Event-ID replays what was missed. Only the web layer and the
+ * registry are started; the unread count comes from a stub.
+ *
+ * Run with: mvn test -Dtest=NotificationStreamLoadTest -DloadTest=true [-DloadTest.connections=10000]
+ * Every connection needs a descriptor on both ends, so 10k connections need a limit above 20k.
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+@SpringBootTest(classes = NotificationStreamLoadTest.StreamApp.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.tomcat.max-connections=25000",
+                "server.tomcat.accept-count=2000",
+                "app.notifications.stream.heartbeatMs=3600000",
+                "logging.level.org.springframework.web=INFO",
+                "logging.level.com.campus.facility_reservation=INFO"
+        })
+class NotificationStreamLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamLoadTest.class);
+
+    private static final int CONNECTIONS = Integer.getInteger("loadTest.connections", 10_000);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationStreamRegistry registry;
+
+    @Test
+    void idleStreamsReceivePushesAndHeartbeats() throws Exception {
+        CountDownLatch connected = new CountDownLatch(CONNECTIONS);
+        CountDownLatch notified = new CountDownLatch(CONNECTIONS);
+        CountDownLatch heartbeats = new CountDownLatch(CONNECTIONS);
+        AtomicInteger failures = new AtomicInteger();
+        List<Socket> sockets = new ArrayList<>(CONNECTIONS);
+
+        long connectStart = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                long userId = i + 1;
+                Socket socket = new Socket();
+                synchronized (sockets) {
+                    sockets.add(socket);
+                }
+                clients.execute(() -> {
+                    try {
+                        BufferedReader reader = open(socket, userId, null);
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (line.equals("event:unread-count")) {
+                                connected.countDown();
+                            } else if (line.equals("event:notification")) {
+                                notified.countDown();
+                            } else if (line.equals(":heartbeat")) {
+                                heartbeats.countDown();
+                            }
+                        }
+                    } catch (IOException e) {
+                        if (!socket.isClosed()) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+
+            assertTrue(connected.await(180, TimeUnit.SECONDS), "streams still connecting: " + connected.getCount());
+            long connectMs = (System.nanoTime() - connectStart) / 1_000_000;
+            assertEquals(CONNECTIONS, registry.connectionCount());
+            System.gc();
+            long heapMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+
+            long pushStart = System.nanoTime();
+            for (long userId = 1; userId <= CONNECTIONS; userId++) {
+                registry.publishNotifications(userId, List.of(notification(userId)));
+            }
+            assertTrue(notified.await(60, TimeUnit.SECONDS), "notifications not delivered: " + notified.getCount());
+            long pushMs = (System.nanoTime() - pushStart) / 1_000_000;
+
+            long heartbeatStart = System.nanoTime();
+            registry.heartbeat();
+            assertTrue(heartbeats.await(60, TimeUnit.SECONDS), "heartbeats not delivered: " + heartbeats.getCount());
+            long heartbeatMs = (System.nanoTime() - heartbeatStart) / 1_000_000;
+
+            logger.info("{} idle streams: connected in {} ms, heap {} MB after GC, "
+                            + "fan-out to all in {} ms, heartbeat to all in {} ms",
+                    CONNECTIONS, connectMs, heapMb, pushMs, heartbeatMs);
+            assertEquals(0, failures.get());
+
+            assertReplayAfterReconnect();
+
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    // User 1 drops, misses a notification, and gets it back by reconnecting with its last id
+    private void assertReplayAfterReconnect() throws Exception {
+        String lastId;
+        try (Socket socket = new Socket()) {
+            BufferedReader reader = open(socket, 1L, null);
+            // The count is the last thing sent on subscribe, so the stream is registered by now
+            readUntilEvent(reader, "unread-count");
+            registry.publishNotifications(1L, List.of(notification(1L)));
+            lastId = readUntilEvent(reader, "notification");
+        }
+        registry.publishNotifications(1L, List.of(notification(1L)));
+        try (Socket socket = new Socket()) {
+            BufferedReader reader = open(socket, 1L, lastId);
+            String replayedId = readUntilEvent(reader, "notification");
+            assertTrue(replayedId.compareTo(lastId) > 0, "replayed " + replayedId + " after " + lastId);
+        }
+        try (Socket socket = new Socket()) {
+            BufferedReader reader = open(socket, 1L, "stale-1");
+            readUntilEvent(reader, "resync");
+        }
+    }
+
+    private BufferedReader open(Socket socket, long userId, String lastEventId) throws IOException {
+        socket.connect(new java.net.InetSocketAddress("localhost", port), 30_000);
+        socket.setSoTimeout(120_000);
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /stream/" + userId + " HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                + (lastEventId != null ? "Last-Event-ID: " + lastEventId + "\r\n" : "")
+                + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    // Returns the id of the first event with the given name (empty for events without one)
+    private String readUntilEvent(BufferedReader reader, String name) throws IOException {
+        String id = "";
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("id:")) {
+                id = line.substring(3);
+            } else if (line.equals("event:" + name)) {
+                return id;
+            } else if (line.startsWith("event:")) {
+                id = "";
+            }
+        }
+        throw new IOException("stream closed before a " + name + " event");
+    }
+
+    private static NotificationDTO notification(long userId) {
+        return new NotificationDTO(userId, "RESERVATION", "Reservation APPROVED",
+                "Your reservation has been approved.", false, userId, "FACILITY_RESERVATION",
+                "2030-01-07T09:00:00");
+    }
+
+    // Plain @Configuration: a @SpringBootConfiguration here would be picked up by the slice tests
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import({NotificationStreamRegistry.class, StreamController.class})
+    static class StreamApp {
+
+        @Bean
+        NotificationRepository notificationRepository() {
+            // stubOnly: no invocation history kept for thousands of calls
+            NotificationRepository repository = mock(NotificationRepository.class, withSettings().stubOnly());
+            when(repository.countByUser_IdAndIsReadFalse(anyLong())).thenReturn(1L);
+            return repository;
+        }
+    }
+
+    // Same as NotificationController.stream, with the user in the path instead of a JWT
+    @RestController
+    static class StreamController {
+
+        private final NotificationStreamRegistry registry;
+
+        StreamController(NotificationStreamRegistry registry) {
+            this.registry = registry;
+        }
+
+        @GetMapping(value = "/stream/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        SseEmitter stream(@PathVariable Long userId,
+                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return registry.subscribe(userId, lastEventId);
+        }
+    }
+}
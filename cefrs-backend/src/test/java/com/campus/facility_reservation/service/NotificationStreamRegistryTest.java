@@ -0,0 +1,299 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.controller.NotificationController;
+import com.campus.facility_reservation.dto.NotificationDTO;
+import com.campus.facility_reservation.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Replay, resync and epoch handling of the notification streams, through the real stream
+ * endpoint. A reconnect with Last-Event-ID gets the events it missed in order, and is told to
+ * resync when the ring no longer reaches back that far or the id is not one of this run's; a live
+ * connection that falls that far behind is told the same, as is one whose unread count could not
+ * be read. Only a few counts run at once.
+ */
+class NotificationStreamRegistryTest {
+
+    private static final long USER = 7;
+    private static final int BUFFER_SIZE = 3;
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final List<NotificationStreamRegistry> registries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(notificationRepository.countByUser_IdAndIsReadFalse(anyLong())).thenReturn(2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registries.forEach(NotificationStreamRegistry::closeAll);
+    }
+
+    @Test
+    void freshConnectionGetsTheCountThenLiveEventsInOrder() throws Exception {
+        NotificationStreamRegistry registry = registry();
+        MvcResult stream = open(registry, null);
+        assertEquals(List.of(new Event(null, "unread-count", "2")), awaitEvents(stream, 1));
+
+        when(notificationRepository.countByUser_IdAndIsReadFalse(USER)).thenReturn(4L);
+        registry.publishNotifications(USER, List.of(notification(1), notification(2)));
+
+        List<Event> events = awaitEvents(stream, 4);
+        String epoch = epochOf(events.get(1));
+        assertEquals(List.of(
+                new Event(null, "unread-count", "2"),
+                new Event(epoch + "-1", "notification", events.get(1).data()),
+                new Event(epoch + "-2", "notification", events.get(2).data()),
+                new Event(epoch + "-3", "unread-count", "4")), events);
+        assertTrue(events.get(1).data().contains("\"id\":1"));
+        assertTrue(events.get(2).data().contains("\"id\":2"));
+        // Another user's stream is not touched
+        registry.publishNotifications(USER + 1, List.of(notification(3)));
+        assertEquals(1, registry.connectionCount());
+    }
+
+    @Test
+    void reconnectReplaysWhatWasMissed() throws Exception {
+        NotificationStreamRegistry registry = registry();
+        MvcResult first = open(registry, null);
+        awaitEvents(first, 1);
+        registry.publishNotifications(USER, List.of(notification(1)));
+        String lastSeen = awaitEvents(first, 2).get(1).id();
+
+        registry.publishNotifications(USER, List.of(notification(2), notification(3)));
+        MvcResult second = open(registry, lastSeen);
+
+        List<Event> replayed = awaitEvents(second, 3);
+        String epoch = lastSeen.substring(0, lastSeen.lastIndexOf('-'));
+        assertEquals(List.of(epoch + "-2", epoch + "-3"), List.of(replayed.get(0).id(), replayed.get(1).id()));
+        assertEquals(new Event(null, "unread-count", "2"), replayed.get(2));
+
+        // Up to date already: only the count
+        MvcResult third = open(registry, epoch + "-3");
+        assertEquals(List.of(new Event(null, "unread-count", "2")), awaitEvents(third, 1));
+    }
+
+    @Test
+    void reconnectBeyondTheRingIsToldToResync() throws Exception {
+        NotificationStreamRegistry registry = registry();
+        MvcResult first = open(registry, null);
+        awaitEvents(first, 1);
+        // One at a time, so this connection keeps up with the ring
+        for (int i = 1; i <= 6; i++) {
+            registry.publishNotifications(USER, List.of(notification(i)));
+            awaitEvents(first, i + 1);
+        }
+        String epoch = epochOf(awaitEvents(first, 7).get(1));
+
+        // The ring holds 4..6, so 3 is the oldest id it can still continue from
+        List<Event> resynced = awaitEvents(open(registry, epoch + "-2"), 2);
+        assertEquals(List.of(new Event(null, "resync", ""), new Event(null, "unread-count", "2")), resynced);
+
+        List<Event> replayed = awaitEvents(open(registry, epoch + "-3"), 4);
+        assertEquals(List.of(epoch + "-4", epoch + "-5", epoch + "-6"),
+                replayed.subList(0, 3).stream().map(Event::id).toList());
+        assertEquals("unread-count", replayed.get(3).name());
+    }
+
+    @Test
+    void connectionThatFallsBehindTheRingIsToldToResync() throws Exception {
+        NotificationStreamRegistry registry = registry();
+        MvcResult stream = open(registry, null);
+        awaitEvents(stream, 1);
+
+        // The first notification holds up its own send, so the ring overflows behind it
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationDTO slow = new NotificationDTO(1L, "RESERVATION", "Reservation APPROVED",
+                "Your reservation has been approved.", false, 1L, "FACILITY_RESERVATION", "2030-01-07T09:00:00") {
+            @Override
+            public String getTitle() {
+                sending.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getTitle();
+            }
+        };
+        registry.publishNotifications(USER, List.of(slow));
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+        for (int i = 2; i <= 2 + BUFFER_SIZE; i++) {
+            registry.publishNotifications(USER, List.of(notification(i)));
+        }
+        release.countDown();
+
+        List<Event> events = awaitEvents(stream, 3);
+        assertEquals("notification", events.get(1).name());
+        assertEquals(new Event(null, "resync", ""), events.get(2));
+
+        // Afterwards it gets live events again
+        registry.publishNotifications(USER, List.of(notification(9)));
+        assertEquals(epochOf(events.get(1)) + "-" + (3 + BUFFER_SIZE), awaitEvents(stream, 4).get(3).id());
+    }
+
+    @Test
+    void idsFromAnotherRunOrMalformedAreToldToResync() throws Exception {
+        NotificationStreamRegistry before = registry();
+        MvcResult first = open(before, null);
+        awaitEvents(first, 1);
+        before.publishNotifications(USER, List.of(notification(1)));
+        String idBeforeRestart = awaitEvents(first, 2).get(1).id();
+        String epoch = epochOf(awaitEvents(first, 2).get(1));
+
+        // A new epoch per start, so the same sequence number from the last run is not trusted
+        Thread.sleep(5);
+        NotificationStreamRegistry restarted = registry();
+        restarted.publishNotifications(USER, List.of(notification(2)));
+        for (String lastEventId : List.of(idBeforeRestart, "garbage", "-1", epoch + "-x", epoch + "-99")) {
+            NotificationStreamRegistry target = lastEventId.equals(idBeforeRestart) ? restarted : before;
+            List<Event> events = awaitEvents(open(target, lastEventId), 2);
+            assertEquals(new Event(null, "resync", ""), events.get(0), lastEventId);
+            assertEquals("unread-count", events.get(1).name(), lastEventId);
+        }
+    }
+
+    @Test
+    void failedCountIsToldToResyncInsteadOfLeftWithout() throws Exception {
+        NotificationStreamRegistry registry = registry();
+        when(notificationRepository.countByUser_IdAndIsReadFalse(USER))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection is not available"));
+        MvcResult stream = open(registry, null);
+        assertEquals(List.of(new Event(null, "resync", "")), awaitEvents(stream, 1));
+
+        // A count failing after a publish still delivers the notification, and a resync; the count
+        // runs alongside the send, so either can go out first
+        registry.publishNotifications(USER, List.of(notification(1)));
+        List<Event> events = awaitEvents(stream, 3);
+        assertEquals(List.of("notification", "resync"), events.subList(1, 3).stream().map(Event::name).sorted().toList());
+
+        // doReturn: calling the method to restub it would hit the throwing stub
+        doReturn(3L).when(notificationRepository).countByUser_IdAndIsReadFalse(USER);
+        registry.publishNotifications(USER, List.of(notification(2)));
+        Event count = awaitEvents(stream, 5).get(4);
+        assertEquals(List.of("unread-count", "3"), List.of(count.name(), count.data()));
+    }
+
+    @Test
+    void onlyAFewCountsRunAtOnce() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostAtOnce = new AtomicInteger();
+        AtomicInteger counted = new AtomicInteger();
+        when(notificationRepository.countByUser_IdAndIsReadFalse(anyLong())).thenAnswer(invocation -> {
+            mostAtOnce.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            counted.incrementAndGet();
+            return 1L;
+        });
+        NotificationStreamRegistry registry = registry(2);
+
+        // A wave of reconnects, as after a restart
+        for (long user = 100; user < 120; user++) {
+            registry.subscribe(user, null);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counted.get() < 20 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(20, counted.get());
+        assertTrue(mostAtOnce.get() <= 2, "counts at once: " + mostAtOnce.get());
+    }
+
+    private NotificationStreamRegistry registry() {
+        return registry(4);
+    }
+
+    private NotificationStreamRegistry registry(int countQueries) {
+        NotificationStreamRegistry registry =
+                new NotificationStreamRegistry(notificationRepository, BUFFER_SIZE, 60_000, countQueries);
+        registries.add(registry);
+        return registry;
+    }
+
+    private MvcResult open(NotificationStreamRegistry registry, String lastEventId) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new NotificationController(mock(NotificationService.class), registry))
+                .build();
+        MockHttpServletRequestBuilder request = get("/api/notifications/stream")
+                .principal(new UsernamePasswordAuthenticationToken(USER, null, List.of()));
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    // Waits for exactly this many events, then a little longer to catch any extra one
+    private static List<Event> awaitEvents(MvcResult stream, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<Event> events = parse(stream.getResponse().getContentAsString());
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            events = parse(stream.getResponse().getContentAsString());
+        }
+        Thread.sleep(50);
+        events = parse(stream.getResponse().getContentAsString());
+        assertEquals(count, events.size(), "events: " + events);
+        return events;
+    }
+
+    private static List<Event> parse(String content) {
+        List<Event> events = new ArrayList<>();
+        for (String block : content.split("\n\n")) {
+            String id = null;
+            String name = null;
+            String data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data = line.substring(5);
+                }
+            }
+            if (name != null) {
+                events.add(new Event(id, name, data));
+            }
+        }
+        return events;
+    }
+
+    private static String epochOf(Event event) {
+        return event.id().substring(0, event.id().lastIndexOf('-'));
+    }
+
+    private static NotificationDTO notification(long id) {
+        return new NotificationDTO(id, "RESERVATION", "Reservation APPROVED",
+                "Your reservation has been approved.", false, id, "FACILITY_RESERVATION", "2030-01-07T09:00:00");
+    }
+
+    private record Event(String id, String name, String data) {
+    }
+}
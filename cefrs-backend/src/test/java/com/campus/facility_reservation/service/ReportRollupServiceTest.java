@@ -0,0 +1,245 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.config.SchedulingConfig;
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.EquipmentRepository;
+import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.RoleRepository;
+import com.campus.facility_reservation.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The nightly rebuild recounts every rollup table from its source rows a few days at a time,
+ * dropping rows for days that no longer have any source rows; the start-up backfill fills each
+ * empty table and leaves the others alone, and neither runs while another instance holds the job.
+ */
+@DataJpaTest(properties = {
+        "app.reports.rollupRebuildDays=3"
+})
+@ActiveProfiles("h2")
+@Import({ReportRollupService.class, JobRunLock.class, SchedulingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportRollupServiceTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final String[] RESERVATION_STATUSES = {"PENDING", "APPROVED", "REJECTED"};
+    private static final String[] BORROWING_STATUSES = {"PENDING", "BORROWED", "RETURNED"};
+
+    private static final String FACILITY_DAILY =
+            "SELECT facility_id, rollup_date, status, reservations FROM facility_daily_rollup";
+    private static final String FACILITY_DAILY_EXPECTED =
+            "SELECT facility_id, reservation_date, status, COUNT(*) FROM facility_reservation " +
+            "GROUP BY facility_id, reservation_date, status";
+    private static final String RESERVATION_HOURLY =
+            "SELECT rollup_date, start_hour, status, reservations FROM reservation_hourly_rollup";
+    private static final String RESERVATION_HOURLY_EXPECTED =
+            "SELECT reservation_date, HOUR(start_time), status, COUNT(*) FROM facility_reservation " +
+            "GROUP BY reservation_date, HOUR(start_time), status";
+    private static final String EQUIPMENT_DAILY =
+            "SELECT equipment_id, rollup_date, status, borrowings FROM equipment_daily_rollup";
+    private static final String EQUIPMENT_DAILY_EXPECTED =
+            "SELECT equipment_id, borrow_date, status, COUNT(*) FROM equipment_borrowing " +
+            "GROUP BY equipment_id, borrow_date, status";
+
+    @Autowired
+    private ReportRollupService rollups;
+
+    @Autowired
+    private JobRunLock jobRunLock;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    private long facilityId;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role(RoleType.STUDENT, "Student"));
+        User user = new User();
+        user.setEmail("rollups@campus.test");
+        user.setPassword("secret");
+        user.setFirstName("Roll");
+        user.setLastName("Up");
+        user.setAddress("Campus");
+        user.setRole(role);
+        long userId = userRepository.save(user).getId();
+        Facility facility = new Facility();
+        facility.setName("Room 1");
+        facility.setType(Facility.FacilityType.values()[0]);
+        facility.setCapacity(30);
+        facilityId = facilityRepository.save(facility).getId();
+        Equipment equipment = new Equipment();
+        equipment.setName("Projector");
+        equipment.setCategory(Equipment.EquipmentCategory.PROJECTOR);
+        equipment.setQuantityTotal(5);
+        equipment.setQuantityAvailable(5);
+        long equipmentId = equipmentRepository.save(equipment).getId();
+
+        // Ten days, so the three-day batches end part way through the last one
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < 40; i++) {
+            Date day = Date.valueOf(FIRST_DAY.plusDays(i % 10));
+            LocalTime start = LocalTime.of(8 + i % 5, 0);
+            jdbcTemplate.update("INSERT INTO facility_reservation (user_id, facility_id, reservation_date, start_time, " +
+                    "end_time, purpose, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 'Class', ?, ?, ?)",
+                    userId, facilityId, day, Time.valueOf(start), Time.valueOf(start.plusHours(1)),
+                    RESERVATION_STATUSES[i % 3], now, now);
+            jdbcTemplate.update("INSERT INTO equipment_borrowing (user_id, equipment_id, quantity, borrow_date, " +
+                    "expected_return_date, purpose, status, created_at, updated_at) VALUES (?, ?, 1, ?, ?, 'Talk', ?, ?, ?)",
+                    userId, equipmentId, day, day, BORROWING_STATUSES[i % 3], now, now);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM facility_reservation");
+        jdbcTemplate.execute("DELETE FROM equipment_borrowing");
+        jdbcTemplate.execute("DELETE FROM facility_daily_rollup");
+        jdbcTemplate.execute("DELETE FROM equipment_daily_rollup");
+        jdbcTemplate.execute("DELETE FROM reservation_hourly_rollup");
+        equipmentRepository.deleteAll();
+        facilityRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void rebuildRepairsDriftInEveryTable() {
+        rollups.rebuild();
+        assertRollupsMatchSource();
+
+        // Wrong counts, a missing row, and rows for days with no source rows at either end
+        jdbcTemplate.update("UPDATE facility_daily_rollup SET reservations = reservations + 7 WHERE rollup_date = ?",
+                Date.valueOf(FIRST_DAY.plusDays(4)));
+        jdbcTemplate.update("DELETE FROM reservation_hourly_rollup WHERE rollup_date = ?", Date.valueOf(FIRST_DAY.plusDays(9)));
+        jdbcTemplate.update("UPDATE equipment_daily_rollup SET borrowings = 0 WHERE rollup_date = ?", Date.valueOf(FIRST_DAY));
+        jdbcTemplate.update("INSERT INTO facility_daily_rollup (facility_id, rollup_date, status, reservations) " +
+                "VALUES (?, ?, 'APPROVED', 3)", facilityId, Date.valueOf(FIRST_DAY.minusDays(30)));
+        jdbcTemplate.update("INSERT INTO reservation_hourly_rollup (rollup_date, start_hour, status, reservations) " +
+                "VALUES (?, 9, 'PENDING', 2)", Date.valueOf(FIRST_DAY.plusDays(60)));
+        assertNotEquals(rows(FACILITY_DAILY_EXPECTED), rows(FACILITY_DAILY));
+
+        rollups.rebuild();
+        assertRollupsMatchSource();
+
+        // With every source row gone, so are all the rollup rows
+        jdbcTemplate.execute("DELETE FROM facility_reservation");
+        rollups.rebuild();
+        assertEquals(0, count("facility_daily_rollup"));
+        assertEquals(0, count("reservation_hourly_rollup"));
+        assertRollupsMatchSource();
+    }
+
+    @Test
+    void backfillFillsOnlyTheEmptyTables() {
+        rollups.rebuild();
+        jdbcTemplate.execute("DELETE FROM reservation_hourly_rollup");
+        jdbcTemplate.execute("DELETE FROM equipment_daily_rollup");
+        // Not empty, so left as it is even though it is off
+        jdbcTemplate.update("UPDATE facility_daily_rollup SET reservations = 99");
+        Set<String> facilityDaily = rows(FACILITY_DAILY);
+
+        rollups.backfillIfEmpty();
+
+        assertEquals(facilityDaily, rows(FACILITY_DAILY));
+        assertEquals(rows(RESERVATION_HOURLY_EXPECTED), rows(RESERVATION_HOURLY));
+        assertEquals(rows(EQUIPMENT_DAILY_EXPECTED), rows(EQUIPMENT_DAILY));
+    }
+
+    @Test
+    void skipsWhileAnotherInstanceRebuilds() throws Exception {
+        rollups.rebuild();
+        jdbcTemplate.update("UPDATE equipment_daily_rollup SET borrowings = 99");
+        jdbcTemplate.execute("DELETE FROM reservation_hourly_rollup");
+        Set<String> drifted = rows(EQUIPMENT_DAILY);
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> otherInstance = CompletableFuture.supplyAsync(() ->
+                jobRunLock.runExclusively(ReportRollupService.JOB_NAME, () -> {
+                    holding.countDown();
+                    await(release);
+                }));
+        assertTrue(holding.await(10, TimeUnit.SECONDS));
+
+        rollups.rebuild();
+        rollups.backfillIfEmpty();
+        assertEquals(drifted, rows(EQUIPMENT_DAILY));
+        assertEquals(0, count("reservation_hourly_rollup"));
+
+        release.countDown();
+        assertTrue(otherInstance.get(10, TimeUnit.SECONDS));
+        rollups.rebuild();
+        assertRollupsMatchSource();
+    }
+
+    private void assertRollupsMatchSource() {
+        assertEquals(rows(FACILITY_DAILY_EXPECTED), rows(FACILITY_DAILY));
+        assertEquals(rows(RESERVATION_HOURLY_EXPECTED), rows(RESERVATION_HOURLY));
+        assertEquals(rows(EQUIPMENT_DAILY_EXPECTED), rows(EQUIPMENT_DAILY));
+    }
+
+    // Zero counts are kept by the status moves, so they are dropped before comparing
+    private Set<String> rows(String sql) {
+        List<String> rows = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getObject(1) + "|" + rs.getObject(2) + "|" +
+                rs.getObject(3) + "|" + rs.getLong(4));
+        Set<String> nonZero = rows.stream().filter(row -> !row.endsWith("|0")).collect(Collectors.toSet());
+        assertEquals(rows.size(), new HashSet<>(rows).size(), "duplicate rows in " + sql);
+        return nonZero;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
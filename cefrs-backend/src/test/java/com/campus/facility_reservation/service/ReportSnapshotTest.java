@@ -0,0 +1,302 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.config.SchedulingConfig;
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.EquipmentBorrowingRepository;
+import com.campus.facility_reservation.repository.EquipmentRepository;
+import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.RoleRepository;
+import com.campus.facility_reservation.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Every report must come out the same from the snapshot as from SQL: after the full load, after
+ * an incremental refresh that updates rows, appends new ids and slots lower ids in between, and
+ * when the snapshot is dropped in the middle of a report.
+ */
+// H2 in MySQL mode; the snapshot and the SQL reports read committed rows, so nothing runs in a test transaction
+@DataJpaTest(properties = {
+        "app.reports.snapshot.refreshMs=3600000",
+        "app.reports.snapshot.overlapMs=0",
+        "app.reports.snapshot.loadChunkRows=64"
+})
+@ActiveProfiles("h2")
+@Import({ReportService.class, ReportSnapshot.class, ReportQueryExecutor.class, ReportRollupService.class,
+        JobRunLock.class, SchedulingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportSnapshotTest {
+
+    private static final int USERS = 9;
+    private static final int FACILITIES = 6;
+    private static final int EQUIPMENT = 5;
+    private static final int ROWS = 300;
+    private static final String[] SORTS = {"activity", "reservations", "borrowings", "lastActivity", "name"};
+
+    private static final String INSERT_RESERVATION =
+            "INSERT INTO facility_reservation (id, user_id, facility_id, reservation_date, start_time, end_time, " +
+            "purpose, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, 'Class', ?, ?, ?)";
+    private static final String INSERT_BORROWING =
+            "INSERT INTO equipment_borrowing (id, user_id, equipment_id, quantity, borrow_date, expected_return_date, " +
+            "actual_return_date, purpose, status, created_at, updated_at) VALUES (?, ?, ?, 1, ?, ?, ?, 'Talk', ?, ?, ?)";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportSnapshot snapshot;
+
+    @Autowired
+    private ReportRollupService rollups;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    // The MySQL DATEDIFF(a, b) in the JPQL does not parse on H2
+    @MockitoSpyBean
+    private EquipmentBorrowingRepository borrowingRepository;
+
+    private final Random random = new Random(42);
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> facilityIds = new ArrayList<>();
+    private final List<Long> equipmentIds = new ArrayList<>();
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> jdbcTemplate.queryForObject(
+                "SELECT AVG(CAST(DATEDIFF('DAY', borrow_date, actual_return_date) AS DOUBLE)) " +
+                "FROM equipment_borrowing WHERE actual_return_date IS NOT NULL", Double.class))
+                .when(borrowingRepository).getAverageDurationInDays();
+
+        today = LocalDate.now();
+        Role role = roleRepository.save(new Role(RoleType.STUDENT, "Student"));
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@campus.test");
+            user.setPassword("secret");
+            // Two users share a name, so the name sort needs its id tie-break
+            int name = i == USERS - 1 ? 0 : i;
+            user.setFirstName("First" + name);
+            user.setLastName("Last" + name);
+            user.setAddress("Campus");
+            user.setRole(role);
+            userIds.add(userRepository.save(user).getId());
+        }
+        for (int i = 0; i < FACILITIES; i++) {
+            Facility facility = new Facility();
+            facility.setName("Room " + i);
+            facility.setType(Facility.FacilityType.values()[i % Facility.FacilityType.values().length]);
+            facility.setCapacity(30);
+            facilityIds.add(facilityRepository.save(facility).getId());
+        }
+        for (int i = 0; i < EQUIPMENT; i++) {
+            Equipment equipment = new Equipment();
+            equipment.setName("Projector " + i);
+            equipment.setCategory(Equipment.EquipmentCategory.PROJECTOR);
+            equipment.setQuantityTotal(4 + i);
+            equipment.setQuantityAvailable(i);
+            equipmentIds.add(equipmentRepository.save(equipment).getId());
+        }
+        // Even ids only, leaving room for the out-of-order inserts
+        for (int i = 1; i <= ROWS; i++) {
+            insertReservation(2L * i);
+            insertBorrowing(2L * i);
+        }
+        rollups.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM facility_reservation");
+        jdbcTemplate.execute("DELETE FROM equipment_borrowing");
+        jdbcTemplate.execute("DELETE FROM facility_daily_rollup");
+        jdbcTemplate.execute("DELETE FROM equipment_daily_rollup");
+        jdbcTemplate.execute("DELETE FROM reservation_hourly_rollup");
+        equipmentRepository.deleteAll();
+        facilityRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void fullLoadMatchesSql() {
+        snapshot.scheduledReload();
+        assertTrue(snapshot.isReady());
+
+        assertEquals(sqlReports(), reports());
+    }
+
+    @Test
+    void incrementalRefreshMatchesSql() {
+        snapshot.scheduledReload();
+
+        LocalDateTime now = LocalDateTime.now();
+        // Upserts in place
+        jdbcTemplate.update("UPDATE facility_reservation SET status = 'APPROVED', updated_at = ? WHERE MOD(id, 6) = 0",
+                Timestamp.valueOf(now));
+        jdbcTemplate.update("UPDATE equipment_borrowing SET status = 'RETURNED', actual_return_date = DATEADD('DAY', 3, borrow_date), " +
+                "updated_at = ? WHERE MOD(id, 10) = 0", Timestamp.valueOf(now));
+        // Lower ids committed after higher ones go through shiftUp; the rest append
+        for (long id = 1; id < 2 * ROWS; id += 14) {
+            insertReservation(id);
+            insertBorrowing(id);
+        }
+        for (long id = 2L * ROWS + 1; id <= 2L * ROWS + 40; id++) {
+            insertReservation(id);
+            insertBorrowing(id);
+        }
+        snapshot.refresh();
+        rollups.rebuild();
+
+        assertTrue(snapshot.isReady());
+        assertEquals(sqlReports(), reports());
+    }
+
+    @Test
+    void droppedSnapshotFallsBackToSql() {
+        // isReady said yes, then every scan finds it gone
+        ReportSnapshot dropped = mock(ReportSnapshot.class, invocation -> {
+            if (invocation.getMethod().getName().equals("isReady")) {
+                return true;
+            }
+            throw new ReportSnapshot.NotLoadedException();
+        });
+        Map<String, Object> expected = sqlReports();
+        ReflectionTestUtils.setField(reportService, "reportSnapshot", dropped);
+        try {
+            assertEquals(expected, reports());
+        } finally {
+            ReflectionTestUtils.setField(reportService, "reportSnapshot", snapshot);
+        }
+    }
+
+    @Test
+    void outgrowingMaxRowsWaitsForTheNightlyReload() {
+        JdbcTemplate jdbc = spy(jdbcTemplate);
+        ReportSnapshot small = new ReportSnapshot(jdbc, true, ROWS / 2, 64, 0, 1);
+        try {
+            small.refresh();
+            assertFalse(small.isReady());
+
+            // Later refreshes do not retry the load that is bound to fail again
+            clearInvocations(jdbc);
+            small.refresh();
+            small.refresh();
+            verifyNoInteractions(jdbc);
+
+            small.scheduledReload();
+            assertFalse(mockingDetails(jdbc).getInvocations().isEmpty());
+            assertFalse(small.isReady());
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    private void insertReservation(long id) {
+        int hour = 7 + random.nextInt(12);
+        LocalDateTime created = today.minusDays(random.nextInt(60)).atTime(random.nextInt(24), random.nextInt(60));
+        jdbcTemplate.update(INSERT_RESERVATION, id,
+                userIds.get(random.nextInt(USERS - 1)),
+                facilityIds.get(random.nextInt(FACILITIES)),
+                today.minusDays(40).plusDays(random.nextInt(46)),
+                LocalTime.of(hour, 0), LocalTime.of(hour + 1 + random.nextInt(3), 30),
+                ReservationStatus.values()[random.nextInt(ReservationStatus.values().length)].name(),
+                Timestamp.valueOf(created), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void insertBorrowing(long id) {
+        LocalDate borrowed = today.minusDays(40).plusDays(random.nextInt(46));
+        BorrowingStatus status = BorrowingStatus.values()[random.nextInt(BorrowingStatus.values().length)];
+        LocalDateTime created = today.minusDays(random.nextInt(60)).atTime(random.nextInt(24), random.nextInt(60));
+        jdbcTemplate.update(INSERT_BORROWING, id,
+                userIds.get(1 + random.nextInt(USERS - 1)),
+                equipmentIds.get(random.nextInt(EQUIPMENT)),
+                borrowed, borrowed.plusDays(1 + random.nextInt(7)),
+                status == BorrowingStatus.RETURNED ? borrowed.plusDays(random.nextInt(9)) : null,
+                status.name(), Timestamp.valueOf(created), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // The same reports with the snapshot swapped for one that never loads
+    private Map<String, Object> sqlReports() {
+        ReportSnapshot unloaded = new ReportSnapshot(null, false, 10, 10, 0, 1);
+        ReflectionTestUtils.setField(reportService, "reportSnapshot", unloaded);
+        try {
+            return reports();
+        } finally {
+            ReflectionTestUtils.setField(reportService, "reportSnapshot", snapshot);
+            unloaded.shutdown();
+        }
+    }
+
+    private Map<String, Object> reports() {
+        Map<String, Object> reports = new LinkedHashMap<>();
+        reports.put("dashboard", reportService.getDashboardStats());
+        reports.put("facilityUsage", reportService.getFacilityUsageStats());
+        reports.put("equipmentUsage", reportService.getEquipmentUsageStats());
+        reports.put("userActivity", reportService.getUserActivityStats());
+        for (String bucket : new String[]{"day", "week", "month"}) {
+            reports.put("daily/" + bucket, reportService.getDailyReservations(today.minusDays(45), today.plusDays(7), bucket));
+        }
+        reports.put("facilityReport", reportService.getFacilityReport());
+        reports.put("equipmentReport", reportService.getEquipmentReport());
+        for (String sort : SORTS) {
+            for (String direction : new String[]{"asc", "desc"}) {
+                reports.put("users/" + sort + "/" + direction,
+                        reportService.getUserActivityReport(null, null, sort, direction));
+                reports.put("users/" + sort + "/" + direction + "/page1",
+                        reportService.getUserActivityReport(1, 3, sort, direction));
+            }
+        }
+        reports.put("userCount", reportService.countUserActivityReport());
+        return reports;
+    }
+}
@@ -0,0 +1,81 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.FacilityReservationDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * What the conflict index keeps: days inside the booking horizon up to its size cap, and never a
+ * day whose load raced with a committed update.
+ */
+class ReservationConflictIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    void onlyDaysInsideTheHorizonAreCached() {
+        ReservationConflictIndex index = new ReservationConflictIndex(30, 1000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            index.getReservations(1L, TODAY.plusDays(30), () -> load(loads));
+            index.getReservations(1L, TODAY.plusDays(31), () -> load(loads));
+            index.getReservations(1L, TODAY.minusDays(1), () -> load(loads));
+        }
+
+        // Loaded once inside the horizon, on every read outside it
+        assertEquals(5, loads.get());
+        assertEquals(1, index.cachedDays());
+    }
+
+    @Test
+    void cacheStopsGrowingAtMaxDays() {
+        ReservationConflictIndex index = new ReservationConflictIndex(30, 3);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (long facilityId = 1; facilityId <= 10; facilityId++) {
+            index.getReservations(facilityId, TODAY, () -> load(loads));
+        }
+        index.getReservations(10L, TODAY, () -> load(loads));
+
+        assertEquals(3, index.cachedDays());
+        assertEquals(11, loads.get());
+    }
+
+    @Test
+    void loadThatRacedWithAnUpdateIsNotCached() {
+        ReservationConflictIndex index = new ReservationConflictIndex(30, 1000);
+        FacilityReservationDTO committed = reservation(1L, "09:00:00", "10:00:00");
+
+        // The reservation commits while the day is being read, after the query saw the table
+        List<FacilityReservationDTO> loaded = index.getReservations(1L, TODAY, () -> {
+            index.update(committed);
+            return List.of();
+        });
+        assertTrue(loaded.isEmpty());
+        assertEquals(0, index.cachedDays());
+
+        // The next read loads the day again and sees it
+        assertTrue(index.hasConflict(1L, TODAY, LocalTime.of(9, 30), LocalTime.of(10, 30), () -> List.of(committed)));
+        assertEquals(1, index.cachedDays());
+        assertFalse(index.hasConflict(1L, TODAY, LocalTime.of(10, 0), LocalTime.of(11, 0), List::of));
+    }
+
+    private static List<FacilityReservationDTO> load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of();
+    }
+
+    private static FacilityReservationDTO reservation(Long id, String start, String end) {
+        return new FacilityReservationDTO(id, 7L, "Student", 1L, "Hall A", TODAY.toString(), start, end,
+                "Meeting", "PENDING", null, null);
+    }
+}
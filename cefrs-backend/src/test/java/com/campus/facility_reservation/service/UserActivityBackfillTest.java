@@ -0,0 +1,167 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.DashboardStatsDTO;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.FacilityRepository;
+import com.campus.facility_reservation.repository.JobLockRepository;
+import com.campus.facility_reservation.repository.RoleRepository;
+import com.campus.facility_reservation.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The start-up backfill runs until its done row is written, however many counters rows already
+ * exist, then never again; it skips while another instance holds the job.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({UserActivityCounterService.class, JobRunLock.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserActivityBackfillTest {
+
+    @Autowired
+    private UserActivityCounterService counters;
+
+    @Autowired
+    private JobRunLock jobRunLock;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+
+    private long userId;
+    private long earlyId;
+    private long facilityId;
+
+    @BeforeEach
+    void setUp() {
+        // The context's own start-up backfill already ran, against an empty database
+        jobLockRepository.deleteById(UserActivityCounterService.DONE_MARKER);
+        Role role = roleRepository.save(new Role(RoleType.STUDENT, "Student"));
+        userId = user(role, "backfill@campus.test");
+        earlyId = user(role, "early@campus.test");
+        Facility facility = new Facility();
+        facility.setName("Room 1");
+        facility.setType(Facility.FacilityType.values()[0]);
+        facility.setCapacity(30);
+        facilityId = facilityRepository.save(facility).getId();
+        reservation(userId, "APPROVED");
+        reservation(userId, "PENDING");
+        // A request that came in before the backfill ran, so the table is no longer empty
+        reservation(earlyId, "PENDING");
+        counter(earlyId, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DELETE FROM facility_reservation");
+        jdbcTemplate.execute("DELETE FROM user_activity_counters");
+        facilityRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void backfillRunsUntilItsDoneRowIsWritten() {
+        counters.backfillOnce();
+
+        assertEquals(new DashboardStatsDTO(1L, 0L, 1L, 2L), counters.getStats(userId));
+        assertEquals(new DashboardStatsDTO(0L, 0L, 1L, 1L), counters.getStats(earlyId));
+        assertTrue(jobLockRepository.existsById(UserActivityCounterService.DONE_MARKER));
+
+        // Done once: drift from here on is left to the status moves
+        reservation(userId, "PENDING");
+        counters.backfillOnce();
+        assertEquals(new DashboardStatsDTO(1L, 0L, 1L, 2L), counters.getStats(userId));
+    }
+
+    @Test
+    void skipsWhileAnotherInstanceBackfills() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> otherInstance = CompletableFuture.supplyAsync(() ->
+                jobRunLock.runExclusively(UserActivityCounterService.JOB_NAME, () -> {
+                    holding.countDown();
+                    await(release);
+                }));
+        assertTrue(holding.await(10, TimeUnit.SECONDS));
+
+        counters.backfillOnce();
+        assertEquals(new DashboardStatsDTO(0L, 0L, 0L, 0L), counters.getStats(userId));
+        assertFalse(jobLockRepository.existsById(UserActivityCounterService.DONE_MARKER));
+
+        // The other instance stopped without writing the done row, so the next start runs it
+        release.countDown();
+        assertTrue(otherInstance.get(10, TimeUnit.SECONDS));
+        counters.backfillOnce();
+        assertEquals(new DashboardStatsDTO(1L, 0L, 1L, 2L), counters.getStats(userId));
+    }
+
+    private long user(Role role, String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setFirstName("Back");
+        user.setLastName("Fill");
+        user.setAddress("Campus");
+        user.setRole(role);
+        return userRepository.save(user).getId();
+    }
+
+    private void reservation(long ownerId, String status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO facility_reservation (user_id, facility_id, reservation_date, start_time, " +
+                "end_time, purpose, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 'Class', ?, ?, ?)",
+                ownerId, facilityId, Date.valueOf(LocalDate.of(2030, 1, 7)), Time.valueOf("09:00:00"),
+                Time.valueOf("10:00:00"), status, now, now);
+    }
+
+    private void counter(long ownerId, long total, long pending) {
+        jdbcTemplate.update("INSERT INTO user_activity_counters (user_id, reservations_total, reservations_pending, " +
+                "reservations_approved, borrowings_total, borrowings_pending, borrowings_borrowed, updated_at) " +
+                "VALUES (?, ?, ?, 0, 0, 0, 0, ?)", ownerId, total, pending, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.campus.facility_reservation.service;
+
+import com.campus.facility_reservation.dto.DashboardStatsDTO;
+import com.campus.facility_reservation.model.Equipment;
+import com.campus.facility_reservation.model.EquipmentBorrowing.BorrowingStatus;
+import com.campus.facility_reservation.model.Facility;
+import com.campus.facility_reservation.model.FacilityReservation.ReservationStatus;
+import com.campus.facility_reservation.model.Role;
+import com.campus.facility_reservation.model.RoleType;
+import com.campus.facility_reservation.model.User;
+import com.campus.facility_reservation.repository.UserActivityCountersRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The counters follow every status move of a user's reservations and borrowings, the rebuild
+ * recounts them from the source tables, and the stats endpoint still tells a user with no
+ * requests yet (zeros) from a user that does not exist.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({UserActivityCounterService.class, DashboardService.class, JobRunLock.class})
+class UserActivityCounterServiceTest {
+
+    @Autowired
+    private UserActivityCounterService counters;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private UserActivityCountersRepository countersRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Role role;
+
+    @BeforeEach
+    void setUp() {
+        role = entityManager.persist(new Role(RoleType.STUDENT, "Student"));
+    }
+
+    @Test
+    void statusMovesAddUp() {
+        long userId = user("mover@campus.test");
+        // Two reservations: one approved then completed, one rejected
+        counters.recordReservation(userId, null, ReservationStatus.PENDING);
+        counters.recordReservation(userId, null, ReservationStatus.PENDING);
+        assertEquals(new DashboardStatsDTO(0L, 0L, 2L, 2L), stats(userId));
+        counters.recordReservation(userId, ReservationStatus.PENDING, ReservationStatus.APPROVED);
+        counters.recordReservation(userId, ReservationStatus.PENDING, ReservationStatus.REJECTED);
+        assertEquals(new DashboardStatsDTO(1L, 0L, 0L, 2L), stats(userId));
+
+        // Borrowings: approved then borrowed, and one still pending
+        counters.recordBorrowing(userId, null, BorrowingStatus.PENDING);
+        counters.recordBorrowing(userId, null, BorrowingStatus.PENDING);
+        counters.recordBorrowing(userId, BorrowingStatus.PENDING, BorrowingStatus.APPROVED);
+        counters.recordBorrowing(userId, BorrowingStatus.APPROVED, BorrowingStatus.BORROWED);
+        assertEquals(new DashboardStatsDTO(1L, 1L, 1L, 4L), stats(userId));
+
+        counters.recordReservation(userId, ReservationStatus.APPROVED, ReservationStatus.COMPLETED);
+        counters.recordBorrowing(userId, BorrowingStatus.BORROWED, BorrowingStatus.RETURNED);
+        // No change, no write
+        counters.recordBorrowing(userId, BorrowingStatus.PENDING, BorrowingStatus.PENDING);
+        assertEquals(new DashboardStatsDTO(0L, 0L, 1L, 4L), stats(userId));
+
+        // Another user's row is separate
+        long otherId = user("other@campus.test");
+        counters.recordBorrowing(otherId, null, BorrowingStatus.PENDING);
+        assertEquals(new DashboardStatsDTO(0L, 0L, 1L, 1L), stats(otherId));
+        assertEquals(new DashboardStatsDTO(0L, 0L, 1L, 4L), stats(userId));
+    }
+
+    @Test
+    void rebuildRecountsFromTheSourceTables() {
+        long userId = user("rebuild@campus.test");
+        long quietId = user("quiet@campus.test");
+        long facilityId = facility();
+        long equipmentId = equipment();
+        for (ReservationStatus status : ReservationStatus.values()) {
+            reservation(userId, facilityId, status);
+        }
+        reservation(userId, facilityId, ReservationStatus.APPROVED);
+        for (BorrowingStatus status : BorrowingStatus.values()) {
+            borrowing(userId, equipmentId, status);
+        }
+        borrowing(userId, equipmentId, BorrowingStatus.PENDING);
+        // Drifted, and a row for a user whose requests are all gone
+        countersRepository.addDeltas(userId, 3, -1, 9, 0, 0, 2);
+        countersRepository.addDeltas(quietId, 1, 1, 0, 0, 0, 0);
+
+        countersRepository.rebuildAll();
+
+        // 6 reservations (2 approved, 1 pending) and 7 borrowings (1 borrowed, 2 pending)
+        assertEquals(new DashboardStatsDTO(2L, 1L, 3L, 13L), stats(userId));
+        // Rows are only rebuilt for users with requests; others keep what they had
+        assertEquals(new DashboardStatsDTO(0L, 0L, 1L, 1L), stats(quietId));
+    }
+
+    @Test
+    void statsForUnknownUserAreRefused() {
+        long userId = user("new@campus.test");
+        assertEquals(new DashboardStatsDTO(0L, 0L, 0L, 0L), userStats(userId));
+
+        counters.recordReservation(userId, null, ReservationStatus.PENDING);
+        assertEquals(new DashboardStatsDTO(0L, 0L, 1L, 1L), userStats(userId));
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> dashboardService.getUserStats(userId + 100));
+        assertEquals("User not found", missing.getMessage());
+    }
+
+    // Each read starts from a fresh persistence context, as a separate request would
+    private DashboardStatsDTO stats(long userId) {
+        entityManager.clear();
+        return counters.getStats(userId);
+    }
+
+    private DashboardStatsDTO userStats(long userId) {
+        entityManager.clear();
+        return dashboardService.getUserStats(userId);
+    }
+
+    private long user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setFirstName("Count");
+        user.setLastName("Er");
+        user.setAddress("Campus");
+        user.setRole(role);
+        return entityManager.persistAndFlush(user).getId();
+    }
+
+    private long facility() {
+        Facility facility = new Facility();
+        facility.setName("Room 1");
+        facility.setType(Facility.FacilityType.values()[0]);
+        facility.setCapacity(30);
+        return entityManager.persistAndFlush(facility).getId();
+    }
+
+    private long equipment() {
+        Equipment equipment = new Equipment();
+        equipment.setName("Projector");
+        equipment.setCategory(Equipment.EquipmentCategory.PROJECTOR);
+        equipment.setQuantityTotal(5);
+        equipment.setQuantityAvailable(5);
+        return entityManager.persistAndFlush(equipment).getId();
+    }
+
+    private void reservation(long userId, long facilityId, ReservationStatus status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO facility_reservation (user_id, facility_id, reservation_date, start_time, " +
+                "end_time, purpose, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 'Class', ?, ?, ?)",
+                userId, facilityId, Date.valueOf(LocalDate.of(2030, 1, 7)), Time.valueOf("09:00:00"),
+                Time.valueOf("10:00:00"), status.name(), now, now);
+    }
+
+    private void borrowing(long userId, long equipmentId, BorrowingStatus status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date day = Date.valueOf(LocalDate.of(2030, 1, 7));
+        jdbcTemplate.update("INSERT INTO equipment_borrowing (user_id, equipment_id, quantity, borrow_date, " +
+                "expected_return_date, purpose, status, created_at, updated_at) VALUES (?, ?, 1, ?, ?, 'Talk', ?, ?, ?)",
+                userId, equipmentId, day, day, status.name(), now, now);
+    }
+}
@@ -46,6 +46,8 @@ export class Equipment implements OnInit, OnDestroy {
   };
 
   equipment: EquipmentItem[] = [];
+  // Cursor of the next page of equipment; null once the last page is loaded
+  nextCursor: string | null = null;
 
   // Search and filters
   selectedCategory: string = 'All Categories';
@@ -63,13 +65,26 @@ export class Equipment implements OnInit, OnDestroy {
     this.destroy$.complete();
   }
 
+  // Reloads from the first page, dropping any pages loaded before
   loadEquipment(): void {
+    this.equipment = [];
+    this.nextCursor = null;
+    this.fetchEquipment(null);
+  }
+
+  loadMoreEquipment(): void {
+    if (this.nextCursor && !this.isLoading) {
+      this.fetchEquipment(this.nextCursor);
+    }
+  }
+
+  private fetchEquipment(cursor: string | null): void {
     this.isLoading = true;
-    this.equipmentService.getAllEquipment()
+    this.equipmentService.getEquipmentPage(cursor)
       .pipe(takeUntil(this.destroy$))
       .subscribe({
-        next: (equipmentList) => {
-          this.equipment = equipmentList.map(e => ({
+        next: (response) => {
+          this.equipment.push(...response.data.map(e => ({
             id: e.id,
             name: e.name,
             category: e.category,
@@ -78,7 +93,8 @@ export class Equipment implements OnInit, OnDestroy {
             description: e.description,
             imageUrl: e.imageUrl,
             status: e.status
-          }));
+          })));
+          this.nextCursor = response.page?.nextCursor ?? null;
           this.isLoading = false;
           console.log('Equipment loaded:', this.equipment);
         },
@@ -49,6 +49,8 @@ export class Facilities implements OnInit, OnDestroy {
   };
 
   facilities: Facility[] = [];
+  // Cursor of the next page of facilities; null once the last page is loaded
+  nextCursor: string | null = null;
   selectedStatus: string = 'All Status';
 
   constructor(private facilityService: FacilityService) { }
@@ -62,13 +64,26 @@ export class Facilities implements OnInit, OnDestroy {
     this.destroy$.complete();
   }
 
+  // Reloads from the first page, dropping any pages loaded before
   loadFacilities(): void {
+    this.facilities = [];
+    this.nextCursor = null;
+    this.fetchFacilities(null);
+  }
+
+  loadMoreFacilities(): void {
+    if (this.nextCursor && !this.isLoading) {
+      this.fetchFacilities(this.nextCursor);
+    }
+  }
+
+  private fetchFacilities(cursor: string | null): void {
     this.isLoading = true;
-    this.facilityService.getAllFacilities()
+    this.facilityService.getFacilitiesPage(cursor)
       .pipe(takeUntil(this.destroy$))
       .subscribe({
-        next: (facilities) => {
-          this.facilities = facilities.map(f => ({
+        next: (response) => {
+          this.facilities.push(...response.data.map(f => ({
             id: f.id,
             name: f.name,
             type: f.type,
@@ -78,7 +93,8 @@ export class Facilities implements OnInit, OnDestroy {
             description: f.description,
             status: f.status,
             imageUrl: f.imageUrl
-          }));
+          })));
+          this.nextCursor = response.page?.nextCursor ?? null;
           this.isLoading = false;
           console.log('Facilities loaded:', this.facilities);
         },
@@ -1,9 +1,10 @@
 import { Component, OnInit } from '@angular/core';
 import { CommonModule, TitleCasePipe } from '@angular/common';
 import { FormsModule } from '@angular/forms';
-import { forkJoin } from 'rxjs';
+import { forkJoin, Observable, of } from 'rxjs';
 import { ReservationService, Reservation } from '../../../../services/reservation.service';
 import { EquipmentBorrowingService, EquipmentBorrowing } from '../../../../services/equipment-borrowing.service';
+import { PagedResponse } from '../../../../services/paging';
 
 interface UnifiedRequest {
   id: number;
@@ -48,6 +49,9 @@ export class ManageRequest implements OnInit {
   sendNotification: boolean = true;
   
   allRequests: UnifiedRequest[] = [];
+  // Cursors of the next reservation and borrowing pages; null once that list is fully loaded
+  reservationsCursor: string | null = null;
+  borrowingsCursor: string | null = null;
   loading = false;
   actionLoading = false;
   error: string | null = null;
@@ -62,20 +66,45 @@ export class ManageRequest implements OnInit {
     this.loadAllRequests();
   }
 
+  // Reloads the first page of reservations and of borrowings, dropping any pages loaded before
   loadAllRequests(): void {
+    this.allRequests = [];
+    this.reservationsCursor = null;
+    this.borrowingsCursor = null;
+    this.fetchRequests(
+      this.reservationService.getReservationsPage(),
+      this.borrowingService.getBorrowingsPage()
+    );
+  }
+
+  get hasMoreRequests(): boolean {
+    return this.reservationsCursor !== null || this.borrowingsCursor !== null;
+  }
+
+  // Next page of whichever lists still have one
+  loadMoreRequests(): void {
+    if (!this.hasMoreRequests || this.loading) return;
+    this.fetchRequests(
+      this.reservationsCursor ? this.reservationService.getReservationsPage(this.reservationsCursor) : of(null),
+      this.borrowingsCursor ? this.borrowingService.getBorrowingsPage(this.borrowingsCursor) : of(null)
+    );
+  }
+
+  private fetchRequests(
+    reservationsPage: Observable<PagedResponse<Reservation> | null>,
+    borrowingsPage: Observable<PagedResponse<EquipmentBorrowing> | null>
+  ): void {
     this.loading = true;
     this.error = null;
 
     // Load both reservations and equipment borrowings
     forkJoin({
-      reservations: this.reservationService.getAllReservations(),
-      borrowings: this.borrowingService.getAllBorrowings()
+      reservations: reservationsPage,
+      borrowings: borrowingsPage
     }).subscribe({
       next: ({ reservations, borrowings }) => {
-        this.allRequests = [];
-
         // Convert reservations to unified format
-        if (reservations.success && reservations.data) {
+        if (reservations?.success && reservations.data) {
           const reservationRequests: UnifiedRequest[] = reservations.data.map((r: Reservation) => ({
             id: r.id,
             type: 'facility',
@@ -93,10 +122,11 @@ export class ManageRequest implements OnInit {
             createdAt: r.createdAt
           }));
           this.allRequests.push(...reservationRequests);
+          this.reservationsCursor = reservations.page?.nextCursor ?? null;
         }
 
         // Convert equipment borrowings to unified format
-        if (borrowings.success && borrowings.data) {
+        if (borrowings?.success && borrowings.data) {
           const borrowingRequests: UnifiedRequest[] = borrowings.data.map((b: EquipmentBorrowing) => ({
             id: b.id,
             type: 'equipment',
@@ -114,6 +144,7 @@ export class ManageRequest implements OnInit {
             createdAt: b.createdAt
           }));
           this.allRequests.push(...borrowingRequests);
+          this.borrowingsCursor = borrowings.page?.nextCursor ?? null;
         }
 
         this.loading = false;
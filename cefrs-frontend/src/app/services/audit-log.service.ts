@@ -1,6 +1,8 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { map } from 'rxjs/operators';
+import { PagedResponse, pageParams } from './paging';
 
 export interface AuditLog {
   logId: number;
@@ -16,6 +18,12 @@ export interface AuditLog {
   createdAt: string;
 }
 
+// One page of logs; pass nextCursor back to fetch the next one (null on the last page)
+export interface AuditLogPage {
+  logs: AuditLog[];
+  nextCursor: string | null;
+}
+
 @Injectable({
   providedIn: 'root'
 })
@@ -28,8 +36,18 @@ export class AuditLogService {
     return this.http.get<AuditLog[]>(`${this.apiUrl}/my-logs`);
   }
 
-  getAllAuditLogs(): Observable<AuditLog[]> {
-    return this.http.get<AuditLog[]>(`${this.apiUrl}/all`);
+  // Newest first, one page at a time; pass the previous page's nextCursor to continue
+  getAllAuditLogs(cursor?: string | null, limit?: number): Observable<AuditLogPage> {
+    return this.http.get<PagedResponse<AuditLog>>(`${this.apiUrl}/all`, { params: pageParams(cursor, limit) })
+      .pipe(map(toAuditLogPage));
+  }
+
+  // Any of userId, actionType, tableName, recordId, from, to (ISO date or date-time, to is exclusive)
+  searchAuditLogs(filters: Record<string, string | number>, cursor?: string | null, limit?: number): Observable<AuditLogPage> {
+    let params = pageParams(cursor, limit);
+    Object.entries(filters).forEach(([key, value]) => params = params.set(key, String(value)));
+    return this.http.get<PagedResponse<AuditLog>>(`${this.apiUrl}/search`, { params })
+      .pipe(map(toAuditLogPage));
   }
 
   getAuditLogsByAction(actionType: string): Observable<AuditLog[]> {
@@ -41,3 +59,6 @@ export class AuditLogService {
   }
 }
 
+function toAuditLogPage(response: PagedResponse<AuditLog>): AuditLogPage {
+  return { logs: response.data, nextCursor: response.page?.nextCursor ?? null };
+}
@@ -72,6 +72,16 @@ export class AuthService {
 
   logout(): void {
     console.log('Logging out user');
+    // Revoke both tokens server-side; local state is cleared either way
+    const accessToken = this.getToken();
+    if (accessToken) {
+      const refreshToken = localStorage.getItem('refreshToken');
+      this.http.post(`${this.apiUrl}/logout`, { refreshToken }, {
+        headers: { Authorization: `Bearer ${accessToken}` }
+      }).subscribe({
+        error: (error) => console.error('Logout error:', error)
+      });
+    }
     localStorage.removeItem('accessToken');
     localStorage.removeItem('refreshToken');
     localStorage.removeItem('userId');
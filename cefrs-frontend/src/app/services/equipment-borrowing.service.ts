@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { PagedResponse, pageParams } from './paging';
 
 interface ApiResponse<T> {
   success: boolean;
@@ -57,8 +58,9 @@ export class EquipmentBorrowingService {
   }
 
   // Admin methods
-  getAllBorrowings(): Observable<ApiResponse<EquipmentBorrowing[]>> {
-    return this.http.get<ApiResponse<EquipmentBorrowing[]>>(`${this.apiUrl}`);
+  // One page of all borrowings, newest first
+  getBorrowingsPage(cursor?: string | null, limit?: number): Observable<PagedResponse<EquipmentBorrowing>> {
+    return this.http.get<PagedResponse<EquipmentBorrowing>>(`${this.apiUrl}`, { params: pageParams(cursor, limit) });
   }
 
   getPendingBorrowings(): Observable<ApiResponse<EquipmentBorrowing[]>> {
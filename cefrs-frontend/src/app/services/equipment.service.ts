@@ -2,6 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { map } from 'rxjs/operators';
+import { PagedResponse, pageParams } from './paging';
 
 export interface EquipmentDTO {
   id: number;
@@ -45,11 +46,12 @@ export class EquipmentService {
     });
   }
 
-  // Get all equipment
-  getAllEquipment(): Observable<EquipmentDTO[]> {
-    return this.http.get<ApiResponse<EquipmentDTO[]>>(this.apiUrl, {
-      headers: this.getHeaders()
-    }).pipe(map(response => response.data));
+  // One page of equipment; pass the previous page's nextCursor to continue
+  getEquipmentPage(cursor?: string | null, limit?: number): Observable<PagedResponse<EquipmentDTO>> {
+    return this.http.get<PagedResponse<EquipmentDTO>>(this.apiUrl, {
+      headers: this.getHeaders(),
+      params: pageParams(cursor, limit)
+    });
   }
 
   // Get available equipment
@@ -2,6 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { map } from 'rxjs/operators';
+import { PagedResponse, pageParams } from './paging';
 
 export interface FacilityDTO {
     id: number;
@@ -37,11 +38,12 @@ export class FacilityService {
         });
     }
 
-    // Get all facilities
-    getAllFacilities(): Observable<FacilityDTO[]> {
-        return this.http.get<ApiResponse<FacilityDTO[]>>(this.apiUrl, {
-            headers: this.getHeaders()
-        }).pipe(map(response => response.data));
+    // One page of facilities; pass the previous page's nextCursor to continue
+    getFacilitiesPage(cursor?: string | null, limit?: number): Observable<PagedResponse<FacilityDTO>> {
+        return this.http.get<PagedResponse<FacilityDTO>>(this.apiUrl, {
+            headers: this.getHeaders(),
+            params: pageParams(cursor, limit)
+        });
     }
 
     // Get available facilities
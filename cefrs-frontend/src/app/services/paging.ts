@@ -0,0 +1,22 @@
+import { HttpParams } from '@angular/common/http';
+
+// Sent by the list endpoints alongside data; nextCursor is null on the last page
+export interface PageInfo {
+  nextCursor: string | null;
+  hasMore: boolean;
+  limit: number;
+}
+
+export interface PagedResponse<T> {
+  success: boolean;
+  message: string;
+  data: T[];
+  page?: PageInfo;
+}
+
+export function pageParams(cursor?: string | null, limit?: number): HttpParams {
+  let params = new HttpParams();
+  if (cursor) params = params.set('cursor', cursor);
+  if (limit) params = params.set('limit', String(limit));
+  return params;
+}
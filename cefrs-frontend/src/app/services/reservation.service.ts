@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { PagedResponse, pageParams } from './paging';
 
 interface ApiResponse<T> {
   success: boolean;
@@ -66,8 +67,9 @@ export class ReservationService {
   }
 
   // Admin methods
-  getAllReservations(): Observable<ApiResponse<Reservation[]>> {
-    return this.http.get<ApiResponse<Reservation[]>>(`${this.apiUrl}`);
+  // One page of all reservations, newest first
+  getReservationsPage(cursor?: string | null, limit?: number): Observable<PagedResponse<Reservation>> {
+    return this.http.get<PagedResponse<Reservation>>(`${this.apiUrl}`, { params: pageParams(cursor, limit) });
   }
 
   getPendingReservations(): Observable<ApiResponse<Reservation[]>> {